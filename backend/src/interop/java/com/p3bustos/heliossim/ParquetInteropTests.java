@@ -0,0 +1,161 @@
+package com.p3bustos.heliossim;
+
+import com.p3bustos.heliossim.config.SimulatorProperties.Export.Compression;
+import com.p3bustos.heliossim.domain.models.TelemetryFrame;
+import com.p3bustos.heliossim.infrastructure.export.ParquetDatasetWriter;
+import org.apache.parquet.column.page.PageReadStore;
+import org.apache.parquet.column.statistics.Statistics;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.convert.GroupRecordConverter;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.io.ColumnIOFactory;
+import org.apache.parquet.io.LocalInputFile;
+import org.apache.parquet.io.RecordReader;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.LogicalTypeAnnotation.TimeUnit;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType;
+import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
+import org.apache.parquet.schema.Type.Repetition;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Reads exported files back with parquet-mr, the reference Java implementation,
+ * instead of the minimal reader in {@link ParquetExportTests}
+ */
+class ParquetInteropTests {
+
+    private static final long T0 = 1_750_000_000_000L;
+    private static final String[] VALUE_COLUMNS = {
+        "solar_production_kw", "irradiance_w_m2", "panel_temp_c",
+        "soc_percent", "battery_power_kw", "battery_voltage_v", "battery_current_a",
+        "load_consumption_kw", "grid_power_kw",
+        "solar_to_load_kw", "solar_to_battery_kw", "solar_to_grid_kw", "battery_to_load_kw", "grid_to_load_kw"
+    };
+
+    @TempDir
+    Path directory;
+
+    @ParameterizedTest
+    @EnumSource(Compression.class)
+    void parquetMrReadsEveryRowSchemaAndStatistic(Compression compression) throws IOException {
+        Map<String, List<TelemetryFrame>> written = new TreeMap<>();
+        SplittableRandom random = new SplittableRandom(42);
+        try (ParquetDatasetWriter writer = new ParquetDatasetWriter(directory, compression, 1_000, 256L << 20, 16)) {
+            for (int i = 0; i < 3_000; i++) {
+                for (int s = 0; s < 2; s++) {
+                    TelemetryFrame frame = frame(s, T0 + i * 10_000L, random);
+                    writer.write(frame);
+                    written.computeIfAbsent(frame.getSiteId(), id -> new ArrayList<>()).add(frame);
+                }
+            }
+        }
+
+        Map<String, List<TelemetryFrame>> read = new TreeMap<>();
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(directory)) {
+            files = walk.filter(p -> p.toString().endsWith(".parquet")).sorted().toList();
+        }
+        assertFalse(files.isEmpty());
+        for (Path file : files) {
+            String siteId = file.getParent().getParent().getFileName().toString().substring("site_id=".length());
+            readFile(file, siteId, read.computeIfAbsent(siteId, id -> new ArrayList<>()));
+        }
+        assertEquals(written, read);
+    }
+
+    private static void readFile(Path file, String siteId, List<TelemetryFrame> out) throws IOException {
+        try (ParquetFileReader reader = ParquetFileReader.open(new LocalInputFile(file))) {
+            MessageType schema = reader.getFooter().getFileMetaData().getSchema();
+            assertEquals(1 + VALUE_COLUMNS.length, schema.getFieldCount());
+
+            PrimitiveType time = schema.getType(0).asPrimitiveType();
+            assertEquals("time", time.getName());
+            assertEquals(PrimitiveTypeName.INT64, time.getPrimitiveTypeName());
+            assertEquals(Repetition.REQUIRED, time.getRepetition());
+            assertEquals(LogicalTypeAnnotation.timestampType(true, TimeUnit.MILLIS), time.getLogicalTypeAnnotation());
+            for (int c = 0; c < VALUE_COLUMNS.length; c++) {
+                PrimitiveType column = schema.getType(c + 1).asPrimitiveType();
+                assertEquals(VALUE_COLUMNS[c], column.getName());
+                assertEquals(PrimitiveTypeName.DOUBLE, column.getPrimitiveTypeName());
+                assertEquals(Repetition.REQUIRED, column.getRepetition());
+            }
+
+            List<BlockMetaData> blocks = reader.getFooter().getBlocks();
+            ColumnIOFactory columnIO = new ColumnIOFactory();
+            PageReadStore rowGroup;
+            int block = 0;
+            while ((rowGroup = reader.readNextRowGroup()) != null) {
+                List<ColumnChunkMetaData> chunks = blocks.get(block++).getColumns();
+                assertFalse(chunks.get(0).getStatistics().isEmpty(), "No statistics on the time column");
+
+                RecordReader<Group> records = columnIO.getColumnIO(schema)
+                        .getRecordReader(rowGroup, new GroupRecordConverter(schema));
+                for (long r = 0; r < rowGroup.getRowCount(); r++) {
+                    Group row = records.read();
+                    TelemetryFrame frame = new TelemetryFrame();
+                    frame.setSiteOrdinal(Integer.parseInt(siteId.substring("site-".length())));
+                    frame.setSiteId(siteId);
+                    frame.setEpochMilli(row.getLong("time", 0));
+                    assertWithin(chunks.get(0).getStatistics(), frame.getEpochMilli());
+                    for (int c = 0; c < VALUE_COLUMNS.length; c++) {
+                        double value = row.getDouble(VALUE_COLUMNS[c], 0);
+                        frame.setValue(c, value);
+                        if (!Double.isNaN(value)) {
+                            assertWithin(chunks.get(c + 1).getStatistics(), value);
+                        }
+                    }
+                    out.add(frame);
+                }
+            }
+            assertEquals(blocks.size(), block);
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static void assertWithin(Statistics statistics, Comparable value) {
+        if (statistics.isEmpty()) {
+            return;
+        }
+        assertTrue(statistics.genericGetMin().compareTo(value) <= 0, value + " below min " + statistics);
+        assertTrue(statistics.genericGetMax().compareTo(value) >= 0, value + " above max " + statistics);
+    }
+
+    private static TelemetryFrame frame(int ordinal, long epochMilli, SplittableRandom random) {
+        TelemetryFrame frame = new TelemetryFrame();
+        frame.setSiteOrdinal(ordinal);
+        frame.setSiteId("site-" + ordinal);
+        frame.setEpochMilli(epochMilli);
+        frame.setSolarProductionKw(random.nextInt(4) == 0 ? 0 : random.nextDouble(0, 8));
+        frame.setIrradianceWM2(random.nextDouble(0, 1000));
+        frame.setPanelTempC(Math.round(random.nextDouble(-10, 60) * 10) / 10.0);
+        frame.setSocPercent(random.nextInt(10, 95));
+        frame.setBatteryPowerKw(random.nextInt(3) == 0 ? 0.0 : random.nextDouble(-5, 5));
+        frame.setBatteryVoltageV(51.2);
+        frame.setBatteryCurrentA(random.nextDouble(-100, 100));
+        frame.setLoadConsumptionKw(random.nextDouble(0.3, 4));
+        frame.setGridPowerKw(random.nextDouble(-5, 5));
+        frame.setSolarToLoadKw(random.nextDouble(0, 4));
+        frame.setSolarToBatteryKw(random.nextDouble(0, 4));
+        frame.setSolarToGridKw(Double.NaN);
+        frame.setBatteryToLoadKw(Double.MAX_VALUE);
+        frame.setGridToLoadKw(Double.MIN_VALUE);
+        return frame;
+    }
+}
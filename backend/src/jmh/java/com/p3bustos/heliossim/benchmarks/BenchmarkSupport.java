@@ -0,0 +1,53 @@
+package com.p3bustos.heliossim.benchmarks;
+
+import com.p3bustos.heliossim.HeliosSimApplication;
+import com.p3bustos.heliossim.dto.WeatherData;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.Instant;
+
+/**
+ * Shared fixtures for the JMH benchmarks
+ *
+ * Benchmarks run against the real application configuration, so site parameters
+ * come from {@code application.yml} exactly as they do on a node.
+ */
+final class BenchmarkSupport {
+
+    static final long SEED = 42;
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * Start a non-web application context with the scheduled tick effectively disabled
+     */
+    static ConfigurableApplicationContext startContext() {
+        return new SpringApplicationBuilder(HeliosSimApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .properties(
+                    "spring.main.banner-mode=off",
+                    "logging.level.root=WARN",
+                    "logging.level.com.p3bustos.heliossim=WARN",
+                    // Keep the scheduler from ticking concurrently with the measured code
+                    "simulator.publishing.rate-ms=3600000")
+                .run();
+    }
+
+    /**
+     * Fixed mild weather so results do not depend on the live weather feed
+     */
+    static WeatherData fixedWeather() {
+        return WeatherData.builder()
+                .timestamp(Instant.EPOCH)
+                .temperatureC(22.0)
+                .cloudCoverPercent(20.0)
+                .humidityPercent(45.0)
+                .windSpeedMs(3.0)
+                .description("benchmark")
+                .build();
+    }
+}
@@ -0,0 +1,80 @@
+package com.p3bustos.heliossim.benchmarks;
+
+import com.p3bustos.heliossim.domain.models.BatterySystem;
+import com.p3bustos.heliossim.domain.models.LoadProfile;
+import com.p3bustos.heliossim.domain.models.SiteDefinition;
+import com.p3bustos.heliossim.domain.models.SolarSystem;
+import com.p3bustos.heliossim.infrastructure.fleet.SiteRegistryLoader;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Object-model kernels: battery charge/discharge, PV production and the load curve
+ *
+ * Each invocation touches every site once, so with {@code sites=1} the score is the
+ * cost of a single call and larger values show how the object model scales with fleet size.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DomainModelBenchmarks {
+
+    @Param({"1", "10000"})
+    private int sites;
+
+    private BatterySystem[] batteries;
+    private SolarSystem[] solarSystems;
+    private LoadProfile[] loadProfiles;
+    private int hour;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<SiteDefinition> definitions;
+        try (ConfigurableApplicationContext context = BenchmarkSupport.startContext()) {
+            definitions = context.getBean(SiteRegistryLoader.class).synthetic(sites, BenchmarkSupport.SEED);
+        }
+
+        batteries = new BatterySystem[sites];
+        solarSystems = new SolarSystem[sites];
+        loadProfiles = new LoadProfile[sites];
+        for (int i = 0; i < sites; i++) {
+            batteries[i] = definitions.get(i).toBatterySystem();
+            solarSystems[i] = definitions.get(i).toSolarSystem();
+            loadProfiles[i] = definitions.get(i).toLoadProfile();
+        }
+    }
+
+    /**
+     * Charge then discharge the same power, keeping SOC near its starting point
+     * so the measurement does not drift into the saturated limits
+     */
+    @Benchmark
+    public void batteryChargeDischarge(Blackhole bh) {
+        for (BatterySystem battery : batteries) {
+            bh.consume(battery.charge(3.0, 1.0));
+            bh.consume(battery.discharge(3.0, 1.0));
+        }
+    }
+
+    @Benchmark
+    public void solarCalculateProduction(Blackhole bh) {
+        for (SolarSystem solar : solarSystems) {
+            bh.consume(solar.calculateProduction(850.0, 22.0));
+        }
+    }
+
+    @Benchmark
+    public void loadCalculateLoad(Blackhole bh) {
+        int h = hour = (hour + 1) % 24;
+        for (LoadProfile profile : loadProfiles) {
+            bh.consume(profile.calculateLoad(h));
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.p3bustos.heliossim.benchmarks;
+
+import com.p3bustos.heliossim.domain.models.BatterySystem;
+import com.p3bustos.heliossim.domain.models.EnergyBalance;
+import com.p3bustos.heliossim.domain.models.SiteDefinition;
+import com.p3bustos.heliossim.domain.services.EnergyFlowManager;
+import com.p3bustos.heliossim.infrastructure.fleet.SiteRegistryLoader;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Energy dispatch for every site, with a fresh result per call versus a reused holder
+ *
+ * Even sites run a solar surplus and odd sites a deficit, so both the charge and
+ * the discharge branches are exercised.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EnergyFlowBenchmark {
+
+    @Param({"1", "10000"})
+    private int sites;
+
+    private ConfigurableApplicationContext context;
+    private EnergyFlowManager energyFlowManager;
+    private BatterySystem[] batteries;
+    private EnergyBalance[] balances;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.startContext();
+        energyFlowManager = context.getBean(EnergyFlowManager.class);
+        List<SiteDefinition> definitions =
+            context.getBean(SiteRegistryLoader.class).synthetic(sites, BenchmarkSupport.SEED);
+
+        batteries = new BatterySystem[sites];
+        balances = new EnergyBalance[sites];
+        for (int i = 0; i < sites; i++) {
+            batteries[i] = definitions.get(i).toBatterySystem();
+            balances[i] = EnergyBalance.builder().build();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void calculateEnergyFlow(Blackhole bh) {
+        for (int i = 0; i < batteries.length; i++) {
+            bh.consume(energyFlowManager.calculateEnergyFlow(
+                batteries[i], (i & 1) == 0 ? 6.0 : 1.0, 2.5, 1.0));
+        }
+    }
+
+    @Benchmark
+    public void calculateEnergyFlowInPlace(Blackhole bh) {
+        for (int i = 0; i < batteries.length; i++) {
+            bh.consume(energyFlowManager.calculateEnergyFlow(
+                batteries[i], (i & 1) == 0 ? 6.0 : 1.0, 2.5, 1.0, balances[i]));
+        }
+    }
+}
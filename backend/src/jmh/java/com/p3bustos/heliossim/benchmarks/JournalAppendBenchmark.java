@@ -0,0 +1,80 @@
+package com.p3bustos.heliossim.benchmarks;
+
+import com.p3bustos.heliossim.domain.models.TelemetryFrame;
+import com.p3bustos.heliossim.infrastructure.journal.JournalSegmentWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Cost of appending one tick to a memory-mapped journal segment
+ *
+ * Frames drift slowly around a random walk, like live telemetry does, so the XOR
+ * encoding sees realistic change patterns. Segments roll over inside the measurement
+ * when they fill up, as they would in the running journal.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JournalAppendBenchmark {
+
+    private static final int SEGMENT_BYTES = 64 * 1024 * 1024;
+
+    @Param({"52", "32"})
+    private int mantissaBits;
+
+    private Path directory;
+    private JournalSegmentWriter segment;
+    private long sequence;
+    private final TelemetryFrame frame = new TelemetryFrame();
+    private final SplittableRandom random = new SplittableRandom(BenchmarkSupport.SEED);
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("journal-bench");
+        segment = newSegment();
+        frame.setSiteId("site-000000");
+        frame.setEpochMilli(System.currentTimeMillis());
+        frame.setSocPercent(50);
+        frame.setBatteryVoltageV(51.2);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        segment.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public long append() throws IOException {
+        if (segment.isFull()) {
+            segment.close();
+            segment = newSegment();
+        }
+        frame.setEpochMilli(frame.getEpochMilli() + 1000);
+        frame.setSolarProductionKw(Math.max(0, frame.getSolarProductionKw() + random.nextDouble(-0.05, 0.05)));
+        frame.setSocPercent(frame.getSocPercent() + random.nextDouble(-0.01, 0.01));
+        frame.setLoadConsumptionKw(1.5);
+        frame.setGridPowerKw(frame.getLoadConsumptionKw() - frame.getSolarProductionKw());
+        segment.append(frame);
+        return segment.getRecords();
+    }
+
+    private JournalSegmentWriter newSegment() throws IOException {
+        long next = sequence++;
+        return new JournalSegmentWriter(directory.resolve("segment-" + next + ".hjl"), next, SEGMENT_BYTES, mantissaBits);
+    }
+}
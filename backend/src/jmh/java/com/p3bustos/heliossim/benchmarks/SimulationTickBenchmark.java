@@ -0,0 +1,52 @@
+package com.p3bustos.heliossim.benchmarks;
+
+import com.p3bustos.heliossim.domain.services.FleetSimulator;
+import com.p3bustos.heliossim.domain.services.SimulationOrchestrator;
+import com.p3bustos.heliossim.infrastructure.fleet.SiteRegistryLoader;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The full scheduled tick, as driven by the tick scheduler on a node
+ *
+ * With {@code sites=1} this is the single-site object path; larger values load a
+ * synthetic registry so the orchestrator takes the columnar fleet path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SimulationTickBenchmark {
+
+    @Param({"1", "1000", "100000"})
+    private int sites;
+
+    private ConfigurableApplicationContext context;
+    private SimulationOrchestrator orchestrator;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkSupport.startContext();
+        orchestrator = context.getBean(SimulationOrchestrator.class);
+        orchestrator.updateWeather(BenchmarkSupport.fixedWeather());
+
+        if (sites > 1) {
+            SiteRegistryLoader registryLoader = context.getBean(SiteRegistryLoader.class);
+            context.getBean(FleetSimulator.class).loadSites(registryLoader.synthetic(sites, BenchmarkSupport.SEED));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void simulateTick() {
+        orchestrator.simulateTick(System.currentTimeMillis(), 5.0);
+    }
+}
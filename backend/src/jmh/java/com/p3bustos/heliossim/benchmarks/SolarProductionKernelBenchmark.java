@@ -0,0 +1,62 @@
+package com.p3bustos.heliossim.benchmarks;
+
+import com.p3bustos.heliossim.domain.kernels.SolarProductionKernel;
+import com.p3bustos.heliossim.domain.models.FleetState;
+import com.p3bustos.heliossim.domain.models.SiteDefinition;
+import com.p3bustos.heliossim.infrastructure.fleet.SiteRegistryLoader;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scalar versus SIMD fleet production kernel over the whole fleet
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class SolarProductionKernelBenchmark {
+
+    @Param({"1000", "100000"})
+    private int sites;
+
+    @Param({"scalar", "vector"})
+    private String kernelType;
+
+    private SolarProductionKernel kernel;
+    private FleetState state;
+    private double[] irradiance;
+    private double[] ambient;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<SiteDefinition> definitions;
+        try (ConfigurableApplicationContext context = BenchmarkSupport.startContext()) {
+            definitions = context.getBean(SiteRegistryLoader.class).synthetic(sites, BenchmarkSupport.SEED);
+        }
+        state = new FleetState(definitions);
+        kernel = "vector".equals(kernelType) ? SolarProductionKernel.best() : SolarProductionKernel.scalar();
+        if (!kernel.name().startsWith(kernelType)) {
+            throw new IllegalStateException("Requested " + kernelType + " kernel but got " + kernel.name());
+        }
+
+        SplittableRandom random = new SplittableRandom(BenchmarkSupport.SEED);
+        irradiance = new double[sites];
+        ambient = new double[sites];
+        for (int i = 0; i < sites; i++) {
+            irradiance[i] = random.nextDouble(0, 1000);
+            ambient[i] = random.nextDouble(5, 35);
+        }
+    }
+
+    @Benchmark
+    public FleetState calculateProduction() {
+        kernel.calculateProduction(state, 0, sites, irradiance, ambient);
+        return state;
+    }
+}
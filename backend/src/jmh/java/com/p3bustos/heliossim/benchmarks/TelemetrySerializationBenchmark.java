@@ -0,0 +1,113 @@
+package com.p3bustos.heliossim.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.p3bustos.heliossim.domain.models.TelemetryFrame;
+import com.p3bustos.heliossim.dto.PowerTelemetry;
+import com.p3bustos.heliossim.infrastructure.codec.BinaryTelemetryEncoder;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.ByteBuffer;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of {@link PowerTelemetry} with the application's ObjectMapper
+ * against the binary telemetry encoder
+ *
+ * {@code serialize} covers the encoder alone; {@code materializeAndSerialize} adds the
+ * DTO construction from a {@link TelemetryFrame} that happens at the publish boundary.
+ * The binary variants encode straight from the frame into a reused direct buffer;
+ * {@code binaryKeyframes} writes every frame in full, {@code binaryDeltas} measures the
+ * delta path (frames do not change between calls, so the field mask is empty).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TelemetrySerializationBenchmark {
+
+    @Param({"1", "1000"})
+    private int sites;
+
+    private ObjectMapper objectMapper;
+    private TelemetryFrame[] frames;
+    private PowerTelemetry[] telemetry;
+    private BinaryTelemetryEncoder keyframeEncoder;
+    private BinaryTelemetryEncoder deltaEncoder;
+    private ByteBuffer buffer;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        try (ConfigurableApplicationContext context = BenchmarkSupport.startContext()) {
+            objectMapper = context.getBean(ObjectMapper.class);
+        }
+
+        SplittableRandom random = new SplittableRandom(BenchmarkSupport.SEED);
+        long now = System.currentTimeMillis();
+        frames = new TelemetryFrame[sites];
+        telemetry = new PowerTelemetry[sites];
+        for (int i = 0; i < sites; i++) {
+            TelemetryFrame frame = new TelemetryFrame();
+            frame.setSiteOrdinal(i);
+            frame.setSiteId(String.format("site-%06d", i));
+            frame.setEpochMilli(now);
+            frame.setSolarProductionKw(random.nextDouble(0, 8));
+            frame.setIrradianceWM2(random.nextDouble(0, 1000));
+            frame.setPanelTempC(random.nextDouble(10, 60));
+            frame.setSocPercent(random.nextDouble(10, 95));
+            frame.setBatteryPowerKw(random.nextDouble(-5, 5));
+            frame.setBatteryVoltageV(random.nextDouble(48, 54));
+            frame.setBatteryCurrentA(random.nextDouble(-100, 100));
+            frame.setLoadConsumptionKw(random.nextDouble(0.3, 4));
+            frame.setGridPowerKw(random.nextDouble(-5, 5));
+            frame.setSolarToLoadKw(random.nextDouble(0, 4));
+            frame.setSolarToBatteryKw(random.nextDouble(0, 4));
+            frame.setSolarToGridKw(random.nextDouble(0, 4));
+            frame.setBatteryToLoadKw(random.nextDouble(0, 4));
+            frame.setGridToLoadKw(random.nextDouble(0, 4));
+            frames[i] = frame;
+            telemetry[i] = frame.toPowerTelemetry();
+        }
+
+        keyframeEncoder = new BinaryTelemetryEncoder(false, 0);
+        deltaEncoder = new BinaryTelemetryEncoder(true, Integer.MAX_VALUE);
+        buffer = ByteBuffer.allocateDirect(keyframeEncoder.maxFrameBytes());
+    }
+
+    @Benchmark
+    public void serialize(Blackhole bh) throws JsonProcessingException {
+        for (PowerTelemetry t : telemetry) {
+            bh.consume(objectMapper.writeValueAsBytes(t));
+        }
+    }
+
+    @Benchmark
+    public void materializeAndSerialize(Blackhole bh) throws JsonProcessingException {
+        for (TelemetryFrame frame : frames) {
+            bh.consume(objectMapper.writeValueAsBytes(frame.toPowerTelemetry()));
+        }
+    }
+
+    @Benchmark
+    public void binaryKeyframes(Blackhole bh) {
+        for (TelemetryFrame frame : frames) {
+            buffer.clear();
+            keyframeEncoder.encode(frame, buffer);
+            bh.consume(buffer.position());
+        }
+    }
+
+    @Benchmark
+    public void binaryDeltas(Blackhole bh) {
+        for (TelemetryFrame frame : frames) {
+            buffer.clear();
+            deltaEncoder.encode(frame, buffer);
+            bh.consume(buffer.position());
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.p3bustos.heliossim.config;
+
+import com.p3bustos.heliossim.infrastructure.jdbc.JdbcTelemetrySink;
+import com.p3bustos.heliossim.infrastructure.jdbc.TelemetryTable;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnProperty(prefix = "simulator.jdbc", name = "enabled", havingValue = "true")
+public class JdbcConfig {
+
+    /**
+     * Connection pool reserved for telemetry writes, sized to the writer threads
+     */
+    @Bean(destroyMethod = "close")
+    public HikariDataSource telemetryDataSource(SimulatorProperties properties) {
+        SimulatorProperties.Jdbc jdbc = properties.getJdbc();
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("telemetry");
+        config.setJdbcUrl(jdbc.getUrl());
+        config.setUsername(jdbc.getUsername());
+        config.setPassword(jdbc.getPassword());
+        config.setMaximumPoolSize(Math.max(1, jdbc.getPoolSize()));
+        config.setMinimumIdle(Math.max(1, jdbc.getPoolSize()));
+        config.setConnectionTimeout(jdbc.getConnectionTimeout().toMillis());
+        // Start even when the database is down; the sink buffers until it is back
+        config.setInitializationFailTimeout(-1);
+        return new HikariDataSource(config);
+    }
+
+    @Bean
+    public TelemetryTable telemetryTable(SimulatorProperties properties, HikariDataSource telemetryDataSource) {
+        SimulatorProperties.Jdbc jdbc = properties.getJdbc();
+        return new TelemetryTable(telemetryDataSource, jdbc.getTable(), jdbc.isCreateTable(), jdbc.isHypertable());
+    }
+
+    @Bean
+    public JdbcTelemetrySink jdbcTelemetrySink(SimulatorProperties properties, TelemetryTable telemetryTable,
+                                               MeterRegistry meterRegistry) {
+        return new JdbcTelemetrySink(properties.getJdbc(), telemetryTable, meterRegistry);
+    }
+}
@@ -0,0 +1,31 @@
+package com.p3bustos.heliossim.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.p3bustos.heliossim.infrastructure.codec.TelemetryPayloadEncoder;
+import com.p3bustos.heliossim.infrastructure.mqtt.MqttTelemetryPublisher;
+import com.p3bustos.heliossim.infrastructure.mqtt.MqttTransport;
+import com.p3bustos.heliossim.infrastructure.mqtt.PahoMqttTransport;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnProperty(prefix = "simulator.mqtt", name = "enabled", havingValue = "true")
+public class MqttConfig {
+    
+    @Bean
+    public MqttTransport mqttTransport(SimulatorProperties properties) {
+        return new PahoMqttTransport(properties.getMqtt());
+    }
+    
+    @Bean
+    public MqttTelemetryPublisher mqttTelemetryPublisher(SimulatorProperties properties,
+                                                         MqttTransport mqttTransport,
+                                                         ObjectMapper objectMapper,
+                                                         MeterRegistry meterRegistry) {
+        SimulatorProperties.Mqtt mqtt = properties.getMqtt();
+        TelemetryPayloadEncoder encoder = TelemetryPayloadEncoder.forConfig(mqtt, objectMapper);
+        return new MqttTelemetryPublisher(mqtt, mqttTransport, encoder, meterRegistry);
+    }
+}
@@ -3,23 +3,45 @@ package com.p3bustos.heliossim.config;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 
 @Data
 @Configuration
 @ConfigurationProperties(prefix = "simulator")
 public class SimulatorProperties {
 
+    private String siteId = "home-001";
     private Location location = new Location();
     private System system = new System();
     private Mqtt mqtt = new Mqtt();
     private Publishing publishing = new Publishing();
+    private Clock clock = new Clock();
     private Weather weather = new Weather();
+    private Fleet fleet = new Fleet();
+    private Batch batch = new Batch();
+    private Live live = new Live();
+    private History history = new History();
+    private Journal journal = new Journal();
+    private Replay replay = new Replay();
+    private Backfill backfill = new Backfill();
+    private Jdbc jdbc = new Jdbc();
+    private Export export = new Export();
 
     @Data
     public static class Location {
         private double latitude;
         private double longitude;
         private String timezone;
+        /**
+         * Grid size in degrees for sharing clear-sky tables between nearby sites
+         */
+        private double cellDegrees = 0.1;
     }
 
     @Data
@@ -59,6 +81,7 @@ public class SimulatorProperties {
 
     @Data
     public static class Mqtt {
+        private boolean enabled;
         private String brokerUrl;
         private String topic;
         private String clientId;
@@ -66,6 +89,68 @@ public class SimulatorProperties {
         private boolean retain;
         private String username;
         private String password;
+        /**
+         * Frames held between the tick thread and the publisher before backpressure applies
+         */
+        private int queueCapacity = 10_000;
+        /**
+         * Frames handed to the client per flush; a full batch flushes without waiting
+         */
+        private int batchSize = 100;
+        private Duration flushInterval = Duration.ofMillis(100);
+        private Backpressure backpressure = Backpressure.DROP_OLDEST;
+        /**
+         * Longest the tick thread waits for queue space under the BLOCK policy
+         */
+        private Duration blockTimeout = Duration.ofMillis(50);
+        private int maxInflight = 1000;
+        /**
+         * Messages Paho buffers while the connection is down, replayed on reconnect
+         */
+        private int reconnectBufferSize = 10_000;
+        private Duration connectTimeout = Duration.ofSeconds(10);
+        private PayloadFormat payloadFormat = PayloadFormat.JSON;
+        /**
+         * Binary format only: send changed fields against the previous frame of the site
+         */
+        private boolean deltaEncoding = true;
+        /**
+         * Binary format only: delta frames between two full frames of the same site
+         */
+        private int keyframeInterval = 60;
+        private ReportByException reportByException = new ReportByException();
+
+        /**
+         * Publish a site only when a field moved past its deadband, or as a heartbeat
+         */
+        @Data
+        public static class ReportByException {
+            private boolean enabled;
+            /**
+             * Longest a site goes without a message; 0 disables the heartbeat
+             */
+            private Duration maxSilence = Duration.ofSeconds(60);
+            private double powerKw = 0.05;
+            private double socPercent = 0.1;
+            private double irradianceWM2 = 5.0;
+            private double panelTempC = 0.5;
+            private double voltageV = 0.05;
+            private double currentA = 1.0;
+        }
+
+        public enum PayloadFormat {
+            /** PowerTelemetry JSON document */
+            JSON,
+            /** Versioned binary schema, see BinaryTelemetrySchema */
+            BINARY
+        }
+
+        public enum Backpressure {
+            /** Discard the oldest queued frame to make room */
+            DROP_OLDEST,
+            /** Wait up to block-timeout for room, then discard the new frame */
+            BLOCK
+        }
     }
 
     @Data
@@ -73,11 +158,332 @@ public class SimulatorProperties {
         private long rateMs;
     }
 
+    @Data
+    public static class Clock {
+        /**
+         * Run the live tick; off when the simulation is driven by an embedding application or a test
+         */
+        private boolean enabled = true;
+        /**
+         * What to do with deadlines missed by an overrunning tick
+         */
+        private OverrunPolicy overrunPolicy = OverrunPolicy.SKIP;
+        /**
+         * Missed deadlines run back to back under catch-up before the rest are skipped
+         */
+        private int maxCatchUpTicks = 10;
+        /**
+         * Busy-wait this close to a deadline instead of parking; zero always parks
+         */
+        private Duration spin = Duration.ofNanos(200_000);
+        private Duration jitterReportInterval = Duration.ofMinutes(1);
+
+        public enum OverrunPolicy {
+            SKIP,
+            CATCH_UP
+        }
+    }
+
     @Data
     public static class Weather {
+        /**
+         * openweathermap, or stub for deterministic offline weather
+         */
         private String provider;
         private String apiKey;
         private String baseUrl;
         private int cacheTtlMinutes;
+        /**
+         * Grid size in degrees; every site in a cell shares one weather fetch
+         */
+        private double cellDegrees = 0.25;
+        private long refreshIntervalMs = 900_000;
+        /**
+         * Requests per minute allowed to the provider
+         */
+        private int requestsPerMinute = 60;
+        private Duration requestTimeout = Duration.ofSeconds(10);
+        /**
+         * Ingested weather dataset that batch runs sample instead of fixed weather; blank for none
+         */
+        private String datasetFile;
+        private Ingest ingest = new Ingest();
+
+        @Data
+        public static class Ingest {
+            /**
+             * Convert {@code input} to a weather dataset at startup, then exit
+             */
+            private boolean enabled;
+            /**
+             * CSV with a time column and any of temperature, cloud cover, GHI, DNI, wind speed and humidity
+             */
+            private String input;
+            private String output;
+            /**
+             * Zone of timestamps without an offset (TMY files use local standard time, e.g. -05:00)
+             */
+            private String timezone = "UTC";
+            /**
+             * Treat the file as a typical meteorological year: ignore its years and repeat it every year
+             */
+            private boolean typicalYear;
+            private double latitude = Double.NaN;
+            private double longitude = Double.NaN;
+            private boolean exitOnCompletion = true;
+        }
+    }
+
+    @Data
+    public static class Fleet {
+        /**
+         * Site registry CSV location (e.g. file:/data/sites.csv or classpath:fleet/sites.csv).
+         * When blank the simulator runs the single configured site.
+         */
+        private String registryFile;
+        /**
+         * Worker threads used to tick shards in parallel; 0 uses all available processors
+         */
+        private int parallelism;
+        private int shardSize = 8192;
+        /**
+         * Use the SIMD production kernel when jdk.incubator.vector is available
+         */
+        private boolean vectorKernel = true;
+        /**
+         * Skip shards of dark sites with an idle battery until their load hour, weather or daylight changes
+         */
+        private boolean adaptiveStepping = true;
+        private ScalingReport scalingReport = new ScalingReport();
+
+        @Data
+        public static class ScalingReport {
+            /**
+             * Measure site-ticks/sec at increasing parallelism on a synthetic fleet at startup
+             */
+            private boolean enabled;
+            private int sites = 100_000;
+            private int ticks = 50;
+            private boolean exitOnCompletion = true;
+        }
+    }
+
+    @Data
+    public static class Batch {
+        /**
+         * Run a simulated-clock batch at startup instead of the live scheduled tick
+         */
+        private boolean enabled;
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+        private LocalDate startDate;
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+        private LocalDate endDate;
+        private Duration step = Duration.ofSeconds(1);
+        private boolean exitOnCompletion = true;
+    }
+
+    @Data
+    public static class Live {
+        /**
+         * STOMP endpoint streaming telemetry to dashboards
+         */
+        private boolean enabled = true;
+        private String endpoint = "/ws";
+        private List<String> allowedOriginPatterns = List.of("*");
+        /**
+         * Highest update rate per site a subscriber receives; clients may ask for less
+         * with a max-rate header on SUBSCRIBE
+         */
+        private double maxRateHz = 4;
+        /**
+         * Messages queued to one connection before further updates are conflated
+         */
+        private int maxPendingPerSession = 16;
+    }
+
+    @Data
+    public static class History {
+        /**
+         * Keep history; unset means on for a single site and off when a fleet registry is configured
+         */
+        private Boolean enabled;
+        /**
+         * Upper bound on memory for every site's history together; startup fails when the fleet needs more
+         */
+        private DataSize memoryBudget = DataSize.ofMegabytes(512);
+        /**
+         * Raw ticks kept per site (17280 is one day at a 5 s rate)
+         */
+        private int rawCapacity = 17_280;
+        /**
+         * 1-minute buckets kept per site (one week)
+         */
+        private int minuteCapacity = 10_080;
+        /**
+         * 15-minute buckets kept per site (90 days)
+         */
+        private int quarterHourCapacity = 8_640;
+        /**
+         * Hourly buckets kept per site (one year)
+         */
+        private int hourCapacity = 8_760;
+        /**
+         * Longest interval between two ticks that still counts towards integrated energy
+         */
+        private Duration maxIntegrationGap = Duration.ofMinutes(1);
+        /**
+         * Upper bound on points returned by one query
+         */
+        private int maxPoints = 10_000;
+    }
+
+    @Data
+    public static class Journal {
+        /**
+         * Record every tick to memory-mapped, compressed segment files
+         */
+        private boolean enabled;
+        private String directory = "data/journal";
+        private DataSize segmentSize = DataSize.ofMegabytes(64);
+        /**
+         * How often mapped pages are forced to disk; bounds the loss on power failure
+         */
+        private Duration syncInterval = Duration.ofSeconds(1);
+        /**
+         * Mantissa bits kept per value; 52 is lossless, 32 keeps ~1e-10 relative precision
+         */
+        private int mantissaBits = 32;
+    }
+
+    @Data
+    public static class Replay {
+        /**
+         * Replay a recorded journal to the MQTT and live outputs instead of simulating
+         */
+        private boolean enabled;
+        private String directory = "data/journal";
+        /**
+         * Multiple of the recorded pace; 0 or less replays as fast as possible
+         */
+        private double speed = 1.0;
+        private boolean loop;
+        /**
+         * Stamp frames with their replay time instead of the recorded time
+         */
+        private boolean rebaseTimestamps = true;
+        private boolean autoStart = true;
+    }
+
+    @Data
+    public static class Backfill {
+        /**
+         * Worker threads simulating sites in parallel; 0 uses all available processors
+         */
+        private int parallelism;
+        /**
+         * Frames simulated per batch; the writer checkpoints after every batch
+         */
+        private int batchFrames = 65_536;
+        /**
+         * Batches simulated ahead of the writer
+         */
+        private int pipelineDepth = 2;
+        private String checkpointDirectory = "data/backfill/checkpoints";
+        /**
+         * Parent directory of file outputs that do not name their own
+         */
+        private String outputDirectory = "data/backfill";
+        private Run run = new Run();
+
+        public enum Target {
+            /** Compressed journal segments, replayable with simulator.replay */
+            FILE,
+            /** The configured MQTT broker and topic */
+            MQTT,
+            /** The telemetry table of the configured database */
+            JDBC
+        }
+
+        @Data
+        public static class Run {
+            /**
+             * Run (or resume) this backfill at startup
+             */
+            private boolean enabled;
+            private String jobId = "startup";
+            /**
+             * Site ids from the fleet registry; empty means every registry site
+             */
+            private List<String> sites = new ArrayList<>();
+            /**
+             * Generate this many synthetic sites instead of using the registry
+             */
+            private int syntheticSites;
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            private LocalDate startDate;
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            private LocalDate endDate;
+            private Duration resolution = Duration.ofMinutes(1);
+            private Target target = Target.FILE;
+            private String output;
+            private boolean exitOnCompletion = true;
+        }
+    }
+
+    @Data
+    public static class Jdbc {
+        /**
+         * Insert every tick into a PostgreSQL/TimescaleDB table in batches
+         */
+        private boolean enabled;
+        private String url = "jdbc:postgresql://localhost:5432/helios";
+        private String username;
+        private String password;
+        /**
+         * Dedicated connections, one writer thread each
+         */
+        private int poolSize = 2;
+        private Duration connectionTimeout = Duration.ofSeconds(5);
+        private String table = "telemetry";
+        private boolean createTable = true;
+        /**
+         * Create the table as a TimescaleDB hypertable partitioned on time
+         */
+        private boolean hypertable;
+        /**
+         * Rows per multi-row INSERT; a full batch is written without waiting
+         */
+        private int batchSize = 1000;
+        /**
+         * Longest a partial batch waits before it is written
+         */
+        private Duration flushInterval = Duration.ofSeconds(1);
+        /**
+         * Rows buffered while the database is slow or down before the oldest are dropped
+         */
+        private int spillCapacity = 100_000;
+    }
+
+    @Data
+    public static class Export {
+        /**
+         * Parent directory of exports that do not name their own output
+         */
+        private String outputDirectory = "data/export";
+        private Compression compression = Compression.GZIP;
+        /**
+         * Rows per row group when memory allows; a day at 1 s resolution fits in one
+         */
+        private int rowGroupRows = 131_072;
+        /**
+         * Rows buffered across all open partitions before they are written out early
+         */
+        private DataSize memoryBudget = DataSize.ofMegabytes(256);
+        private int maxOpenFiles = 512;
+
+        public enum Compression {
+            NONE,
+            GZIP
+        }
     }
-}
\ No newline at end of file
+}
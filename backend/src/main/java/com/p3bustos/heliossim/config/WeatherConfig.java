@@ -0,0 +1,43 @@
+package com.p3bustos.heliossim.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.p3bustos.heliossim.infrastructure.weather.OpenWeatherMapProvider;
+import com.p3bustos.heliossim.infrastructure.weather.StubWeatherProvider;
+import com.p3bustos.heliossim.infrastructure.weather.WeatherCellCache;
+import com.p3bustos.heliossim.infrastructure.weather.WeatherProvider;
+import com.p3bustos.heliossim.infrastructure.weather.WeatherRateLimiter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Slf4j
+@Configuration
+public class WeatherConfig {
+    
+    @Bean
+    public WeatherProvider weatherProvider(SimulatorProperties properties, ObjectMapper objectMapper) {
+        SimulatorProperties.Weather weather = properties.getWeather();
+        String provider = weather.getProvider() == null ? "openweathermap" : weather.getProvider();
+        switch (provider) {
+            case "stub":
+                return new StubWeatherProvider();
+            case "openweathermap":
+                if ("demo".equals(weather.getApiKey())) {
+                    log.warn("Using demo weather data - set WEATHER_API_KEY environment variable for real data");
+                    return new StubWeatherProvider();
+                }
+                WeatherRateLimiter rateLimiter = new WeatherRateLimiter(weather.getRequestsPerMinute(), 1, System.nanoTime());
+                return new OpenWeatherMapProvider(weather.getBaseUrl(), weather.getApiKey(), weather.getRequestTimeout(),
+                    rateLimiter, objectMapper);
+            default:
+                throw new IllegalArgumentException("Unknown weather provider '" + provider + "' (openweathermap or stub)");
+        }
+    }
+    
+    @Bean
+    public WeatherCellCache weatherCellCache(SimulatorProperties properties, WeatherProvider weatherProvider) {
+        return new WeatherCellCache(weatherProvider, Duration.ofMinutes(properties.getWeather().getCacheTtlMinutes()));
+    }
+}
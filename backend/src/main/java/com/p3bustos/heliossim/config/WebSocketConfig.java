@@ -0,0 +1,80 @@
+package com.p3bustos.heliossim.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.p3bustos.heliossim.infrastructure.websocket.LiveSubscriptions;
+import com.p3bustos.heliossim.infrastructure.websocket.LiveTelemetryHub;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.broker.OrderedMessageChannelDecorator;
+import org.springframework.messaging.simp.config.ChannelRegistration;
+import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
+import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
+import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+
+/**
+ * STOMP endpoint for live dashboards
+ *
+ * Telemetry destinations under {@code /topic/sites/} are served by {@link LiveTelemetryHub}
+ * rather than the simple broker, which has no conflation and would queue every update
+ * for a slow client. Outbound messages keep per-session order so that a message counts
+ * as delivered only once it has been written to the socket.
+ */
+@Configuration
+@EnableWebSocketMessageBroker
+@ConditionalOnProperty(prefix = "simulator.live", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
+    
+    private final SimulatorProperties properties;
+    private final LiveSubscriptions liveSubscriptions;
+    
+    public WebSocketConfig(SimulatorProperties properties) {
+        this.properties = properties;
+        this.liveSubscriptions = new LiveSubscriptions(properties.getLive().getMaxRateHz());
+    }
+    
+    @Override
+    public void registerStompEndpoints(StompEndpointRegistry registry) {
+        String[] origins = properties.getLive().getAllowedOriginPatterns().toArray(String[]::new);
+        registry.addEndpoint(properties.getLive().getEndpoint())
+                .setAllowedOriginPatterns(origins)
+                .withSockJS();
+    }
+    
+    @Override
+    public void configureMessageBroker(MessageBrokerRegistry registry) {
+        registry.enableSimpleBroker("/topic");
+        registry.setApplicationDestinationPrefixes("/app");
+        registry.setPreservePublishOrder(true);
+    }
+    
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(liveSubscriptions.inboundInterceptor());
+    }
+    
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.interceptors(liveSubscriptions.outboundInterceptor());
+    }
+    
+    @Bean
+    public LiveSubscriptions liveSubscriptions() {
+        return liveSubscriptions;
+    }
+    
+    @Bean
+    public LiveTelemetryHub liveTelemetryHub(ObjectMapper objectMapper,
+                                             @Qualifier("clientOutboundChannel") MessageChannel clientOutboundChannel,
+                                             MeterRegistry meterRegistry) {
+        OrderedMessageChannelDecorator.configureInterceptor(clientOutboundChannel, true);
+        MessageChannel ordered = new OrderedMessageChannelDecorator(clientOutboundChannel,
+            LogFactory.getLog(LiveTelemetryHub.class));
+        return new LiveTelemetryHub(properties.getLive(), liveSubscriptions, objectMapper, ordered, meterRegistry);
+    }
+}
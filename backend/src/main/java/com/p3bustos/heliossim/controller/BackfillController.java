@@ -0,0 +1,80 @@
+package com.p3bustos.heliossim.controller;
+
+import com.p3bustos.heliossim.dto.BackfillRequest;
+import com.p3bustos.heliossim.dto.BackfillStatus;
+import com.p3bustos.heliossim.infrastructure.backfill.BackfillService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Supplier;
+
+@RestController
+@RequestMapping("/api/backfill")
+@RequiredArgsConstructor
+public class BackfillController {
+    
+    private final BackfillService backfill;
+    
+    /**
+     * Start generating history for a date range; progress is polled at {@code /api/backfill/{jobId}}
+     */
+    @PostMapping
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public BackfillStatus start(@RequestBody BackfillRequest request) {
+        return handle(() -> backfill.start(request));
+    }
+    
+    @GetMapping
+    public List<BackfillStatus> list() {
+        return backfill.list();
+    }
+    
+    @GetMapping("/{jobId}")
+    public BackfillStatus status(@PathVariable String jobId) {
+        return backfill.status(jobId).orElseThrow(() -> notFound(jobId));
+    }
+    
+    /**
+     * Stop a job after its current batch; it can be resumed later
+     */
+    @DeleteMapping("/{jobId}")
+    public BackfillStatus cancel(@PathVariable String jobId) {
+        return backfill.cancel(jobId).orElseThrow(() -> notFound(jobId));
+    }
+    
+    /**
+     * Continue a cancelled, failed or interrupted job from its last checkpoint
+     */
+    @PostMapping("/{jobId}/resume")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public BackfillStatus resume(@PathVariable String jobId) {
+        return handle(() -> backfill.resume(jobId));
+    }
+    
+    private static BackfillStatus handle(Supplier<BackfillStatus> action) {
+        try {
+            return action.get();
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        } catch (NoSuchElementException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        }
+    }
+    
+    private static ResponseStatusException notFound(String jobId) {
+        return new ResponseStatusException(HttpStatus.NOT_FOUND, "No backfill job " + jobId);
+    }
+}
@@ -0,0 +1,63 @@
+package com.p3bustos.heliossim.controller;
+
+import com.p3bustos.heliossim.dto.ExportRequest;
+import com.p3bustos.heliossim.dto.ExportStatus;
+import com.p3bustos.heliossim.infrastructure.export.ExportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/export")
+@RequiredArgsConstructor
+public class ExportController {
+    
+    private final ExportService exports;
+    
+    /**
+     * Convert a recorded journal into a Parquet dataset; progress is polled at {@code /api/export/{exportId}}
+     */
+    @PostMapping
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public ExportStatus start(@RequestBody ExportRequest request) {
+        try {
+            return exports.start(request);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        }
+    }
+    
+    @GetMapping
+    public List<ExportStatus> list() {
+        return exports.list();
+    }
+    
+    @GetMapping("/{exportId}")
+    public ExportStatus status(@PathVariable String exportId) {
+        return exports.status(exportId).orElseThrow(() -> notFound(exportId));
+    }
+    
+    /**
+     * Stop an export; files finished so far stay in place
+     */
+    @DeleteMapping("/{exportId}")
+    public ExportStatus cancel(@PathVariable String exportId) {
+        return exports.cancel(exportId).orElseThrow(() -> notFound(exportId));
+    }
+    
+    private static ResponseStatusException notFound(String exportId) {
+        return new ResponseStatusException(HttpStatus.NOT_FOUND, "No export " + exportId);
+    }
+}
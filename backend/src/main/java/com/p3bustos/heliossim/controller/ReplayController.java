@@ -0,0 +1,64 @@
+package com.p3bustos.heliossim.controller;
+
+import com.p3bustos.heliossim.dto.ReplayStatus;
+import com.p3bustos.heliossim.infrastructure.replay.TelemetryReplayer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+@RestController
+@RequestMapping("/api/replay")
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "simulator.replay", name = "enabled", havingValue = "true")
+public class ReplayController {
+    
+    private final TelemetryReplayer replayer;
+    
+    @GetMapping
+    public ReplayStatus status() {
+        return replayer.status();
+    }
+    
+    /**
+     * Start replaying the recorded journal
+     *
+     * @param speed Multiple of the recorded pace, or {@code max} for as fast as possible
+     */
+    @PostMapping
+    public ReplayStatus start(
+            @RequestParam(defaultValue = "1") String speed,
+            @RequestParam(defaultValue = "false") boolean loop) {
+        
+        double multiplier;
+        if ("max".equalsIgnoreCase(speed)) {
+            multiplier = 0;
+        } else {
+            try {
+                multiplier = Double.parseDouble(speed);
+            } catch (NumberFormatException e) {
+                multiplier = Double.NaN;
+            }
+            if (!(multiplier > 0) || Double.isInfinite(multiplier)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "'speed' must be a positive number or 'max'");
+            }
+        }
+        
+        try {
+            return replayer.start(multiplier, loop);
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        }
+    }
+    
+    @DeleteMapping
+    public ReplayStatus stop() {
+        return replayer.stop();
+    }
+}
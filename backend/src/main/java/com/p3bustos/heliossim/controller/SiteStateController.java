@@ -0,0 +1,83 @@
+package com.p3bustos.heliossim.controller;
+
+import com.p3bustos.heliossim.infrastructure.state.StateResponseCache;
+import com.p3bustos.heliossim.infrastructure.state.StateResponseCache.CachedResponse;
+import com.p3bustos.heliossim.infrastructure.state.StateResponseCache.View;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Latest simulated state, served from JSON serialized at most once per tick
+ *
+ * Responses carry an ETag that changes every tick; a matching {@code If-None-Match}
+ * gets a 304 without a body.
+ */
+@RestController
+@RequestMapping("/api")
+@RequiredArgsConstructor
+public class SiteStateController {
+    
+    private static final int MAX_PAGE_SIZE = 1000;
+    
+    private final StateResponseCache cache;
+    
+    @GetMapping("/sites/{siteId}/telemetry")
+    public ResponseEntity<byte[]> telemetry(@PathVariable String siteId, WebRequest request) {
+        return site(siteId, View.TELEMETRY, request);
+    }
+    
+    @GetMapping("/sites/{siteId}/battery")
+    public ResponseEntity<byte[]> battery(@PathVariable String siteId, WebRequest request) {
+        return site(siteId, View.BATTERY, request);
+    }
+    
+    @GetMapping("/sites/{siteId}/energy-flow")
+    public ResponseEntity<byte[]> energyFlow(@PathVariable String siteId, WebRequest request) {
+        return site(siteId, View.ENERGY_FLOW, request);
+    }
+    
+    /**
+     * Latest telemetry of every site, in pages of up to 1000 sites
+     */
+    @GetMapping("/fleet/sites")
+    public ResponseEntity<byte[]> fleetSites(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "100") int size,
+            WebRequest request) {
+        
+        if (page < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "'page' must not be negative");
+        }
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "'size' must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return respond(cache.page(page, size), request);
+    }
+    
+    private ResponseEntity<byte[]> site(String siteId, View view, WebRequest request) {
+        CachedResponse response = cache.site(siteId, view)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No state for site " + siteId));
+        return respond(response, request);
+    }
+    
+    private static ResponseEntity<byte[]> respond(CachedResponse response, WebRequest request) {
+        if (request.checkNotModified(response.etag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.noCache())
+                .eTag(response.etag())
+                .body(response.body());
+    }
+}
@@ -0,0 +1,61 @@
+package com.p3bustos.heliossim.controller;
+
+import com.p3bustos.heliossim.dto.TelemetryHistoryResponse;
+import com.p3bustos.heliossim.infrastructure.history.HistoryResolution;
+import com.p3bustos.heliossim.infrastructure.history.TelemetryHistory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.Instant;
+
+@RestController
+@RequestMapping("/api/sites/{siteId}/history")
+@RequiredArgsConstructor
+@ConditionalOnExpression(TelemetryHistory.ENABLED)
+public class TelemetryHistoryController {
+    
+    private final TelemetryHistory history;
+    
+    /**
+     * Telemetry of one site over {@code [from, to)}
+     *
+     * Defaults to the last 24 hours. Without an explicit resolution the coarsest one
+     * giving at least {@code points} points is used.
+     */
+    @GetMapping
+    public TelemetryHistoryResponse history(
+            @PathVariable String siteId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(defaultValue = "300") int points,
+            @RequestParam(required = false) String resolution) {
+        
+        Instant end = to != null ? to : Instant.now();
+        Instant start = from != null ? from : end.minus(Duration.ofDays(1));
+        if (!start.isBefore(end)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "'from' must be before 'to'");
+        }
+        if (points < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "'points' must be positive");
+        }
+        
+        HistoryResolution forced;
+        try {
+            forced = resolution != null ? HistoryResolution.fromLabel(resolution) : null;
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        
+        return history.query(siteId, start, end, points, forced)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No history for site " + siteId));
+    }
+}
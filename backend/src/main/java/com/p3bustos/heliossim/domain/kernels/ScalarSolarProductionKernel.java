@@ -0,0 +1,22 @@
+package com.p3bustos.heliossim.domain.kernels;
+
+import com.p3bustos.heliossim.domain.models.FleetState;
+
+final class ScalarSolarProductionKernel implements SolarProductionKernel {
+
+    static final ScalarSolarProductionKernel INSTANCE = new ScalarSolarProductionKernel();
+
+    private ScalarSolarProductionKernel() {
+    }
+
+    @Override
+    public void calculateProduction(FleetState state, int from, int to,
+                                    double[] siteIrradianceWM2, double[] ambientTempC) {
+        state.calculateProduction(from, to, siteIrradianceWM2, ambientTempC);
+    }
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+}
@@ -0,0 +1,31 @@
+package com.p3bustos.heliossim.domain.kernels;
+
+import com.p3bustos.heliossim.domain.models.FleetState;
+
+/**
+ * Batched PV production over a range of fleet sites
+ *
+ * Implementations fill the production, irradiance and panel temperature columns of
+ * a {@link FleetState} with the same results as {@link FleetState#calculateProduction}.
+ */
+public interface SolarProductionKernel {
+
+    void calculateProduction(FleetState state, int from, int to, double[] siteIrradianceWM2, double[] ambientTempC);
+
+    String name();
+
+    /**
+     * Plain loop over {@link FleetState#calculateProduction}
+     */
+    static SolarProductionKernel scalar() {
+        return ScalarSolarProductionKernel.INSTANCE;
+    }
+
+    /**
+     * SIMD kernel when the JVM was started with {@code --add-modules jdk.incubator.vector},
+     * otherwise the scalar kernel
+     */
+    static SolarProductionKernel best() {
+        return SolarProductionKernels.select();
+    }
+}
@@ -0,0 +1,31 @@
+package com.p3bustos.heliossim.domain.kernels;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Picks the fastest production kernel the running JVM supports
+ */
+@Slf4j
+final class SolarProductionKernels {
+
+    static final String VECTOR_MODULE = "jdk.incubator.vector";
+
+    private static final String VECTOR_KERNEL = "com.p3bustos.heliossim.domain.kernels.VectorSolarProductionKernel";
+
+    private SolarProductionKernels() {
+    }
+
+    static SolarProductionKernel select() {
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+            log.info("{} not available; using the scalar production kernel", VECTOR_MODULE);
+            return SolarProductionKernel.scalar();
+        }
+        try {
+            // Loaded reflectively so the vector classes are never linked without the module
+            return (SolarProductionKernel) Class.forName(VECTOR_KERNEL).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            log.warn("Vector production kernel unavailable; using the scalar kernel", e);
+            return SolarProductionKernel.scalar();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.p3bustos.heliossim.domain.kernels;
+
+import com.p3bustos.heliossim.domain.models.FleetState;
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link FleetState#calculateProduction} on the preferred SIMD width of the CPU
+ *
+ * The lanes apply the scalar formula operation for operation, so every site gets
+ * the same IEEE result as the scalar kernel. The tail that does not fill a whole
+ * vector is handed to the scalar loop.
+ */
+final class VectorSolarProductionKernel implements SolarProductionKernel {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    @Override
+    public void calculateProduction(FleetState state, int from, int to,
+                                    double[] siteIrradianceWM2, double[] ambientTempC) {
+        double[] capacity = state.getSolarCapacityKw();
+        double[] panelEfficiency = state.getPanelEfficiency();
+        double[] inverterEfficiency = state.getInverterEfficiency();
+        double[] temperatureCoefficient = state.getTemperatureCoefficient();
+        double[] productionKw = state.getProductionKw();
+        double[] irradianceWM2 = state.getIrradianceWM2();
+        double[] panelTempC = state.getPanelTempC();
+
+        int i = from;
+        int upper = from + SPECIES.loopBound(to - from);
+        for (; i < upper; i += SPECIES.length()) {
+            DoubleVector irradiance = DoubleVector.fromArray(SPECIES, siteIrradianceWM2, i);
+            DoubleVector panelTemp = DoubleVector.fromArray(SPECIES, ambientTempC, i)
+                    .add(irradiance.div(1000.0).mul(25.0));
+            DoubleVector tempDeration = DoubleVector.fromArray(SPECIES, temperatureCoefficient, i)
+                    .mul(panelTemp.sub(FleetState.STC_TEMPERATURE))
+                    .add(1.0);
+            DoubleVector production = DoubleVector.fromArray(SPECIES, capacity, i)
+                    .mul(irradiance.div(FleetState.STC_IRRADIANCE))
+                    .mul(DoubleVector.fromArray(SPECIES, panelEfficiency, i))
+                    .mul(DoubleVector.fromArray(SPECIES, inverterEfficiency, i))
+                    .mul(tempDeration);
+
+            production.max(0.0).intoArray(productionKw, i);
+            irradiance.intoArray(irradianceWM2, i);
+            panelTemp.intoArray(panelTempC, i);
+        }
+
+        state.calculateProduction(i, to, siteIrradianceWM2, ambientTempC);
+    }
+
+    @Override
+    public String name() {
+        return "vector-" + SPECIES.length() + "x64";
+    }
+}
@@ -0,0 +1,33 @@
+package com.p3bustos.heliossim.domain.models;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * Outcome of an accelerated (simulated clock) batch run
+ */
+@Data
+@Builder
+public class BatchRunReport {
+    private String siteId;
+    private Instant start;
+    private Instant end;
+    private double stepSeconds;
+    private long steps;
+
+    // Throughput
+    private double simulatedSeconds;
+    private double wallSeconds;
+    private double simulatedSecondsPerWallSecond;
+
+    // Integrated energy over the run
+    private double solarKwh;
+    private double loadKwh;
+    private double gridImportKwh;
+    private double gridExportKwh;
+    private double batteryChargeKwh;
+    private double batteryDischargeKwh;
+    private double finalSocPercent;
+}
@@ -0,0 +1,364 @@
+package com.p3bustos.heliossim.domain.models;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Columnar (struct-of-arrays) state for a fleet of sites
+ *
+ * Every column is a primitive array indexed by site ordinal. The batch kernels below
+ * are column-wise equivalents of {@link SolarSystem#calculateProduction},
+ * {@link LoadProfile#calculateLoad}, {@link BatterySystem#charge} and
+ * {@link BatterySystem#discharge}, and operate on a half-open ordinal range so the
+ * fleet can later be split into shards.
+ */
+@Getter
+public class FleetState {
+
+    public static final double STC_IRRADIANCE = 1000.0;
+    public static final double STC_TEMPERATURE = 25.0;
+    private static final double FLOW_THRESHOLD_KW = 0.01;
+
+    // Gaussian peak factors by [hour][peakHour], matching LoadProfile.gaussianCurve
+    private static final double[][] MORNING_FACTORS = gaussianTable(1.5);
+    private static final double[][] EVENING_FACTORS = gaussianTable(2.0);
+
+    private final int size;
+    private final String[] siteIds;
+
+    // Solar parameters
+    private final double[] solarCapacityKw;
+    private final double[] panelEfficiency;
+    private final double[] inverterEfficiency;
+    private final double[] temperatureCoefficient;
+
+    // Battery parameters
+    private final double[] batteryCapacityKwh;
+    private final double[] maxChargeRateKw;
+    private final double[] maxDischargeRateKw;
+    private final double[] minSocPercent;
+    private final double[] maxSocPercent;
+    private final double[] roundTripEfficiency;
+
+    // Load parameters
+    private final double[] baselineKw;
+    private final double[] peakMorningKw;
+    private final double[] peakEveningKw;
+    private final int[] morningPeakHour;
+    private final int[] eveningPeakHour;
+
+    // Solar state
+    private final double[] irradianceWM2;
+    private final double[] panelTempC;
+    private final double[] productionKw;
+
+    // Load state
+    private final double[] consumptionKw;
+
+    // Battery state
+    private final double[] socPercent;
+    private final double[] batteryPowerKw;  // negative = charging, positive = discharging
+
+    // Energy flow state
+    private final double[] gridPowerKw;     // negative = exporting, positive = importing
+    private final double[] solarToLoadKw;
+    private final double[] solarToBatteryKw;
+    private final double[] solarToGridKw;
+    private final double[] batteryToLoadKw;
+    private final double[] gridToLoadKw;
+
+    public FleetState(List<SiteDefinition> sites) {
+        this.size = sites.size();
+        this.siteIds = new String[size];
+
+        this.solarCapacityKw = new double[size];
+        this.panelEfficiency = new double[size];
+        this.inverterEfficiency = new double[size];
+        this.temperatureCoefficient = new double[size];
+
+        this.batteryCapacityKwh = new double[size];
+        this.maxChargeRateKw = new double[size];
+        this.maxDischargeRateKw = new double[size];
+        this.minSocPercent = new double[size];
+        this.maxSocPercent = new double[size];
+        this.roundTripEfficiency = new double[size];
+
+        this.baselineKw = new double[size];
+        this.peakMorningKw = new double[size];
+        this.peakEveningKw = new double[size];
+        this.morningPeakHour = new int[size];
+        this.eveningPeakHour = new int[size];
+
+        this.irradianceWM2 = new double[size];
+        this.panelTempC = new double[size];
+        this.productionKw = new double[size];
+        this.consumptionKw = new double[size];
+        this.socPercent = new double[size];
+        this.batteryPowerKw = new double[size];
+
+        this.gridPowerKw = new double[size];
+        this.solarToLoadKw = new double[size];
+        this.solarToBatteryKw = new double[size];
+        this.solarToGridKw = new double[size];
+        this.batteryToLoadKw = new double[size];
+        this.gridToLoadKw = new double[size];
+
+        for (int i = 0; i < size; i++) {
+            SiteDefinition site = sites.get(i);
+            siteIds[i] = site.getSiteId();
+
+            solarCapacityKw[i] = site.getSolarCapacityKw();
+            panelEfficiency[i] = site.getPanelEfficiency();
+            inverterEfficiency[i] = site.getInverterEfficiency();
+            temperatureCoefficient[i] = site.getTemperatureCoefficient();
+
+            batteryCapacityKwh[i] = site.getBatteryCapacityKwh();
+            maxChargeRateKw[i] = site.getMaxChargeRateKw();
+            maxDischargeRateKw[i] = site.getMaxDischargeRateKw();
+            minSocPercent[i] = site.getMinSocPercent();
+            maxSocPercent[i] = site.getMaxSocPercent();
+            roundTripEfficiency[i] = site.getRoundTripEfficiency();
+            socPercent[i] = site.getInitialSocPercent();
+
+            baselineKw[i] = site.getBaselineKw();
+            peakMorningKw[i] = site.getPeakMorningKw();
+            peakEveningKw[i] = site.getPeakEveningKw();
+            morningPeakHour[i] = Math.floorMod(site.getMorningPeakHour(), 24);
+            eveningPeakHour[i] = Math.floorMod(site.getEveningPeakHour(), 24);
+        }
+    }
+
+    /**
+     * Batch equivalent of {@link SolarSystem#calculateProduction} over sites [from, to)
+     *
+     * @param siteIrradianceWM2 Irradiance per site ordinal in W/m²
+     * @param ambientTempC Ambient temperature per site ordinal in Celsius
+     */
+    public void calculateProduction(int from, int to, double[] siteIrradianceWM2, double[] ambientTempC) {
+        for (int i = from; i < to; i++) {
+            double irradiance = siteIrradianceWM2[i];
+            double panelTemp = ambientTempC[i] + (irradiance / 1000.0) * 25.0;
+            double tempDeration = 1.0 + (temperatureCoefficient[i] * (panelTemp - STC_TEMPERATURE));
+            double production = solarCapacityKw[i] *
+                                (irradiance / STC_IRRADIANCE) *
+                                panelEfficiency[i] *
+                                inverterEfficiency[i] *
+                                tempDeration;
+
+            productionKw[i] = Math.max(0, production);
+            irradianceWM2[i] = irradiance;
+            panelTempC[i] = panelTemp;
+        }
+    }
+
+    /**
+     * Batch equivalent of {@link LoadProfile#calculateLoad} over sites [from, to)
+     *
+     * @param siteHour Local hour of day per site ordinal
+     */
+    public void calculateLoad(int from, int to, int[] siteHour) {
+        for (int i = from; i < to; i++) {
+            int hour = siteHour[i];
+            double morningLoad = MORNING_FACTORS[hour][morningPeakHour[i]] * (peakMorningKw[i] - baselineKw[i]);
+            double eveningLoad = EVENING_FACTORS[hour][eveningPeakHour[i]] * (peakEveningKw[i] - baselineKw[i]);
+            consumptionKw[i] = baselineKw[i] + morningLoad + eveningLoad;
+        }
+    }
+
+    /**
+     * Batch equivalent of {@link com.p3bustos.heliossim.domain.services.EnergyFlowManager#calculateEnergyFlow}
+     * over sites [from, to), using the current production and consumption columns
+     */
+    public void dispatch(int from, int to, double deltaTimeSeconds) {
+        for (int i = from; i < to; i++) {
+            double solarKw = productionKw[i];
+            double loadKw = consumptionKw[i];
+
+            if (solarKw >= loadKw) {
+                double excessSolar = solarKw - loadKw;
+                // Like the object model, an exact balance leaves the battery power as it was
+                double charged = excessSolar > 0 ? charge(i, excessSolar, deltaTimeSeconds) : 0;
+                double remainingExcess = excessSolar - charged;
+                boolean exporting = remainingExcess > FLOW_THRESHOLD_KW;
+
+                solarToLoadKw[i] = loadKw;
+                solarToBatteryKw[i] = charged;
+                solarToGridKw[i] = exporting ? remainingExcess : 0;
+                batteryToLoadKw[i] = 0;
+                gridToLoadKw[i] = 0;
+                gridPowerKw[i] = exporting ? -remainingExcess : 0;
+            } else {
+                double deficit = loadKw - solarKw;
+                double discharged = discharge(i, deficit, deltaTimeSeconds);
+                double remainingDeficit = deficit - discharged;
+                boolean importing = remainingDeficit > FLOW_THRESHOLD_KW;
+
+                solarToLoadKw[i] = solarKw;
+                solarToBatteryKw[i] = 0;
+                solarToGridKw[i] = 0;
+                batteryToLoadKw[i] = discharged;
+                gridToLoadKw[i] = importing ? remainingDeficit : 0;
+                gridPowerKw[i] = importing ? remainingDeficit : 0;
+            }
+        }
+    }
+
+    /**
+     * Column equivalent of {@link BatterySystem#charge} for one site
+     *
+     * @return Actual power consumed for charging
+     */
+    public double charge(int i, double powerKw, double deltaTimeSeconds) {
+        double soc = socPercent[i];
+        double maxSoc = maxSocPercent[i];
+        if (soc >= maxSoc) {
+            batteryPowerKw[i] = 0;
+            return 0;
+        }
+
+        double hours = deltaTimeSeconds / 3600.0;
+        double efficiency = roundTripEfficiency[i];
+        double actualChargePower = Math.min(powerKw, maxChargeRateKw[i]);
+        double energyKwh = actualChargePower * hours * efficiency;
+        double socIncrease = (energyKwh / batteryCapacityKwh[i]) * 100.0;
+
+        if (soc + socIncrease > maxSoc) {
+            socIncrease = maxSoc - soc;
+            energyKwh = (socIncrease / 100.0) * batteryCapacityKwh[i];
+            actualChargePower = energyKwh / hours / efficiency;
+        }
+
+        socPercent[i] = soc + socIncrease;
+        batteryPowerKw[i] = -actualChargePower;
+        return actualChargePower;
+    }
+
+    /**
+     * Column equivalent of {@link BatterySystem#discharge} for one site
+     *
+     * @return Actual power delivered
+     */
+    public double discharge(int i, double powerKw, double deltaTimeSeconds) {
+        double soc = socPercent[i];
+        double minSoc = minSocPercent[i];
+        if (soc <= minSoc) {
+            batteryPowerKw[i] = 0;
+            return 0;
+        }
+
+        double hours = deltaTimeSeconds / 3600.0;
+        double actualDischargePower = Math.min(powerKw, maxDischargeRateKw[i]);
+        double energyKwh = actualDischargePower * hours;
+        double socDecrease = (energyKwh / batteryCapacityKwh[i]) * 100.0;
+
+        if (soc - socDecrease < minSoc) {
+            socDecrease = soc - minSoc;
+            energyKwh = (socDecrease / 100.0) * batteryCapacityKwh[i];
+            actualDischargePower = energyKwh / hours;
+        }
+
+        socPercent[i] = soc - socDecrease;
+        batteryPowerKw[i] = actualDischargePower;
+        return actualDischargePower;
+    }
+
+    /**
+     * Whether every site in [from, to) produces nothing and has an idle battery
+     *
+     * Such a site is a fixed point of {@link #dispatch}: as long as its irradiance, ambient
+     * temperature and load hour stay the same, recomputing it reproduces the same columns
+     * and leaves its state of charge untouched.
+     */
+    public boolean isSettled(int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (productionKw[i] != 0 || batteryPowerKw[i] != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Battery voltage for one site, same linear model as {@link BatterySystem#getVoltage}
+     */
+    public double voltage(int i) {
+        return 48.0 + (socPercent[i] / 100.0) * 6.0;
+    }
+
+    /**
+     * Battery current for one site, same model as {@link BatterySystem#getCurrent}
+     */
+    public double current(int i) {
+        double voltage = voltage(i);
+        return voltage > 0 ? batteryPowerKw[i] * 1000.0 / voltage : 0;
+    }
+
+    public String getSiteId(int i) {
+        return siteIds[i];
+    }
+
+    /**
+     * Copy the state of one site into a telemetry frame
+     */
+    public void copySite(int i, TelemetryFrame frame) {
+        frame.setSiteOrdinal(i);
+        frame.setSiteId(siteIds[i]);
+        frame.setSolarProductionKw(productionKw[i]);
+        frame.setIrradianceWM2(irradianceWM2[i]);
+        frame.setPanelTempC(panelTempC[i]);
+        frame.setSocPercent(socPercent[i]);
+        frame.setBatteryPowerKw(batteryPowerKw[i]);
+        frame.setBatteryVoltageV(voltage(i));
+        frame.setBatteryCurrentA(current(i));
+        frame.setLoadConsumptionKw(consumptionKw[i]);
+        frame.setGridPowerKw(gridPowerKw[i]);
+        frame.setSolarToLoadKw(solarToLoadKw[i]);
+        frame.setSolarToBatteryKw(solarToBatteryKw[i]);
+        frame.setSolarToGridKw(solarToGridKw[i]);
+        frame.setBatteryToLoadKw(batteryToLoadKw[i]);
+        frame.setGridToLoadKw(gridToLoadKw[i]);
+    }
+
+    /**
+     * Sum the flow columns over sites [from, to) into the given balance
+     */
+    public void accumulate(int from, int to, EnergyBalance total) {
+        double solar = 0, load = 0, battery = 0, grid = 0;
+        double s2l = 0, s2b = 0, s2g = 0, b2l = 0, g2l = 0;
+        for (int i = from; i < to; i++) {
+            solar += productionKw[i];
+            load += consumptionKw[i];
+            battery += batteryPowerKw[i];
+            grid += gridPowerKw[i];
+            s2l += solarToLoadKw[i];
+            s2b += solarToBatteryKw[i];
+            s2g += solarToGridKw[i];
+            b2l += batteryToLoadKw[i];
+            g2l += gridToLoadKw[i];
+        }
+        total.setSolarProductionKw(total.getSolarProductionKw() + solar);
+        total.setLoadConsumptionKw(total.getLoadConsumptionKw() + load);
+        total.setBatteryPowerKw(total.getBatteryPowerKw() + battery);
+        total.setGridPowerKw(total.getGridPowerKw() + grid);
+        total.setSolarToLoadKw(total.getSolarToLoadKw() + s2l);
+        total.setSolarToBatteryKw(total.getSolarToBatteryKw() + s2b);
+        total.setSolarToGridKw(total.getSolarToGridKw() + s2g);
+        total.setBatteryToLoadKw(total.getBatteryToLoadKw() + b2l);
+        total.setGridToLoadKw(total.getGridToLoadKw() + g2l);
+    }
+
+    private static double[][] gaussianTable(double width) {
+        double[][] table = new double[24][24];
+        for (int hour = 0; hour < 24; hour++) {
+            for (int peakHour = 0; peakHour < 24; peakHour++) {
+                double delta = Math.abs(hour - peakHour);
+                if (delta > 12) {
+                    delta = 24 - delta;
+                }
+                table[hour][peakHour] = Math.exp(-Math.pow(delta / width, 2));
+            }
+        }
+        return table;
+    }
+}
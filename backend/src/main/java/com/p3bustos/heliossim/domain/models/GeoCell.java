@@ -0,0 +1,28 @@
+package com.p3bustos.heliossim.domain.models;
+
+/**
+ * Square cell of a latitude/longitude grid, identified by its row and column
+ *
+ * Everything that varies slowly over distance (weather, sun position) can be computed
+ * once per cell and shared by every site inside it.
+ */
+public record GeoCell(long row, long column, double cellDegrees) {
+
+    /**
+     * Cell of the given grid size that contains the coordinates
+     */
+    public static GeoCell of(double latitude, double longitude, double cellDegrees) {
+        if (cellDegrees <= 0) {
+            throw new IllegalArgumentException("Cell size must be positive: " + cellDegrees);
+        }
+        return new GeoCell((long) Math.floor(latitude / cellDegrees), (long) Math.floor(longitude / cellDegrees), cellDegrees);
+    }
+
+    public double centreLatitude() {
+        return (row + 0.5) * cellDegrees;
+    }
+
+    public double centreLongitude() {
+        return (column + 0.5) * cellDegrees;
+    }
+}
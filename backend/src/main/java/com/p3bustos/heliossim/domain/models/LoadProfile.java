@@ -25,8 +25,13 @@ public class LoadProfile {
      * @return Load consumption in kW
      */
     public double calculateLoad(LocalTime currentTime) {
-        int hour = currentTime.getHour();
-        
+        return calculateLoad(currentTime.getHour());
+    }
+    
+    /**
+     * Calculate load consumption for a local hour of day (0-23)
+     */
+    public double calculateLoad(int hour) {
         // Morning peak (Gaussian curve centered on morning peak hour)
         double morningFactor = gaussianCurve(hour, morningPeakHour, 1.5);
         double morningLoad = morningFactor * (peakMorningKw - baselineKw);
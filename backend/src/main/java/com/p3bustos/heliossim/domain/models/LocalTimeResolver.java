@@ -0,0 +1,55 @@
+package com.p3bustos.heliossim.domain.models;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+
+/**
+ * Converts epoch milliseconds to local time of day for one zone without allocating
+ *
+ * The zone offset is cached and only re-resolved when the time leaves the window
+ * between the surrounding daylight-saving transitions.
+ */
+public class LocalTimeResolver {
+
+    private static final long SECONDS_PER_DAY = 86_400L;
+
+    private final ZoneRules rules;
+
+    private int offsetSeconds;
+    private long validFromEpochMilli = Long.MAX_VALUE;
+    private long validUntilEpochMilli = Long.MIN_VALUE;
+
+    public LocalTimeResolver(ZoneId zone) {
+        this.rules = zone.getRules();
+    }
+
+    /**
+     * Local second of day (0-86399) for the given instant
+     */
+    public int localSecondOfDay(long epochMilli) {
+        if (epochMilli < validFromEpochMilli || epochMilli >= validUntilEpochMilli) {
+            refresh(epochMilli);
+        }
+        long localSeconds = Math.floorDiv(epochMilli, 1000L) + offsetSeconds;
+        return (int) Math.floorMod(localSeconds, SECONDS_PER_DAY);
+    }
+
+    /**
+     * Local hour of day (0-23) for the given instant
+     */
+    public int localHour(long epochMilli) {
+        return localSecondOfDay(epochMilli) / 3600;
+    }
+
+    private void refresh(long epochMilli) {
+        Instant now = Instant.ofEpochMilli(epochMilli);
+        offsetSeconds = rules.getOffset(now).getTotalSeconds();
+
+        ZoneOffsetTransition previous = rules.previousTransition(now);
+        ZoneOffsetTransition next = rules.nextTransition(now);
+        validFromEpochMilli = previous != null ? previous.toEpochSecond() * 1000L : Long.MIN_VALUE;
+        validUntilEpochMilli = next != null ? next.toEpochSecond() * 1000L : Long.MAX_VALUE;
+    }
+}
@@ -0,0 +1,78 @@
+package com.p3bustos.heliossim.domain.models;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Single-writer sequence lock
+ *
+ * The writer brackets each update with {@link #beginWrite()} and {@link #endWrite()},
+ * which makes the sequence odd while the update is in progress. Readers copy what they
+ * need between {@link #readBegin()} and {@link #validate(long)} and retry when the
+ * sequence moved, so they always end up with a torn-free view, never block the writer
+ * and never allocate. Reads inside the bracket race with the writer by design; only
+ * values that passed validation may be used. A second writer entering while a write
+ * is in progress fails fast rather than breaking the sequence.
+ */
+public final class SeqLock {
+
+    private static final VarHandle SEQUENCE;
+
+    static {
+        try {
+            SEQUENCE = MethodHandles.lookup().findVarHandle(SeqLock.class, "sequence", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    @SuppressWarnings("unused") // accessed through SEQUENCE
+    private long sequence;
+
+    /**
+     * Mark the protected state as being modified; only one thread may write
+     *
+     * @throws IllegalStateException if another write is in progress, instead of
+     *         corrupting the sequence and leaving readers spinning
+     */
+    public void beginWrite() {
+        long current = (long) SEQUENCE.getOpaque(this);
+        if ((current & 1) != 0 || !SEQUENCE.compareAndSet(this, current, current + 1)) {
+            throw new IllegalStateException("Concurrent write to a single-writer seqlock");
+        }
+    }
+
+    /**
+     * Publish the modifications made since {@link #beginWrite()}
+     */
+    public void endWrite() {
+        long current = (long) SEQUENCE.getOpaque(this);
+        SEQUENCE.setRelease(this, current + 1);
+    }
+
+    /**
+     * Wait out a write in progress and return the stamp to validate against
+     */
+    public long readBegin() {
+        long stamp;
+        while (((stamp = (long) SEQUENCE.getAcquire(this)) & 1) != 0) {
+            Thread.onSpinWait();
+        }
+        return stamp;
+    }
+
+    /**
+     * Whether nothing was written since {@code stamp} was taken
+     */
+    public boolean validate(long stamp) {
+        VarHandle.loadLoadFence();
+        return (long) SEQUENCE.getOpaque(this) == stamp;
+    }
+
+    /**
+     * Number of completed writes
+     */
+    public long getWrites() {
+        return (long) SEQUENCE.getAcquire(this) >>> 1;
+    }
+}
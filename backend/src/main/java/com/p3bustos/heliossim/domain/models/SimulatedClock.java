@@ -0,0 +1,63 @@
+package com.p3bustos.heliossim.domain.models;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+
+/**
+ * Simulated clock stepping from a start to an end instant, independent of wall time
+ *
+ * Local time is derived through a {@link LocalTimeResolver}, so advancing the clock
+ * does not allocate.
+ */
+public class SimulatedClock {
+
+    private final long endEpochMilli;
+    private final long stepMillis;
+    private final LocalTimeResolver localTime;
+
+    private long epochMilli;
+
+    public SimulatedClock(Instant start, Instant end, Duration step, ZoneId zone) {
+        if (step.isNegative() || step.toMillis() < 1) {
+            throw new IllegalArgumentException("Step must be at least 1 ms: " + step);
+        }
+        if (end.isBefore(start)) {
+            throw new IllegalArgumentException("End " + end + " is before start " + start);
+        }
+        this.endEpochMilli = end.toEpochMilli();
+        this.stepMillis = step.toMillis();
+        this.localTime = new LocalTimeResolver(zone);
+        this.epochMilli = start.toEpochMilli();
+    }
+
+    /**
+     * Whether the current time is still before the end of the run
+     */
+    public boolean hasNext() {
+        return epochMilli < endEpochMilli;
+    }
+
+    /**
+     * Move the clock forward by one step
+     */
+    public void advance() {
+        epochMilli += stepMillis;
+    }
+
+    public long getEpochMilli() {
+        return epochMilli;
+    }
+
+    public double getStepSeconds() {
+        return stepMillis / 1000.0;
+    }
+
+    public int getLocalSecondOfDay() {
+        return localTime.localSecondOfDay(epochMilli);
+    }
+
+    public int getLocalHour() {
+        return getLocalSecondOfDay() / 3600;
+    }
+}
@@ -0,0 +1,70 @@
+package com.p3bustos.heliossim.domain.models;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Static description of one simulated site as read from the site registry
+ */
+@Data
+@Builder
+public class SiteDefinition {
+    private String siteId;
+    private double latitude;
+    private double longitude;
+    private String timezone;
+
+    // Solar
+    private double solarCapacityKw;
+    private double panelEfficiency;
+    private double inverterEfficiency;
+    private double temperatureCoefficient;
+
+    // Battery
+    private double batteryCapacityKwh;
+    private double maxChargeRateKw;
+    private double maxDischargeRateKw;
+    private double initialSocPercent;
+    private double minSocPercent;
+    private double maxSocPercent;
+    private double roundTripEfficiency;
+
+    // Load
+    private double baselineKw;
+    private double peakMorningKw;
+    private double peakEveningKw;
+    private int morningPeakHour;
+    private int eveningPeakHour;
+
+    public SolarSystem toSolarSystem() {
+        return SolarSystem.builder()
+                .capacityKw(solarCapacityKw)
+                .panelEfficiency(panelEfficiency)
+                .inverterEfficiency(inverterEfficiency)
+                .temperatureCoefficient(temperatureCoefficient)
+                .build();
+    }
+
+    public BatterySystem toBatterySystem() {
+        return BatterySystem.builder()
+                .capacityKwh(batteryCapacityKwh)
+                .maxChargeRateKw(maxChargeRateKw)
+                .maxDischargeRateKw(maxDischargeRateKw)
+                .minSocPercent(minSocPercent)
+                .maxSocPercent(maxSocPercent)
+                .roundTripEfficiency(roundTripEfficiency)
+                .socPercent(initialSocPercent)
+                .currentPowerKw(0.0)
+                .build();
+    }
+
+    public LoadProfile toLoadProfile() {
+        return LoadProfile.builder()
+                .baselineKw(baselineKw)
+                .peakMorningKw(peakMorningKw)
+                .peakEveningKw(peakEveningKw)
+                .morningPeakHour(morningPeakHour)
+                .eveningPeakHour(eveningPeakHour)
+                .build();
+    }
+}
@@ -0,0 +1,197 @@
+package com.p3bustos.heliossim.domain.models;
+
+import com.p3bustos.heliossim.dto.BatteryData;
+import com.p3bustos.heliossim.dto.EnergyFlowData;
+import com.p3bustos.heliossim.dto.GridData;
+import com.p3bustos.heliossim.dto.LoadData;
+import com.p3bustos.heliossim.dto.PowerTelemetry;
+import com.p3bustos.heliossim.dto.SolarData;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * Mutable, flat telemetry holder reused across ticks
+ *
+ * The tick hot path fills one frame in place; {@link PowerTelemetry} and its nested
+ * DTOs are only materialized at the publish boundary via {@link #toPowerTelemetry()}.
+ *
+ * The fourteen value fields are also addressable by index, in declaration order, for
+ * the codecs and stores that handle every field alike.
+ */
+@Data
+public class TelemetryFrame {
+
+    public static final int SOLAR_PRODUCTION = 0;
+    public static final int IRRADIANCE = 1;
+    public static final int PANEL_TEMP = 2;
+    public static final int SOC = 3;
+    public static final int BATTERY_POWER = 4;
+    public static final int BATTERY_VOLTAGE = 5;
+    public static final int BATTERY_CURRENT = 6;
+    public static final int LOAD_CONSUMPTION = 7;
+    public static final int GRID_POWER = 8;
+    public static final int SOLAR_TO_LOAD = 9;
+    public static final int SOLAR_TO_BATTERY = 10;
+    public static final int SOLAR_TO_GRID = 11;
+    public static final int BATTERY_TO_LOAD = 12;
+    public static final int GRID_TO_LOAD = 13;
+    public static final int VALUE_COUNT = 14;
+
+    private int siteOrdinal;
+    private String siteId;
+    private long epochMilli;
+
+    // Solar
+    private double solarProductionKw;
+    private double irradianceWM2;
+    private double panelTempC;
+
+    // Battery
+    private double socPercent;
+    private double batteryPowerKw;
+    private double batteryVoltageV;
+    private double batteryCurrentA;
+
+    // Load and grid
+    private double loadConsumptionKw;
+    private double gridPowerKw;
+
+    // Energy flow
+    private double solarToLoadKw;
+    private double solarToBatteryKw;
+    private double solarToGridKw;
+    private double batteryToLoadKw;
+    private double gridToLoadKw;
+
+    /**
+     * Copy the energy flow breakdown from a balance
+     */
+    public void setEnergyFlow(EnergyBalance balance) {
+        gridPowerKw = balance.getGridPowerKw();
+        solarToLoadKw = balance.getSolarToLoadKw();
+        solarToBatteryKw = balance.getSolarToBatteryKw();
+        solarToGridKw = balance.getSolarToGridKw();
+        batteryToLoadKw = balance.getBatteryToLoadKw();
+        gridToLoadKw = balance.getGridToLoadKw();
+    }
+
+    /**
+     * Overwrite this frame with the contents of another
+     */
+    public TelemetryFrame copyFrom(TelemetryFrame other) {
+        siteOrdinal = other.siteOrdinal;
+        siteId = other.siteId;
+        epochMilli = other.epochMilli;
+        solarProductionKw = other.solarProductionKw;
+        irradianceWM2 = other.irradianceWM2;
+        panelTempC = other.panelTempC;
+        socPercent = other.socPercent;
+        batteryPowerKw = other.batteryPowerKw;
+        batteryVoltageV = other.batteryVoltageV;
+        batteryCurrentA = other.batteryCurrentA;
+        loadConsumptionKw = other.loadConsumptionKw;
+        gridPowerKw = other.gridPowerKw;
+        solarToLoadKw = other.solarToLoadKw;
+        solarToBatteryKw = other.solarToBatteryKw;
+        solarToGridKw = other.solarToGridKw;
+        batteryToLoadKw = other.batteryToLoadKw;
+        gridToLoadKw = other.gridToLoadKw;
+        return this;
+    }
+
+    /**
+     * Value field by index, one of the constants above
+     */
+    public double getValue(int field) {
+        return switch (field) {
+            case SOLAR_PRODUCTION -> solarProductionKw;
+            case IRRADIANCE -> irradianceWM2;
+            case PANEL_TEMP -> panelTempC;
+            case SOC -> socPercent;
+            case BATTERY_POWER -> batteryPowerKw;
+            case BATTERY_VOLTAGE -> batteryVoltageV;
+            case BATTERY_CURRENT -> batteryCurrentA;
+            case LOAD_CONSUMPTION -> loadConsumptionKw;
+            case GRID_POWER -> gridPowerKw;
+            case SOLAR_TO_LOAD -> solarToLoadKw;
+            case SOLAR_TO_BATTERY -> solarToBatteryKw;
+            case SOLAR_TO_GRID -> solarToGridKw;
+            case BATTERY_TO_LOAD -> batteryToLoadKw;
+            case GRID_TO_LOAD -> gridToLoadKw;
+            default -> throw new IndexOutOfBoundsException("No telemetry field " + field);
+        };
+    }
+
+    public void setValue(int field, double value) {
+        switch (field) {
+            case SOLAR_PRODUCTION -> solarProductionKw = value;
+            case IRRADIANCE -> irradianceWM2 = value;
+            case PANEL_TEMP -> panelTempC = value;
+            case SOC -> socPercent = value;
+            case BATTERY_POWER -> batteryPowerKw = value;
+            case BATTERY_VOLTAGE -> batteryVoltageV = value;
+            case BATTERY_CURRENT -> batteryCurrentA = value;
+            case LOAD_CONSUMPTION -> loadConsumptionKw = value;
+            case GRID_POWER -> gridPowerKw = value;
+            case SOLAR_TO_LOAD -> solarToLoadKw = value;
+            case SOLAR_TO_BATTERY -> solarToBatteryKw = value;
+            case SOLAR_TO_GRID -> solarToGridKw = value;
+            case BATTERY_TO_LOAD -> batteryToLoadKw = value;
+            case GRID_TO_LOAD -> gridToLoadKw = value;
+            default -> throw new IndexOutOfBoundsException("No telemetry field " + field);
+        }
+    }
+
+    /**
+     * Copy every value field into {@code out[offset .. offset + VALUE_COUNT)}
+     */
+    public void copyValuesTo(double[] out, int offset) {
+        for (int field = 0; field < VALUE_COUNT; field++) {
+            out[offset + field] = getValue(field);
+        }
+    }
+
+    /**
+     * Set every value field from {@code values[offset .. offset + VALUE_COUNT)}
+     */
+    public void copyValuesFrom(double[] values, int offset) {
+        for (int field = 0; field < VALUE_COUNT; field++) {
+            setValue(field, values[offset + field]);
+        }
+    }
+
+    /**
+     * Materialize the telemetry DTO for publishing
+     */
+    public PowerTelemetry toPowerTelemetry() {
+        return PowerTelemetry.builder()
+                .timestamp(Instant.ofEpochMilli(epochMilli))
+                .siteId(siteId)
+                .solar(SolarData.builder()
+                        .productionKw(solarProductionKw)
+                        .irradianceWM2(irradianceWM2)
+                        .panelTempC(panelTempC)
+                        .build())
+                .battery(BatteryData.builder()
+                        .socPercent(socPercent)
+                        .powerKw(batteryPowerKw)
+                        .voltageV(batteryVoltageV)
+                        .currentA(batteryCurrentA)
+                        .build())
+                .load(LoadData.builder()
+                        .consumptionKw(loadConsumptionKw)
+                        .build())
+                .grid(GridData.builder()
+                        .powerKw(gridPowerKw)
+                        .build())
+                .energyFlow(EnergyFlowData.builder()
+                        .solarToLoadKw(solarToLoadKw)
+                        .solarToBatteryKw(solarToBatteryKw)
+                        .solarToGridKw(solarToGridKw)
+                        .batteryToLoadKw(batteryToLoadKw)
+                        .gridToLoadKw(gridToLoadKw)
+                        .build())
+                .build();
+    }
+}
@@ -0,0 +1,16 @@
+package com.p3bustos.heliossim.domain.models;
+
+import com.p3bustos.heliossim.dto.WeatherData;
+
+/**
+ * Weather that varies over simulated time, such as a historical or typical-year dataset
+ */
+public interface WeatherTimeSeries {
+
+    /**
+     * Weather at the given instant, written into {@code into} so stepping through time does not allocate
+     *
+     * @return {@code into}
+     */
+    WeatherData sample(long epochMilli, WeatherData into);
+}
@@ -0,0 +1,116 @@
+package com.p3bustos.heliossim.domain.services;
+
+import com.p3bustos.heliossim.domain.models.BatchRunReport;
+import com.p3bustos.heliossim.domain.models.BatterySystem;
+import com.p3bustos.heliossim.domain.models.EnergyBalance;
+import com.p3bustos.heliossim.domain.models.LoadProfile;
+import com.p3bustos.heliossim.domain.models.SimulatedClock;
+import com.p3bustos.heliossim.domain.models.SiteDefinition;
+import com.p3bustos.heliossim.domain.models.SolarSystem;
+import com.p3bustos.heliossim.domain.models.WeatherTimeSeries;
+import com.p3bustos.heliossim.domain.solar.ClearSkyTable;
+import com.p3bustos.heliossim.dto.WeatherData;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+
+/**
+ * Runs the solar → load → energy flow pipeline on a simulated clock as fast as the CPU allows
+ *
+ * Each run works on its own solar, battery and load models built from the site
+ * definition, so it never disturbs the live simulation state.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BatchSimulationRunner {
+
+    private final SolarSimulator solarSimulator;
+    private final LoadSimulator loadSimulator;
+    private final EnergyFlowManager energyFlowManager;
+
+    /**
+     * Simulate a site between two instants at a fixed step
+     *
+     * @param weather Fixed weather for the whole run, or null for clear-sky defaults
+     */
+    public BatchRunReport run(SiteDefinition site, Instant start, Instant end, Duration step, WeatherData weather) {
+        return run(site, start, end, step, weather, null);
+    }
+    
+    /**
+     * Simulate a site between two instants at a fixed step, sampling weather from a time series at every step
+     */
+    public BatchRunReport runWithWeatherSeries(SiteDefinition site, Instant start, Instant end, Duration step,
+                                               WeatherTimeSeries weatherSeries) {
+        return run(site, start, end, step, new WeatherData(), weatherSeries);
+    }
+    
+    private BatchRunReport run(SiteDefinition site, Instant start, Instant end, Duration step, WeatherData weather,
+                               WeatherTimeSeries weatherSeries) {
+        SolarSystem solar = site.toSolarSystem();
+        BatterySystem battery = site.toBatterySystem();
+        LoadProfile load = site.toLoadProfile();
+        ClearSkyTable clearSky = solarSimulator.clearSkyTable(site.getLatitude(), site.getLongitude());
+        SimulatedClock clock = new SimulatedClock(start, end, step, ZoneId.of(site.getTimezone()));
+
+        double deltaTimeSeconds = clock.getStepSeconds();
+        double stepHours = deltaTimeSeconds / 3600.0;
+        double solarKwh = 0, loadKwh = 0, importKwh = 0, exportKwh = 0, chargeKwh = 0, dischargeKwh = 0;
+        long steps = 0;
+
+        log.info("Batch run for {} from {} to {} at {}s steps", site.getSiteId(), start, end, deltaTimeSeconds);
+        long startNanos = System.nanoTime();
+
+        while (clock.hasNext()) {
+            if (weatherSeries != null) {
+                weatherSeries.sample(clock.getEpochMilli(), weather);
+            }
+            double solarKw = solarSimulator.simulateProduction(solar, clearSky, clock.getEpochMilli(), weather);
+            double loadKw = loadSimulator.simulateLoad(load, clock.getLocalHour());
+            EnergyBalance balance = energyFlowManager.calculateEnergyFlow(battery, solarKw, loadKw, deltaTimeSeconds);
+
+            solarKwh += solarKw * stepHours;
+            loadKwh += loadKw * stepHours;
+            importKwh += Math.max(0, balance.getGridPowerKw()) * stepHours;
+            exportKwh += Math.max(0, -balance.getGridPowerKw()) * stepHours;
+            chargeKwh += balance.getSolarToBatteryKw() * stepHours;
+            dischargeKwh += balance.getBatteryToLoadKw() * stepHours;
+
+            steps++;
+            clock.advance();
+        }
+
+        double wallSeconds = (System.nanoTime() - startNanos) / 1e9;
+        double simulatedSeconds = steps * deltaTimeSeconds;
+
+        BatchRunReport report = BatchRunReport.builder()
+                .siteId(site.getSiteId())
+                .start(start)
+                .end(end)
+                .stepSeconds(deltaTimeSeconds)
+                .steps(steps)
+                .simulatedSeconds(simulatedSeconds)
+                .wallSeconds(wallSeconds)
+                .simulatedSecondsPerWallSecond(wallSeconds > 0 ? simulatedSeconds / wallSeconds : Double.POSITIVE_INFINITY)
+                .solarKwh(solarKwh)
+                .loadKwh(loadKwh)
+                .gridImportKwh(importKwh)
+                .gridExportKwh(exportKwh)
+                .batteryChargeKwh(chargeKwh)
+                .batteryDischargeKwh(dischargeKwh)
+                .finalSocPercent(battery.getSocPercent())
+                .build();
+
+        log.info("Batch run complete: {} steps in {}s ({} simulated s per wall s)",
+            steps,
+            String.format("%.2f", wallSeconds),
+            String.format("%.0f", report.getSimulatedSecondsPerWallSecond())
+        );
+        return report;
+    }
+}
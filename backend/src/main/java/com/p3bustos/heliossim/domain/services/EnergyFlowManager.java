@@ -1,5 +1,6 @@
 package com.p3bustos.heliossim.domain.services;
 
+import com.p3bustos.heliossim.domain.models.BatterySystem;
 import com.p3bustos.heliossim.domain.models.EnergyBalance;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -25,10 +26,32 @@ public class EnergyFlowManager {
     public EnergyBalance calculateEnergyFlow(double solarProductionKw, 
                                             double loadConsumptionKw,
                                             double deltaTimeSeconds) {
-        
-        EnergyBalance.EnergyBalanceBuilder balance = EnergyBalance.builder()
-                .solarProductionKw(solarProductionKw)
-                .loadConsumptionKw(loadConsumptionKw);
+        return calculateEnergyFlow(batterySimulator.getBatterySystem(),
+                solarProductionKw, loadConsumptionKw, deltaTimeSeconds);
+    }
+    
+    /**
+     * Calculate energy balance against an arbitrary battery (used for batch runs)
+     */
+    public EnergyBalance calculateEnergyFlow(BatterySystem battery,
+                                            double solarProductionKw,
+                                            double loadConsumptionKw,
+                                            double deltaTimeSeconds) {
+        return calculateEnergyFlow(battery, solarProductionKw, loadConsumptionKw, deltaTimeSeconds,
+                EnergyBalance.builder().build());
+    }
+    
+    /**
+     * Calculate energy balance into a caller-owned result holder, so the tick
+     * hot path does not allocate
+     * 
+     * @return The populated {@code result}
+     */
+    public EnergyBalance calculateEnergyFlow(BatterySystem battery,
+                                            double solarProductionKw,
+                                            double loadConsumptionKw,
+                                            double deltaTimeSeconds,
+                                            EnergyBalance result) {
         
         double solarToLoadKw = 0;
         double solarToBatteryKw = 0;
@@ -45,7 +68,7 @@ public class EnergyFlowManager {
             
             if (excessSolar > 0) {
                 // Try to charge battery with excess solar
-                double powerConsumedByBattery = batterySimulator.charge(excessSolar, deltaTimeSeconds);
+                double powerConsumedByBattery = battery.charge(excessSolar, deltaTimeSeconds);
                 solarToBatteryKw = powerConsumedByBattery;
                 batteryPowerKw = -powerConsumedByBattery; // negative = charging
                 
@@ -62,7 +85,7 @@ public class EnergyFlowManager {
             double deficit = loadConsumptionKw - solarProductionKw;
             
             // Try to discharge battery to cover deficit
-            double powerFromBattery = batterySimulator.discharge(deficit, deltaTimeSeconds);
+            double powerFromBattery = battery.discharge(deficit, deltaTimeSeconds);
             batteryToLoadKw = powerFromBattery;
             batteryPowerKw = powerFromBattery; // positive = discharging
             
@@ -74,14 +97,15 @@ public class EnergyFlowManager {
             }
         }
         
-        return balance
-                .batteryPowerKw(batteryPowerKw)
-                .gridPowerKw(gridPowerKw)
-                .solarToLoadKw(solarToLoadKw)
-                .solarToBatteryKw(solarToBatteryKw)
-                .solarToGridKw(solarToGridKw)
-                .batteryToLoadKw(batteryToLoadKw)
-                .gridToLoadKw(gridToLoadKw)
-                .build();
+        result.setSolarProductionKw(solarProductionKw);
+        result.setLoadConsumptionKw(loadConsumptionKw);
+        result.setBatteryPowerKw(batteryPowerKw);
+        result.setGridPowerKw(gridPowerKw);
+        result.setSolarToLoadKw(solarToLoadKw);
+        result.setSolarToBatteryKw(solarToBatteryKw);
+        result.setSolarToGridKw(solarToGridKw);
+        result.setBatteryToLoadKw(batteryToLoadKw);
+        result.setGridToLoadKw(gridToLoadKw);
+        return result;
     }
 }
\ No newline at end of file
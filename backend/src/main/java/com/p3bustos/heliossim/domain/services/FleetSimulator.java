@@ -0,0 +1,525 @@
+package com.p3bustos.heliossim.domain.services;
+
+import com.p3bustos.heliossim.config.SimulatorProperties;
+import com.p3bustos.heliossim.domain.kernels.SolarProductionKernel;
+import com.p3bustos.heliossim.domain.models.EnergyBalance;
+import com.p3bustos.heliossim.domain.models.FleetState;
+import com.p3bustos.heliossim.domain.models.GeoCell;
+import com.p3bustos.heliossim.domain.models.LocalTimeResolver;
+import com.p3bustos.heliossim.domain.models.SeqLock;
+import com.p3bustos.heliossim.domain.models.SiteDefinition;
+import com.p3bustos.heliossim.domain.models.TelemetryFrame;
+import com.p3bustos.heliossim.domain.solar.ClearSkyTable;
+import com.p3bustos.heliossim.dto.WeatherData;
+import com.p3bustos.heliossim.infrastructure.fleet.SiteRegistryLoader;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Simulates every site in the fleet registry within a single tick
+ *
+ * Site state lives in a columnar {@link FleetState}, so a tick is a handful of
+ * linear passes over primitive arrays and no per-site objects or Spring beans exist.
+ * The fleet is cut into fixed shards of contiguous ordinals that are ticked in
+ * parallel on a dedicated fork-join pool. Within a tick each shard is owned by exactly
+ * one worker, and the fork/join edges order successive ticks, so the battery columns
+ * are mutated without locks. Each tick is bracketed by a {@link SeqLock}, through which
+ * other threads read consistent per-site and fleet-wide state without blocking it.
+ *
+ * With adaptive stepping a shard whose sites are all dark with a pinned or empty
+ * battery is skipped until one of its inputs can change: a cell sees daylight, a zone
+ * enters a new load hour or a weather cell reports a new temperature. Skipped sites
+ * would recompute exactly the values they already hold, so the fleet balance is still
+ * produced every tick and integrates to the same energy.
+ */
+@Slf4j
+@Service
+public class FleetSimulator {
+
+    private static final double DEFAULT_WEATHER_CELL_DEGREES = 0.25;
+
+    private final SolarSimulator solarSimulator;
+    private final SolarProductionKernel productionKernel;
+    private final int shardSize;
+    private final ForkJoinPool pool;
+
+    private FleetState state = new FleetState(List.of());
+
+    // Sites are grouped by timezone so local time is resolved once per zone per tick
+    private LocalTimeResolver[] zones = new LocalTimeResolver[0];
+    private int[] siteZone = new int[0];
+
+    // ... by weather cell, so nearby sites share one observation ...
+    private double weatherCellDegrees = DEFAULT_WEATHER_CELL_DEGREES;
+    private GeoCell[] weatherCells = new GeoCell[0];
+    private AtomicReferenceArray<WeatherData> weatherCellData = new AtomicReferenceArray<>(0);
+    private int[] siteWeatherCell = new int[0];
+
+    // ... and by location cell (clear-sky table and weather cell) so irradiance is computed once per cell per tick
+    private ClearSkyTable[] cells = new ClearSkyTable[0];
+    private int[] cellWeatherCell = new int[0];
+    private int[] siteCell = new int[0];
+
+    // Per-tick scratch columns, sized once per fleet
+    private WeatherData[] tickWeather = new WeatherData[0];
+    private double[] weatherCellAmbientTemp = new double[0];
+    private double[] cellIrradiance = new double[0];
+    private int[] zoneHour = new int[0];
+    private double[] siteIrradiance = new double[0];
+    private double[] siteAmbientTemp = new double[0];
+    private int[] siteHour = new int[0];
+
+    // Per-shard partial sums, reduced on the calling thread into a reused total
+    private EnergyBalance[] shardBalances = new EnergyBalance[0];
+    private final EnergyBalance fleetBalance = EnergyBalance.builder().build();
+
+    // Adaptive stepping: location cells of each shard, whether the shard settled when last
+    // computed, and the input version it was computed against
+    private boolean adaptiveStepping = true;
+    private int[][] shardCells = new int[0][];
+    private boolean[] shardSettled = new boolean[0];
+    private long[] shardInputVersion = new long[0];
+    private boolean[] shardSkipped = new boolean[0];
+    private long inputVersion;
+    private int lastTickSkippedSites;
+
+    // Inputs of the tick in progress, published to workers by the pool hand-off
+    private double tickDeltaTimeSeconds;
+
+    private long lastTickNanos;
+
+    // Guards every column and the fleet balance for readers on other threads
+    private final SeqLock snapshotLock = new SeqLock();
+    private long lastTickEpochMilli;
+    private long tickCount;
+
+    @Autowired
+    public FleetSimulator(SimulatorProperties properties,
+                          SiteRegistryLoader registryLoader,
+                          SolarSimulator solarSimulator) {
+        this(solarSimulator, properties.getFleet().getParallelism(), properties.getFleet().getShardSize(),
+            properties.getFleet().isVectorKernel() ? SolarProductionKernel.best() : SolarProductionKernel.scalar());
+        this.weatherCellDegrees = properties.getWeather().getCellDegrees();
+        this.adaptiveStepping = properties.getFleet().isAdaptiveStepping();
+
+        String registryFile = properties.getFleet().getRegistryFile();
+        if (registryFile != null && !registryFile.isBlank()) {
+            loadSites(registryLoader.load(registryFile));
+        }
+    }
+
+    /**
+     * Standalone fleet with its own worker pool (used for scaling reports and benchmarks)
+     *
+     * @param parallelism Worker threads; 0 or less uses all available processors
+     */
+    public FleetSimulator(SolarSimulator solarSimulator, int parallelism, int shardSize) {
+        this(solarSimulator, parallelism, shardSize, SolarProductionKernel.best());
+    }
+
+    public FleetSimulator(SolarSimulator solarSimulator, int parallelism, int shardSize,
+                          SolarProductionKernel productionKernel) {
+        this.solarSimulator = solarSimulator;
+        this.productionKernel = productionKernel;
+        this.shardSize = Math.max(1, shardSize);
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.pool = new ForkJoinPool(threads, FleetSimulator::newWorker, null, false);
+    }
+
+    /**
+     * Replace the simulated fleet with the given sites
+     */
+    public void loadSites(List<SiteDefinition> sites) {
+        int count = sites.size();
+        int[] zoneIndex = new int[count];
+        Map<ZoneId, Integer> zoneOrdinals = new HashMap<>();
+        List<ZoneId> zoneList = new ArrayList<>();
+        int[] weatherIndex = new int[count];
+        Map<GeoCell, Integer> weatherOrdinals = new HashMap<>();
+        List<GeoCell> weatherList = new ArrayList<>();
+        int[] cellIndex = new int[count];
+        Map<ClearSkyTable, Map<Integer, Integer>> cellOrdinals = new IdentityHashMap<>();
+        List<ClearSkyTable> cellList = new ArrayList<>();
+        List<Integer> cellWeatherList = new ArrayList<>();
+
+        for (int i = 0; i < count; i++) {
+            SiteDefinition site = sites.get(i);
+            ZoneId zone = ZoneId.of(site.getTimezone());
+            zoneIndex[i] = zoneOrdinals.computeIfAbsent(zone, z -> {
+                zoneList.add(z);
+                return zoneList.size() - 1;
+            });
+            GeoCell weatherCell = GeoCell.of(site.getLatitude(), site.getLongitude(), weatherCellDegrees);
+            int weather = weatherOrdinals.computeIfAbsent(weatherCell, w -> {
+                weatherList.add(w);
+                return weatherList.size() - 1;
+            });
+            weatherIndex[i] = weather;
+            ClearSkyTable cell = solarSimulator.clearSkyTable(site.getLatitude(), site.getLongitude());
+            cellIndex[i] = cellOrdinals.computeIfAbsent(cell, c -> new HashMap<>()).computeIfAbsent(weather, w -> {
+                cellList.add(cell);
+                cellWeatherList.add(w);
+                return cellList.size() - 1;
+            });
+        }
+
+        int shards = (count + shardSize - 1) / shardSize;
+        EnergyBalance[] balances = new EnergyBalance[shards];
+        int[][] cellsByShard = new int[shards][];
+        for (int s = 0; s < shards; s++) {
+            balances[s] = EnergyBalance.builder().build();
+            cellsByShard[s] = Arrays.stream(cellIndex, s * shardSize, Math.min((s + 1) * shardSize, count))
+                .distinct()
+                .toArray();
+        }
+
+        FleetState loaded = new FleetState(sites);
+        snapshotLock.beginWrite();
+        this.state = loaded;
+        this.zones = zoneList.stream().map(LocalTimeResolver::new).toArray(LocalTimeResolver[]::new);
+        this.siteZone = zoneIndex;
+        this.weatherCells = weatherList.toArray(GeoCell[]::new);
+        this.weatherCellData = new AtomicReferenceArray<>(weatherCells.length);
+        this.siteWeatherCell = weatherIndex;
+        this.cells = cellList.toArray(ClearSkyTable[]::new);
+        this.cellWeatherCell = cellWeatherList.stream().mapToInt(Integer::intValue).toArray();
+        this.siteCell = cellIndex;
+        this.tickWeather = new WeatherData[weatherCells.length];
+        this.weatherCellAmbientTemp = new double[weatherCells.length];
+        this.cellIrradiance = new double[cells.length];
+        this.zoneHour = new int[zones.length];
+        this.siteIrradiance = new double[count];
+        this.siteAmbientTemp = new double[count];
+        this.siteHour = new int[count];
+        this.shardBalances = balances;
+        this.shardCells = cellsByShard;
+        this.shardSettled = new boolean[shards];
+        this.shardInputVersion = new long[shards];
+        this.shardSkipped = new boolean[shards];
+        reset(fleetBalance);
+        snapshotLock.endWrite();
+
+        log.info("Fleet initialized with {} sites across {} timezones, {} weather cells and {} location cells in {} shards on {} workers ({} production kernel)",
+            count, zones.length, weatherCells.length, cells.length, shards, pool.getParallelism(), productionKernel.name());
+    }
+
+    public boolean isEnabled() {
+        return state.getSize() > 0;
+    }
+
+    public int getSiteCount() {
+        return state.getSize();
+    }
+
+    public int getShardCount() {
+        return shardBalances.length;
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    public SolarProductionKernel getProductionKernel() {
+        return productionKernel;
+    }
+
+    public boolean isAdaptiveStepping() {
+        return adaptiveStepping;
+    }
+
+    /**
+     * Skip shards whose sites cannot change until their inputs do; on by default
+     */
+    public void setAdaptiveStepping(boolean adaptiveStepping) {
+        this.adaptiveStepping = adaptiveStepping;
+        Arrays.fill(shardSettled, false);
+    }
+
+    public FleetState getState() {
+        return state;
+    }
+
+    /**
+     * Weather cells of the fleet, indexed as in {@link #updateWeather(int, WeatherData)}
+     */
+    public List<GeoCell> getWeatherCells() {
+        return List.of(weatherCells);
+    }
+
+    /**
+     * Set the weather of one weather cell; safe to call from any thread
+     *
+     * Sites in cells without weather of their own use the weather passed to the tick.
+     */
+    public void updateWeather(int weatherCell, WeatherData weather) {
+        AtomicReferenceArray<WeatherData> data = weatherCellData;
+        if (weatherCell < data.length()) {
+            data.set(weatherCell, weather);
+        }
+    }
+
+    /**
+     * Sites left as they were by the most recent tick because adaptive stepping skipped their shard
+     */
+    public int getLastTickSkippedSites() {
+        return lastTickSkippedSites;
+    }
+
+    /**
+     * Wall time of the most recent tick in nanoseconds
+     */
+    public long getLastTickNanos() {
+        return lastTickNanos;
+    }
+
+    public EnergyBalance tick(Instant now, double deltaTimeSeconds, WeatherData weather) {
+        return tick(now.toEpochMilli(), deltaTimeSeconds, weather);
+    }
+
+    /**
+     * Advance every site by one tick
+     *
+     * @param weather Weather for sites whose cell has none of its own; may be null
+     * @return Fleet-wide energy balance (sum over all sites), reused and only valid until the next tick
+     */
+    public EnergyBalance tick(long epochMilli, double deltaTimeSeconds, WeatherData weather) {
+        long startNanos = System.nanoTime();
+        snapshotLock.beginWrite();
+        try {
+            return tickLocked(epochMilli, deltaTimeSeconds, weather, startNanos);
+        } finally {
+            snapshotLock.endWrite();
+        }
+    }
+
+    private EnergyBalance tickLocked(long epochMilli, double deltaTimeSeconds, WeatherData weather, long startNanos) {
+        lastTickEpochMilli = epochMilli;
+        tickCount++;
+
+        boolean inputsChanged = false;
+        for (int z = 0; z < zones.length; z++) {
+            int hour = zones[z].localHour(epochMilli);
+            inputsChanged |= hour != zoneHour[z];
+            zoneHour[z] = hour;
+        }
+        AtomicReferenceArray<WeatherData> latestWeather = weatherCellData;
+        for (int w = 0; w < tickWeather.length; w++) {
+            WeatherData cellWeather = latestWeather.get(w);
+            tickWeather[w] = cellWeather != null ? cellWeather : weather;
+            double ambientTemp = solarSimulator.ambientTemperature(tickWeather[w]);
+            inputsChanged |= Double.doubleToLongBits(ambientTemp) != Double.doubleToLongBits(weatherCellAmbientTemp[w]);
+            weatherCellAmbientTemp[w] = ambientTemp;
+        }
+        if (inputsChanged) {
+            inputVersion++;
+        }
+        for (int c = 0; c < cells.length; c++) {
+            cellIrradiance[c] = solarSimulator.calculateIrradiance(cells[c], epochMilli, tickWeather[cellWeatherCell[c]]);
+        }
+        tickDeltaTimeSeconds = deltaTimeSeconds;
+
+        int shards = shardBalances.length;
+        if (shards == 1 || pool.getParallelism() == 1) {
+            for (int s = 0; s < shards; s++) {
+                tickShard(s);
+            }
+        } else if (shards > 1) {
+            pool.invoke(new ShardTask(0, shards));
+        }
+
+        EnergyBalance total = fleetBalance;
+        reset(total);
+        int skippedSites = 0;
+        for (int s = 0; s < shards; s++) {
+            add(total, shardBalances[s]);
+            if (shardSkipped[s]) {
+                skippedSites += Math.min(shardSize, state.getSize() - s * shardSize);
+            }
+        }
+        lastTickSkippedSites = skippedSites;
+
+        lastTickNanos = System.nanoTime() - startNanos;
+        if (log.isDebugEnabled()) {
+            log.debug("Fleet tick: {} sites ({} skipped) in {} ms ({} site-ticks/s)",
+                state.getSize(),
+                skippedSites,
+                String.format("%.2f", lastTickNanos / 1e6),
+                String.format("%.0f", state.getSize() / (lastTickNanos / 1e9))
+            );
+        }
+        return total;
+    }
+
+    /**
+     * Copy the state of one site as of the latest completed tick; safe to call from any thread
+     *
+     * @return Completed ticks at the time of the copy
+     * @throws IndexOutOfBoundsException if there is no site with that ordinal
+     */
+    public long readSite(int ordinal, TelemetryFrame into) {
+        while (true) {
+            long stamp = snapshotLock.readBegin();
+            FleetState current = state;
+            if (ordinal < 0 || ordinal >= current.getSize()) {
+                if (snapshotLock.validate(stamp)) {
+                    throw new IndexOutOfBoundsException("No fleet site with ordinal " + ordinal);
+                }
+                continue;
+            }
+            current.copySite(ordinal, into);
+            into.setEpochMilli(lastTickEpochMilli);
+            long ticks = tickCount;
+            if (snapshotLock.validate(stamp)) {
+                return ticks;
+            }
+        }
+    }
+
+    /**
+     * Copy the fleet-wide balance of the latest completed tick; safe to call from any thread
+     *
+     * @return Completed ticks at the time of the copy
+     */
+    public long readBalance(EnergyBalance into) {
+        while (true) {
+            long stamp = snapshotLock.readBegin();
+            reset(into);
+            add(into, fleetBalance);
+            long ticks = tickCount;
+            if (snapshotLock.validate(stamp)) {
+                return ticks;
+            }
+        }
+    }
+
+    /**
+     * Ticks completed since startup
+     */
+    public long getTickCount() {
+        while (true) {
+            long stamp = snapshotLock.readBegin();
+            long ticks = tickCount;
+            if (snapshotLock.validate(stamp)) {
+                return ticks;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Run the full pipeline for the sites of one shard
+     */
+    private void tickShard(int shard) {
+        boolean dark = shardDark(shard);
+        if (adaptiveStepping && dark && shardSettled[shard] && shardInputVersion[shard] == inputVersion) {
+            shardSkipped[shard] = true;
+            return;
+        }
+        shardSkipped[shard] = false;
+
+        int from = shard * shardSize;
+        int to = Math.min(from + shardSize, state.getSize());
+
+        for (int i = from; i < to; i++) {
+            siteIrradiance[i] = cellIrradiance[siteCell[i]];
+            siteAmbientTemp[i] = weatherCellAmbientTemp[siteWeatherCell[i]];
+            siteHour[i] = zoneHour[siteZone[i]];
+        }
+
+        productionKernel.calculateProduction(state, from, to, siteIrradiance, siteAmbientTemp);
+        state.calculateLoad(from, to, siteHour);
+        state.dispatch(from, to, tickDeltaTimeSeconds);
+
+        EnergyBalance balance = shardBalances[shard];
+        reset(balance);
+        state.accumulate(from, to, balance);
+
+        shardSettled[shard] = dark && state.isSettled(from, to);
+        shardInputVersion[shard] = inputVersion;
+    }
+
+    /**
+     * Whether no location cell of the shard receives any irradiance this tick
+     */
+    private boolean shardDark(int shard) {
+        for (int c : shardCells[shard]) {
+            if (cellIrradiance[c] != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void reset(EnergyBalance balance) {
+        balance.setSolarProductionKw(0);
+        balance.setLoadConsumptionKw(0);
+        balance.setBatteryPowerKw(0);
+        balance.setGridPowerKw(0);
+        balance.setSolarToLoadKw(0);
+        balance.setSolarToBatteryKw(0);
+        balance.setSolarToGridKw(0);
+        balance.setBatteryToLoadKw(0);
+        balance.setGridToLoadKw(0);
+    }
+
+    private static void add(EnergyBalance total, EnergyBalance part) {
+        total.setSolarProductionKw(total.getSolarProductionKw() + part.getSolarProductionKw());
+        total.setLoadConsumptionKw(total.getLoadConsumptionKw() + part.getLoadConsumptionKw());
+        total.setBatteryPowerKw(total.getBatteryPowerKw() + part.getBatteryPowerKw());
+        total.setGridPowerKw(total.getGridPowerKw() + part.getGridPowerKw());
+        total.setSolarToLoadKw(total.getSolarToLoadKw() + part.getSolarToLoadKw());
+        total.setSolarToBatteryKw(total.getSolarToBatteryKw() + part.getSolarToBatteryKw());
+        total.setSolarToGridKw(total.getSolarToGridKw() + part.getSolarToGridKw());
+        total.setBatteryToLoadKw(total.getBatteryToLoadKw() + part.getBatteryToLoadKw());
+        total.setGridToLoadKw(total.getGridToLoadKw() + part.getGridToLoadKw());
+    }
+
+    private static ForkJoinWorkerThread newWorker(ForkJoinPool pool) {
+        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setName("fleet-shard-" + thread.getPoolIndex());
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    /**
+     * Splits a shard range in halves until a single shard remains, then ticks it
+     */
+    private class ShardTask extends RecursiveAction {
+        private final int fromShard;
+        private final int toShard;
+
+        ShardTask(int fromShard, int toShard) {
+            this.fromShard = fromShard;
+            this.toShard = toShard;
+        }
+
+        @Override
+        protected void compute() {
+            if (toShard - fromShard == 1) {
+                tickShard(fromShard);
+                return;
+            }
+            int mid = (fromShard + toShard) >>> 1;
+            invokeAll(new ShardTask(fromShard, mid), new ShardTask(mid, toShard));
+        }
+    }
+}
@@ -28,7 +28,21 @@ public class LoadSimulator {
      * Calculate current load consumption based on time of day
      */
     public double simulateLoad(ZonedDateTime currentTime) {
-        return loadProfile.calculateLoad(currentTime.toLocalTime());
+        return simulateLoad(loadProfile, currentTime);
+    }
+    
+    /**
+     * Calculate load consumption for an arbitrary load profile (used for fleet sites)
+     */
+    public double simulateLoad(LoadProfile profile, ZonedDateTime currentTime) {
+        return profile.calculateLoad(currentTime.toLocalTime());
+    }
+    
+    /**
+     * Calculate load consumption from a precomputed local hour (used by batch runs)
+     */
+    public double simulateLoad(LoadProfile profile, int localHour) {
+        return profile.calculateLoad(localHour);
     }
     
     public LoadProfile getLoadProfile() {
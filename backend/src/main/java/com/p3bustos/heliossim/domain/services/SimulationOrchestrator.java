@@ -2,114 +2,250 @@ package com.p3bustos.heliossim.domain.services;
 
 import com.p3bustos.heliossim.config.SimulatorProperties;
 import com.p3bustos.heliossim.domain.models.EnergyBalance;
+import com.p3bustos.heliossim.domain.models.FleetState;
+import com.p3bustos.heliossim.domain.models.LocalTimeResolver;
+import com.p3bustos.heliossim.domain.models.SeqLock;
+import com.p3bustos.heliossim.domain.models.TelemetryFrame;
 import com.p3bustos.heliossim.dto.*;
+import com.p3bustos.heliossim.infrastructure.metrics.TickMetrics;
+import com.p3bustos.heliossim.infrastructure.metrics.TickMetrics.Stage;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.time.Instant;
 import java.time.ZoneId;
-import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Single writer of the simulation state
+ *
+ * Only the tick thread touches the solar, battery and load models. Every other thread
+ * sees the site through {@link #readTelemetry}, a seqlock-published copy of the latest
+ * tick, and hands weather in through {@link #updateWeather}.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class SimulationOrchestrator {
     
+    private static final long SNAPSHOT_LOG_INTERVAL_MS = 10_000;
+    
     private final SolarSimulator solarSimulator;
     private final BatterySimulator batterySimulator;
     private final LoadSimulator loadSimulator;
     private final EnergyFlowManager energyFlowManager;
+    private final FleetSimulator fleetSimulator;
     private final SimulatorProperties properties;
+    private final TickMetrics metrics;
+    private final List<TelemetrySink> telemetrySinks;
+    
+    // Replaced wholesale by the weather thread, read once per tick
+    private volatile WeatherData currentWeather;
+    
+    // Reused on every tick so the single-site hot path does not allocate
+    private final EnergyBalance energyBalance = EnergyBalance.builder().build();
+    private final TelemetryFrame telemetryFrame = new TelemetryFrame();
+    private final TelemetryFrame fleetFrame = new TelemetryFrame();
     
-    private WeatherData currentWeather;
+    // Copy of the latest tick's frame for readers on other threads
+    private final TelemetryFrame publishedFrame = new TelemetryFrame();
+    private final SeqLock snapshotLock = new SeqLock();
+    private LocalTimeResolver localTime;
+    private long lastSnapshotLogMillis;
+    
+    @PostConstruct
+    void init() {
+        localTime = new LocalTimeResolver(ZoneId.of(properties.getLocation().getTimezone()));
+        telemetryFrame.setSiteOrdinal(0);
+        telemetryFrame.setSiteId(properties.getSiteId());
+        publishedFrame.copyFrom(telemetryFrame);
+    }
     
     /**
-     * Main simulation loop - runs at configured rate
+     * Main simulation loop - called by the tick scheduler at the configured rate
+     *
+     * @param deltaTimeSeconds Measured time since the previous tick (for battery charge/discharge calculations)
      */
-    @Scheduled(fixedDelayString = "${simulator.publishing.rate-ms}")
-    public void simulateTick() {
+    public void simulateTick(long epochMilli, double deltaTimeSeconds) {
+        if (properties.getBatch().isEnabled() || properties.getReplay().isEnabled()) {
+            // The batch runner or the replayer owns the outputs while configured
+            return;
+        }
+        
         try {
-            // Get current time in configured timezone
-            ZonedDateTime currentTime = ZonedDateTime.now(
-                ZoneId.of(properties.getLocation().getTimezone())
-            );
-            
-            // Time delta in seconds (for battery charge/discharge calculations)
-            double deltaTimeSeconds = properties.getPublishing().getRateMs() / 1000.0;
+            long startNanos = System.nanoTime();
+            long periodNanos = TimeUnit.MILLISECONDS.toNanos(properties.getPublishing().getRateMs());
             
-            // Simulate solar production
-            double solarProductionKw = solarSimulator.simulateProduction(currentTime, currentWeather);
+            tick(epochMilli, deltaTimeSeconds);
             
-            // Simulate load consumption
-            double loadConsumptionKw = loadSimulator.simulateLoad(currentTime);
-            
-            // Calculate energy balance and flows
-            EnergyBalance energyBalance = energyFlowManager.calculateEnergyFlow(
-                solarProductionKw,
-                loadConsumptionKw,
-                deltaTimeSeconds
-            );
-            
-            // Build telemetry
-            PowerTelemetry telemetry = buildTelemetry(currentTime.toInstant(), energyBalance);
-            
-            // Publish telemetry (will implement MQTT publisher next)
-            publishTelemetry(telemetry);
+            metrics.recordTick(System.nanoTime() - startNanos, periodNanos);
             
+        } catch (Exception e) {
+            log.error("Error in simulation tick", e);
+        }
+    }
+    
+    /**
+     * Advance the simulation by one tick at the given wall time
+     *
+     * In single-site mode this path reuses pre-sized holders and does not allocate;
+     * DTOs are only materialized when telemetry is actually published.
+     */
+    public void tick(long epochMilli, double deltaTimeSeconds) {
+        WeatherData weather = currentWeather;
+        if (fleetSimulator.isEnabled()) {
+            simulateFleetTick(epochMilli, deltaTimeSeconds, weather);
+            return;
+        }
+        
+        int localSecondOfDay = localTime.localSecondOfDay(epochMilli);
+        long stageStart = System.nanoTime();
+        
+        // Simulate solar production
+        double solarProductionKw = solarSimulator.simulateProduction(
+            solarSimulator.getSolarSystem(), epochMilli, weather);
+        stageStart = endStage(Stage.SOLAR, stageStart);
+        
+        // Simulate load consumption
+        double loadConsumptionKw = loadSimulator.simulateLoad(
+            loadSimulator.getLoadProfile(), localSecondOfDay / 3600);
+        stageStart = endStage(Stage.LOAD, stageStart);
+        
+        // Calculate energy balance and flows
+        energyFlowManager.calculateEnergyFlow(
+            batterySimulator.getBatterySystem(),
+            solarProductionKw,
+            loadConsumptionKw,
+            deltaTimeSeconds,
+            energyBalance
+        );
+        stageStart = endStage(Stage.ENERGY_FLOW, stageStart);
+        
+        // Build telemetry and publish it to readers
+        fillTelemetry(epochMilli, energyBalance);
+        publishSnapshot(telemetryFrame);
+        stageStart = endStage(Stage.BUILD_TELEMETRY, stageStart);
+        
+        // Publish telemetry
+        publishTelemetry(telemetryFrame);
+        endStage(Stage.PUBLISH, stageStart);
+        
+        if (log.isDebugEnabled()) {
             log.debug("Telemetry: Solar={} kW, Load={} kW, Battery={}% ({} kW), Grid={} kW",
                 String.format("%.2f", solarProductionKw),
                 String.format("%.2f", loadConsumptionKw),
-                String.format("%.1f", batterySimulator.getBatterySystem().getSocPercent()),
-                String.format("%.2f", batterySimulator.getBatterySystem().getCurrentPowerKw()),
+                String.format("%.1f", telemetryFrame.getSocPercent()),
+                String.format("%.2f", telemetryFrame.getBatteryPowerKw()),
                 String.format("%.2f", energyBalance.getGridPowerKw())
             );
-            
-        } catch (Exception e) {
-            log.error("Error in simulation tick", e);
         }
     }
     
     /**
-     * Build complete power telemetry message
+     * Advance every registry site instead of the single configured site, then hand
+     * each site's frame to the sinks in ordinal order
+     */
+    private void simulateFleetTick(long epochMilli, double deltaTimeSeconds, WeatherData weather) {
+        long stageStart = System.nanoTime();
+        EnergyBalance fleetBalance = fleetSimulator.tick(epochMilli, deltaTimeSeconds, weather);
+        stageStart = endStage(Stage.FLEET, stageStart);
+        
+        // The tick thread is the only writer of the fleet columns, so they are read directly
+        FleetState fleet = fleetSimulator.getState();
+        for (int i = 0; i < fleet.getSize(); i++) {
+            fleet.copySite(i, fleetFrame);
+            fleetFrame.setEpochMilli(epochMilli);
+            publishToSinks(fleetFrame);
+        }
+        endStage(Stage.PUBLISH, stageStart);
+        logSnapshot(fleetBalance.getSolarProductionKw(), fleetBalance.getLoadConsumptionKw(), fleet.getSize());
+        
+        if (log.isDebugEnabled()) {
+            log.debug("Fleet telemetry: {} sites, Solar={} kW, Load={} kW, Grid={} kW",
+                fleetSimulator.getSiteCount(),
+                String.format("%.2f", fleetBalance.getSolarProductionKw()),
+                String.format("%.2f", fleetBalance.getLoadConsumptionKw()),
+                String.format("%.2f", fleetBalance.getGridPowerKw())
+            );
+        }
+    }
+    
+    /**
+     * Record the stage that started at {@code stageStart} and return the start of the next one
      */
-    private PowerTelemetry buildTelemetry(Instant timestamp, EnergyBalance energyBalance) {
+    private long endStage(Stage stage, long stageStart) {
+        long now = System.nanoTime();
+        metrics.recordStage(stage, now - stageStart);
+        return now;
+    }
+    
+    /**
+     * Fill the reusable telemetry frame from the current model state
+     */
+    private void fillTelemetry(long epochMilli, EnergyBalance energyBalance) {
         var solarSystem = solarSimulator.getSolarSystem();
         var batterySystem = batterySimulator.getBatterySystem();
         var loadProfile = loadSimulator.getLoadProfile();
         
-        return PowerTelemetry.builder()
-                .timestamp(timestamp)
-                .siteId("home-001")
-                .solar(SolarData.builder()
-                        .productionKw(solarSystem.getCurrentProductionKw())
-                        .irradianceWM2(solarSystem.getCurrentIrradianceWM2())
-                        .panelTempC(solarSystem.getCurrentPanelTempC())
-                        .build())
-                .battery(BatteryData.builder()
-                        .socPercent(batterySystem.getSocPercent())
-                        .powerKw(batterySystem.getCurrentPowerKw())
-                        .voltageV(batterySystem.getVoltage())
-                        .currentA(batterySystem.getCurrent())
-                        .build())
-                .load(LoadData.builder()
-                        .consumptionKw(loadProfile.getCurrentConsumptionKw())
-                        .build())
-                .grid(GridData.builder()
-                        .powerKw(energyBalance.getGridPowerKw())
-                        .build())
-                .energyFlow(energyBalance.toEnergyFlowData())
-                .build();
+        TelemetryFrame frame = telemetryFrame;
+        frame.setEpochMilli(epochMilli);
+        frame.setSolarProductionKw(solarSystem.getCurrentProductionKw());
+        frame.setIrradianceWM2(solarSystem.getCurrentIrradianceWM2());
+        frame.setPanelTempC(solarSystem.getCurrentPanelTempC());
+        frame.setSocPercent(batterySystem.getSocPercent());
+        frame.setBatteryPowerKw(batterySystem.getCurrentPowerKw());
+        frame.setBatteryVoltageV(batterySystem.getVoltage());
+        frame.setBatteryCurrentA(batterySystem.getCurrent());
+        frame.setLoadConsumptionKw(loadProfile.getCurrentConsumptionKw());
+        frame.setEnergyFlow(energyBalance);
+    }
+    
+    private void publishSnapshot(TelemetryFrame frame) {
+        snapshotLock.beginWrite();
+        publishedFrame.copyFrom(frame);
+        snapshotLock.endWrite();
     }
     
     /**
-     * Publish telemetry to MQTT (placeholder for now)
+     * Copy the site's telemetry as of the latest tick; safe to call from any thread
+     *
+     * Never blocks the tick: a read that overlaps a tick is simply retried.
+     *
+     * @return Ticks completed at the time of the copy; 0 before the first tick
      */
-    private void publishTelemetry(PowerTelemetry telemetry) {
-        // Will implement MQTT publisher in next step
-        // For now, just log every 10 seconds to avoid spam
-        if (System.currentTimeMillis() % 10000 < properties.getPublishing().getRateMs()) {
+    public long readTelemetry(TelemetryFrame into) {
+        while (true) {
+            long stamp = snapshotLock.readBegin();
+            into.copyFrom(publishedFrame);
+            if (snapshotLock.validate(stamp)) {
+                return stamp >>> 1;
+            }
+        }
+    }
+    
+    /**
+     * Single-site ticks completed since startup
+     */
+    public long getTickCount() {
+        return snapshotLock.getWrites();
+    }
+    
+    public WeatherData getCurrentWeather() {
+        return currentWeather;
+    }
+    
+    /**
+     * Hand the frame to every telemetry sink and log a snapshot every 10 seconds
+     */
+    private void publishTelemetry(TelemetryFrame frame) {
+        publishToSinks(frame);
+        
+        long now = System.currentTimeMillis();
+        if (now - lastSnapshotLogMillis >= SNAPSHOT_LOG_INTERVAL_MS && log.isInfoEnabled()) {
+            lastSnapshotLogMillis = now;
+            PowerTelemetry telemetry = frame.toPowerTelemetry();
             log.info("Telemetry snapshot: Solar={} kW, Battery={}%, Load={} kW",
                 String.format("%.2f", telemetry.getSolar().getProductionKw()),
                 String.format("%.1f", telemetry.getBattery().getSocPercent()),
@@ -118,14 +254,34 @@ public class SimulationOrchestrator {
         }
     }
     
+    private void publishToSinks(TelemetryFrame frame) {
+        for (int i = 0; i < telemetrySinks.size(); i++) {
+            telemetrySinks.get(i).publish(frame);
+        }
+    }
+    
+    private void logSnapshot(double solarKw, double loadKw, int sites) {
+        long now = System.currentTimeMillis();
+        if (now - lastSnapshotLogMillis >= SNAPSHOT_LOG_INTERVAL_MS && log.isInfoEnabled()) {
+            lastSnapshotLogMillis = now;
+            log.info("Fleet telemetry snapshot: {} sites, Solar={} kW, Load={} kW",
+                sites,
+                String.format("%.2f", solarKw),
+                String.format("%.2f", loadKw)
+            );
+        }
+    }
+    
     /**
-     * Update weather data (will be called by weather service)
+     * Hand over new weather from any thread; takes effect at the next tick
+     *
+     * The instance is shared with the tick thread and must not be modified afterwards.
      */
     public void updateWeather(WeatherData weather) {
         this.currentWeather = weather;
-        log.info("Weather updated: {}°C, {}% clouds", 
+        log.info("Weather updated: {}°C, {}% clouds",
             String.format("%.1f", weather.getTemperatureC()),
             String.format("%.0f", weather.getCloudCoverPercent())
         );
     }
-}
\ No newline at end of file
+}
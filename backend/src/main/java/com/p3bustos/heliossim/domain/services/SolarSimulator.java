@@ -2,11 +2,12 @@ package com.p3bustos.heliossim.domain.services;
 
 import com.p3bustos.heliossim.config.SimulatorProperties;
 import com.p3bustos.heliossim.domain.models.SolarSystem;
+import com.p3bustos.heliossim.domain.solar.ClearSkyTable;
+import com.p3bustos.heliossim.domain.solar.ClearSkyTableCache;
 import com.p3bustos.heliossim.dto.WeatherData;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalTime;
 import java.time.ZonedDateTime;
 
 @Slf4j
@@ -14,8 +15,10 @@ import java.time.ZonedDateTime;
 public class SolarSimulator {
     
     private final SolarSystem solarSystem;
+    private final ClearSkyTableCache clearSkyTables;
+    private final ClearSkyTable siteTable;
     
-    public SolarSimulator(SimulatorProperties properties) {
+    public SolarSimulator(SimulatorProperties properties, ClearSkyTableCache clearSkyTables) {
         var solarConfig = properties.getSystem().getSolar();
         this.solarSystem = SolarSystem.builder()
                 .capacityKw(solarConfig.getCapacityKw())
@@ -23,20 +26,59 @@ public class SolarSimulator {
                 .inverterEfficiency(solarConfig.getInverterEfficiency())
                 .temperatureCoefficient(solarConfig.getTemperatureCoefficient())
                 .build();
+        
+        var location = properties.getLocation();
+        this.clearSkyTables = clearSkyTables;
+        this.siteTable = clearSkyTables.forLocation(location.getLatitude(), location.getLongitude());
     }
     
     /**
      * Simulate solar production based on time of day and weather
      */
     public double simulateProduction(ZonedDateTime currentTime, WeatherData weather) {
-        LocalTime time = currentTime.toLocalTime();
+        return simulateProduction(solarSystem, currentTime, weather);
+    }
+    
+    /**
+     * Simulate production for an arbitrary solar system at the configured location
+     */
+    public double simulateProduction(SolarSystem system, ZonedDateTime currentTime, WeatherData weather) {
+        return simulateProduction(system, currentTime.toInstant().toEpochMilli(), weather);
+    }
+    
+    /**
+     * Simulate production at the configured location for the given instant
+     */
+    public double simulateProduction(SolarSystem system, long epochMilli, WeatherData weather) {
+        return simulateProduction(system, siteTable, epochMilli, weather);
+    }
+    
+    /**
+     * Simulate production for a site with its own clear-sky table (used by batch runs)
+     */
+    public double simulateProduction(SolarSystem system, ClearSkyTable table, long epochMilli, WeatherData weather) {
+        return system.calculateProduction(calculateIrradiance(table, epochMilli, weather), ambientTemperature(weather));
+    }
+    
+    /**
+     * Calculate irradiance in W/m² at the configured location, reduced by cloud cover
+     */
+    public double calculateIrradiance(ZonedDateTime currentTime, WeatherData weather) {
+        return calculateIrradiance(siteTable, currentTime.toInstant().toEpochMilli(), weather);
+    }
+    
+    /**
+     * Calculate irradiance in W/m² from a location's clear-sky table, reduced by cloud cover
+     *
+     * Weather that carries measured irradiance (historical datasets) is used as is.
+     */
+    public double calculateIrradiance(ClearSkyTable table, long epochMilli, WeatherData weather) {
+        if (weather != null && !Double.isNaN(weather.getGhiWM2())) {
+            return weather.getGhiWM2();
+        }
         
-        // Calculate theoretical solar irradiance based on time of day
-        double theoreticalIrradiance = calculateTheoreticalIrradiance(
-            time, 
-            weather != null ? weather.getSunrise() : null,
-            weather != null ? weather.getSunset() : null
-        );
+        // Clear-sky irradiance from the precomputed solar position table
+        double clearSkyIrradiance = table.irradiance(epochMilli);
         
         // Apply cloud cover reduction if weather data available
         double cloudFactor = 1.0;
@@ -44,52 +86,24 @@ public class SolarSimulator {
             cloudFactor = 1.0 - (weather.getCloudCoverPercent() / 100.0 * 0.75);
         }
         
-        double actualIrradiance = theoreticalIrradiance * cloudFactor;
-        
-        // Get temperature
-        double temperature = weather != null ? weather.getTemperatureC() : 25.0;
-        
-        // Calculate production
-        return solarSystem.calculateProduction(actualIrradiance, temperature);
+        return clearSkyIrradiance * cloudFactor;
     }
     
     /**
-     * Calculate theoretical solar irradiance based on time of day
-     * Simplified model using a sine curve between sunrise and sunset
+     * Ambient temperature from weather, or 25°C when no weather is available
      */
-    private double calculateTheoreticalIrradiance(LocalTime time, 
-                                                   java.time.Instant sunrise, 
-                                                   java.time.Instant sunset) {
-        // Default sunrise/sunset if not provided
-        int sunriseHour = 6;
-        int sunsetHour = 18;
-        
-        if (sunrise != null && sunset != null) {
-            sunriseHour = ZonedDateTime.ofInstant(sunrise, java.time.ZoneId.systemDefault()).getHour();
-            sunsetHour = ZonedDateTime.ofInstant(sunset, java.time.ZoneId.systemDefault()).getHour();
-        }
-        
-        int currentHour = time.getHour();
-        int currentMinute = time.getMinute();
-        double currentTimeDecimal = currentHour + (currentMinute / 60.0);
-        
-        // No sun before sunrise or after sunset
-        if (currentTimeDecimal < sunriseHour || currentTimeDecimal > sunsetHour) {
-            return 0.0;
-        }
-        
-        // Calculate position in the day (0 to 1, where 0.5 is solar noon)
-        double dayLength = sunsetHour - sunriseHour;
-        double timeIntoDay = currentTimeDecimal - sunriseHour;
-        double dayPosition = timeIntoDay / dayLength;
-        
-        // Use sine curve for solar irradiance (peaks at solar noon)
-        // Max irradiance is ~1000 W/m² on a clear day
-        double maxIrradiance = 1000.0;
-        return maxIrradiance * Math.sin(dayPosition * Math.PI);
+    public double ambientTemperature(WeatherData weather) {
+        return weather != null ? weather.getTemperatureC() : 25.0;
+    }
+    
+    /**
+     * Clear-sky table shared by every site in the same location cell
+     */
+    public ClearSkyTable clearSkyTable(double latitude, double longitude) {
+        return clearSkyTables.forLocation(latitude, longitude);
     }
     
     public SolarSystem getSolarSystem() {
         return solarSystem;
     }
-}
\ No newline at end of file
+}
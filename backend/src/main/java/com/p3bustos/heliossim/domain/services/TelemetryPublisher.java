@@ -0,0 +1,10 @@
+package com.p3bustos.heliossim.domain.services;
+
+/**
+ * Telemetry sink that delivers frames to consumers outside the simulator (MQTT, dashboards)
+ *
+ * Replays of recorded telemetry feed only these sinks, so recording and history
+ * sinks never see the same data twice.
+ */
+public interface TelemetryPublisher extends TelemetrySink {
+}
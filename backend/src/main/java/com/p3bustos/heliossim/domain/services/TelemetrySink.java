@@ -0,0 +1,14 @@
+package com.p3bustos.heliossim.domain.services;
+
+import com.p3bustos.heliossim.domain.models.TelemetryFrame;
+
+/**
+ * Destination for the telemetry produced by each simulation tick
+ *
+ * Sinks are called on the tick thread with a frame that is overwritten on the next
+ * tick, so an implementation must copy anything it keeps and must never block on I/O.
+ */
+public interface TelemetrySink {
+
+    void publish(TelemetryFrame frame);
+}
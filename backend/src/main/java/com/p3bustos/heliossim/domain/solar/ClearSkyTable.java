@@ -0,0 +1,70 @@
+package com.p3bustos.heliossim.domain.solar;
+
+import lombok.Getter;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Clear-sky irradiance for one location cell, tabulated per day of year at minute resolution
+ *
+ * Rows are built the first time a day is asked for, so a real-time node only ever
+ * holds a day or two per cell while a year-long batch run fills the whole table
+ * (about 2 MB). A lookup is a row read plus a linear interpolation between two
+ * minute samples; rows are immutable once published and safe to share across threads.
+ */
+public class ClearSkyTable {
+
+    static final int DAYS = 366;
+    static final int MINUTES_PER_DAY = 1440;
+
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+    private static final long MILLIS_PER_MINUTE = 60_000L;
+
+    @Getter
+    private final double latitude;
+    @Getter
+    private final double longitude;
+
+    private final AtomicReferenceArray<float[]> rows = new AtomicReferenceArray<>(DAYS + 1);
+
+    public ClearSkyTable(double latitude, double longitude) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+    }
+
+    /**
+     * Clear-sky irradiance in W/m² at the given instant
+     */
+    public double irradiance(long epochMilli) {
+        long epochDay = Math.floorDiv(epochMilli, MILLIS_PER_DAY);
+        long millisOfDay = epochMilli - epochDay * MILLIS_PER_DAY;
+        int minute = (int) (millisOfDay / MILLIS_PER_MINUTE);
+        double fraction = (millisOfDay - minute * MILLIS_PER_MINUTE) / (double) MILLIS_PER_MINUTE;
+
+        float[] row = row(SolarEphemeris.dayOfYear(epochDay));
+        return row[minute] + (row[minute + 1] - row[minute]) * fraction;
+    }
+
+    /**
+     * Irradiance samples for a day of year (1-366), one per UTC minute plus the following midnight
+     */
+    float[] row(int dayOfYear) {
+        float[] row = rows.get(dayOfYear);
+        if (row == null) {
+            row = buildRow(dayOfYear);
+            // Concurrent builders produce identical rows, so the first one published wins
+            if (!rows.compareAndSet(dayOfYear, null, row)) {
+                row = rows.get(dayOfYear);
+            }
+        }
+        return row;
+    }
+
+    private float[] buildRow(int dayOfYear) {
+        float[] row = new float[MINUTES_PER_DAY + 1];
+        for (int minute = 0; minute <= MINUTES_PER_DAY; minute++) {
+            row[minute] = (float) SolarEphemeris.clearSkyIrradiance(latitude, longitude, dayOfYear, minute);
+        }
+        return row;
+    }
+}
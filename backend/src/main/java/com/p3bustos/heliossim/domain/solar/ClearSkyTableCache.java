@@ -0,0 +1,54 @@
+package com.p3bustos.heliossim.domain.solar;
+
+import com.p3bustos.heliossim.config.SimulatorProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shares one {@link ClearSkyTable} per location cell
+ *
+ * Coordinates are snapped to a square grid of {@code simulator.location.cell-degrees}
+ * (0.1° is about 11 km, well below the scale at which sun position changes
+ * noticeably), and every site in a cell uses the table computed for the cell centre.
+ */
+@Slf4j
+@Component
+public class ClearSkyTableCache {
+
+    private final double cellDegrees;
+    private final Map<Long, ClearSkyTable> tables = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ClearSkyTableCache(SimulatorProperties properties) {
+        this(properties.getLocation().getCellDegrees());
+    }
+
+    public ClearSkyTableCache(double cellDegrees) {
+        if (cellDegrees <= 0) {
+            throw new IllegalArgumentException("Location cell size must be positive: " + cellDegrees);
+        }
+        this.cellDegrees = cellDegrees;
+    }
+
+    /**
+     * Table for the cell containing the given coordinates
+     */
+    public ClearSkyTable forLocation(double latitude, double longitude) {
+        long row = (long) Math.floor(latitude / cellDegrees);
+        long column = (long) Math.floor(longitude / cellDegrees);
+        return tables.computeIfAbsent((row << 32) | (column & 0xFFFFFFFFL), key -> {
+            double centreLatitude = (row + 0.5) * cellDegrees;
+            double centreLongitude = (column + 0.5) * cellDegrees;
+            log.debug("Clear-sky table created for cell at {}, {}", centreLatitude, centreLongitude);
+            return new ClearSkyTable(centreLatitude, centreLongitude);
+        });
+    }
+
+    public int size() {
+        return tables.size();
+    }
+}
@@ -0,0 +1,116 @@
+package com.p3bustos.heliossim.domain.solar;
+
+/**
+ * Solar position and clear-sky irradiance
+ *
+ * Declination and equation of time use the NOAA Fourier-series approximations
+ * (about 0.5° accuracy), air mass follows Kasten and Young, and clear-sky global
+ * horizontal irradiance follows the Meinel attenuation model.
+ */
+public final class SolarEphemeris {
+
+    static final double SOLAR_CONSTANT_WM2 = 1353.0;
+
+    private static final double MINUTES_PER_DAY = 1440.0;
+
+    private SolarEphemeris() {
+    }
+
+    /**
+     * Fractional year in radians for a day of year (1-366) and UTC minute of day
+     */
+    static double fractionalYear(int dayOfYear, double utcMinuteOfDay) {
+        return 2.0 * Math.PI / 365.0 * (dayOfYear - 1 + (utcMinuteOfDay / 60.0 - 12.0) / 24.0);
+    }
+
+    /**
+     * Solar declination in radians
+     */
+    static double declination(double gamma) {
+        return 0.006918
+            - 0.399912 * Math.cos(gamma) + 0.070257 * Math.sin(gamma)
+            - 0.006758 * Math.cos(2 * gamma) + 0.000907 * Math.sin(2 * gamma)
+            - 0.002697 * Math.cos(3 * gamma) + 0.00148 * Math.sin(3 * gamma);
+    }
+
+    /**
+     * Equation of time in minutes (apparent minus mean solar time)
+     */
+    static double equationOfTimeMinutes(double gamma) {
+        return 229.18 * (0.000075
+            + 0.001868 * Math.cos(gamma) - 0.032077 * Math.sin(gamma)
+            - 0.014615 * Math.cos(2 * gamma) - 0.040849 * Math.sin(2 * gamma));
+    }
+
+    /**
+     * Cosine of the solar zenith angle; negative when the sun is below the horizon
+     *
+     * @param latitude Degrees north
+     * @param longitude Degrees east
+     * @param dayOfYear Day of the UTC year, 1-366
+     * @param utcMinuteOfDay Minutes since UTC midnight
+     */
+    public static double cosZenith(double latitude, double longitude, int dayOfYear, double utcMinuteOfDay) {
+        double gamma = fractionalYear(dayOfYear, utcMinuteOfDay);
+        double declination = declination(gamma);
+
+        double trueSolarMinutes = utcMinuteOfDay + equationOfTimeMinutes(gamma) + 4.0 * longitude;
+        trueSolarMinutes = ((trueSolarMinutes % MINUTES_PER_DAY) + MINUTES_PER_DAY) % MINUTES_PER_DAY;
+        double hourAngle = Math.toRadians(trueSolarMinutes / 4.0 - 180.0);
+
+        double phi = Math.toRadians(latitude);
+        return Math.sin(phi) * Math.sin(declination)
+            + Math.cos(phi) * Math.cos(declination) * Math.cos(hourAngle);
+    }
+
+    /**
+     * Relative optical air mass for a zenith angle (Kasten and Young, 1989)
+     */
+    public static double airMass(double cosZenith) {
+        double zenithDegrees = Math.toDegrees(Math.acos(Math.min(1.0, cosZenith)));
+        return 1.0 / (cosZenith + 0.50572 * Math.pow(96.07995 - zenithDegrees, -1.6364));
+    }
+
+    /**
+     * Clear-sky global horizontal irradiance in W/m²
+     *
+     * Direct normal irradiance is attenuated by air mass (Meinel) and a fixed 10%
+     * diffuse share is added on top of its horizontal component.
+     */
+    public static double clearSkyIrradiance(double cosZenith) {
+        if (cosZenith <= 0) {
+            return 0.0;
+        }
+        double directNormal = SOLAR_CONSTANT_WM2 * Math.pow(0.7, Math.pow(airMass(cosZenith), 0.678));
+        return 1.1 * directNormal * cosZenith;
+    }
+
+    /**
+     * Clear-sky irradiance at a location and UTC time
+     */
+    public static double clearSkyIrradiance(double latitude, double longitude, int dayOfYear, double utcMinuteOfDay) {
+        return clearSkyIrradiance(cosZenith(latitude, longitude, dayOfYear, utcMinuteOfDay));
+    }
+
+    /**
+     * Day of the proleptic Gregorian year (1-366) for a day counted from 1970-01-01
+     *
+     * Pure integer arithmetic, so it can run per tick without touching java.time.
+     */
+    public static int dayOfYear(long epochDay) {
+        // Shift to a March-based year so the leap day is last (civil-from-days)
+        long z = epochDay + 719468;
+        long era = Math.floorDiv(z, 146097);
+        long dayOfEra = z - era * 146097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfMarchYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long year = yearOfEra + era * 400;
+
+        // January and February belong to the next calendar year
+        if (dayOfMarchYear >= 306) {
+            return (int) (dayOfMarchYear - 306 + 1);
+        }
+        boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+        return (int) (dayOfMarchYear + 59 + (leap ? 1 : 0) + 1);
+    }
+}
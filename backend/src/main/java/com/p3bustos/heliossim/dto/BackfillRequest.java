@@ -0,0 +1,58 @@
+package com.p3bustos.heliossim.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BackfillRequest {
+    
+    /**
+     * Names the job and its checkpoint; generated when absent
+     */
+    @JsonProperty("job_id")
+    private String jobId;
+    
+    /**
+     * Site ids from the fleet registry; empty means every registry site
+     */
+    private List<String> sites;
+    
+    /**
+     * Generate this many synthetic sites instead of using the registry
+     */
+    @JsonProperty("synthetic_sites")
+    private Integer syntheticSites;
+    
+    private Instant start;
+    private Instant end;
+    
+    /**
+     * Simulated step, e.g. 1m, 15s or PT5M
+     */
+    private String resolution;
+    
+    /**
+     * file, mqtt or jdbc
+     */
+    private String target;
+    
+    /**
+     * Directory for the file target
+     */
+    private String output;
+    
+    /**
+     * Weather dataset file sampled at every step; defaults to simulator.weather.dataset-file, none means clear sky
+     */
+    @JsonProperty("weather_dataset")
+    private String weatherDataset;
+}
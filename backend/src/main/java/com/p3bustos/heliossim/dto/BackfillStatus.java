@@ -0,0 +1,60 @@
+package com.p3bustos.heliossim.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BackfillStatus {
+    
+    @JsonProperty("job_id")
+    private String jobId;
+    
+    /**
+     * running, completed, cancelled or failed
+     */
+    private String state;
+    
+    private String target;
+    private String output;
+    private int sites;
+    private Instant start;
+    private Instant end;
+    
+    @JsonProperty("resolution_seconds")
+    private double resolutionSeconds;
+    
+    /**
+     * Everything before this instant has been written and checkpointed
+     */
+    @JsonProperty("written_until")
+    private Instant writtenUntil;
+    
+    /**
+     * Fraction of the date range written, 0 to 1
+     */
+    private double progress;
+    
+    private long frames;
+    
+    @JsonProperty("frames_per_second")
+    private double framesPerSecond;
+    
+    @JsonProperty("wall_seconds")
+    private double wallSeconds;
+    
+    @JsonProperty("eta_seconds")
+    private Double etaSeconds;
+    
+    @JsonProperty("resumed_from")
+    private Instant resumedFrom;
+    
+    private String error;
+}
@@ -0,0 +1,30 @@
+package com.p3bustos.heliossim.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExportRequest {
+    
+    /**
+     * Names the export; generated when absent
+     */
+    @JsonProperty("export_id")
+    private String exportId;
+    
+    /**
+     * Journal directory to export, e.g. the live journal or a backfill file output
+     */
+    private String source;
+    
+    /**
+     * Dataset directory; defaults to a directory named after the export
+     */
+    private String output;
+}
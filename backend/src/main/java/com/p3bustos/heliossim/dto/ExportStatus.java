@@ -0,0 +1,36 @@
+package com.p3bustos.heliossim.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExportStatus {
+    
+    @JsonProperty("export_id")
+    private String exportId;
+    
+    /**
+     * running, completed, cancelled or failed
+     */
+    private String state;
+    
+    private String source;
+    private String output;
+    private long frames;
+    private int files;
+    private long bytes;
+    
+    @JsonProperty("frames_per_second")
+    private double framesPerSecond;
+    
+    @JsonProperty("wall_seconds")
+    private double wallSeconds;
+    
+    private String error;
+}
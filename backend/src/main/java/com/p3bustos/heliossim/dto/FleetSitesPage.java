@@ -0,0 +1,24 @@
+package com.p3bustos.heliossim.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FleetSitesPage {
+    
+    private int page;
+    private int size;
+    
+    @JsonProperty("total_sites")
+    private int totalSites;
+    
+    private List<PowerTelemetry> sites;
+}
@@ -0,0 +1,27 @@
+package com.p3bustos.heliossim.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * One raw sample or one rollup bucket, timestamped at the bucket start
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HistoryPoint {
+    
+    private Instant timestamp;
+    private int samples;
+    
+    private SeriesStats solar;
+    private SeriesStats load;
+    private SeriesStats battery;
+    private SeriesStats grid;
+    private SeriesStats soc;
+}
@@ -0,0 +1,66 @@
+package com.p3bustos.heliossim.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReplayStatus {
+    
+    /**
+     * idle, running, completed, stopped or failed
+     */
+    private String state;
+    
+    private String directory;
+    
+    /**
+     * Requested multiple of the recorded pace; null when replaying as fast as possible
+     */
+    private Double speed;
+    
+    private boolean loop;
+    
+    @JsonProperty("started_at")
+    private Instant startedAt;
+    
+    private long frames;
+    
+    private long passes;
+    
+    @JsonProperty("recorded_seconds")
+    private double recordedSeconds;
+    
+    @JsonProperty("wall_seconds")
+    private double wallSeconds;
+    
+    /**
+     * Frames per second the recording implies at the requested speed
+     */
+    @JsonProperty("requested_rate")
+    private Double requestedRate;
+    
+    @JsonProperty("achieved_rate")
+    private double achievedRate;
+    
+    /**
+     * Recorded seconds replayed per wall second
+     */
+    @JsonProperty("achieved_speed")
+    private double achievedSpeed;
+    
+    /**
+     * How far the last frame went out behind its scheduled time
+     */
+    @JsonProperty("lag_ms")
+    private double lagMs;
+    
+    private String error;
+}
@@ -0,0 +1,23 @@
+package com.p3bustos.heliossim.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeriesStats {
+    private double min;
+    private double max;
+    private double avg;
+    
+    /**
+     * Integrated energy for power series; absent for state of charge
+     */
+    @JsonProperty("energy_kwh")
+    private Double energyKwh;
+}
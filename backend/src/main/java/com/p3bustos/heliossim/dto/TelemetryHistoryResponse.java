@@ -0,0 +1,30 @@
+package com.p3bustos.heliossim.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TelemetryHistoryResponse {
+    
+    @JsonProperty("site_id")
+    private String siteId;
+    
+    /**
+     * raw, 1m, 15m or 1h
+     */
+    private String resolution;
+    
+    private Instant from;
+    private Instant to;
+    
+    private List<HistoryPoint> points;
+}
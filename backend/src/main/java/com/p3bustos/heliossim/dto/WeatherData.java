@@ -28,6 +28,17 @@ public class WeatherData {
     @JsonProperty("wind_speed_ms")
     private double windSpeedMs;
     
+    /**
+     * Measured global horizontal irradiance; NaN when only cloud cover is known
+     */
+    @Builder.Default
+    @JsonProperty("ghi_w_m2")
+    private double ghiWM2 = Double.NaN;
+    
+    @Builder.Default
+    @JsonProperty("dni_w_m2")
+    private double dniWM2 = Double.NaN;
+    
     private String description;
     
     @JsonProperty("sunrise")
@@ -0,0 +1,91 @@
+package com.p3bustos.heliossim.infrastructure.backfill;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.p3bustos.heliossim.dto.BackfillRequest;
+import com.p3bustos.heliossim.infrastructure.weather.WeatherDataset;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Persistent progress of a backfill job, rewritten after every batch
+ *
+ * Solar and load are pure functions of time and of the weather dataset, so the battery
+ * state of charge per site and the dataset position are all the simulation state needed
+ * to continue exactly where the job stopped.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BackfillCheckpoint {
+
+    private BackfillRequest request;
+
+    /**
+     * First simulated instant not yet written
+     */
+    @JsonProperty("next_epoch_milli")
+    private long nextEpochMilli;
+
+    private long frames;
+
+    /**
+     * Battery state of charge per site, in site order, at {@code nextEpochMilli}
+     */
+    @JsonProperty("soc_percent")
+    private double[] socPercent;
+
+    /**
+     * Where the job had got to in its weather dataset at {@code nextEpochMilli}; null without one
+     */
+    private WeatherCursor weather;
+
+    @JsonProperty("target_position")
+    private String targetPosition;
+
+    private boolean completed;
+
+    @JsonProperty("updated_at")
+    private Instant updatedAt;
+
+    /**
+     * A position in a weather dataset, with enough of the dataset's header to tell
+     * whether the file read on resume is the one the job started with
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class WeatherCursor {
+
+        private String dataset;
+
+        @JsonProperty("start_epoch_milli")
+        private long startEpochMilli;
+
+        @JsonProperty("step_millis")
+        private long stepMillis;
+
+        private int samples;
+
+        /**
+         * Sample the next step reads from
+         */
+        @JsonProperty("next_sample")
+        private int nextSample;
+
+        static WeatherCursor at(WeatherDataset dataset, long epochMilli) {
+            return WeatherCursor.builder()
+                    .dataset(dataset.getPath().toString())
+                    .startEpochMilli(dataset.getStartEpochMilli())
+                    .stepMillis(dataset.getStepMillis())
+                    .samples(dataset.getSampleCount())
+                    .nextSample(dataset.sampleIndex(epochMilli))
+                    .build();
+        }
+    }
+}
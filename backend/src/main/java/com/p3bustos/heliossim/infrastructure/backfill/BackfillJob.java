@@ -0,0 +1,463 @@
+package com.p3bustos.heliossim.infrastructure.backfill;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.p3bustos.heliossim.domain.models.BatterySystem;
+import com.p3bustos.heliossim.domain.models.EnergyBalance;
+import com.p3bustos.heliossim.domain.models.LoadProfile;
+import com.p3bustos.heliossim.domain.models.LocalTimeResolver;
+import com.p3bustos.heliossim.domain.models.SiteDefinition;
+import com.p3bustos.heliossim.domain.models.SolarSystem;
+import com.p3bustos.heliossim.domain.models.TelemetryFrame;
+import com.p3bustos.heliossim.domain.services.EnergyFlowManager;
+import com.p3bustos.heliossim.domain.services.LoadSimulator;
+import com.p3bustos.heliossim.domain.services.SolarSimulator;
+import com.p3bustos.heliossim.domain.solar.ClearSkyTable;
+import com.p3bustos.heliossim.dto.BackfillRequest;
+import com.p3bustos.heliossim.dto.BackfillStatus;
+import com.p3bustos.heliossim.dto.WeatherData;
+import com.p3bustos.heliossim.infrastructure.backfill.BackfillCheckpoint.WeatherCursor;
+import com.p3bustos.heliossim.infrastructure.weather.WeatherDataset;
+import io.micrometer.core.instrument.Counter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static com.p3bustos.heliossim.domain.models.TelemetryFrame.*;
+
+/**
+ * One backfill run: simulate → encode → batch → write, pipelined over reusable batch buffers
+ *
+ * The job thread cuts the date range into batches of about {@code batch-frames} frames.
+ * Each batch is simulated by splitting the sites across the shared worker pool; sites
+ * are independent, so workers never coordinate within a batch, and each site's battery
+ * carries over from one batch to the next. Finished batches go to the writer thread,
+ * which walks them in time order, hands every frame to the target, flushes it and
+ * rewrites the checkpoint. While the writer drains one batch the workers simulate the
+ * next {@code pipeline-depth}; when the target is slower, the free buffers run out and
+ * simulation waits, so memory stays bounded.
+ *
+ * With a weather dataset, the job thread samples it once per step of a batch before
+ * handing the batch to the workers, and every site reads the same sample.
+ */
+@Slf4j
+final class BackfillJob {
+
+    enum State {
+        RUNNING, COMPLETED, CANCELLED, FAILED;
+
+        String label() {
+            return name().toLowerCase();
+        }
+    }
+
+    // Frame values in batch buffers, in TelemetryFrame field order per site and step
+    private static final int FIELDS = TelemetryFrame.VALUE_COUNT;
+    private static final long POLL_MILLIS = 100;
+
+    private final String id;
+    private final BackfillRequest request;
+    private final String targetName;
+    private final String output;
+    private final List<SiteDefinition> sites;
+    private final long startMilli;
+    private final long endMilli;
+    private final long stepMillis;
+    private final Function<String, BackfillTarget> targetFactory;
+    private final ExecutorService workers;
+    private final int slices;
+    private final Path checkpointFile;
+    private final ObjectMapper objectMapper;
+    private final Counter framesWritten;
+    private final SolarSimulator solarSimulator;
+    private final LoadSimulator loadSimulator;
+    private final EnergyFlowManager energyFlowManager;
+    private final WeatherDataset weather;
+
+    private final SiteModel[] models;
+    private final int batchSteps;
+    private final BlockingQueue<Batch> free;
+    private final BlockingQueue<Batch> ready;
+    private final Batch endOfRun = new Batch(0, 0, false);
+
+    private final long resumeMilli;
+    private final long resumedFrames;
+    private final String resumePosition;
+    private final long startNanos = System.nanoTime();
+
+    private volatile State state = State.RUNNING;
+    private volatile boolean cancelRequested;
+    private volatile long writtenUntilMilli;
+    private volatile long frames;
+    private volatile long endNanos;
+    private volatile String error;
+    private Thread simulationThread;
+    private Thread writerThread;
+
+    BackfillJob(String id, BackfillRequest request, String targetName, String output, List<SiteDefinition> sites,
+                long startMilli, long endMilli, long stepMillis, BackfillCheckpoint resumeFrom,
+                Function<String, BackfillTarget> targetFactory, ExecutorService workers, int parallelism,
+                int batchFrames, int pipelineDepth, Path checkpointFile, ObjectMapper objectMapper,
+                Counter framesWritten, SolarSimulator solarSimulator, LoadSimulator loadSimulator, EnergyFlowManager energyFlowManager,
+                WeatherDataset weather) {
+        this.id = id;
+        this.request = request;
+        this.targetName = targetName;
+        this.output = output;
+        this.sites = sites;
+        this.startMilli = startMilli;
+        this.endMilli = endMilli;
+        this.stepMillis = stepMillis;
+        this.targetFactory = targetFactory;
+        this.workers = workers;
+        this.slices = Math.max(1, Math.min(parallelism, sites.size()));
+        this.checkpointFile = checkpointFile;
+        this.objectMapper = objectMapper;
+        this.framesWritten = framesWritten;
+        this.solarSimulator = solarSimulator;
+        this.loadSimulator = loadSimulator;
+        this.energyFlowManager = energyFlowManager;
+        this.weather = weather;
+
+        this.models = new SiteModel[sites.size()];
+        for (int i = 0; i < models.length; i++) {
+            models[i] = new SiteModel(sites.get(i));
+        }
+        if (resumeFrom != null) {
+            double[] soc = resumeFrom.getSocPercent();
+            for (int i = 0; i < models.length; i++) {
+                models[i].battery.setSocPercent(soc[i]);
+            }
+            this.resumeMilli = resumeFrom.getNextEpochMilli();
+            this.resumedFrames = resumeFrom.getFrames();
+            this.resumePosition = resumeFrom.getTargetPosition();
+        } else {
+            this.resumeMilli = startMilli;
+            this.resumedFrames = 0;
+            this.resumePosition = null;
+        }
+        this.writtenUntilMilli = resumeMilli;
+        this.frames = resumedFrames;
+
+        this.batchSteps = Math.max(1, batchFrames / sites.size());
+        int buffers = Math.max(1, pipelineDepth) + 1;
+        this.free = new ArrayBlockingQueue<>(buffers);
+        this.ready = new ArrayBlockingQueue<>(buffers + 1);
+        for (int b = 0; b < buffers; b++) {
+            free.add(new Batch(batchSteps, sites.size(), weather != null));
+        }
+    }
+
+    void start() {
+        simulationThread = new Thread(this::simulate, "backfill-" + id);
+        writerThread = new Thread(this::write, "backfill-" + id + "-writer");
+        simulationThread.setDaemon(true);
+        writerThread.setDaemon(true);
+        writerThread.start();
+        simulationThread.start();
+        log.info("Backfill {} started: {} sites from {} to {} at {}s to {} ({} steps per batch){}",
+            id, sites.size(), Instant.ofEpochMilli(resumeMilli), Instant.ofEpochMilli(endMilli),
+            stepMillis / 1000.0, targetName, batchSteps,
+            resumeMilli > startMilli ? " resuming" : "");
+    }
+
+    void cancel() {
+        cancelRequested = true;
+    }
+
+    boolean isRunning() {
+        return state == State.RUNNING;
+    }
+
+    boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (Thread thread : new Thread[]{simulationThread, writerThread}) {
+            long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remaining <= 0) {
+                return !isRunning();
+            }
+            thread.join(remaining);
+        }
+        return !isRunning();
+    }
+
+    BackfillStatus status() {
+        long now = state == State.RUNNING ? System.nanoTime() : endNanos;
+        double wallSeconds = (now - startNanos) / 1e9;
+        long written = frames - resumedFrames;
+        double range = endMilli - startMilli;
+        double progress = range > 0 ? (writtenUntilMilli - startMilli) / range : 1;
+        double rate = wallSeconds > 0 ? written / wallSeconds : 0;
+        Double eta = null;
+        if (state == State.RUNNING && writtenUntilMilli > resumeMilli) {
+            double done = writtenUntilMilli - resumeMilli;
+            eta = wallSeconds * (endMilli - writtenUntilMilli) / done;
+        }
+
+        return BackfillStatus.builder()
+                .jobId(id)
+                .state(state.label())
+                .target(targetName)
+                .output(output)
+                .sites(sites.size())
+                .start(Instant.ofEpochMilli(startMilli))
+                .end(Instant.ofEpochMilli(endMilli))
+                .resolutionSeconds(stepMillis / 1000.0)
+                .writtenUntil(Instant.ofEpochMilli(writtenUntilMilli))
+                .progress(Math.min(1, progress))
+                .frames(frames)
+                .framesPerSecond(rate)
+                .wallSeconds(wallSeconds)
+                .etaSeconds(eta)
+                .resumedFrom(resumeMilli > startMilli ? Instant.ofEpochMilli(resumeMilli) : null)
+                .error(error)
+                .build();
+    }
+
+    /**
+     * Job thread: simulate batches in parallel and queue them for the writer
+     */
+    private void simulate() {
+        try {
+            long batchStart = resumeMilli;
+            while (batchStart < endMilli && !stopping()) {
+                Batch batch = free.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (batch == null) {
+                    continue;
+                }
+                long remainingSteps = (endMilli - batchStart + stepMillis - 1) / stepMillis;
+                batch.startMilli = batchStart;
+                batch.steps = (int) Math.min(batchSteps, remainingSteps);
+                simulateBatch(batch);
+                ready.put(batch);
+                batchStart += batch.steps * stepMillis;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail("interrupted");
+        } catch (ExecutionException | RuntimeException e) {
+            Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+            log.error("Backfill {} simulation failed", id, cause);
+            fail(cause.getMessage());
+        } finally {
+            ready.add(endOfRun);
+        }
+    }
+
+    private void simulateBatch(Batch batch) throws InterruptedException, ExecutionException {
+        if (weather != null) {
+            for (int step = 0; step < batch.steps; step++) {
+                weather.sample(batch.startMilli + step * stepMillis, batch.weather[step]);
+            }
+        }
+        List<Callable<Void>> tasks = new ArrayList<>(slices);
+        int count = models.length;
+        for (int s = 0; s < slices; s++) {
+            int from = (int) ((long) count * s / slices);
+            int to = (int) ((long) count * (s + 1) / slices);
+            tasks.add(() -> {
+                simulateSites(batch, from, to);
+                return null;
+            });
+        }
+        for (Future<Void> done : workers.invokeAll(tasks)) {
+            done.get();
+        }
+    }
+
+    /**
+     * Run the solar → load → energy flow pipeline for sites [from, to) over one batch
+     */
+    private void simulateSites(Batch batch, int from, int to) {
+        double deltaTimeSeconds = stepMillis / 1000.0;
+        int siteCount = models.length;
+        double[] values = batch.values;
+        for (int i = from; i < to; i++) {
+            SiteModel site = models[i];
+            for (int step = 0; step < batch.steps; step++) {
+                long epochMilli = batch.startMilli + step * stepMillis;
+                WeatherData stepWeather = batch.weather != null ? batch.weather[step] : null;
+                double solarKw = solarSimulator.simulateProduction(site.solar, site.clearSky, epochMilli, stepWeather);
+                double loadKw = loadSimulator.simulateLoad(site.load, site.localTime.localHour(epochMilli));
+                EnergyBalance balance = energyFlowManager.calculateEnergyFlow(site.battery, solarKw, loadKw,
+                    deltaTimeSeconds, site.balance);
+
+                int o = (step * siteCount + i) * FIELDS;
+                values[o + SOLAR_PRODUCTION] = site.solar.getCurrentProductionKw();
+                values[o + IRRADIANCE] = site.solar.getCurrentIrradianceWM2();
+                values[o + PANEL_TEMP] = site.solar.getCurrentPanelTempC();
+                values[o + SOC] = site.battery.getSocPercent();
+                values[o + BATTERY_POWER] = site.battery.getCurrentPowerKw();
+                values[o + BATTERY_VOLTAGE] = site.battery.getVoltage();
+                values[o + BATTERY_CURRENT] = site.battery.getCurrent();
+                values[o + LOAD_CONSUMPTION] = site.load.getCurrentConsumptionKw();
+                values[o + GRID_POWER] = balance.getGridPowerKw();
+                values[o + SOLAR_TO_LOAD] = balance.getSolarToLoadKw();
+                values[o + SOLAR_TO_BATTERY] = balance.getSolarToBatteryKw();
+                values[o + SOLAR_TO_GRID] = balance.getSolarToGridKw();
+                values[o + BATTERY_TO_LOAD] = balance.getBatteryToLoadKw();
+                values[o + GRID_TO_LOAD] = balance.getGridToLoadKw();
+            }
+            batch.socPercent[i] = site.battery.getSocPercent();
+        }
+    }
+
+    /**
+     * Writer thread: hand batches to the target in time order and checkpoint after each
+     */
+    private void write() {
+        BackfillTarget target = null;
+        try {
+            target = targetFactory.apply(resumePosition);
+            TelemetryFrame frame = new TelemetryFrame();
+            int siteCount = models.length;
+            while (true) {
+                Batch batch = ready.take();
+                if (batch == endOfRun || stopping()) {
+                    break;
+                }
+                double[] values = batch.values;
+                for (int step = 0; step < batch.steps; step++) {
+                    long epochMilli = batch.startMilli + step * stepMillis;
+                    for (int i = 0; i < siteCount; i++) {
+                        int o = (step * siteCount + i) * FIELDS;
+                        frame.setSiteOrdinal(i);
+                        frame.setSiteId(models[i].siteId);
+                        frame.setEpochMilli(epochMilli);
+                        frame.copyValuesFrom(values, o);
+                        target.write(frame);
+                    }
+                }
+
+                String position = target.flush();
+                long nextMilli = batch.startMilli + batch.steps * stepMillis;
+                long written = frames + (long) batch.steps * siteCount;
+                saveCheckpoint(nextMilli, written, batch.socPercent, position, nextMilli >= endMilli);
+                writtenUntilMilli = Math.min(nextMilli, endMilli);
+                frames = written;
+                framesWritten.increment((double) batch.steps * siteCount);
+                free.put(batch);
+            }
+            finish(cancelRequested ? State.CANCELLED : state == State.FAILED ? State.FAILED : State.COMPLETED);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail("interrupted");
+        } catch (IOException | RuntimeException e) {
+            log.error("Backfill {} write failed", id, e);
+            fail(e.getMessage());
+        } finally {
+            cancelRequested = cancelRequested || state == State.FAILED;
+            if (target != null) {
+                try {
+                    target.close();
+                } catch (IOException e) {
+                    log.warn("Backfill {} could not close its target: {}", id, e.getMessage());
+                }
+            }
+            if (state == State.RUNNING) {
+                finish(State.FAILED);
+            }
+        }
+
+        BackfillStatus status = status();
+        log.info("Backfill {} {}: {} frames up to {} in {}s ({} frames/s)",
+            id, status.getState(), status.getFrames(), status.getWrittenUntil(),
+            String.format("%.2f", status.getWallSeconds()),
+            String.format("%.0f", status.getFramesPerSecond())
+        );
+    }
+
+    private void saveCheckpoint(long nextMilli, long written, double[] socPercent, String position,
+                                boolean completed) throws IOException {
+        BackfillCheckpoint checkpoint = BackfillCheckpoint.builder()
+                .request(request)
+                .nextEpochMilli(nextMilli)
+                .frames(written)
+                .socPercent(socPercent)
+                .weather(weather != null ? WeatherCursor.at(weather, nextMilli) : null)
+                .targetPosition(position)
+                .completed(completed)
+                .updatedAt(Instant.now())
+                .build();
+        Path temporary = checkpointFile.resolveSibling(checkpointFile.getFileName() + ".tmp");
+        objectMapper.writeValue(temporary.toFile(), checkpoint);
+        Files.move(temporary, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private boolean stopping() {
+        return cancelRequested || state == State.FAILED;
+    }
+
+    private synchronized void fail(String message) {
+        if (state == State.RUNNING) {
+            error = message;
+            finish(State.FAILED);
+        }
+    }
+
+    private synchronized void finish(State finalState) {
+        if (state == State.RUNNING) {
+            endNanos = System.nanoTime();
+            state = finalState;
+        }
+    }
+
+    /**
+     * Per-site models; each is only touched by the worker simulating its slice
+     */
+    private final class SiteModel {
+        final String siteId;
+        final SolarSystem solar;
+        final BatterySystem battery;
+        final LoadProfile load;
+        final ClearSkyTable clearSky;
+        final LocalTimeResolver localTime;
+        final EnergyBalance balance = EnergyBalance.builder().build();
+
+        SiteModel(SiteDefinition site) {
+            this.siteId = site.getSiteId();
+            this.solar = site.toSolarSystem();
+            this.battery = site.toBatterySystem();
+            this.load = site.toLoadProfile();
+            this.clearSky = solarSimulator.clearSkyTable(site.getLatitude(), site.getLongitude());
+            this.localTime = new LocalTimeResolver(ZoneId.of(site.getTimezone()));
+        }
+    }
+
+    /**
+     * Simulated values of every site over consecutive steps, reused across batches
+     */
+    private static final class Batch {
+        final double[] values;
+        final double[] socPercent;
+        // Weather per step, shared by every site; null without a dataset
+        final WeatherData[] weather;
+        long startMilli;
+        int steps;
+
+        Batch(int maxSteps, int sites, boolean sampled) {
+            this.values = new double[maxSteps * sites * FIELDS];
+            this.socPercent = new double[sites];
+            this.weather = sampled ? new WeatherData[maxSteps] : null;
+            if (sampled) {
+                for (int step = 0; step < maxSteps; step++) {
+                    weather[step] = new WeatherData();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.p3bustos.heliossim.infrastructure.backfill;
+
+import com.p3bustos.heliossim.config.SimulatorProperties;
+import com.p3bustos.heliossim.dto.BackfillRequest;
+import com.p3bustos.heliossim.dto.BackfillStatus;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.time.ZoneOffset;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the backfill configured under {@code simulator.backfill.run} at startup, resuming it
+ * from its checkpoint if an earlier run was interrupted
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "simulator.backfill.run", name = "enabled", havingValue = "true")
+public class BackfillModeRunner implements ApplicationRunner {
+
+    private final SimulatorProperties properties;
+    private final BackfillService backfill;
+    private final ApplicationContext context;
+
+    @Override
+    public void run(ApplicationArguments args) throws InterruptedException {
+        var run = properties.getBackfill().getRun();
+        String jobId = run.getJobId();
+
+        if (backfill.hasCheckpoint(jobId)) {
+            try {
+                backfill.resume(jobId);
+            } catch (IllegalStateException e) {
+                log.info("Backfill {}: {}", jobId, e.getMessage());
+                exit(0);
+                return;
+            }
+        } else {
+            backfill.start(BackfillRequest.builder()
+                    .jobId(jobId)
+                    .sites(run.getSites())
+                    .syntheticSites(run.getSyntheticSites())
+                    .start(run.getStartDate().atStartOfDay(ZoneOffset.UTC).toInstant())
+                    .end(run.getEndDate().atStartOfDay(ZoneOffset.UTC).toInstant())
+                    .resolution(run.getResolution().toString())
+                    .target(run.getTarget().name().toLowerCase(Locale.ROOT))
+                    .output(run.getOutput())
+                    .build());
+        }
+
+        BackfillStatus status = backfill.await(jobId, Long.MAX_VALUE, TimeUnit.DAYS).orElseThrow();
+        exit("completed".equals(status.getState()) ? 0 : 1);
+    }
+
+    private void exit(int code) {
+        if (properties.getBackfill().getRun().isExitOnCompletion()) {
+            System.exit(SpringApplication.exit(context, () -> code));
+        }
+    }
+}
@@ -0,0 +1,372 @@
+package com.p3bustos.heliossim.infrastructure.backfill;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.p3bustos.heliossim.config.SimulatorProperties;
+import com.p3bustos.heliossim.config.SimulatorProperties.Backfill.Target;
+import com.p3bustos.heliossim.domain.models.SiteDefinition;
+import com.p3bustos.heliossim.domain.services.EnergyFlowManager;
+import com.p3bustos.heliossim.domain.services.LoadSimulator;
+import com.p3bustos.heliossim.domain.services.SolarSimulator;
+import com.p3bustos.heliossim.dto.BackfillRequest;
+import com.p3bustos.heliossim.dto.BackfillStatus;
+import com.p3bustos.heliossim.infrastructure.codec.TelemetryPayloadEncoder;
+import com.p3bustos.heliossim.infrastructure.fleet.SiteRegistryLoader;
+import com.p3bustos.heliossim.infrastructure.jdbc.TelemetryTable;
+import com.p3bustos.heliossim.infrastructure.mqtt.MqttTransport;
+import com.p3bustos.heliossim.infrastructure.weather.WeatherDataset;
+import com.p3bustos.heliossim.infrastructure.weather.WeatherDatasets;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Starts, tracks, cancels and resumes backfill jobs
+ *
+ * Jobs share one pool of simulation workers sized to the machine, independent of the
+ * scheduled tick. Each job checkpoints to {@code checkpoint-directory/<job-id>.json},
+ * which is all a resume needs, including after a restart, as long as the weather
+ * dataset file the job started with is still in place.
+ */
+@Slf4j
+@Service
+public class BackfillService {
+
+    private static final Pattern JOB_ID = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+    private static final long SYNTHETIC_SEED = 42;
+    private static final int JOURNAL_SEGMENT_BYTES = 64 * 1024 * 1024;
+    private static final Duration MQTT_TIMEOUT = Duration.ofSeconds(30);
+
+    private final SimulatorProperties properties;
+    private final SiteRegistryLoader registryLoader;
+    private final SolarSimulator solarSimulator;
+    private final LoadSimulator loadSimulator;
+    private final EnergyFlowManager energyFlowManager;
+    private final ObjectMapper objectMapper;
+    private final ObjectProvider<MqttTransport> mqttTransport;
+    private final ObjectProvider<TelemetryTable> telemetryTable;
+    private final WeatherDatasets weatherDatasets;
+    private final int parallelism;
+    private final ExecutorService workers;
+    private final Counter framesWritten;
+
+    private final Map<String, BackfillJob> jobs = new ConcurrentHashMap<>();
+
+    public BackfillService(SimulatorProperties properties, SiteRegistryLoader registryLoader,
+                           SolarSimulator solarSimulator, LoadSimulator loadSimulator,
+                           EnergyFlowManager energyFlowManager, ObjectMapper objectMapper,
+                           ObjectProvider<MqttTransport> mqttTransport,
+                           ObjectProvider<TelemetryTable> telemetryTable, WeatherDatasets weatherDatasets,
+                           MeterRegistry registry) {
+        this.properties = properties;
+        this.registryLoader = registryLoader;
+        this.solarSimulator = solarSimulator;
+        this.loadSimulator = loadSimulator;
+        this.energyFlowManager = energyFlowManager;
+        this.objectMapper = objectMapper;
+        this.mqttTransport = mqttTransport;
+        this.telemetryTable = telemetryTable;
+        this.weatherDatasets = weatherDatasets;
+
+        int configured = properties.getBackfill().getParallelism();
+        this.parallelism = configured > 0 ? configured : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threads = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "backfill-worker-" + threads.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.framesWritten = Counter.builder("helios.backfill.frames")
+                .description("Frames written by backfill jobs")
+                .register(registry);
+        Gauge.builder("helios.backfill.running", this, s -> s.jobs.values().stream().filter(BackfillJob::isRunning).count())
+                .description("Backfill jobs in progress")
+                .register(registry);
+    }
+
+    /**
+     * Validate a request and start it as a new job
+     *
+     * @throws IllegalArgumentException if the request is invalid
+     * @throws IllegalStateException if a job with the same id is running or has a checkpoint
+     */
+    public BackfillStatus start(BackfillRequest request) {
+        String id = request.getJobId() != null ? request.getJobId() : UUID.randomUUID().toString();
+        if (!JOB_ID.matcher(id).matches()) {
+            throw new IllegalArgumentException("'job_id' may only contain letters, digits, '.', '_' and '-'");
+        }
+        if (Files.exists(checkpointFile(id))) {
+            throw new IllegalStateException("Job " + id + " already has a checkpoint; resume it instead");
+        }
+        BackfillRequest normalized = normalize(request, id);
+        return launch(normalized, null);
+    }
+
+    /**
+     * Continue a job from its last checkpoint
+     *
+     * @throws NoSuchElementException if the job has no checkpoint
+     * @throws IllegalStateException if it is running or already complete
+     */
+    public BackfillStatus resume(String id) {
+        Path file = checkpointFile(id);
+        if (!JOB_ID.matcher(id).matches() || !Files.exists(file)) {
+            throw new NoSuchElementException("No checkpoint for backfill job " + id);
+        }
+        BackfillCheckpoint checkpoint;
+        try {
+            checkpoint = objectMapper.readValue(file.toFile(), BackfillCheckpoint.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unreadable checkpoint for backfill job " + id, e);
+        }
+        if (checkpoint.isCompleted()) {
+            throw new IllegalStateException("Backfill job " + id + " is already complete");
+        }
+        return launch(checkpoint.getRequest(), checkpoint);
+    }
+
+    public Optional<BackfillStatus> status(String id) {
+        return Optional.ofNullable(jobs.get(id)).map(BackfillJob::status);
+    }
+
+    public List<BackfillStatus> list() {
+        return jobs.values().stream().map(BackfillJob::status).toList();
+    }
+
+    /**
+     * Stop a job after the batch being written; its checkpoint stays resumable
+     */
+    public Optional<BackfillStatus> cancel(String id) {
+        BackfillJob job = jobs.get(id);
+        if (job == null) {
+            return Optional.empty();
+        }
+        job.cancel();
+        try {
+            job.await(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return Optional.of(job.status());
+    }
+
+    /**
+     * Block until a job finishes (used by the startup runner and tests)
+     */
+    public Optional<BackfillStatus> await(String id, long timeout, TimeUnit unit) throws InterruptedException {
+        BackfillJob job = jobs.get(id);
+        if (job == null) {
+            return Optional.empty();
+        }
+        job.await(timeout, unit);
+        return Optional.of(job.status());
+    }
+
+    public boolean hasCheckpoint(String id) {
+        return Files.exists(checkpointFile(id));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobs.values().forEach(BackfillJob::cancel);
+        workers.shutdownNow();
+    }
+
+    private synchronized BackfillStatus launch(BackfillRequest request, BackfillCheckpoint checkpoint) {
+        String id = request.getJobId();
+        BackfillJob existing = jobs.get(id);
+        if (existing != null && existing.isRunning()) {
+            throw new IllegalStateException("Backfill job " + id + " is already running");
+        }
+
+        List<SiteDefinition> sites = resolveSites(request);
+        if (checkpoint != null && (checkpoint.getSocPercent() == null || checkpoint.getSocPercent().length != sites.size())) {
+            throw new IllegalStateException("Checkpoint of backfill job " + id + " does not match its " + sites.size() + " sites");
+        }
+        WeatherDataset weather = request.getWeatherDataset() != null ? openWeather(request.getWeatherDataset()) : null;
+        if (checkpoint != null && !Objects.equals(checkpoint.getWeather(),
+                weather != null ? BackfillCheckpoint.WeatherCursor.at(weather, checkpoint.getNextEpochMilli()) : null)) {
+            throw new IllegalStateException("Checkpoint of backfill job " + id + " was written with a different weather dataset");
+        }
+        Target target = parseTarget(request.getTarget());
+        Function<String, BackfillTarget> targetFactory = targetFactory(target, request);
+        try {
+            Files.createDirectories(checkpointFile(id).getParent());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        var config = properties.getBackfill();
+        BackfillJob job = new BackfillJob(id, request, target.name().toLowerCase(Locale.ROOT), request.getOutput(), sites,
+            request.getStart().toEpochMilli(), request.getEnd().toEpochMilli(), parseResolution(request.getResolution()).toMillis(),
+            checkpoint, targetFactory, workers, parallelism, config.getBatchFrames(), config.getPipelineDepth(),
+            checkpointFile(id), objectMapper, framesWritten, solarSimulator, loadSimulator, energyFlowManager, weather);
+        jobs.put(id, job);
+        job.start();
+        return job.status();
+    }
+
+    private BackfillRequest normalize(BackfillRequest request, String id) {
+        if (request.getStart() == null || request.getEnd() == null) {
+            throw new IllegalArgumentException("'start' and 'end' are required");
+        }
+        if (!request.getStart().isBefore(request.getEnd())) {
+            throw new IllegalArgumentException("'start' must be before 'end'");
+        }
+        if (request.getSyntheticSites() != null && request.getSyntheticSites() < 0) {
+            throw new IllegalArgumentException("'synthetic_sites' must not be negative");
+        }
+        String resolution = request.getResolution() != null ? request.getResolution() : "1m";
+        parseResolution(resolution);
+        Target target = parseTarget(request.getTarget());
+        String output = request.getOutput();
+        if (target == Target.FILE && (output == null || output.isBlank())) {
+            output = Paths.get(properties.getBackfill().getOutputDirectory(), id).toString();
+        }
+        String weatherDataset = request.getWeatherDataset() != null
+            ? request.getWeatherDataset()
+            : properties.getWeather().getDatasetFile();
+        if (weatherDataset != null && !weatherDataset.isBlank()) {
+            weatherDataset = openWeather(weatherDataset).getPath().toString();
+        } else {
+            weatherDataset = null;
+        }
+
+        BackfillRequest normalized = BackfillRequest.builder()
+                .jobId(id)
+                .sites(request.getSites() != null ? List.copyOf(request.getSites()) : List.of())
+                .syntheticSites(request.getSyntheticSites())
+                .start(request.getStart())
+                .end(request.getEnd())
+                .resolution(resolution)
+                .target(target.name().toLowerCase(Locale.ROOT))
+                .output(output)
+                .weatherDataset(weatherDataset)
+                .build();
+        resolveSites(normalized);
+        return normalized;
+    }
+
+    private List<SiteDefinition> resolveSites(BackfillRequest request) {
+        Integer synthetic = request.getSyntheticSites();
+        if (synthetic != null && synthetic > 0) {
+            return registryLoader.synthetic(synthetic, SYNTHETIC_SEED);
+        }
+
+        String registryFile = properties.getFleet().getRegistryFile();
+        List<SiteDefinition> registry = registryFile != null && !registryFile.isBlank()
+            ? registryLoader.load(registryFile)
+            : List.of(registryLoader.defaultSite(properties.getSiteId()));
+        List<String> wanted = request.getSites();
+        if (wanted == null || wanted.isEmpty()) {
+            return registry;
+        }
+
+        Set<String> remaining = new HashSet<>(wanted);
+        List<SiteDefinition> selected = new ArrayList<>();
+        for (SiteDefinition site : registry) {
+            if (remaining.remove(site.getSiteId())) {
+                selected.add(site);
+            }
+        }
+        if (!remaining.isEmpty()) {
+            throw new IllegalArgumentException("Unknown sites: " + String.join(", ", remaining));
+        }
+        return selected;
+    }
+
+    private Function<String, BackfillTarget> targetFactory(Target target, BackfillRequest request) {
+        return switch (target) {
+            case FILE -> position -> {
+                try {
+                    return new JournalBackfillTarget(Paths.get(request.getOutput()), JOURNAL_SEGMENT_BYTES,
+                        properties.getJournal().getMantissaBits(), position);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            };
+            case MQTT -> {
+                MqttTransport transport = mqttTransport.getIfAvailable();
+                if (transport == null) {
+                    throw new IllegalArgumentException("MQTT is not enabled (simulator.mqtt.enabled)");
+                }
+                var mqtt = properties.getMqtt();
+                yield position -> new MqttBackfillTarget(transport, mqtt.getTopic(), mqtt.getQos(),
+                    TelemetryPayloadEncoder.forConfig(mqtt, objectMapper), mqtt.getMaxInflight(), MQTT_TIMEOUT);
+            }
+            case JDBC -> {
+                TelemetryTable table = telemetryTable.getIfAvailable();
+                if (table == null) {
+                    throw new IllegalArgumentException("JDBC is not enabled (simulator.jdbc.enabled)");
+                }
+                int batchSize = properties.getJdbc().getBatchSize();
+                yield position -> new JdbcBackfillTarget(table, batchSize);
+            }
+        };
+    }
+
+    private WeatherDataset openWeather(String file) {
+        try {
+            return weatherDatasets.open(Paths.get(file));
+        } catch (UncheckedIOException e) {
+            throw new IllegalArgumentException("Cannot read weather dataset '" + file + "': " + e.getCause().getMessage());
+        }
+    }
+
+    private static Target parseTarget(String target) {
+        if (target == null) {
+            return Target.FILE;
+        }
+        try {
+            return Target.valueOf(target.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown target '" + target + "'");
+        }
+    }
+
+    private static Duration parseResolution(String resolution) {
+        Duration step;
+        try {
+            step = DurationStyle.detectAndParse(resolution);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid resolution '" + resolution + "'");
+        }
+        if (step.toMillis() <= 0) {
+            throw new IllegalArgumentException("'resolution' must be at least 1 ms");
+        }
+        return step;
+    }
+
+    private Path checkpointFile(String id) {
+        return Paths.get(properties.getBackfill().getCheckpointDirectory(), id + ".json");
+    }
+}
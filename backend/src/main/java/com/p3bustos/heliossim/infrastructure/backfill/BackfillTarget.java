@@ -0,0 +1,29 @@
+package com.p3bustos.heliossim.infrastructure.backfill;
+
+import com.p3bustos.heliossim.domain.models.TelemetryFrame;
+
+import java.io.IOException;
+
+/**
+ * Write stage of a backfill: encodes frames and ships them in batches
+ *
+ * Called only from the job's writer thread, in time order.
+ */
+public interface BackfillTarget extends AutoCloseable {
+
+    /**
+     * Encode and buffer one frame; the frame is reused after the call returns
+     */
+    void write(TelemetryFrame frame) throws IOException;
+
+    /**
+     * Make everything written so far durable (or acknowledged) before a checkpoint
+     *
+     * @return Where the written data ends, stored in the checkpoint so a resumed job can
+     *         discard anything written after it; null if the target cannot rewind
+     */
+    String flush() throws IOException;
+
+    @Override
+    void close() throws IOException;
+}
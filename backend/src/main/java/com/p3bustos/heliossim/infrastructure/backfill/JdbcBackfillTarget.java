@@ -0,0 +1,85 @@
+package com.p3bustos.heliossim.infrastructure.backfill;
+
+import com.p3bustos.heliossim.domain.models.TelemetryFrame;
+import com.p3bustos.heliossim.infrastructure.jdbc.TelemetryTable;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Inserts backfilled frames into the telemetry table with multi-row inserts
+ *
+ * Everything between two checkpoints is written in one transaction that commits on
+ * flush, so a failed or cancelled job leaves no rows past its last checkpoint. Only a
+ * crash between the commit and the checkpoint write can insert one batch twice.
+ */
+class JdbcBackfillTarget implements BackfillTarget {
+
+    private final TelemetryTable table;
+    private final TelemetryFrame[] rows;
+    private final String fullBatchSql;
+    private Connection connection;
+    private int pending;
+
+    JdbcBackfillTarget(TelemetryTable table, int batchSize) {
+        this.table = table;
+        this.rows = new TelemetryFrame[Math.min(Math.max(1, batchSize), TelemetryTable.MAX_BATCH_ROWS)];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = new TelemetryFrame();
+        }
+        this.fullBatchSql = table.insertSql(rows.length);
+    }
+
+    @Override
+    public void write(TelemetryFrame frame) throws IOException {
+        rows[pending++].copyFrom(frame);
+        if (pending == rows.length) {
+            insertPending();
+        }
+    }
+
+    @Override
+    public String flush() throws IOException {
+        insertPending();
+        if (connection != null) {
+            try {
+                connection.commit();
+            } catch (SQLException e) {
+                throw new IOException("Telemetry commit failed: " + e.getMessage(), e);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (connection == null) {
+            return;
+        }
+        try (Connection closing = connection) {
+            // Anything not flushed is past the last checkpoint and is written again on resume
+            closing.rollback();
+        } catch (SQLException e) {
+            throw new IOException("Failed to release the database connection: " + e.getMessage(), e);
+        } finally {
+            connection = null;
+        }
+    }
+
+    private void insertPending() throws IOException {
+        if (pending == 0) {
+            return;
+        }
+        try {
+            if (connection == null) {
+                connection = table.getDataSource().getConnection();
+                connection.setAutoCommit(false);
+            }
+            table.insert(connection, rows, pending, pending == rows.length ? fullBatchSql : table.insertSql(pending));
+            pending = 0;
+        } catch (SQLException e) {
+            throw new IOException("Telemetry insert failed: " + e.getMessage(), e);
+        }
+    }
+}
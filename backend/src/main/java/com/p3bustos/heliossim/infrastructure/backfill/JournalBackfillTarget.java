@@ -0,0 +1,57 @@
+package com.p3bustos.heliossim.infrastructure.backfill;
+
+import com.p3bustos.heliossim.domain.models.TelemetryFrame;
+import com.p3bustos.heliossim.infrastructure.journal.SegmentedJournalWriter;
+import com.p3bustos.heliossim.infrastructure.journal.SegmentedJournalWriter.Position;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Writes backfilled frames as compressed journal segments
+ *
+ * The output is a regular journal directory, so it can be streamed back with the replayer.
+ */
+class JournalBackfillTarget implements BackfillTarget {
+
+    private final SegmentedJournalWriter writer;
+
+    /**
+     * @param resumePosition Position from a checkpoint; anything written after it is discarded
+     */
+    JournalBackfillTarget(Path directory, int segmentBytes, int mantissaBits, String resumePosition) throws IOException {
+        if (resumePosition != null) {
+            SegmentedJournalWriter.rewind(directory, parse(resumePosition));
+        }
+        this.writer = new SegmentedJournalWriter(directory, segmentBytes, mantissaBits);
+    }
+
+    @Override
+    public void write(TelemetryFrame frame) throws IOException {
+        writer.append(frame);
+    }
+
+    @Override
+    public String flush() {
+        writer.force();
+        Position position = writer.position();
+        return position.sequence() + ":" + position.committedBits() + ":" + position.records();
+    }
+
+    @Override
+    public void close() {
+        writer.close();
+    }
+
+    private static Position parse(String position) throws IOException {
+        String[] parts = position.split(":");
+        if (parts.length != 3) {
+            throw new IOException("Malformed journal position " + position);
+        }
+        try {
+            return new Position(Long.parseLong(parts[0]), Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+        } catch (NumberFormatException e) {
+            throw new IOException("Malformed journal position " + position, e);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.p3bustos.heliossim.infrastructure.backfill;
+
+import com.p3bustos.heliossim.domain.models.TelemetryFrame;
+import com.p3bustos.heliossim.infrastructure.codec.TelemetryPayloadEncoder;
+import com.p3bustos.heliossim.infrastructure.mqtt.MqttTransport;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Publishes backfilled frames to MQTT with a bounded number of unacknowledged messages
+ *
+ * Unlike the live publisher nothing is ever dropped: when {@code max-inflight}
+ * messages await acknowledgement the writer waits, which backs up the whole pipeline.
+ * A flush waits for every acknowledgement, so a checkpoint only covers frames the
+ * broker accepted. Frames sent after the last checkpoint are sent again on resume.
+ */
+class MqttBackfillTarget implements BackfillTarget {
+
+    private final MqttTransport transport;
+    private final String topic;
+    private final int qos;
+    private final TelemetryPayloadEncoder encoder;
+    private final int maxInflight;
+    private final long timeoutNanos;
+    private final ByteBuffer buffer;
+    private final Semaphore inflight;
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    MqttBackfillTarget(MqttTransport transport, String topic, int qos, TelemetryPayloadEncoder encoder,
+                       int maxInflight, Duration timeout) {
+        this.transport = transport;
+        this.topic = topic;
+        this.qos = qos;
+        this.encoder = encoder;
+        this.maxInflight = Math.max(1, maxInflight);
+        this.timeoutNanos = timeout.toNanos();
+        this.buffer = ByteBuffer.allocate(encoder.maxFrameBytes());
+        this.inflight = new Semaphore(this.maxInflight);
+    }
+
+    @Override
+    public void write(TelemetryFrame frame) throws IOException {
+        ensureConnected();
+        buffer.clear();
+        encoder.encode(frame, buffer);
+        byte[] payload = new byte[buffer.position()];
+        buffer.flip().get(payload);
+
+        acquire(1);
+        transport.publish(topic, payload, qos, false).whenComplete((ignored, error) -> {
+            if (error != null) {
+                failure.compareAndSet(null, error);
+            }
+            inflight.release();
+        });
+    }
+
+    @Override
+    public String flush() throws IOException {
+        acquire(maxInflight);
+        inflight.release(maxInflight);
+        return null;
+    }
+
+    @Override
+    public void close() {
+        // The transport is shared with the live publisher and stays open
+    }
+
+    private void acquire(int permits) throws IOException {
+        checkFailure();
+        try {
+            if (!inflight.tryAcquire(permits, timeoutNanos, TimeUnit.NANOSECONDS)) {
+                throw new IOException("MQTT broker did not acknowledge within " + Duration.ofNanos(timeoutNanos));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for MQTT acknowledgements");
+        }
+        checkFailure();
+    }
+
+    private void checkFailure() throws IOException {
+        Throwable error = failure.get();
+        if (error != null) {
+            throw new IOException("MQTT publish failed: " + error.getMessage(), error);
+        }
+    }
+
+    private void ensureConnected() throws IOException {
+        if (transport.isConnected()) {
+            return;
+        }
+        try {
+            transport.connect().get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted connecting to the MQTT broker");
+        } catch (Exception e) {
+            // The live publisher may be connecting the shared client at the same moment
+            if (!transport.isConnected()) {
+                throw new IOException("MQTT broker unreachable: " + (e instanceof TimeoutException ? "timed out" : e.getMessage()), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.p3bustos.heliossim.infrastructure.batch;
+
+import com.p3bustos.heliossim.config.SimulatorProperties;
+import com.p3bustos.heliossim.domain.models.BatchRunReport;
+import com.p3bustos.heliossim.domain.models.SiteDefinition;
+import com.p3bustos.heliossim.domain.services.BatchSimulationRunner;
+import com.p3bustos.heliossim.infrastructure.fleet.SiteRegistryLoader;
+import com.p3bustos.heliossim.infrastructure.weather.WeatherDatasets;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.ZoneId;
+
+/**
+ * Runs the configured time-warp batch at startup when {@code simulator.batch.enabled} is set
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "simulator.batch", name = "enabled", havingValue = "true")
+public class BatchModeRunner implements ApplicationRunner {
+
+    private final SimulatorProperties properties;
+    private final SiteRegistryLoader registryLoader;
+    private final BatchSimulationRunner batchRunner;
+    private final WeatherDatasets weatherDatasets;
+    private final ApplicationContext context;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        var batch = properties.getBatch();
+        SiteDefinition site = registryLoader.defaultSite(properties.getSiteId());
+        ZoneId zone = ZoneId.of(site.getTimezone());
+        Instant start = batch.getStartDate().atStartOfDay(zone).toInstant();
+        Instant end = batch.getEndDate().atStartOfDay(zone).toInstant();
+
+        BatchRunReport report = weatherDatasets.configured()
+                .map(dataset -> batchRunner.runWithWeatherSeries(site, start, end, batch.getStep(), dataset))
+                .orElseGet(() -> batchRunner.run(site, start, end, batch.getStep(), null));
+
+        log.info("Batch report: {} simulated days in {}s wall time, {} simulated s per wall s",
+            String.format("%.1f", report.getSimulatedSeconds() / 86_400.0),
+            String.format("%.2f", report.getWallSeconds()),
+            String.format("%.0f", report.getSimulatedSecondsPerWallSecond())
+        );
+        log.info("Batch energy: Solar={} kWh, Load={} kWh, Import={} kWh, Export={} kWh, final SOC={}%",
+            String.format("%.1f", report.getSolarKwh()),
+            String.format("%.1f", report.getLoadKwh()),
+            String.format("%.1f", report.getGridImportKwh()),
+            String.format("%.1f", report.getGridExportKwh()),
+            String.format("%.1f", report.getFinalSocPercent())
+        );
+
+        if (batch.isExitOnCompletion()) {
+            System.exit(SpringApplication.exit(context, () -> 0));
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.p3bustos.heliossim.infrastructure.batch;
+
+import com.p3bustos.heliossim.config.SimulatorProperties;
+import com.p3bustos.heliossim.domain.models.SiteDefinition;
+import com.p3bustos.heliossim.domain.services.FleetSimulator;
+import com.p3bustos.heliossim.domain.services.SolarSimulator;
+import com.p3bustos.heliossim.infrastructure.fleet.SiteRegistryLoader;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Measures fleet tick throughput (site-ticks/sec) against worker count on a synthetic fleet,
+ * to size nodes. Enabled with {@code simulator.fleet.scaling-report.enabled}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "simulator.fleet.scaling-report", name = "enabled", havingValue = "true")
+public class FleetScalingReportRunner implements ApplicationRunner {
+
+    private static final int WARMUP_TICKS = 10;
+    private static final double TICK_SECONDS = 5.0;
+
+    private final SimulatorProperties properties;
+    private final SiteRegistryLoader registryLoader;
+    private final SolarSimulator solarSimulator;
+    private final ApplicationContext context;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        var fleet = properties.getFleet();
+        var report = fleet.getScalingReport();
+        List<SiteDefinition> sites = registryLoader.synthetic(report.getSites(), 42L);
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        TreeSet<Integer> levels = new TreeSet<>();
+        for (int p = 1; p < cores; p *= 2) {
+            levels.add(p);
+        }
+        levels.add(cores);
+
+        log.info("Fleet scaling report: {} sites, {} ticks, shard size {}, {} cores",
+            sites.size(), report.getTicks(), fleet.getShardSize(), cores);
+
+        double baseline = 0;
+        for (int parallelism : levels) {
+            double throughput = measure(sites, parallelism, fleet.getShardSize(), report.getTicks());
+            if (baseline == 0) {
+                baseline = throughput;
+            }
+            double speedup = throughput / baseline;
+            log.info("Parallelism {}: {} site-ticks/s, {}x speedup, {}% efficiency",
+                parallelism, Math.round(throughput), Math.round(speedup * 100) / 100.0,
+                Math.round(100.0 * speedup / parallelism));
+        }
+
+        if (report.isExitOnCompletion()) {
+            System.exit(SpringApplication.exit(context, () -> 0));
+        }
+    }
+
+    private double measure(List<SiteDefinition> sites, int parallelism, int shardSize, int ticks) {
+        FleetSimulator simulator = new FleetSimulator(solarSimulator, parallelism, shardSize);
+        try {
+            simulator.loadSites(sites);
+            // Start at midday so both the charge and discharge paths are exercised
+            Instant now = Instant.parse("2025-06-21T16:00:00Z");
+            for (int t = 0; t < WARMUP_TICKS; t++) {
+                simulator.tick(now, TICK_SECONDS, null);
+                now = now.plusSeconds((long) TICK_SECONDS);
+            }
+
+            long startNanos = System.nanoTime();
+            for (int t = 0; t < ticks; t++) {
+                simulator.tick(now, TICK_SECONDS, null);
+                now = now.plusSeconds((long) TICK_SECONDS);
+            }
+            double seconds = (System.nanoTime() - startNanos) / 1e9;
+            return (double) sites.size() * ticks / seconds;
+        } finally {
+            simulator.shutdown();
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.p3bustos.heliossim.infrastructure.clock;
+
+import com.p3bustos.heliossim.config.SimulatorProperties.Clock.OverrunPolicy;
+
+/**
+ * Fixed-rate tick deadlines on the monotonic {@link System#nanoTime()} clock
+ *
+ * Deadline k is {@code start + k * period}, so the schedule never drifts by the time
+ * the ticks themselves take. Each tick is stamped with the moment it actually started
+ * and carries the measured time since the previous stamp as its delta, so energy
+ * integrated over the ticks always covers exactly the elapsed time, late ticks
+ * included. When a tick starts a full period or more past its deadline the missed
+ * deadlines are either skipped (the next tick's delta spans the gap) or, under
+ * catch-up, run back to back stamped at their deadlines, up to a limit.
+ *
+ * Wall time is derived from the same monotonic stamps against one anchor taken at
+ * construction, so simulated time advances evenly even if the system clock is stepped.
+ */
+public class TickClock {
+
+    private final long periodNanos;
+    private final OverrunPolicy overrunPolicy;
+    private final int maxCatchUpTicks;
+    private final long anchorNanos;
+    private final long anchorEpochMilli;
+
+    private long nextDeadlineNanos;
+    private long lastStampNanos;
+    private int catchUpRun;
+
+    // Outcome of the most recent tick
+    private long stampNanos;
+    private long deltaNanos;
+    private long latenessNanos;
+
+    private long ticks;
+    private long skippedTicks;
+    private long caughtUpTicks;
+
+    public TickClock(long periodNanos, OverrunPolicy overrunPolicy, int maxCatchUpTicks,
+                     long startNanos, long startEpochMilli) {
+        if (periodNanos <= 0) {
+            throw new IllegalArgumentException("Tick period must be positive");
+        }
+        this.periodNanos = periodNanos;
+        this.overrunPolicy = overrunPolicy;
+        this.maxCatchUpTicks = Math.max(0, maxCatchUpTicks);
+        this.anchorNanos = startNanos;
+        this.anchorEpochMilli = startEpochMilli;
+        this.nextDeadlineNanos = startNanos + periodNanos;
+        this.lastStampNanos = startNanos;
+    }
+
+    public long getNextDeadlineNanos() {
+        return nextDeadlineNanos;
+    }
+
+    /**
+     * Start the tick due at the current deadline; {@code nowNanos} must not be before it
+     */
+    public void begin(long nowNanos) {
+        long deadline = nextDeadlineNanos;
+        long lateness = nowNanos - deadline;
+        long stamp = nowNanos;
+
+        if (lateness >= periodNanos) {
+            if (overrunPolicy == OverrunPolicy.CATCH_UP && catchUpRun < maxCatchUpTicks) {
+                stamp = deadline;
+                nextDeadlineNanos = deadline + periodNanos;
+                catchUpRun++;
+                caughtUpTicks++;
+            } else {
+                long missed = lateness / periodNanos;
+                nextDeadlineNanos = deadline + (missed + 1) * periodNanos;
+                skippedTicks += missed;
+                catchUpRun = 0;
+            }
+        } else {
+            nextDeadlineNanos = deadline + periodNanos;
+            catchUpRun = 0;
+        }
+
+        stamp = Math.max(stamp, lastStampNanos);
+        stampNanos = stamp;
+        deltaNanos = stamp - lastStampNanos;
+        latenessNanos = Math.max(0, lateness);
+        lastStampNanos = stamp;
+        ticks++;
+    }
+
+    /**
+     * Wall time of the current tick
+     */
+    public long epochMilli() {
+        return anchorEpochMilli + Math.floorDiv(stampNanos - anchorNanos, 1_000_000L);
+    }
+
+    /**
+     * Measured time since the previous tick (or since the clock started) in seconds
+     */
+    public double deltaSeconds() {
+        return deltaNanos / 1e9;
+    }
+
+    public long getStampNanos() {
+        return stampNanos;
+    }
+
+    public long getDeltaNanos() {
+        return deltaNanos;
+    }
+
+    /**
+     * How long after its deadline the current tick started
+     */
+    public long getLatenessNanos() {
+        return latenessNanos;
+    }
+
+    public long getTicks() {
+        return ticks;
+    }
+
+    public long getSkippedTicks() {
+        return skippedTicks;
+    }
+
+    public long getCaughtUpTicks() {
+        return caughtUpTicks;
+    }
+}
@@ -0,0 +1,167 @@
+package com.p3bustos.heliossim.infrastructure.clock;
+
+import com.p3bustos.heliossim.config.SimulatorProperties;
+import com.p3bustos.heliossim.domain.services.SimulationOrchestrator;
+import com.p3bustos.heliossim.infrastructure.metrics.TickMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives the live simulation tick from a dedicated thread on {@link TickClock} deadlines
+ *
+ * The thread parks until shortly before each deadline and spins the remainder, which
+ * keeps start jitter in the tens of microseconds at 10-100 ms rates without holding a
+ * core between ticks. Start lateness goes to the {@code helios.tick.scheduler.lag}
+ * histogram and, once per report interval, into a log line with its percentiles.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "simulator.clock", name = "enabled", matchIfMissing = true)
+public class TickScheduler {
+
+    private static final long STOP_TIMEOUT_MILLIS = 5_000;
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final SimulationOrchestrator orchestrator;
+    private final TickMetrics metrics;
+    private final SimulatorProperties.Clock config;
+    private final long periodNanos;
+    private final long spinNanos;
+    private final long reportIntervalNanos;
+
+    private final Recorder jitter = new Recorder(HIGHEST_TRACKABLE_NANOS, 3);
+    private Histogram recycledJitter;
+
+    private volatile TickClock clock;
+    private volatile Thread thread;
+    private volatile boolean running;
+
+    public TickScheduler(SimulationOrchestrator orchestrator, TickMetrics metrics, SimulatorProperties properties) {
+        this.orchestrator = orchestrator;
+        this.metrics = metrics;
+        this.config = properties.getClock();
+        this.periodNanos = TimeUnit.MILLISECONDS.toNanos(properties.getPublishing().getRateMs());
+        this.spinNanos = Math.max(0, config.getSpin().toNanos());
+        this.reportIntervalNanos = config.getJitterReportInterval().toNanos();
+        if (periodNanos <= 0) {
+            throw new IllegalArgumentException("simulator.publishing.rate-ms must be positive");
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        Thread tickThread = new Thread(this::run, "simulation-tick");
+        tickThread.setDaemon(true);
+        tickThread.setPriority(Thread.MAX_PRIORITY);
+        thread = tickThread;
+        tickThread.start();
+        log.info("Tick clock started at {} ms ({} on overrun)",
+            String.format("%.3f", periodNanos / 1e6), config.getOverrunPolicy().name().toLowerCase());
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        Thread tickThread = thread;
+        if (tickThread != null) {
+            LockSupport.unpark(tickThread);
+            try {
+                tickThread.join(STOP_TIMEOUT_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Clock of the running scheduler, for status and tests
+     */
+    public TickClock getClock() {
+        return clock;
+    }
+
+    private void run() {
+        TickClock tickClock = new TickClock(periodNanos, config.getOverrunPolicy(), config.getMaxCatchUpTicks(),
+            System.nanoTime(), System.currentTimeMillis());
+        clock = tickClock;
+        long nextReportNanos = System.nanoTime() + reportIntervalNanos;
+        long reportedSkipped = 0;
+        long reportedCaughtUp = 0;
+
+        while (running) {
+            if (!awaitDeadline(tickClock.getNextDeadlineNanos())) {
+                break;
+            }
+            long skippedBefore = tickClock.getSkippedTicks();
+            tickClock.begin(System.nanoTime());
+
+            long lateness = tickClock.getLatenessNanos();
+            metrics.recordSchedulerLag(lateness);
+            jitter.recordValue(Math.min(lateness, HIGHEST_TRACKABLE_NANOS));
+            if (tickClock.getSkippedTicks() > skippedBefore) {
+                metrics.recordSkippedTicks(tickClock.getSkippedTicks() - skippedBefore);
+            }
+
+            orchestrator.simulateTick(tickClock.epochMilli(), tickClock.deltaSeconds());
+
+            long now = System.nanoTime();
+            if (reportIntervalNanos > 0 && now - nextReportNanos >= 0) {
+                report(tickClock, tickClock.getSkippedTicks() - reportedSkipped,
+                    tickClock.getCaughtUpTicks() - reportedCaughtUp);
+                reportedSkipped = tickClock.getSkippedTicks();
+                reportedCaughtUp = tickClock.getCaughtUpTicks();
+                nextReportNanos = now + reportIntervalNanos;
+            }
+        }
+    }
+
+    /**
+     * Park until just before the deadline, then spin until it passes
+     *
+     * @return false if the scheduler was stopped while waiting
+     */
+    private boolean awaitDeadline(long deadlineNanos) {
+        while (running) {
+            long remaining = deadlineNanos - System.nanoTime();
+            if (remaining <= 0) {
+                return true;
+            }
+            if (remaining > spinNanos) {
+                LockSupport.parkNanos(remaining - spinNanos);
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Log start-jitter percentiles for the ticks since the previous report
+     */
+    private void report(TickClock tickClock, long skipped, long caughtUp) {
+        Histogram interval = jitter.getIntervalHistogram(recycledJitter);
+        recycledJitter = interval;
+        if (interval.getTotalCount() == 0) {
+            return;
+        }
+        log.info("Tick clock: {} ticks at {} ms, start jitter p50={} us p99={} us p99.9={} us max={} us, {} skipped, {} caught up",
+            interval.getTotalCount(),
+            String.format("%.3f", periodNanos / 1e6),
+            String.format("%.1f", interval.getValueAtPercentile(50) / 1e3),
+            String.format("%.1f", interval.getValueAtPercentile(99) / 1e3),
+            String.format("%.1f", interval.getValueAtPercentile(99.9) / 1e3),
+            String.format("%.1f", interval.getMaxValue() / 1e3),
+            skipped,
+            caughtUp
+        );
+    }
+}
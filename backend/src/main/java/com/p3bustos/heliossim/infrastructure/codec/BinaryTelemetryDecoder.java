@@ -0,0 +1,107 @@
+package com.p3bustos.heliossim.infrastructure.codec;
+
+import com.p3bustos.heliossim.domain.models.TelemetryFrame;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static com.p3bustos.heliossim.infrastructure.codec.BinaryTelemetrySchema.*;
+
+/**
+ * Decodes the {@link BinaryTelemetrySchema binary format} for telemetry consumers
+ *
+ * Keeps the last values of every site to apply delta frames. A delta whose base is
+ * unknown (the consumer joined mid-stream, or a frame was lost) is rejected, and the
+ * site stays unsynced until its next keyframe. Not thread-safe; use one decoder per
+ * subscription.
+ */
+public class BinaryTelemetryDecoder {
+
+    private SiteState[] sites = new SiteState[16];
+
+    /**
+     * Decode one message
+     *
+     * @param in Buffer holding exactly one encoded frame
+     * @param target Frame to fill
+     * @return false when a delta frame could not be applied; {@code target} is left untouched
+     */
+    public boolean decode(ByteBuffer in, TelemetryFrame target) {
+        byte magic = in.get();
+        if (magic != MAGIC) {
+            throw new IllegalArgumentException("Not a binary telemetry frame (magic " + magic + ")");
+        }
+        byte version = in.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported binary telemetry version " + version);
+        }
+        boolean keyframe = (in.get() & FLAG_KEYFRAME) != 0;
+        int sequence = in.get() & 0xFF;
+        long ordinal = getVarint(in);
+        if (ordinal < 0 || ordinal > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid site ordinal " + ordinal);
+        }
+        SiteState site = state((int) ordinal);
+
+        if (keyframe) {
+            long length = getVarint(in);
+            if (length < 0 || length > MAX_SITE_ID_BYTES || length > in.remaining()) {
+                throw new IllegalArgumentException("Invalid site id length " + length);
+            }
+            byte[] siteIdBytes = new byte[(int) length];
+            in.get(siteIdBytes);
+            if (site.siteId == null || !Arrays.equals(siteIdBytes, site.siteIdBytes)) {
+                site.siteIdBytes = siteIdBytes;
+                site.siteId = new String(siteIdBytes, StandardCharsets.UTF_8);
+            }
+            site.epochMilli = in.getLong();
+            Arrays.fill(site.values, 0);
+            site.synced = true;
+        } else {
+            if (!site.synced || sequence != site.nextSequence) {
+                site.synced = false;
+                return false;
+            }
+            site.epochMilli += getZigZag(in);
+        }
+
+        long mask = getVarint(in);
+        for (long bits = mask; bits != 0; bits &= bits - 1) {
+            int field = Long.numberOfTrailingZeros(bits);
+            long delta = getZigZag(in);
+            // Fields added by newer encoders are skipped
+            if (field < FIELD_COUNT) {
+                site.values[field] += delta;
+            }
+        }
+        site.nextSequence = (sequence + 1) & 0xFF;
+
+        target.setSiteOrdinal((int) ordinal);
+        target.setSiteId(site.siteId);
+        target.setEpochMilli(site.epochMilli);
+        restore(site.values, target);
+        return true;
+    }
+
+    private SiteState state(int ordinal) {
+        if (ordinal >= sites.length) {
+            sites = Arrays.copyOf(sites, Math.max(ordinal + 1, sites.length * 2));
+        }
+        SiteState site = sites[ordinal];
+        if (site == null) {
+            site = new SiteState();
+            sites[ordinal] = site;
+        }
+        return site;
+    }
+
+    private static final class SiteState {
+        private String siteId;
+        private byte[] siteIdBytes;
+        private long epochMilli;
+        private int nextSequence;
+        private boolean synced;
+        private final long[] values = new long[FIELD_COUNT];
+    }
+}
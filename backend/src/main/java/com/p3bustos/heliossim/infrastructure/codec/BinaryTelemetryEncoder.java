@@ -0,0 +1,120 @@
+package com.p3bustos.heliossim.infrastructure.codec;
+
+import com.p3bustos.heliossim.domain.models.TelemetryFrame;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static com.p3bustos.heliossim.infrastructure.codec.BinaryTelemetrySchema.*;
+
+/**
+ * Encodes frames in the {@link BinaryTelemetrySchema binary format}
+ *
+ * Values go straight from the frame into the target buffer with no intermediate
+ * DTOs or strings. With delta encoding each site sends a keyframe, then up to
+ * {@code keyframeInterval} frames carrying only the fields that changed.
+ */
+public class BinaryTelemetryEncoder implements TelemetryPayloadEncoder {
+
+    private final boolean deltaEncoding;
+    private final int keyframeInterval;
+
+    private SiteState[] sites = new SiteState[16];
+    private final long[] current = new long[FIELD_COUNT];
+
+    /**
+     * @param keyframeInterval Delta frames between two keyframes of the same site
+     */
+    public BinaryTelemetryEncoder(boolean deltaEncoding, int keyframeInterval) {
+        this.deltaEncoding = deltaEncoding;
+        this.keyframeInterval = Math.max(0, keyframeInterval);
+    }
+
+    @Override
+    public void encode(TelemetryFrame frame, ByteBuffer out) {
+        SiteState site = state(frame.getSiteOrdinal());
+        String siteId = frame.getSiteId();
+        boolean keyframe = !deltaEncoding
+            || site.siteId == null
+            || !site.siteId.equals(siteId)
+            || site.framesSinceKeyframe >= keyframeInterval;
+
+        quantize(frame, current);
+
+        out.put(MAGIC);
+        out.put(VERSION);
+        out.put((byte) (keyframe ? FLAG_KEYFRAME : 0));
+        out.put((byte) site.sequence++);
+        putVarint(out, frame.getSiteOrdinal());
+
+        long[] previous = site.values;
+        long mask = 0;
+        if (keyframe) {
+            if (site.siteId == null || !site.siteId.equals(siteId)) {
+                site.siteId = siteId;
+                site.siteIdBytes = siteIdBytes(siteId);
+            }
+            putVarint(out, site.siteIdBytes.length);
+            out.put(site.siteIdBytes);
+            out.putLong(frame.getEpochMilli());
+            site.framesSinceKeyframe = 0;
+            Arrays.fill(previous, 0);
+        } else {
+            putZigZag(out, frame.getEpochMilli() - site.epochMilli);
+            site.framesSinceKeyframe++;
+        }
+
+        // Keyframes are deltas against all-zero, so both cases send only what differs
+        for (int i = 0; i < FIELD_COUNT; i++) {
+            if (current[i] != previous[i]) {
+                mask |= 1L << i;
+            }
+        }
+        putVarint(out, mask);
+        for (long bits = mask; bits != 0; bits &= bits - 1) {
+            int field = Long.numberOfTrailingZeros(bits);
+            putZigZag(out, current[field] - previous[field]);
+        }
+
+        System.arraycopy(current, 0, previous, 0, FIELD_COUNT);
+        site.epochMilli = frame.getEpochMilli();
+    }
+
+    @Override
+    public int maxFrameBytes() {
+        return MAX_FRAME_BYTES;
+    }
+
+    private SiteState state(int ordinal) {
+        if (ordinal < 0) {
+            throw new IllegalArgumentException("Negative site ordinal: " + ordinal);
+        }
+        if (ordinal >= sites.length) {
+            sites = Arrays.copyOf(sites, Math.max(ordinal + 1, sites.length * 2));
+        }
+        SiteState site = sites[ordinal];
+        if (site == null) {
+            site = new SiteState();
+            sites[ordinal] = site;
+        }
+        return site;
+    }
+
+    private static byte[] siteIdBytes(String siteId) {
+        byte[] bytes = siteId != null ? siteId.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        if (bytes.length > MAX_SITE_ID_BYTES) {
+            throw new IllegalArgumentException("Site id longer than " + MAX_SITE_ID_BYTES + " bytes: " + siteId);
+        }
+        return bytes;
+    }
+
+    private static final class SiteState {
+        private String siteId;
+        private byte[] siteIdBytes;
+        private long epochMilli;
+        private int sequence;
+        private int framesSinceKeyframe;
+        private final long[] values = new long[FIELD_COUNT];
+    }
+}
@@ -0,0 +1,99 @@
+package com.p3bustos.heliossim.infrastructure.codec;
+
+import com.p3bustos.heliossim.domain.models.TelemetryFrame;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Layout of the binary telemetry format, version 1
+ *
+ * <pre>
+ * byte    magic 0x48 ('H')
+ * byte    version
+ * byte    flags          bit 0: keyframe
+ * byte    sequence       per site, wraps at 256; lets a decoder detect a lost delta
+ * varint  site ordinal
+ * keyframe only:
+ *   varint + UTF-8  site id
+ *   int64           epoch millis
+ * delta only:
+ *   zigzag varint   millis since the previous frame of the site
+ * varint  field mask     bit i set when field i follows
+ * zigzag varint per set bit, in bit order
+ * </pre>
+ *
+ * Field i is {@link TelemetryFrame} value field i. Values are fixed-point:
+ * {@code round(value * scale)}. A keyframe carries the
+ * absolute value of every non-zero field; a delta frame carries the change of every
+ * field that changed, and absent fields keep their previous value. Every field is a
+ * self-delimiting varint, so decoders skip mask bits they do not know and new
+ * fields can be appended without a version bump. The version byte only changes when
+ * the layout above changes.
+ */
+public final class BinaryTelemetrySchema {
+
+    public static final byte MAGIC = 0x48;
+    public static final byte VERSION = 1;
+
+    static final int FLAG_KEYFRAME = 1;
+
+    static final int FIELD_COUNT = TelemetryFrame.VALUE_COUNT;
+
+    /**
+     * Fixed-point scale per field: 1 W for power, 0.1 W/m², 0.01 °C and %, 1 mV, 1 mA
+     */
+    static final double[] SCALES = {
+        1000, 10, 100, 100, 1000, 1000, 1000, 1000, 1000, 1000, 1000, 1000, 1000, 1000
+    };
+
+    static final int MAX_SITE_ID_BYTES = 255;
+
+    /**
+     * Header, site id, timestamp, mask and every field at the longest varint
+     */
+    public static final int MAX_FRAME_BYTES = 4 + 5 + 2 + MAX_SITE_ID_BYTES + 10 + 3 + FIELD_COUNT * 10;
+
+    private BinaryTelemetrySchema() {
+    }
+
+    static void quantize(TelemetryFrame frame, long[] out) {
+        for (int field = 0; field < FIELD_COUNT; field++) {
+            out[field] = Math.round(frame.getValue(field) * SCALES[field]);
+        }
+    }
+
+    static void restore(long[] values, TelemetryFrame frame) {
+        for (int field = 0; field < FIELD_COUNT; field++) {
+            frame.setValue(field, values[field] / SCALES[field]);
+        }
+    }
+
+    static void putVarint(ByteBuffer out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    static long getVarint(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    static void putZigZag(ByteBuffer out, long value) {
+        putVarint(out, (value << 1) ^ (value >> 63));
+    }
+
+    static long getZigZag(ByteBuffer in) {
+        long raw = getVarint(in);
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+}
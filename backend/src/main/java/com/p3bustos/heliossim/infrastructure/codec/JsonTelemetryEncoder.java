@@ -0,0 +1,37 @@
+package com.p3bustos.heliossim.infrastructure.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedOutputStream;
+import com.p3bustos.heliossim.domain.models.TelemetryFrame;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+
+/**
+ * The original {@link com.p3bustos.heliossim.dto.PowerTelemetry} JSON document
+ */
+public class JsonTelemetryEncoder implements TelemetryPayloadEncoder {
+
+    private static final int MAX_FRAME_BYTES = 4096;
+
+    private final ObjectMapper objectMapper;
+
+    public JsonTelemetryEncoder(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void encode(TelemetryFrame frame, ByteBuffer target) {
+        try {
+            objectMapper.writeValue(new ByteBufferBackedOutputStream(target), frame.toPowerTelemetry());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to serialize telemetry for " + frame.getSiteId(), e);
+        }
+    }
+
+    @Override
+    public int maxFrameBytes() {
+        return MAX_FRAME_BYTES;
+    }
+}
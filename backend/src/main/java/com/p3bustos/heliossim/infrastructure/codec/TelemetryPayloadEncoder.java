@@ -0,0 +1,35 @@
+package com.p3bustos.heliossim.infrastructure.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.p3bustos.heliossim.config.SimulatorProperties;
+import com.p3bustos.heliossim.domain.models.TelemetryFrame;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Wire format for published telemetry
+ *
+ * Encoders may keep per-site state between calls and are confined to one thread.
+ */
+public interface TelemetryPayloadEncoder {
+
+    /**
+     * Write one frame into {@code target} starting at its position
+     */
+    void encode(TelemetryFrame frame, ByteBuffer target);
+
+    /**
+     * Upper bound on the bytes one frame takes, used to size encode buffers
+     */
+    int maxFrameBytes();
+
+    /**
+     * New encoder for the configured MQTT payload format
+     */
+    static TelemetryPayloadEncoder forConfig(SimulatorProperties.Mqtt mqtt, ObjectMapper objectMapper) {
+        return switch (mqtt.getPayloadFormat()) {
+            case JSON -> new JsonTelemetryEncoder(objectMapper);
+            case BINARY -> new BinaryTelemetryEncoder(mqtt.isDeltaEncoding(), mqtt.getKeyframeInterval());
+        };
+    }
+}
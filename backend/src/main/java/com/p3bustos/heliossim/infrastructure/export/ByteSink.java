@@ -0,0 +1,45 @@
+package com.p3bustos.heliossim.infrastructure.export;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Growable little-endian byte buffer used to assemble pages and metadata before they are written
+ */
+final class ByteSink extends ByteArrayOutputStream {
+
+    ByteSink(int initialCapacity) {
+        super(initialCapacity);
+    }
+
+    void writeVarint(long value) {
+        while ((value & ~0x7FL) != 0) {
+            write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        write((int) value);
+    }
+
+    void writeZigZag(long value) {
+        writeVarint((value << 1) ^ (value >> 63));
+    }
+
+    void writeIntLE(int value) {
+        write(value);
+        write(value >>> 8);
+        write(value >>> 16);
+        write(value >>> 24);
+    }
+
+    void writeLongLE(long value) {
+        for (int i = 0; i < 8; i++) {
+            write((int) (value >>> (i * 8)));
+        }
+    }
+
+    /**
+     * Backing array; only the first {@link #size()} bytes are valid
+     */
+    byte[] array() {
+        return buf;
+    }
+}
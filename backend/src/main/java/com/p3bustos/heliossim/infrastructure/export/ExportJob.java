@@ -0,0 +1,128 @@
+package com.p3bustos.heliossim.infrastructure.export;
+
+import com.p3bustos.heliossim.config.SimulatorProperties;
+import com.p3bustos.heliossim.domain.models.TelemetryFrame;
+import com.p3bustos.heliossim.dto.ExportStatus;
+import com.p3bustos.heliossim.infrastructure.journal.TelemetryJournalReader;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One journal-to-Parquet export, streamed frame by frame on the export thread
+ */
+@Slf4j
+final class ExportJob implements Runnable {
+
+    enum State {
+        RUNNING, COMPLETED, CANCELLED, FAILED;
+
+        String label() {
+            return name().toLowerCase();
+        }
+    }
+
+    // Progress is published to status readers this often
+    private static final int PROGRESS_INTERVAL = 16 * 1024;
+
+    private final String id;
+    private final Path source;
+    private final Path output;
+    private final SimulatorProperties.Export config;
+    private final CountDownLatch done = new CountDownLatch(1);
+
+    private volatile State state = State.RUNNING;
+    private volatile boolean cancelled;
+    private volatile long frames;
+    private volatile int files;
+    private volatile long bytes;
+    private volatile String error;
+    private volatile long startNanos = System.nanoTime();
+    private volatile long endNanos;
+
+    ExportJob(String id, Path source, Path output, SimulatorProperties.Export config) {
+        this.id = id;
+        this.source = source;
+        this.output = output;
+        this.config = config;
+    }
+
+    @Override
+    public void run() {
+        startNanos = System.nanoTime();
+        ParquetDatasetWriter writer = new ParquetDatasetWriter(output, config.getCompression(),
+            config.getRowGroupRows(), config.getMemoryBudget().toBytes(), config.getMaxOpenFiles());
+        try (TelemetryJournalReader reader = new TelemetryJournalReader(source)) {
+            TelemetryFrame frame = new TelemetryFrame();
+            long read = 0;
+            while (!cancelled && reader.next(frame)) {
+                writer.write(frame);
+                if (++read % PROGRESS_INTERVAL == 0) {
+                    publishProgress(writer, read);
+                }
+            }
+            writer.close();
+            publishProgress(writer, read);
+            finish(cancelled ? State.CANCELLED : State.COMPLETED);
+        } catch (Exception e) {
+            error = e.getMessage();
+            try {
+                writer.close();
+            } catch (Exception closeFailure) {
+                e.addSuppressed(closeFailure);
+            }
+            log.error("Export {} failed", id, e);
+            finish(State.FAILED);
+        }
+    }
+
+    void cancel() {
+        cancelled = true;
+    }
+
+    boolean isRunning() {
+        return state == State.RUNNING;
+    }
+
+    void await(long timeout, TimeUnit unit) throws InterruptedException {
+        done.await(timeout, unit);
+    }
+
+    ExportStatus status() {
+        long now = state == State.RUNNING ? System.nanoTime() : endNanos;
+        double wallSeconds = (now - startNanos) / 1e9;
+        return ExportStatus.builder()
+                .exportId(id)
+                .state(state.label())
+                .source(source.toString())
+                .output(output.toString())
+                .frames(frames)
+                .files(files)
+                .bytes(bytes)
+                .framesPerSecond(wallSeconds > 0 ? frames / wallSeconds : 0)
+                .wallSeconds(wallSeconds)
+                .error(error)
+                .build();
+    }
+
+    private void publishProgress(ParquetDatasetWriter writer, long read) {
+        frames = read;
+        files = writer.getFilesWritten();
+        bytes = writer.getBytesWritten();
+    }
+
+    private void finish(State finalState) {
+        endNanos = System.nanoTime();
+        state = finalState;
+        done.countDown();
+        ExportStatus status = status();
+        log.info("Export {} {}: {} frames into {} files ({} MB) in {}s ({} frames/s)",
+            id, status.getState(), status.getFrames(), status.getFiles(),
+            String.format("%.1f", status.getBytes() / 1e6),
+            String.format("%.2f", status.getWallSeconds()),
+            String.format("%.0f", status.getFramesPerSecond())
+        );
+    }
+}
@@ -0,0 +1,144 @@
+package com.p3bustos.heliossim.infrastructure.export;
+
+import com.p3bustos.heliossim.config.SimulatorProperties;
+import com.p3bustos.heliossim.dto.ExportRequest;
+import com.p3bustos.heliossim.dto.ExportStatus;
+import com.p3bustos.heliossim.infrastructure.journal.TelemetryJournalReader;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Starts and tracks exports of recorded journals to Parquet datasets
+ *
+ * Exports run one at a time on a dedicated thread, so an export never competes with
+ * the tick or backfill workers for more than one core.
+ */
+@Slf4j
+@Service
+public class ExportService {
+
+    private static final Pattern EXPORT_ID = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+
+    private final SimulatorProperties properties;
+    private final ExecutorService executor;
+    private final Map<String, ExportJob> jobs = new ConcurrentHashMap<>();
+
+    public ExportService(SimulatorProperties properties) {
+        this.properties = properties;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "export-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Validate a request and queue it
+     *
+     * @throws IllegalArgumentException if the source is not a journal or the output is not empty
+     * @throws IllegalStateException if an export with the same id is running
+     */
+    public synchronized ExportStatus start(ExportRequest request) {
+        String id = request.getExportId() != null ? request.getExportId() : UUID.randomUUID().toString();
+        if (!EXPORT_ID.matcher(id).matches()) {
+            throw new IllegalArgumentException("'export_id' may only contain letters, digits, '.', '_' and '-'");
+        }
+        ExportJob existing = jobs.get(id);
+        if (existing != null && existing.isRunning()) {
+            throw new IllegalStateException("Export " + id + " is already running");
+        }
+        if (request.getSource() == null || request.getSource().isBlank()) {
+            throw new IllegalArgumentException("'source' is required");
+        }
+
+        Path source = Paths.get(request.getSource());
+        Path output = request.getOutput() != null && !request.getOutput().isBlank()
+            ? Paths.get(request.getOutput())
+            : Paths.get(properties.getExport().getOutputDirectory(), id);
+        try (TelemetryJournalReader reader = new TelemetryJournalReader(source)) {
+            if (reader.getSegmentCount() == 0) {
+                throw new IllegalArgumentException("No journal segments in " + source);
+            }
+            if (!isEmpty(output)) {
+                throw new IllegalArgumentException("Output directory " + output + " is not empty");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        ExportJob job = new ExportJob(id, source, output, properties.getExport());
+        jobs.put(id, job);
+        executor.execute(job);
+        log.info("Export {} queued: {} -> {}", id, source, output);
+        return job.status();
+    }
+
+    public Optional<ExportStatus> status(String id) {
+        return Optional.ofNullable(jobs.get(id)).map(ExportJob::status);
+    }
+
+    public List<ExportStatus> list() {
+        return jobs.values().stream().map(ExportJob::status).toList();
+    }
+
+    /**
+     * Stop an export; files finished so far stay complete and readable
+     */
+    public Optional<ExportStatus> cancel(String id) {
+        ExportJob job = jobs.get(id);
+        if (job == null) {
+            return Optional.empty();
+        }
+        job.cancel();
+        try {
+            job.await(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return Optional.of(job.status());
+    }
+
+    /**
+     * Block until an export finishes (used by tests)
+     */
+    public Optional<ExportStatus> await(String id, long timeout, TimeUnit unit) throws InterruptedException {
+        ExportJob job = jobs.get(id);
+        if (job == null) {
+            return Optional.empty();
+        }
+        job.await(timeout, unit);
+        return Optional.of(job.status());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobs.values().forEach(ExportJob::cancel);
+        executor.shutdown();
+    }
+
+    private static boolean isEmpty(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return !Files.exists(directory);
+        }
+        try (Stream<Path> entries = Files.list(directory)) {
+            return entries.findAny().isEmpty();
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package com.p3bustos.heliossim.infrastructure.export;
+
+import com.p3bustos.heliossim.config.SimulatorProperties.Export.Compression;
+import com.p3bustos.heliossim.domain.models.TelemetryFrame;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Writes a stream of telemetry frames as a Parquet dataset partitioned by site and UTC day
+ *
+ * Files land in {@code <root>/site_id=<site>/date=<yyyy-MM-dd>/part-<n>.parquet}. Frames
+ * must arrive in time order per site (interleaving sites is fine), which is how the
+ * simulation, the journal and backfill produce them; a site's file is finished as soon
+ * as its first frame of the next day arrives.
+ *
+ * Memory is bounded regardless of run length: rows are buffered per site only until a
+ * row group of {@code row-group-rows} is full, and when the buffers of all sites
+ * together reach {@code memory-budget} every buffer is written out as a (smaller) row
+ * group. At most {@code max-open-files} files are open at once; evicting one finishes
+ * it, and the site continues in a new part. Very large fleets therefore get smaller
+ * row groups and more parts per day rather than more memory.
+ */
+public class ParquetDatasetWriter implements Closeable {
+
+    private static final long DAY_MILLIS = 86_400_000L;
+    private static final int INITIAL_ROWS = 256;
+
+    private final Path root;
+    private final Compression compression;
+    private final int rowGroupRows;
+    private final long memoryBudgetBytes;
+    private final int maxOpenFiles;
+
+    private final Map<String, Partition> partitions = new HashMap<>();
+    // Access-ordered, so the least recently written file is evicted first
+    private final LinkedHashMap<Partition, Boolean> openFiles = new LinkedHashMap<>(16, 0.75f, true);
+    private long bufferedBytes;
+
+    private long rowsWritten;
+    private long bytesWritten;
+    private int filesWritten;
+
+    public ParquetDatasetWriter(Path root, Compression compression, int rowGroupRows, long memoryBudgetBytes,
+                                int maxOpenFiles) {
+        this.root = root;
+        this.compression = compression;
+        this.rowGroupRows = Math.max(INITIAL_ROWS, rowGroupRows);
+        this.memoryBudgetBytes = memoryBudgetBytes;
+        this.maxOpenFiles = Math.max(1, maxOpenFiles);
+    }
+
+    /**
+     * Buffer one frame; the frame may be reused after the call returns
+     */
+    public void write(TelemetryFrame frame) throws IOException {
+        long epochMilli = frame.getEpochMilli();
+        Partition partition = partitions.get(frame.getSiteId());
+        if (partition == null || epochMilli < partition.dayStart || epochMilli >= partition.dayStart + DAY_MILLIS) {
+            if (partition != null) {
+                finish(partition);
+            }
+            partition = new Partition(frame.getSiteId(), Math.floorDiv(epochMilli, DAY_MILLIS) * DAY_MILLIS);
+            partitions.put(partition.siteId, partition);
+        }
+
+        if (partition.rows == partition.capacity()) {
+            if (partition.capacity() == rowGroupRows) {
+                flush(partition);
+            } else {
+                int grown = Math.min(rowGroupRows, Math.max(INITIAL_ROWS, partition.capacity() * 2));
+                if (bufferedBytes + (long) (grown - partition.capacity()) * TelemetryParquetSchema.ROW_BYTES > memoryBudgetBytes) {
+                    flushAll();
+                }
+                if (partition.rows == partition.capacity()) {
+                    grow(partition, grown);
+                }
+            }
+        }
+
+        int row = partition.rows++;
+        partition.times[row] = epochMilli;
+        TelemetryParquetSchema.copyValues(frame, partition.values, row);
+    }
+
+    public long getRowsWritten() {
+        return rowsWritten;
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    public int getFilesWritten() {
+        return filesWritten;
+    }
+
+    /**
+     * Write out every buffered row and finish every file
+     */
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        for (Partition partition : new ArrayList<>(partitions.values())) {
+            try {
+                finish(partition);
+            } catch (IOException e) {
+                failure = failure == null ? e : failure;
+            }
+        }
+        partitions.clear();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Write the partition's buffered rows and close its file
+     */
+    private void finish(Partition partition) throws IOException {
+        flush(partition);
+        closeFile(partition);
+        release(partition);
+        partitions.remove(partition.siteId, partition);
+    }
+
+    /**
+     * Write every partition's buffered rows as a row group and give the buffers back
+     */
+    private void flushAll() throws IOException {
+        for (Partition partition : partitions.values()) {
+            flush(partition);
+            release(partition);
+        }
+    }
+
+    private void flush(Partition partition) throws IOException {
+        if (partition.rows == 0) {
+            return;
+        }
+        ParquetFileWriter file = openFile(partition);
+        long before = file.getBytesWritten();
+        file.writeRowGroup(partition.times, partition.values, partition.rows);
+        bytesWritten += file.getBytesWritten() - before;
+        rowsWritten += partition.rows;
+        partition.rows = 0;
+    }
+
+    private ParquetFileWriter openFile(Partition partition) throws IOException {
+        if (partition.file != null) {
+            openFiles.get(partition);
+            return partition.file;
+        }
+        if (openFiles.size() >= maxOpenFiles) {
+            Iterator<Partition> eldest = openFiles.keySet().iterator();
+            Partition evicted = eldest.next();
+            closeFile(evicted);
+        }
+
+        Path directory = root.resolve("site_id=" + escape(partition.siteId))
+                .resolve("date=" + LocalDate.ofEpochDay(partition.dayStart / DAY_MILLIS));
+        Path path;
+        do {
+            path = directory.resolve(String.format("part-%05d.parquet", partition.nextPart++));
+        } while (Files.exists(path));
+
+        partition.file = new ParquetFileWriter(path, compression);
+        bytesWritten += partition.file.getBytesWritten();
+        openFiles.put(partition, Boolean.TRUE);
+        return partition.file;
+    }
+
+    private void closeFile(Partition partition) throws IOException {
+        ParquetFileWriter file = partition.file;
+        if (file == null) {
+            return;
+        }
+        partition.file = null;
+        openFiles.remove(partition);
+        long before = file.getBytesWritten();
+        file.close();
+        bytesWritten += file.getBytesWritten() - before;
+        filesWritten++;
+    }
+
+    private void grow(Partition partition, int capacity) {
+        bufferedBytes += (long) (capacity - partition.capacity()) * TelemetryParquetSchema.ROW_BYTES;
+        long[] times = new long[capacity];
+        System.arraycopy(partition.times, 0, times, 0, partition.rows);
+        partition.times = times;
+        for (int c = 0; c < partition.values.length; c++) {
+            double[] column = new double[capacity];
+            System.arraycopy(partition.values[c], 0, column, 0, partition.rows);
+            partition.values[c] = column;
+        }
+    }
+
+    private void release(Partition partition) {
+        bufferedBytes -= (long) partition.capacity() * TelemetryParquetSchema.ROW_BYTES;
+        partition.times = new long[0];
+        for (int c = 0; c < partition.values.length; c++) {
+            partition.values[c] = new double[0];
+        }
+    }
+
+    /**
+     * Percent-encode everything but letters, digits, '.', '_' and '-' so any site id is a safe directory name
+     */
+    static String escape(String siteId) {
+        StringBuilder escaped = new StringBuilder(siteId.length());
+        for (byte b : siteId.getBytes(StandardCharsets.UTF_8)) {
+            char c = (char) (b & 0xFF);
+            if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '.' || c == '_' || c == '-') {
+                escaped.append(c);
+            } else {
+                escaped.append('%').append(String.format("%02X", b & 0xFF));
+            }
+        }
+        return escaped.toString();
+    }
+
+    /**
+     * Buffered rows and open file of one site for one day
+     */
+    private static final class Partition {
+        final String siteId;
+        final long dayStart;
+        long[] times = new long[0];
+        final double[][] values = new double[TelemetryParquetSchema.VALUE_COLUMNS.length][0];
+        int rows;
+        int nextPart;
+        ParquetFileWriter file;
+
+        Partition(String siteId, long dayStart) {
+            this.siteId = siteId;
+            this.dayStart = dayStart;
+        }
+
+        int capacity() {
+            return times.length;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.p3bustos.heliossim.infrastructure.export;
+
+/**
+ * Value encodings from the Parquet format specification
+ *
+ * <ul>
+ * <li>RLE / bit-packing hybrid, for dictionary indices: runs of 8 or more equal
+ *     indices become one RLE run, everything else is bit-packed in groups of 8</li>
+ * <li>DELTA_BINARY_PACKED, for timestamps: blocks of 128 deltas from the block's
+ *     minimum delta, bit-packed in 4 miniblocks of 32 with their own bit widths, so
+ *     a fixed-step series costs a few bits per block</li>
+ * </ul>
+ * Bit packing is least significant bit first throughout, as the specification requires.
+ */
+final class ParquetEncodings {
+
+    private static final int MIN_RLE_RUN = 8;
+    private static final int DELTA_BLOCK_SIZE = 128;
+    private static final int DELTA_MINIBLOCKS = 4;
+    private static final int DELTA_MINIBLOCK_SIZE = DELTA_BLOCK_SIZE / DELTA_MINIBLOCKS;
+
+    private ParquetEncodings() {
+    }
+
+    /**
+     * Bits needed to store every value from 0 to {@code maxValue}
+     */
+    static int bitWidth(long maxValue) {
+        return 64 - Long.numberOfLeadingZeros(maxValue);
+    }
+
+    /**
+     * RLE / bit-packing hybrid encoding of {@code values[from, from + count)}, without a length prefix
+     */
+    static void encodeRleHybrid(int[] values, int from, int count, int bitWidth, ByteSink out) {
+        int end = from + count;
+        int literalStart = from;
+        int i = from;
+        while (i < end) {
+            int run = 1;
+            while (i + run < end && values[i + run] == values[i]) {
+                run++;
+            }
+            if (run < MIN_RLE_RUN) {
+                i += run;
+                continue;
+            }
+            // Bit-packed groups hold exactly 8 values, so the literals before an RLE
+            // run borrow from the run until they fill their last group
+            int literals = i - literalStart;
+            int borrow = (MIN_RLE_RUN - literals % MIN_RLE_RUN) % MIN_RLE_RUN;
+            if (run - borrow < MIN_RLE_RUN) {
+                i += run;
+                continue;
+            }
+            i += borrow;
+            if (i > literalStart) {
+                writeBitPacked(values, literalStart, i - literalStart, bitWidth, out);
+            }
+            writeRleRun(values[i], run - borrow, bitWidth, out);
+            i += run - borrow;
+            literalStart = i;
+        }
+        if (end > literalStart) {
+            // Only the final group may be padded; readers stop at the page's value count
+            writeBitPacked(values, literalStart, end - literalStart, bitWidth, out);
+        }
+    }
+
+    /**
+     * DELTA_BINARY_PACKED encoding of {@code values[from, from + count)}
+     */
+    static void encodeDeltaBinaryPacked(long[] values, int from, int count, ByteSink out) {
+        out.writeVarint(DELTA_BLOCK_SIZE);
+        out.writeVarint(DELTA_MINIBLOCKS);
+        out.writeVarint(count);
+        out.writeZigZag(values[from]);
+
+        long[] deltas = new long[DELTA_BLOCK_SIZE];
+        int[] widths = new int[DELTA_MINIBLOCKS];
+        BitPacker packer = new BitPacker(out);
+        for (int blockStart = from + 1; blockStart < from + count; blockStart += DELTA_BLOCK_SIZE) {
+            int size = Math.min(DELTA_BLOCK_SIZE, from + count - blockStart);
+            long minDelta = Long.MAX_VALUE;
+            for (int k = 0; k < size; k++) {
+                deltas[k] = values[blockStart + k] - values[blockStart + k - 1];
+                minDelta = Math.min(minDelta, deltas[k]);
+            }
+            for (int m = 0; m < DELTA_MINIBLOCKS; m++) {
+                long max = 0;
+                for (int k = m * DELTA_MINIBLOCK_SIZE; k < Math.min(size, (m + 1) * DELTA_MINIBLOCK_SIZE); k++) {
+                    max |= deltas[k] - minDelta;
+                }
+                widths[m] = bitWidth(max);
+            }
+
+            out.writeZigZag(minDelta);
+            for (int m = 0; m < DELTA_MINIBLOCKS; m++) {
+                out.write(widths[m]);
+            }
+            // Miniblocks past the last value are omitted; the last one used is padded with zeros
+            for (int m = 0; m * DELTA_MINIBLOCK_SIZE < size; m++) {
+                for (int k = m * DELTA_MINIBLOCK_SIZE; k < (m + 1) * DELTA_MINIBLOCK_SIZE; k++) {
+                    packer.put(k < size ? deltas[k] - minDelta : 0, widths[m]);
+                }
+                packer.finish();
+            }
+        }
+    }
+
+    private static void writeBitPacked(int[] values, int from, int count, int bitWidth, ByteSink out) {
+        int groups = (count + MIN_RLE_RUN - 1) / MIN_RLE_RUN;
+        out.writeVarint(((long) groups << 1) | 1);
+        BitPacker packer = new BitPacker(out);
+        for (int k = 0; k < groups * MIN_RLE_RUN; k++) {
+            packer.put(k < count ? values[from + k] : 0, bitWidth);
+        }
+        packer.finish();
+    }
+
+    private static void writeRleRun(int value, int count, int bitWidth, ByteSink out) {
+        out.writeVarint((long) count << 1);
+        for (int b = 0; b < (bitWidth + 7) / 8; b++) {
+            out.write(value >>> (b * 8));
+        }
+    }
+
+    /**
+     * Packs values of a given bit width least significant bit first through a 64-bit accumulator
+     */
+    private static final class BitPacker {
+        private final ByteSink out;
+        private long accumulator;
+        private int bits;
+
+        BitPacker(ByteSink out) {
+            this.out = out;
+        }
+
+        void put(long value, int width) {
+            if (width == 0) {
+                return;
+            }
+            if (width < 64) {
+                value &= (1L << width) - 1;
+            }
+            accumulator |= value << bits;
+            if (bits + width > 64) {
+                for (int b = 0; b < 8; b++) {
+                    out.write((int) accumulator);
+                    accumulator >>>= 8;
+                }
+                accumulator = value >>> (64 - bits);
+                bits = bits + width - 64;
+            } else {
+                bits += width;
+            }
+            while (bits >= 8) {
+                out.write((int) accumulator);
+                accumulator >>>= 8;
+                bits -= 8;
+            }
+        }
+
+        /**
+         * Write out a partial last byte
+         */
+        void finish() {
+            if (bits > 0) {
+                out.write((int) accumulator);
+            }
+            accumulator = 0;
+            bits = 0;
+        }
+    }
+}
@@ -0,0 +1,467 @@
+package com.p3bustos.heliossim.infrastructure.export;
+
+import com.p3bustos.heliossim.config.SimulatorProperties.Export.Compression;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static com.p3bustos.heliossim.infrastructure.export.TelemetryParquetSchema.TIME_COLUMN;
+import static com.p3bustos.heliossim.infrastructure.export.TelemetryParquetSchema.VALUE_COLUMNS;
+
+/**
+ * Streams one Parquet file of telemetry rows, a row group at a time
+ *
+ * Each row group is encoded and written as soon as it is handed over, so the writer
+ * itself only keeps the footer metadata. The timestamp column is DELTA_BINARY_PACKED;
+ * every value column is dictionary encoded (dictionary page plus RLE / bit-packed
+ * indices) when that is smaller, and PLAIN otherwise. Every column chunk and page
+ * carries min/max statistics so readers can skip row groups on predicates. The file
+ * is written under a temporary name and moved into place on close, so readers never
+ * see a partial file.
+ */
+public class ParquetFileWriter implements Closeable {
+
+    private static final byte[] MAGIC = "PAR1".getBytes(StandardCharsets.US_ASCII);
+    private static final String CREATED_BY = "helios-sim";
+    private static final int PAGE_VALUES = 64 * 1024;
+    private static final int MAX_DICTIONARY_ENTRIES = 32 * 1024;
+
+    // Parquet format enums
+    private static final int TYPE_INT64 = 2;
+    private static final int TYPE_DOUBLE = 5;
+    private static final int REQUIRED = 0;
+    private static final int CONVERTED_TIMESTAMP_MILLIS = 9;
+    private static final int ENCODING_PLAIN = 0;
+    private static final int ENCODING_RLE = 3;
+    private static final int ENCODING_DELTA_BINARY_PACKED = 5;
+    private static final int ENCODING_RLE_DICTIONARY = 8;
+    private static final int PAGE_DATA = 0;
+    private static final int PAGE_DICTIONARY = 2;
+    private static final int CODEC_UNCOMPRESSED = 0;
+    private static final int CODEC_GZIP = 2;
+
+    private final Path path;
+    private final Path temporary;
+    private final OutputStream out;
+    private final boolean gzip;
+    private final ByteSink page = new ByteSink(PAGE_VALUES * 8 + 64);
+    private final ByteSink compressed = new ByteSink(64 * 1024);
+    private final ByteSink header = new ByteSink(256);
+    private final List<RowGroup> rowGroups = new ArrayList<>();
+    private long position;
+    private long rows;
+    private boolean closed;
+
+    public ParquetFileWriter(Path path, Compression compression) throws IOException {
+        this.path = path;
+        this.temporary = path.resolveSibling("." + path.getFileName() + ".inprogress");
+        this.gzip = compression == Compression.GZIP;
+        Files.createDirectories(path.getParent());
+        this.out = new BufferedOutputStream(Files.newOutputStream(temporary), 256 * 1024);
+        write(MAGIC, 0, MAGIC.length);
+    }
+
+    /**
+     * Encode and write the first {@code count} rows as one row group
+     *
+     * @param values One array per value column, in schema order
+     */
+    public void writeRowGroup(long[] times, double[][] values, int count) throws IOException {
+        if (count == 0) {
+            return;
+        }
+        long start = position;
+        List<ColumnChunk> columns = new ArrayList<>(1 + VALUE_COLUMNS.length);
+        columns.add(writeTimeColumn(times, count));
+        for (int c = 0; c < VALUE_COLUMNS.length; c++) {
+            columns.add(writeValueColumn(VALUE_COLUMNS[c], values[c], count));
+        }
+        long uncompressed = 0;
+        for (ColumnChunk column : columns) {
+            uncompressed += column.uncompressedBytes;
+        }
+        rowGroups.add(new RowGroup(columns, count, start, position - start, uncompressed));
+        rows += count;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getBytesWritten() {
+        return position;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Write the footer and move the file into place
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        ByteSink footer = new ByteSink(4096);
+        writeFileMetadata(new ThriftCompactWriter(footer));
+        write(footer.array(), 0, footer.size());
+        ByteSink trailer = new ByteSink(8);
+        trailer.writeIntLE(footer.size());
+        trailer.write(MAGIC, 0, MAGIC.length);
+        write(trailer.array(), 0, trailer.size());
+        out.close();
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Drop the partial file
+     */
+    public void abort() throws IOException {
+        closed = true;
+        out.close();
+        Files.deleteIfExists(temporary);
+    }
+
+    private ColumnChunk writeTimeColumn(long[] times, int count) throws IOException {
+        ColumnChunk chunk = new ColumnChunk(TIME_COLUMN, TYPE_INT64, position);
+        chunk.encodings = new int[] {ENCODING_DELTA_BINARY_PACKED, ENCODING_RLE};
+        chunk.dataPageOffset = position;
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (int from = 0; from < count; from += PAGE_VALUES) {
+            int n = Math.min(PAGE_VALUES, count - from);
+            long pageMin = Long.MAX_VALUE;
+            long pageMax = Long.MIN_VALUE;
+            for (int i = from; i < from + n; i++) {
+                pageMin = Math.min(pageMin, times[i]);
+                pageMax = Math.max(pageMax, times[i]);
+            }
+            min = Math.min(min, pageMin);
+            max = Math.max(max, pageMax);
+
+            page.reset();
+            ParquetEncodings.encodeDeltaBinaryPacked(times, from, n, page);
+            writeDataPage(chunk, n, ENCODING_DELTA_BINARY_PACKED, longBytes(pageMin), longBytes(pageMax));
+        }
+        chunk.min = longBytes(min);
+        chunk.max = longBytes(max);
+        return chunk;
+    }
+
+    private ColumnChunk writeValueColumn(String name, double[] values, int count) throws IOException {
+        ColumnChunk chunk = new ColumnChunk(name, TYPE_DOUBLE, position);
+        double[] range = {Double.NaN, Double.NaN};
+        Dictionary dictionary = Dictionary.build(values, count);
+
+        if (dictionary != null) {
+            chunk.encodings = new int[] {ENCODING_PLAIN, ENCODING_RLE, ENCODING_RLE_DICTIONARY};
+            chunk.dictionaryPageOffset = position;
+            page.reset();
+            for (int i = 0; i < dictionary.size; i++) {
+                page.writeLongLE(Double.doubleToRawLongBits(dictionary.entries[i]));
+            }
+            writeDictionaryPage(chunk, dictionary.size);
+
+            int bitWidth = ParquetEncodings.bitWidth(dictionary.size - 1);
+            chunk.dataPageOffset = position;
+            for (int from = 0; from < count; from += PAGE_VALUES) {
+                int n = Math.min(PAGE_VALUES, count - from);
+                double[] pageRange = range(values, from, n, range);
+                page.reset();
+                page.write(bitWidth);
+                ParquetEncodings.encodeRleHybrid(dictionary.indices, from, n, bitWidth, page);
+                writeDataPage(chunk, n, ENCODING_RLE_DICTIONARY, doubleMin(pageRange), doubleMax(pageRange));
+            }
+        } else {
+            chunk.encodings = new int[] {ENCODING_PLAIN, ENCODING_RLE};
+            chunk.dataPageOffset = position;
+            for (int from = 0; from < count; from += PAGE_VALUES) {
+                int n = Math.min(PAGE_VALUES, count - from);
+                double[] pageRange = range(values, from, n, range);
+                page.reset();
+                for (int i = from; i < from + n; i++) {
+                    page.writeLongLE(Double.doubleToRawLongBits(values[i]));
+                }
+                writeDataPage(chunk, n, ENCODING_PLAIN, doubleMin(pageRange), doubleMax(pageRange));
+            }
+        }
+
+        double[] chunkRange = range(values, 0, count, new double[] {Double.NaN, Double.NaN});
+        chunk.min = doubleMin(chunkRange);
+        chunk.max = doubleMax(chunkRange);
+        return chunk;
+    }
+
+    private void writeDictionaryPage(ColumnChunk chunk, int entries) throws IOException {
+        byte[] body = compress();
+        int bodySize = gzip ? compressed.size() : page.size();
+        header.reset();
+        new ThriftCompactWriter(header).beginStruct()
+                .i32Field(1, PAGE_DICTIONARY)
+                .i32Field(2, page.size())
+                .i32Field(3, bodySize)
+                .structField(7)
+                    .i32Field(1, entries)
+                    .i32Field(2, ENCODING_PLAIN)
+                .endStruct()
+                .endStruct();
+        writePage(chunk, body, bodySize);
+    }
+
+    private void writeDataPage(ColumnChunk chunk, int values, int encoding, byte[] min, byte[] max) throws IOException {
+        byte[] body = compress();
+        int bodySize = gzip ? compressed.size() : page.size();
+        header.reset();
+        ThriftCompactWriter thrift = new ThriftCompactWriter(header).beginStruct()
+                .i32Field(1, PAGE_DATA)
+                .i32Field(2, page.size())
+                .i32Field(3, bodySize)
+                .structField(5)
+                    .i32Field(1, values)
+                    .i32Field(2, encoding)
+                    .i32Field(3, ENCODING_RLE)
+                    .i32Field(4, ENCODING_RLE);
+        writeStatistics(thrift, 5, min, max);
+        thrift.endStruct().endStruct();
+        writePage(chunk, body, bodySize);
+        chunk.values += values;
+    }
+
+    private void writePage(ColumnChunk chunk, byte[] body, int bodySize) throws IOException {
+        chunk.uncompressedBytes += header.size() + page.size();
+        chunk.compressedBytes += header.size() + bodySize;
+        write(header.array(), 0, header.size());
+        write(body, 0, bodySize);
+    }
+
+    /**
+     * @return The page body as it goes to disk: the page itself or its gzip-compressed form
+     */
+    private byte[] compress() throws IOException {
+        if (!gzip) {
+            return page.array();
+        }
+        compressed.reset();
+        try (GZIPOutputStream stream = new GZIPOutputStream(compressed, 64 * 1024)) {
+            stream.write(page.array(), 0, page.size());
+        }
+        return compressed.array();
+    }
+
+    private void writeFileMetadata(ThriftCompactWriter thrift) {
+        int columnCount = 1 + VALUE_COLUMNS.length;
+        thrift.beginStruct().i32Field(1, 1);
+
+        thrift.listField(2, ThriftCompactWriter.TYPE_STRUCT, 1 + columnCount);
+        thrift.beginStruct().stringField(4, "schema").i32Field(5, columnCount).endStruct();
+        thrift.beginStruct()
+                .i32Field(1, TYPE_INT64)
+                .i32Field(3, REQUIRED)
+                .stringField(4, TIME_COLUMN)
+                .i32Field(6, CONVERTED_TIMESTAMP_MILLIS)
+                .structField(10)
+                    .structField(8)
+                        .boolField(1, true)
+                        .structField(2)
+                            .structField(1).endStruct()
+                        .endStruct()
+                    .endStruct()
+                .endStruct()
+                .endStruct();
+        for (String name : VALUE_COLUMNS) {
+            thrift.beginStruct()
+                    .i32Field(1, TYPE_DOUBLE)
+                    .i32Field(3, REQUIRED)
+                    .stringField(4, name)
+                    .endStruct();
+        }
+
+        thrift.i64Field(3, rows);
+        thrift.listField(4, ThriftCompactWriter.TYPE_STRUCT, rowGroups.size());
+        for (int g = 0; g < rowGroups.size(); g++) {
+            RowGroup group = rowGroups.get(g);
+            thrift.beginStruct();
+            thrift.listField(1, ThriftCompactWriter.TYPE_STRUCT, group.columns.size());
+            for (ColumnChunk column : group.columns) {
+                writeColumnChunk(thrift, column);
+            }
+            thrift.i64Field(2, group.uncompressedBytes)
+                    .i64Field(3, group.rows)
+                    .i64Field(5, group.fileOffset)
+                    .i64Field(6, group.compressedBytes)
+                    .i16Field(7, g)
+                    .endStruct();
+        }
+
+        thrift.stringField(6, CREATED_BY);
+        // Min/max statistics follow the natural order of each physical type
+        thrift.listField(7, ThriftCompactWriter.TYPE_STRUCT, columnCount);
+        for (int c = 0; c < columnCount; c++) {
+            thrift.beginStruct().structField(1).endStruct().endStruct();
+        }
+        thrift.endStruct();
+    }
+
+    private void writeColumnChunk(ThriftCompactWriter thrift, ColumnChunk column) {
+        thrift.beginStruct().i64Field(2, column.startOffset).structField(3);
+        thrift.i32Field(1, column.type);
+        thrift.listField(2, ThriftCompactWriter.TYPE_I32, column.encodings.length);
+        for (int encoding : column.encodings) {
+            thrift.i32Element(encoding);
+        }
+        thrift.listField(3, ThriftCompactWriter.TYPE_BINARY, 1).stringElement(column.name);
+        thrift.i32Field(4, gzip ? CODEC_GZIP : CODEC_UNCOMPRESSED);
+        thrift.i64Field(5, column.values)
+                .i64Field(6, column.uncompressedBytes)
+                .i64Field(7, column.compressedBytes)
+                .i64Field(9, column.dataPageOffset);
+        if (column.dictionaryPageOffset >= 0) {
+            thrift.i64Field(11, column.dictionaryPageOffset);
+        }
+        writeStatistics(thrift, 12, column.min, column.max);
+        thrift.endStruct().endStruct();
+    }
+
+    private static void writeStatistics(ThriftCompactWriter thrift, int fieldId, byte[] min, byte[] max) {
+        thrift.structField(fieldId).i64Field(3, 0);
+        if (min != null && max != null) {
+            thrift.binaryField(5, max).binaryField(6, min);
+        }
+        thrift.endStruct();
+    }
+
+    private void write(byte[] bytes, int offset, int length) throws IOException {
+        out.write(bytes, offset, length);
+        position += length;
+    }
+
+    /**
+     * Min and max of a range of values, ignoring NaN; both NaN if every value is NaN
+     */
+    private static double[] range(double[] values, int from, int count, double[] range) {
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = from; i < from + count; i++) {
+            double value = values[i];
+            if (value < min) {
+                min = value;
+            }
+            if (value > max) {
+                max = value;
+            }
+        }
+        range[0] = min <= max ? min : Double.NaN;
+        range[1] = min <= max ? max : Double.NaN;
+        return range;
+    }
+
+    /**
+     * The specification asks for -0.0 as a zero minimum and +0.0 as a zero maximum
+     */
+    private static byte[] doubleMin(double[] range) {
+        return Double.isNaN(range[0]) ? null : longBytes(Double.doubleToRawLongBits(range[0] == 0 ? -0.0 : range[0]));
+    }
+
+    private static byte[] doubleMax(double[] range) {
+        return Double.isNaN(range[1]) ? null : longBytes(Double.doubleToRawLongBits(range[1] == 0 ? 0.0 : range[1]));
+    }
+
+    private static byte[] longBytes(long value) {
+        byte[] bytes = new byte[8];
+        for (int i = 0; i < 8; i++) {
+            bytes[i] = (byte) (value >>> (i * 8));
+        }
+        return bytes;
+    }
+
+    /**
+     * Distinct values of a column chunk and the index of every row into them
+     */
+    private static final class Dictionary {
+        final double[] entries;
+        final int[] indices;
+        final int size;
+
+        private Dictionary(double[] entries, int[] indices, int size) {
+            this.entries = entries;
+            this.indices = indices;
+            this.size = size;
+        }
+
+        /**
+         * @return The dictionary, or null when it would not be smaller than plain values
+         */
+        static Dictionary build(double[] values, int count) {
+            int limit = Math.min(MAX_DICTIONARY_ENTRIES, count / 2);
+            int slots = Integer.highestOneBit(Math.max(16, limit * 2)) << 1;
+            long[] keys = new long[slots];
+            int[] ordinals = new int[slots];
+            double[] entries = new double[Math.max(1, limit)];
+            int[] indices = new int[count];
+            int size = 0;
+
+            for (int i = 0; i < count; i++) {
+                long bits = Double.doubleToRawLongBits(values[i]);
+                int slot = (int) (mix(bits) & (slots - 1));
+                while (ordinals[slot] != 0 && keys[slot] != bits) {
+                    slot = (slot + 1) & (slots - 1);
+                }
+                if (ordinals[slot] == 0) {
+                    if (size == limit) {
+                        return null;
+                    }
+                    keys[slot] = bits;
+                    entries[size] = values[i];
+                    ordinals[slot] = ++size;
+                }
+                indices[i] = ordinals[slot] - 1;
+            }
+
+            long dictionaryBytes = 8L * size + (long) count * ParquetEncodings.bitWidth(size - 1) / 8;
+            return dictionaryBytes < 8L * count ? new Dictionary(entries, indices, size) : null;
+        }
+
+        private static long mix(long bits) {
+            bits ^= bits >>> 33;
+            bits *= 0xff51afd7ed558ccdL;
+            bits ^= bits >>> 33;
+            return bits;
+        }
+    }
+
+    private static final class ColumnChunk {
+        final String name;
+        final int type;
+        final long startOffset;
+        int[] encodings;
+        long dataPageOffset;
+        long dictionaryPageOffset = -1;
+        long values;
+        long uncompressedBytes;
+        long compressedBytes;
+        byte[] min;
+        byte[] max;
+
+        ColumnChunk(String name, int type, long startOffset) {
+            this.name = name;
+            this.type = type;
+            this.startOffset = startOffset;
+        }
+    }
+
+    private record RowGroup(List<ColumnChunk> columns, int rows, long fileOffset, long compressedBytes,
+                            long uncompressedBytes) {
+    }
+}
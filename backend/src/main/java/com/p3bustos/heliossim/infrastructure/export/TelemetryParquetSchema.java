@@ -0,0 +1,41 @@
+package com.p3bustos.heliossim.infrastructure.export;
+
+import com.p3bustos.heliossim.domain.models.TelemetryFrame;
+
+/**
+ * Columns of an exported telemetry file: the timestamp plus one column per telemetry field
+ *
+ * Site and day are not stored in the file; they are Hive-style partition directories
+ * ({@code site_id=.../date=...}), which notebook readers turn back into columns.
+ */
+final class TelemetryParquetSchema {
+
+    static final String TIME_COLUMN = "time";
+
+    /**
+     * One column per {@link TelemetryFrame} value field, in field order
+     */
+    static final String[] VALUE_COLUMNS = {
+        "solar_production_kw", "irradiance_w_m2", "panel_temp_c",
+        "soc_percent", "battery_power_kw", "battery_voltage_v", "battery_current_a",
+        "load_consumption_kw", "grid_power_kw",
+        "solar_to_load_kw", "solar_to_battery_kw", "solar_to_grid_kw", "battery_to_load_kw", "grid_to_load_kw"
+    };
+
+    /**
+     * Buffered bytes per row: the timestamp and every value column
+     */
+    static final int ROW_BYTES = 8 * (1 + VALUE_COLUMNS.length);
+
+    private TelemetryParquetSchema() {
+    }
+
+    /**
+     * Copy the frame's values into row {@code row} of the value columns, in {@link #VALUE_COLUMNS} order
+     */
+    static void copyValues(TelemetryFrame frame, double[][] columns, int row) {
+        for (int field = 0; field < TelemetryFrame.VALUE_COUNT; field++) {
+            columns[field][row] = frame.getValue(field);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.p3bustos.heliossim.infrastructure.export;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Minimal Thrift compact protocol encoder for Parquet page headers and file metadata
+ *
+ * Fields must be written in increasing id order within a struct, which is how the
+ * Parquet structs are declared anyway. Only the types Parquet metadata uses are
+ * supported.
+ */
+final class ThriftCompactWriter {
+
+    static final int TYPE_BOOLEAN_TRUE = 1;
+    static final int TYPE_BOOLEAN_FALSE = 2;
+    static final int TYPE_I16 = 4;
+    static final int TYPE_I32 = 5;
+    static final int TYPE_I64 = 6;
+    static final int TYPE_BINARY = 8;
+    static final int TYPE_LIST = 9;
+    static final int TYPE_STRUCT = 12;
+
+    private final ByteSink out;
+    private final int[] lastFieldIds = new int[16];
+    private int depth;
+
+    ThriftCompactWriter(ByteSink out) {
+        this.out = out;
+    }
+
+    /**
+     * Start a top-level struct or a struct element of a list
+     */
+    ThriftCompactWriter beginStruct() {
+        lastFieldIds[++depth] = 0;
+        return this;
+    }
+
+    ThriftCompactWriter endStruct() {
+        out.write(0);
+        depth--;
+        return this;
+    }
+
+    ThriftCompactWriter structField(int id) {
+        fieldHeader(id, TYPE_STRUCT);
+        return beginStruct();
+    }
+
+    ThriftCompactWriter i16Field(int id, int value) {
+        fieldHeader(id, TYPE_I16);
+        out.writeZigZag(value);
+        return this;
+    }
+
+    ThriftCompactWriter i32Field(int id, int value) {
+        fieldHeader(id, TYPE_I32);
+        out.writeZigZag(value);
+        return this;
+    }
+
+    ThriftCompactWriter i64Field(int id, long value) {
+        fieldHeader(id, TYPE_I64);
+        out.writeZigZag(value);
+        return this;
+    }
+
+    ThriftCompactWriter boolField(int id, boolean value) {
+        fieldHeader(id, value ? TYPE_BOOLEAN_TRUE : TYPE_BOOLEAN_FALSE);
+        return this;
+    }
+
+    ThriftCompactWriter binaryField(int id, byte[] value) {
+        fieldHeader(id, TYPE_BINARY);
+        binary(value);
+        return this;
+    }
+
+    ThriftCompactWriter stringField(int id, String value) {
+        return binaryField(id, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Start a list field; the caller then writes exactly {@code size} elements
+     */
+    ThriftCompactWriter listField(int id, int elementType, int size) {
+        fieldHeader(id, TYPE_LIST);
+        if (size < 15) {
+            out.write((size << 4) | elementType);
+        } else {
+            out.write(0xF0 | elementType);
+            out.writeVarint(size);
+        }
+        return this;
+    }
+
+    ThriftCompactWriter i32Element(int value) {
+        out.writeZigZag(value);
+        return this;
+    }
+
+    ThriftCompactWriter stringElement(String value) {
+        binary(value.getBytes(StandardCharsets.UTF_8));
+        return this;
+    }
+
+    private void binary(byte[] value) {
+        out.writeVarint(value.length);
+        out.write(value, 0, value.length);
+    }
+
+    private void fieldHeader(int id, int type) {
+        int delta = id - lastFieldIds[depth];
+        if (delta > 0 && delta <= 15) {
+            out.write((delta << 4) | type);
+        } else {
+            out.write(type);
+            out.writeZigZag(id);
+        }
+        lastFieldIds[depth] = id;
+    }
+}
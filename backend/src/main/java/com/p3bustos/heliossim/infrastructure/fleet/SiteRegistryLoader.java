@@ -0,0 +1,207 @@
+package com.p3bustos.heliossim.infrastructure.fleet;
+
+import com.p3bustos.heliossim.config.SimulatorProperties;
+import com.p3bustos.heliossim.domain.models.SiteDefinition;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Loads the fleet site registry from a CSV file
+ *
+ * The first non-comment line is a header naming the columns. Only {@code site_id} is
+ * required; any other column that is absent or blank falls back to the single-site
+ * values under {@code simulator.system} and {@code simulator.location}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SiteRegistryLoader {
+
+    private final SimulatorProperties properties;
+    private final ResourceLoader resourceLoader;
+
+    /**
+     * Load all sites from the given registry location
+     */
+    public List<SiteDefinition> load(String location) {
+        Resource resource = resourceLoader.getResource(location);
+        if (!resource.exists()) {
+            throw new IllegalStateException("Site registry not found: " + location);
+        }
+
+        try (var reader = new BufferedReader(
+                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            List<SiteDefinition> sites = parse(reader);
+            log.info("Loaded {} sites from registry {}", sites.size(), location);
+            return sites;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read site registry " + location, e);
+        }
+    }
+
+    /**
+     * Parse registry CSV content
+     */
+    public List<SiteDefinition> parse(BufferedReader reader) throws IOException {
+        List<SiteDefinition> sites = new ArrayList<>();
+        Set<String> seenIds = new HashSet<>();
+        Map<String, Integer> columns = null;
+
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+
+            String[] cells = trimmed.split(",", -1);
+            if (columns == null) {
+                columns = new HashMap<>();
+                for (int i = 0; i < cells.length; i++) {
+                    columns.put(cells[i].trim().toLowerCase(), i);
+                }
+                if (!columns.containsKey("site_id")) {
+                    throw new IllegalArgumentException("Site registry header must contain a site_id column");
+                }
+                continue;
+            }
+
+            SiteDefinition site = parseRow(new Row(columns, cells, lineNumber));
+            if (!seenIds.add(site.getSiteId())) {
+                throw new IllegalArgumentException(
+                    "Duplicate site_id '" + site.getSiteId() + "' on line " + lineNumber);
+            }
+            sites.add(site);
+        }
+
+        return sites;
+    }
+
+    /**
+     * Site populated entirely from the single-site configuration
+     */
+    public SiteDefinition defaultSite(String siteId) {
+        var location = properties.getLocation();
+        var solar = properties.getSystem().getSolar();
+        var battery = properties.getSystem().getBattery();
+        var load = properties.getSystem().getLoad();
+
+        return SiteDefinition.builder()
+                .siteId(siteId)
+                .latitude(location.getLatitude())
+                .longitude(location.getLongitude())
+                .timezone(location.getTimezone())
+                .solarCapacityKw(solar.getCapacityKw())
+                .panelEfficiency(solar.getPanelEfficiency())
+                .inverterEfficiency(solar.getInverterEfficiency())
+                .temperatureCoefficient(solar.getTemperatureCoefficient())
+                .batteryCapacityKwh(battery.getCapacityKwh())
+                .maxChargeRateKw(battery.getMaxChargeRateKw())
+                .maxDischargeRateKw(battery.getMaxDischargeRateKw())
+                .initialSocPercent(battery.getInitialSocPercent())
+                .minSocPercent(battery.getMinSocPercent())
+                .maxSocPercent(battery.getMaxSocPercent())
+                .roundTripEfficiency(battery.getRoundTripEfficiency())
+                .baselineKw(load.getBaselineKw())
+                .peakMorningKw(load.getPeakMorningKw())
+                .peakEveningKw(load.getPeakEveningKw())
+                .morningPeakHour(load.getMorningPeakHour())
+                .eveningPeakHour(load.getEveningPeakHour())
+                .build();
+    }
+
+    /**
+     * Generate a reproducible synthetic fleet around the configured site,
+     * for load testing and benchmarks
+     */
+    public List<SiteDefinition> synthetic(int count, long seed) {
+        Random random = new Random(seed);
+        List<SiteDefinition> sites = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            SiteDefinition site = defaultSite(String.format("site-%06d", i));
+            site.setLatitude(site.getLatitude() + (random.nextDouble() - 0.5) * 2.0);
+            site.setLongitude(site.getLongitude() + (random.nextDouble() - 0.5) * 2.0);
+            site.setSolarCapacityKw(site.getSolarCapacityKw() * (0.5 + random.nextDouble()));
+            site.setBatteryCapacityKwh(site.getBatteryCapacityKwh() * (0.5 + random.nextDouble()));
+            site.setInitialSocPercent(site.getMinSocPercent()
+                + random.nextDouble() * (site.getMaxSocPercent() - site.getMinSocPercent()));
+            site.setBaselineKw(site.getBaselineKw() * (0.7 + random.nextDouble() * 0.6));
+            sites.add(site);
+        }
+        return sites;
+    }
+
+    private SiteDefinition parseRow(Row row) {
+        String siteId = row.text("site_id", null);
+        if (siteId == null) {
+            throw new IllegalArgumentException("Missing site_id on line " + row.lineNumber);
+        }
+
+        SiteDefinition defaults = defaultSite(siteId);
+        return SiteDefinition.builder()
+                .siteId(siteId)
+                .latitude(row.number("latitude", defaults.getLatitude()))
+                .longitude(row.number("longitude", defaults.getLongitude()))
+                .timezone(row.text("timezone", defaults.getTimezone()))
+                .solarCapacityKw(row.number("solar_capacity_kw", defaults.getSolarCapacityKw()))
+                .panelEfficiency(row.number("panel_efficiency", defaults.getPanelEfficiency()))
+                .inverterEfficiency(row.number("inverter_efficiency", defaults.getInverterEfficiency()))
+                .temperatureCoefficient(row.number("temperature_coefficient", defaults.getTemperatureCoefficient()))
+                .batteryCapacityKwh(row.number("battery_capacity_kwh", defaults.getBatteryCapacityKwh()))
+                .maxChargeRateKw(row.number("max_charge_rate_kw", defaults.getMaxChargeRateKw()))
+                .maxDischargeRateKw(row.number("max_discharge_rate_kw", defaults.getMaxDischargeRateKw()))
+                .initialSocPercent(row.number("initial_soc_percent", defaults.getInitialSocPercent()))
+                .minSocPercent(row.number("min_soc_percent", defaults.getMinSocPercent()))
+                .maxSocPercent(row.number("max_soc_percent", defaults.getMaxSocPercent()))
+                .roundTripEfficiency(row.number("round_trip_efficiency", defaults.getRoundTripEfficiency()))
+                .baselineKw(row.number("baseline_kw", defaults.getBaselineKw()))
+                .peakMorningKw(row.number("peak_morning_kw", defaults.getPeakMorningKw()))
+                .peakEveningKw(row.number("peak_evening_kw", defaults.getPeakEveningKw()))
+                .morningPeakHour((int) row.number("morning_peak_hour", defaults.getMorningPeakHour()))
+                .eveningPeakHour((int) row.number("evening_peak_hour", defaults.getEveningPeakHour()))
+                .build();
+    }
+
+    private record Row(Map<String, Integer> columns, String[] cells, int lineNumber) {
+
+        String text(String column, String fallback) {
+            Integer index = columns.get(column);
+            if (index == null || index >= cells.length) {
+                return fallback;
+            }
+            String value = cells[index].trim();
+            return value.isEmpty() ? fallback : value;
+        }
+
+        double number(String column, double fallback) {
+            String value = text(column, null);
+            if (value == null) {
+                return fallback;
+            }
+            try {
+                return Double.parseDouble(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(
+                    "Invalid " + column + " '" + value + "' on line " + lineNumber, e);
+            }
+        }
+    }
+}
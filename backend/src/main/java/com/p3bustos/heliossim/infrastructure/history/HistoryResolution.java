@@ -0,0 +1,41 @@
+package com.p3bustos.heliossim.infrastructure.history;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolutions kept by the telemetry history, finest first
+ */
+public enum HistoryResolution {
+    RAW("raw", 0),
+    MINUTE("1m", TimeUnit.MINUTES.toMillis(1)),
+    QUARTER_HOUR("15m", TimeUnit.MINUTES.toMillis(15)),
+    HOUR("1h", TimeUnit.HOURS.toMillis(1));
+
+    private final String label;
+    private final long widthMillis;
+
+    HistoryResolution(String label, long widthMillis) {
+        this.label = label;
+        this.widthMillis = widthMillis;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Bucket width; 0 for raw samples, whose spacing is the tick rate
+     */
+    public long getWidthMillis() {
+        return widthMillis;
+    }
+
+    public static HistoryResolution fromLabel(String label) {
+        for (HistoryResolution resolution : values()) {
+            if (resolution.label.equalsIgnoreCase(label) || resolution.name().equalsIgnoreCase(label)) {
+                return resolution;
+            }
+        }
+        throw new IllegalArgumentException("Unknown history resolution: " + label);
+    }
+}
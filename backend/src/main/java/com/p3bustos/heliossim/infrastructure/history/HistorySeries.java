@@ -0,0 +1,54 @@
+package com.p3bustos.heliossim.infrastructure.history;
+
+/**
+ * Read access to one resolution of a site's history, indexed oldest (0) to newest
+ *
+ * Series are the columns of {@link SiteHistory}: solar, load, battery and grid power
+ * in kW, then state of charge in percent. Energy is only kept for the power series.
+ */
+interface HistorySeries {
+
+    int SOLAR = 0;
+    int LOAD = 1;
+    int BATTERY = 2;
+    int GRID = 3;
+    int SOC = 4;
+    int SERIES = 5;
+    int POWER_SERIES = 4;
+
+    int size();
+
+    /**
+     * True once the ring has overwritten its oldest entries
+     */
+    boolean isTruncated();
+
+    long timeAt(int index);
+
+    int samplesAt(int index);
+
+    double min(int series, int index);
+
+    double max(int series, int index);
+
+    double avg(int series, int index);
+
+    double energyKwh(int series, int index);
+
+    /**
+     * Index of the first entry at or after {@code epochMilli}, or {@link #size()} if none
+     */
+    default int lowerBound(long epochMilli) {
+        int low = 0;
+        int high = size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timeAt(mid) < epochMilli) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,94 @@
+package com.p3bustos.heliossim.infrastructure.history;
+
+/**
+ * Fixed-capacity ring of raw samples in primitive columns
+ */
+final class RawRing implements HistorySeries {
+
+    private final int capacity;
+    private final long[] time;
+    private final double[] values;
+    private final double[] energy;
+    private int next;
+    private int size;
+    private boolean truncated;
+
+    RawRing(int capacity) {
+        this.capacity = Math.max(1, capacity);
+        this.time = new long[this.capacity];
+        this.values = new double[SERIES * this.capacity];
+        this.energy = new double[POWER_SERIES * this.capacity];
+    }
+
+    void add(long epochMilli, double[] sample, double[] sampleEnergy) {
+        int slot = next;
+        time[slot] = epochMilli;
+        for (int s = 0; s < SERIES; s++) {
+            values[s * capacity + slot] = sample[s];
+        }
+        for (int s = 0; s < POWER_SERIES; s++) {
+            energy[s * capacity + slot] = sampleEnergy[s];
+        }
+        next = slot + 1 == capacity ? 0 : slot + 1;
+        if (size < capacity) {
+            size++;
+        } else {
+            truncated = true;
+        }
+    }
+
+    void clear() {
+        next = 0;
+        size = 0;
+        truncated = false;
+    }
+
+    static long bytesFor(int capacity) {
+        return (long) capacity * (Long.BYTES + (SERIES + POWER_SERIES) * Double.BYTES);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    @Override
+    public long timeAt(int index) {
+        return time[slot(index)];
+    }
+
+    @Override
+    public int samplesAt(int index) {
+        return 1;
+    }
+
+    @Override
+    public double min(int series, int index) {
+        return values[series * capacity + slot(index)];
+    }
+
+    @Override
+    public double max(int series, int index) {
+        return min(series, index);
+    }
+
+    @Override
+    public double avg(int series, int index) {
+        return min(series, index);
+    }
+
+    @Override
+    public double energyKwh(int series, int index) {
+        return energy[series * capacity + slot(index)];
+    }
+
+    private int slot(int index) {
+        int slot = next - size + index;
+        return slot < 0 ? slot + capacity : slot;
+    }
+}
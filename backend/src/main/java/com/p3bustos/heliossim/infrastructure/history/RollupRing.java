@@ -0,0 +1,138 @@
+package com.p3bustos.heliossim.infrastructure.history;
+
+/**
+ * Fixed-capacity ring of time buckets, each folding in every sample that falls into it
+ *
+ * Only the newest bucket is ever updated, so maintaining a rollup costs a few
+ * arithmetic operations per sample and nothing is rescanned at query time.
+ */
+final class RollupRing implements HistorySeries {
+
+    private final long widthMillis;
+    private final int capacity;
+    private final long[] start;
+    private final int[] samples;
+    private final double[] min;
+    private final double[] max;
+    private final double[] sum;
+    private final double[] energy;
+    private int newest = -1;
+    private int size;
+    private boolean truncated;
+
+    RollupRing(long widthMillis, int capacity) {
+        this.widthMillis = widthMillis;
+        this.capacity = Math.max(1, capacity);
+        this.start = new long[this.capacity];
+        this.samples = new int[this.capacity];
+        this.min = new double[SERIES * this.capacity];
+        this.max = new double[SERIES * this.capacity];
+        this.sum = new double[SERIES * this.capacity];
+        this.energy = new double[POWER_SERIES * this.capacity];
+    }
+
+    /**
+     * Fold a sample into its bucket; samples must arrive in time order
+     */
+    void add(long epochMilli, double[] sample, double[] sampleEnergy) {
+        long bucket = Math.floorDiv(epochMilli, widthMillis) * widthMillis;
+        if (size == 0 || bucket > start[newest]) {
+            open(bucket);
+        } else if (bucket < start[newest]) {
+            return;
+        }
+        int slot = newest;
+        samples[slot]++;
+        for (int s = 0; s < SERIES; s++) {
+            int i = s * capacity + slot;
+            double value = sample[s];
+            if (value < min[i]) {
+                min[i] = value;
+            }
+            if (value > max[i]) {
+                max[i] = value;
+            }
+            sum[i] += value;
+        }
+        for (int s = 0; s < POWER_SERIES; s++) {
+            energy[s * capacity + slot] += sampleEnergy[s];
+        }
+    }
+
+    void clear() {
+        newest = -1;
+        size = 0;
+        truncated = false;
+    }
+
+    static long bytesFor(int capacity) {
+        return (long) capacity * (Long.BYTES + Integer.BYTES + (3 * SERIES + POWER_SERIES) * Double.BYTES);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    @Override
+    public long timeAt(int index) {
+        return start[slot(index)];
+    }
+
+    @Override
+    public int samplesAt(int index) {
+        return samples[slot(index)];
+    }
+
+    @Override
+    public double min(int series, int index) {
+        return min[series * capacity + slot(index)];
+    }
+
+    @Override
+    public double max(int series, int index) {
+        return max[series * capacity + slot(index)];
+    }
+
+    @Override
+    public double avg(int series, int index) {
+        int slot = slot(index);
+        return sum[series * capacity + slot] / samples[slot];
+    }
+
+    @Override
+    public double energyKwh(int series, int index) {
+        return energy[series * capacity + slot(index)];
+    }
+
+    private void open(long bucket) {
+        int slot = newest + 1 == capacity ? 0 : newest + 1;
+        newest = slot;
+        if (size < capacity) {
+            size++;
+        } else {
+            truncated = true;
+        }
+        start[slot] = bucket;
+        samples[slot] = 0;
+        for (int s = 0; s < SERIES; s++) {
+            int i = s * capacity + slot;
+            min[i] = Double.POSITIVE_INFINITY;
+            max[i] = Double.NEGATIVE_INFINITY;
+            sum[i] = 0;
+        }
+        for (int s = 0; s < POWER_SERIES; s++) {
+            energy[s * capacity + slot] = 0;
+        }
+    }
+
+    private int slot(int index) {
+        int slot = newest - size + 1 + index;
+        return slot < 0 ? slot + capacity : slot;
+    }
+}
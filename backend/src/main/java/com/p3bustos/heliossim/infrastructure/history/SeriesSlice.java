@@ -0,0 +1,89 @@
+package com.p3bustos.heliossim.infrastructure.history;
+
+/**
+ * Detached copy of a range of entries from another series
+ *
+ * Taken while the site is locked, so a query only holds the lock for a few array
+ * copies and builds its response objects from the copy afterwards.
+ */
+final class SeriesSlice implements HistorySeries {
+
+    private final int size;
+    private final long[] time;
+    private final int[] samples;
+    private final double[] min;
+    private final double[] max;
+    private final double[] avg;
+    private final double[] energy;
+
+    private SeriesSlice(int size) {
+        this.size = size;
+        this.time = new long[size];
+        this.samples = new int[size];
+        this.min = new double[SERIES * size];
+        this.max = new double[SERIES * size];
+        this.avg = new double[SERIES * size];
+        this.energy = new double[POWER_SERIES * size];
+    }
+
+    /**
+     * Copy the entries {@code [start, end)} of {@code series}
+     */
+    static SeriesSlice copyOf(HistorySeries series, int start, int end) {
+        SeriesSlice slice = new SeriesSlice(Math.max(0, end - start));
+        for (int i = 0; i < slice.size; i++) {
+            int index = start + i;
+            slice.time[i] = series.timeAt(index);
+            slice.samples[i] = series.samplesAt(index);
+            for (int s = 0; s < SERIES; s++) {
+                slice.min[s * slice.size + i] = series.min(s, index);
+                slice.max[s * slice.size + i] = series.max(s, index);
+                slice.avg[s * slice.size + i] = series.avg(s, index);
+            }
+            for (int s = 0; s < POWER_SERIES; s++) {
+                slice.energy[s * slice.size + i] = series.energyKwh(s, index);
+            }
+        }
+        return slice;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isTruncated() {
+        return false;
+    }
+
+    @Override
+    public long timeAt(int index) {
+        return time[index];
+    }
+
+    @Override
+    public int samplesAt(int index) {
+        return samples[index];
+    }
+
+    @Override
+    public double min(int series, int index) {
+        return min[series * size + index];
+    }
+
+    @Override
+    public double max(int series, int index) {
+        return max[series * size + index];
+    }
+
+    @Override
+    public double avg(int series, int index) {
+        return avg[series * size + index];
+    }
+
+    @Override
+    public double energyKwh(int series, int index) {
+        return energy[series * size + index];
+    }
+}
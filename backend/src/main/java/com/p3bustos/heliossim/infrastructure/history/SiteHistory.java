@@ -0,0 +1,135 @@
+package com.p3bustos.heliossim.infrastructure.history;
+
+import com.p3bustos.heliossim.domain.models.TelemetryFrame;
+import com.p3bustos.heliossim.dto.HistoryPoint;
+import com.p3bustos.heliossim.dto.SeriesStats;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.p3bustos.heliossim.infrastructure.history.HistorySeries.*;
+
+/**
+ * Raw ring plus 1-minute, 15-minute and hourly rollups for one site
+ *
+ * All storage is allocated up front, so memory per site is fixed by the configured
+ * capacities. Energy is integrated per sample as power times the time since the
+ * previous sample, with gaps capped so a paused simulation does not book phantom kWh.
+ */
+final class SiteHistory {
+
+    private static final double MILLIS_PER_HOUR = TimeUnit.HOURS.toMillis(1);
+
+    private final String siteId;
+    private final long maxGapMillis;
+    private final RawRing raw;
+    private final RollupRing[] rollups;
+
+    private final double[] sample = new double[SERIES];
+    private final double[] sampleEnergy = new double[POWER_SERIES];
+    private long lastMillis = Long.MIN_VALUE;
+
+    SiteHistory(String siteId, int rawCapacity, int[] rollupCapacities, long maxGapMillis) {
+        this.siteId = siteId;
+        this.maxGapMillis = maxGapMillis;
+        this.raw = new RawRing(rawCapacity);
+        HistoryResolution[] resolutions = HistoryResolution.values();
+        this.rollups = new RollupRing[resolutions.length - 1];
+        for (int r = 1; r < resolutions.length; r++) {
+            rollups[r - 1] = new RollupRing(resolutions[r].getWidthMillis(), rollupCapacities[r - 1]);
+        }
+    }
+
+    String getSiteId() {
+        return siteId;
+    }
+
+    /**
+     * Record one tick; a timestamp older than the last one means the clock was reset
+     * and the history starts over
+     */
+    synchronized void append(TelemetryFrame frame) {
+        long epochMilli = frame.getEpochMilli();
+        if (epochMilli <= lastMillis) {
+            if (epochMilli == lastMillis) {
+                return;
+            }
+            clear();
+        }
+
+        sample[SOLAR] = frame.getSolarProductionKw();
+        sample[LOAD] = frame.getLoadConsumptionKw();
+        sample[BATTERY] = frame.getBatteryPowerKw();
+        sample[GRID] = frame.getGridPowerKw();
+        sample[SOC] = frame.getSocPercent();
+
+        double hours = lastMillis == Long.MIN_VALUE ? 0 : Math.min(epochMilli - lastMillis, maxGapMillis) / MILLIS_PER_HOUR;
+        for (int s = 0; s < POWER_SERIES; s++) {
+            sampleEnergy[s] = sample[s] * hours;
+        }
+
+        raw.add(epochMilli, sample, sampleEnergy);
+        for (RollupRing rollup : rollups) {
+            rollup.add(epochMilli, sample, sampleEnergy);
+        }
+        lastMillis = epochMilli;
+    }
+
+    synchronized boolean covers(HistoryResolution resolution, long fromMillis) {
+        HistorySeries series = series(resolution);
+        return !series.isTruncated() || (series.size() > 0 && series.timeAt(0) <= fromMillis);
+    }
+
+    /**
+     * Entries of one resolution whose timestamp falls in {@code [from, to)}
+     *
+     * Only the copy of the matching entries is taken under the lock; the response
+     * objects are built afterwards so appends on the tick thread do not wait for them.
+     */
+    List<HistoryPoint> query(HistoryResolution resolution, long fromMillis, long toMillis, int maxPoints) {
+        SeriesSlice series;
+        synchronized (this) {
+            HistorySeries live = series(resolution);
+            // Include the bucket that started before the range but overlaps it
+            int start = live.lowerBound(fromMillis - Math.max(0, resolution.getWidthMillis() - 1));
+            int end = Math.min(live.lowerBound(toMillis), start + maxPoints);
+            series = SeriesSlice.copyOf(live, start, end);
+        }
+        List<HistoryPoint> points = new ArrayList<>(series.size());
+        for (int i = 0; i < series.size(); i++) {
+            points.add(HistoryPoint.builder()
+                    .timestamp(Instant.ofEpochMilli(series.timeAt(i)))
+                    .samples(series.samplesAt(i))
+                    .solar(stats(series, SOLAR, i))
+                    .load(stats(series, LOAD, i))
+                    .battery(stats(series, BATTERY, i))
+                    .grid(stats(series, GRID, i))
+                    .soc(stats(series, SOC, i))
+                    .build());
+        }
+        return points;
+    }
+
+    private void clear() {
+        raw.clear();
+        for (RollupRing rollup : rollups) {
+            rollup.clear();
+        }
+        lastMillis = Long.MIN_VALUE;
+    }
+
+    private HistorySeries series(HistoryResolution resolution) {
+        return resolution == HistoryResolution.RAW ? raw : rollups[resolution.ordinal() - 1];
+    }
+
+    private static SeriesStats stats(HistorySeries series, int column, int index) {
+        return SeriesStats.builder()
+                .min(series.min(column, index))
+                .max(series.max(column, index))
+                .avg(series.avg(column, index))
+                .energyKwh(column < POWER_SERIES ? series.energyKwh(column, index) : null)
+                .build();
+    }
+}
@@ -0,0 +1,234 @@
+package com.p3bustos.heliossim.infrastructure.history;
+
+import com.p3bustos.heliossim.config.SimulatorProperties;
+import com.p3bustos.heliossim.domain.models.FleetState;
+import com.p3bustos.heliossim.domain.models.TelemetryFrame;
+import com.p3bustos.heliossim.domain.services.FleetSimulator;
+import com.p3bustos.heliossim.domain.services.TelemetrySink;
+import com.p3bustos.heliossim.dto.TelemetryHistoryResponse;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-site multi-resolution telemetry history kept in memory
+ *
+ * Every tick is appended to a raw ring and folded into 1-minute, 15-minute and hourly
+ * rollups as it arrives. Queries are answered from the coarsest resolution that still
+ * gives the requested detail, so a week-long chart reads ~170 hourly buckets instead
+ * of 120,000 raw samples.
+ *
+ * Storage for every known site is allocated at startup, and startup fails when the
+ * fleet would need more than {@code memory-budget}. A site that first appears later
+ * is allocated on a background thread, within the same budget; its frames are dropped
+ * until its storage is ready, so the tick thread never allocates. History is on by
+ * default for a single site only: with a fleet registry it has to be enabled.
+ */
+@Slf4j
+@Component
+@ConditionalOnExpression(TelemetryHistory.ENABLED)
+public class TelemetryHistory implements TelemetrySink {
+
+    /**
+     * {@code simulator.history.enabled}, defaulting to true without a fleet registry and false with one
+     */
+    public static final String ENABLED = "'${simulator.history.enabled:}' == 'true' or "
+        + "('${simulator.history.enabled:}' == '' and '${simulator.fleet.registry-file:}' == '')";
+
+    private final SimulatorProperties.History config;
+    private final long tickMillis;
+    private final int[] rollupCapacities;
+    private final long budgetBytes;
+
+    private volatile SiteHistory[] sites = new SiteHistory[0];
+    private final Map<String, SiteHistory> sitesById = new ConcurrentHashMap<>();
+    private final Set<Integer> requested = ConcurrentHashMap.newKeySet();
+    private final ExecutorService allocator = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "history-allocator");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private int siteCount;
+    private boolean budgetExhausted;
+
+    @Autowired
+    public TelemetryHistory(SimulatorProperties properties, FleetSimulator fleet) {
+        this(properties, siteIds(properties, fleet));
+    }
+
+    /**
+     * @param siteIds Sites to allocate up front, by ordinal
+     * @throws IllegalStateException if their history would exceed {@code memory-budget}
+     */
+    public TelemetryHistory(SimulatorProperties properties, List<String> siteIds) {
+        this.config = properties.getHistory();
+        this.tickMillis = properties.getPublishing().getRateMs();
+        this.rollupCapacities = new int[] {
+            config.getMinuteCapacity(), config.getQuarterHourCapacity(), config.getHourCapacity()
+        };
+        this.budgetBytes = config.getMemoryBudget().toBytes();
+
+        long needed = siteIds.size() * bytesPerSite();
+        if (needed > budgetBytes) {
+            throw new IllegalStateException(String.format(
+                "Telemetry history for %d sites needs %d MiB (%d KiB per site), more than simulator.history.memory-budget "
+                    + "of %d MiB; lower the history capacities, raise the budget or disable simulator.history.enabled",
+                siteIds.size(), needed >> 20, bytesPerSite() >> 10, budgetBytes >> 20));
+        }
+        for (int ordinal = 0; ordinal < siteIds.size(); ordinal++) {
+            addSite(ordinal, siteIds.get(ordinal));
+        }
+        log.info("Telemetry history keeps {} raw samples, {} minutes, {} quarter hours and {} hours for {} sites "
+                + "({} KiB each, {} MiB in total)",
+            config.getRawCapacity(), config.getMinuteCapacity(), config.getQuarterHourCapacity(),
+            config.getHourCapacity(), siteIds.size(), bytesPerSite() / 1024, needed >> 20);
+    }
+
+    @Override
+    public void publish(TelemetryFrame frame) {
+        int ordinal = frame.getSiteOrdinal();
+        SiteHistory[] current = sites;
+        SiteHistory site = ordinal < current.length ? current[ordinal] : null;
+        if (site != null) {
+            site.append(frame);
+        } else if (requested.add(ordinal)) {
+            String siteId = frame.getSiteId();
+            allocator.execute(() -> addSite(ordinal, siteId));
+        }
+    }
+
+    /**
+     * Finish pending site allocations and stop the allocator thread
+     */
+    @PreDestroy
+    public void stop() {
+        allocator.shutdown();
+        try {
+            allocator.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Range query over one site's history
+     *
+     * @param points     Detail wanted: at least this many points over the range where
+     *                   the data allows it
+     * @param resolution Forced resolution, or null to pick one from {@code points}
+     * @return Empty when the site has never published
+     */
+    public Optional<TelemetryHistoryResponse> query(String siteId, Instant from, Instant to,
+                                                    int points, HistoryResolution resolution) {
+        SiteHistory site = sitesById.get(siteId);
+        if (site == null) {
+            return Optional.empty();
+        }
+        long fromMillis = from.toEpochMilli();
+        long toMillis = to.toEpochMilli();
+        HistoryResolution chosen = resolution != null ? resolution : select(site, fromMillis, toMillis, points);
+
+        return Optional.of(TelemetryHistoryResponse.builder()
+                .siteId(siteId)
+                .resolution(chosen.getLabel())
+                .from(from)
+                .to(to)
+                .points(site.query(chosen, fromMillis, toMillis, config.getMaxPoints()))
+                .build());
+    }
+
+    /**
+     * Memory allocated to the history of every site so far, in bytes
+     */
+    public synchronized long getAllocatedBytes() {
+        return siteCount * bytesPerSite();
+    }
+
+    /**
+     * Fixed memory one site's history takes, in bytes
+     */
+    public long bytesPerSite() {
+        long bytes = RawRing.bytesFor(config.getRawCapacity());
+        for (int capacity : rollupCapacities) {
+            bytes += RollupRing.bytesFor(capacity);
+        }
+        return bytes;
+    }
+
+    /**
+     * Coarsest resolution whose buckets are no wider than the range split into
+     * {@code points}. Moves coarser when that resolution has already dropped the start
+     * of the range or would return more than {@code max-points}.
+     */
+    private HistoryResolution select(SiteHistory site, long fromMillis, long toMillis, int points) {
+        long range = Math.max(0, toMillis - fromMillis);
+        long step = range / Math.max(1, points);
+        HistoryResolution[] resolutions = HistoryResolution.values();
+        int chosen = 0;
+        for (int r = 1; r < resolutions.length; r++) {
+            if (resolutions[r].getWidthMillis() <= step) {
+                chosen = r;
+            }
+        }
+        while (chosen < resolutions.length - 1
+            && (!site.covers(resolutions[chosen], fromMillis)
+                || range / spacing(resolutions[chosen]) > config.getMaxPoints())) {
+            chosen++;
+        }
+        return resolutions[chosen];
+    }
+
+    private long spacing(HistoryResolution resolution) {
+        return Math.max(1, resolution == HistoryResolution.RAW ? tickMillis : resolution.getWidthMillis());
+    }
+
+    private synchronized void addSite(int ordinal, String siteId) {
+        SiteHistory[] current = sites;
+        if (ordinal < current.length && current[ordinal] != null) {
+            return;
+        }
+        if ((siteCount + 1) * bytesPerSite() > budgetBytes) {
+            if (!budgetExhausted) {
+                budgetExhausted = true;
+                log.warn("Telemetry history is at its memory budget of {} MiB; site {} and later new sites get no history",
+                    budgetBytes >> 20, siteId);
+            }
+            return;
+        }
+        if (ordinal >= current.length) {
+            current = Arrays.copyOf(current, Math.max(ordinal + 1, current.length * 2));
+        }
+        SiteHistory site = new SiteHistory(siteId, config.getRawCapacity(), rollupCapacities,
+            config.getMaxIntegrationGap().toMillis());
+        current[ordinal] = site;
+        sitesById.put(siteId, site);
+        siteCount++;
+        sites = current;
+    }
+
+    private static List<String> siteIds(SimulatorProperties properties, FleetSimulator fleet) {
+        if (!fleet.isEnabled()) {
+            return List.of(properties.getSiteId());
+        }
+        FleetState state = fleet.getState();
+        List<String> ids = new ArrayList<>(state.getSize());
+        for (int i = 0; i < state.getSize(); i++) {
+            ids.add(state.getSiteId(i));
+        }
+        return ids;
+    }
+}
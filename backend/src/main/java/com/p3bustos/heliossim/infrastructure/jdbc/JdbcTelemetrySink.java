@@ -0,0 +1,271 @@
+package com.p3bustos.heliossim.infrastructure.jdbc;
+
+import com.p3bustos.heliossim.config.SimulatorProperties;
+import com.p3bustos.heliossim.domain.models.TelemetryFrame;
+import com.p3bustos.heliossim.domain.services.TelemetrySink;
+import com.p3bustos.heliossim.infrastructure.metrics.LatencyHistogram;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.time.Duration;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes telemetry rows to a database in large multi-row inserts, off the tick thread
+ *
+ * The tick thread copies each frame into a preallocated ring of frames (the spill
+ * buffer) under a short lock and returns; it never allocates and never touches JDBC.
+ * Writer threads, one per pooled connection, take up to {@code batch-size} rows at a
+ * time, either as soon as a full batch is waiting or once {@code flush-interval} has
+ * passed, and insert them with a single statement. When the database stalls or is
+ * down, a writer keeps retrying its batch with backoff while the ring absorbs new
+ * rows; once the ring is full the oldest buffered row is dropped. A batch the database
+ * rejects outright (bad data, a schema mismatch) would fail the same way forever, so
+ * it is dropped and counted instead of retried.
+ */
+@Slf4j
+public class JdbcTelemetrySink implements TelemetrySink {
+
+    private static final long MAX_RETRY_BACKOFF_NANOS = Duration.ofSeconds(30).toNanos();
+    private static final long MIN_RETRY_BACKOFF_NANOS = Duration.ofMillis(100).toNanos();
+
+    private final TelemetryTable table;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final int writerCount;
+    private final String fullBatchSql;
+
+    // Spill buffer: ring of reusable frames, guarded by its own monitor
+    private final TelemetryFrame[] ring;
+    private int head;
+    private int size;
+
+    private final Counter written;
+    private final Counter dropped;
+    private final Counter rejected;
+    private final Counter failedInserts;
+    private final LatencyHistogram insertLatency;
+
+    private volatile Thread[] writers = new Thread[0];
+    private volatile boolean running;
+
+    public JdbcTelemetrySink(SimulatorProperties.Jdbc config, TelemetryTable table, MeterRegistry registry) {
+        this.table = table;
+        this.batchSize = Math.min(Math.max(1, config.getBatchSize()), TelemetryTable.MAX_BATCH_ROWS);
+        this.flushIntervalNanos = config.getFlushInterval().toNanos();
+        this.writerCount = Math.max(1, config.getPoolSize());
+        this.fullBatchSql = table.insertSql(batchSize);
+
+        int capacity = Math.max(batchSize, config.getSpillCapacity());
+        this.ring = new TelemetryFrame[capacity];
+        for (int i = 0; i < capacity; i++) {
+            ring[i] = new TelemetryFrame();
+        }
+
+        Gauge.builder("helios.jdbc.buffered", this, JdbcTelemetrySink::getBufferedCount)
+                .description("Telemetry rows waiting in the spill buffer")
+                .register(registry);
+        this.written = Counter.builder("helios.jdbc.rows")
+                .description("Telemetry rows inserted")
+                .register(registry);
+        this.dropped = Counter.builder("helios.jdbc.dropped")
+                .description("Telemetry rows that were never written")
+                .tag("reason", "buffer_full")
+                .register(registry);
+        this.rejected = Counter.builder("helios.jdbc.dropped")
+                .description("Telemetry rows that were never written")
+                .tag("reason", "rejected")
+                .register(registry);
+        this.failedInserts = Counter.builder("helios.jdbc.insert.failures")
+                .description("Batch inserts that failed")
+                .register(registry);
+        this.insertLatency = new LatencyHistogram().register(registry, "helios.jdbc.insert",
+            "Time to insert and commit one batch", Tags.empty(), 0.5, 0.99, 0.999);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        Thread[] threads = new Thread[writerCount];
+        for (int i = 0; i < writerCount; i++) {
+            threads[i] = new Thread(this::run, "jdbc-writer-" + i);
+            threads[i].setDaemon(true);
+        }
+        writers = threads;
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        log.info("JDBC telemetry sink started for table {} ({} writers, batch {}, spill buffer {})",
+            table.getName(), writerCount, batchSize, ring.length);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        for (Thread thread : writers) {
+            LockSupport.unpark(thread);
+        }
+        for (Thread thread : writers) {
+            try {
+                thread.join(Duration.ofSeconds(10).toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        int remaining = getBufferedCount();
+        if (remaining > 0) {
+            log.warn("JDBC telemetry sink stopped with {} rows unwritten", remaining);
+        }
+    }
+
+    /**
+     * Copy the frame into the spill buffer, evicting the oldest row when it is full
+     */
+    @Override
+    public void publish(TelemetryFrame frame) {
+        int buffered;
+        synchronized (ring) {
+            if (size == ring.length) {
+                head = next(head);
+                size--;
+                dropped.increment();
+            }
+            int tail = head + size;
+            ring[tail >= ring.length ? tail - ring.length : tail].copyFrom(frame);
+            buffered = ++size;
+        }
+        // Wake one writer per full batch, spreading batches across the writers
+        Thread[] threads = writers;
+        if (buffered % batchSize == 0 && threads.length > 0) {
+            LockSupport.unpark(threads[(buffered / batchSize - 1) % threads.length]);
+        }
+    }
+
+    public int getBufferedCount() {
+        synchronized (ring) {
+            return size;
+        }
+    }
+
+    public double getWrittenCount() {
+        return written.count();
+    }
+
+    public double getDroppedCount() {
+        return dropped.count() + rejected.count();
+    }
+
+    public double getRejectedCount() {
+        return rejected.count();
+    }
+
+    private void run() {
+        TelemetryFrame[] batch = new TelemetryFrame[batchSize];
+        for (int i = 0; i < batchSize; i++) {
+            batch[i] = new TelemetryFrame();
+        }
+        long lastFlushNanos = System.nanoTime();
+
+        while (true) {
+            boolean stopping = !running;
+            long now = System.nanoTime();
+            boolean due = now - lastFlushNanos >= flushIntervalNanos || stopping;
+            int rows = take(batch, due);
+            if (rows == 0) {
+                if (stopping) {
+                    return;
+                }
+                LockSupport.parkNanos(due ? flushIntervalNanos : flushIntervalNanos - (now - lastFlushNanos));
+                continue;
+            }
+            lastFlushNanos = now;
+            if (!insertWithRetry(batch, rows)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Move the oldest buffered rows into the writer's batch
+     *
+     * @param partial Also take less than a full batch
+     * @return Rows taken
+     */
+    private int take(TelemetryFrame[] batch, boolean partial) {
+        synchronized (ring) {
+            if (size == 0 || (size < batchSize && !partial)) {
+                return 0;
+            }
+            int rows = Math.min(size, batchSize);
+            for (int i = 0; i < rows; i++) {
+                batch[i].copyFrom(ring[head]);
+                head = next(head);
+            }
+            size -= rows;
+            return rows;
+        }
+    }
+
+    /**
+     * Insert a batch, retrying transient failures with backoff until it succeeds or the sink stops
+     *
+     * @return false if the sink stopped before the batch could be written
+     */
+    private boolean insertWithRetry(TelemetryFrame[] batch, int rows) {
+        String sql = rows == batchSize ? fullBatchSql : table.insertSql(rows);
+        long backoffNanos = MIN_RETRY_BACKOFF_NANOS;
+        while (true) {
+            long startNanos = System.nanoTime();
+            try (Connection connection = table.getDataSource().getConnection()) {
+                table.insert(connection, batch, rows, sql);
+                insertLatency.record(System.nanoTime() - startNanos);
+                written.increment(rows);
+                return true;
+            } catch (SQLException | RuntimeException e) {
+                failedInserts.increment();
+                if (!isTransient(e)) {
+                    rejected.increment(rows);
+                    log.error("Dropping {} telemetry rows rejected by the database: {}", rows, e.getMessage());
+                    return true;
+                }
+                if (!running) {
+                    log.warn("Discarding {} telemetry rows on shutdown: {}", rows, e.getMessage());
+                    return false;
+                }
+                log.warn("Telemetry insert of {} rows failed ({}); retrying in {} ms, {} rows buffered",
+                    rows, e.getMessage(), backoffNanos / 1_000_000, getBufferedCount());
+                LockSupport.parkNanos(backoffNanos);
+                backoffNanos = Math.min(backoffNanos * 2, MAX_RETRY_BACKOFF_NANOS);
+            }
+        }
+    }
+
+    /**
+     * Whether the same insert may succeed later: transient and connection failures,
+     * plus SQL states for lost connections, rollbacks (deadlock, serialization),
+     * exhausted resources and server shutdown from drivers that only report a state
+     */
+    private static boolean isTransient(Exception e) {
+        if (e instanceof SQLTransientException || e instanceof SQLRecoverableException) {
+            return true;
+        }
+        if (!(e instanceof SQLException sql) || sql.getSQLState() == null) {
+            return false;
+        }
+        String state = sql.getSQLState();
+        return state.startsWith("08") || state.startsWith("40") || state.startsWith("53") || state.startsWith("57");
+    }
+
+    private int next(int index) {
+        return index + 1 == ring.length ? 0 : index + 1;
+    }
+}
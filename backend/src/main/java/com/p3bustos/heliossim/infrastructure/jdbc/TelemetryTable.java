@@ -0,0 +1,144 @@
+package com.p3bustos.heliossim.infrastructure.jdbc;
+
+import com.p3bustos.heliossim.domain.models.TelemetryFrame;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.regex.Pattern;
+
+/**
+ * Narrow time-series table of telemetry rows and the multi-row INSERT that fills it
+ *
+ * One statement carries a whole batch as {@code VALUES (...), (...), ...}, which costs
+ * a single round trip and a single commit no matter how many rows it holds. The
+ * column layout mirrors {@link TelemetryFrame} and works on PostgreSQL, TimescaleDB
+ * and H2. When asked to, the table is created on the first insert rather than at
+ * startup, so the application starts while the database is still down.
+ */
+@Slf4j
+public class TelemetryTable {
+
+    /**
+     * PostgreSQL binds at most 65535 parameters per statement
+     */
+    private static final int MAX_PARAMETERS = 65_535;
+    private static final Pattern TABLE_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*(\\.[A-Za-z_][A-Za-z0-9_]*)?");
+    private static final String[] COLUMNS = {
+        "time", "site_id",
+        "solar_production_kw", "irradiance_w_m2", "panel_temp_c",
+        "soc_percent", "battery_power_kw", "battery_voltage_v", "battery_current_a",
+        "load_consumption_kw", "grid_power_kw",
+        "solar_to_load_kw", "solar_to_battery_kw", "solar_to_grid_kw", "battery_to_load_kw", "grid_to_load_kw"
+    };
+    public static final int MAX_BATCH_ROWS = MAX_PARAMETERS / COLUMNS.length;
+
+    private final DataSource dataSource;
+    private final String name;
+    private final boolean hypertable;
+    private volatile boolean schemaReady;
+
+    /**
+     * @param create Create the table on first use if it does not exist
+     * @param hypertable Create it as a TimescaleDB hypertable partitioned on {@code time}
+     */
+    public TelemetryTable(DataSource dataSource, String name, boolean create, boolean hypertable) {
+        if (name == null || !TABLE_NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException("Invalid telemetry table name '" + name + "'");
+        }
+        this.dataSource = dataSource;
+        this.name = name;
+        this.hypertable = hypertable;
+        this.schemaReady = !create;
+    }
+
+    public DataSource getDataSource() {
+        return dataSource;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Create the table if it is missing
+     */
+    private void createIfMissing(Connection connection) throws SQLException {
+        StringBuilder ddl = new StringBuilder("CREATE TABLE IF NOT EXISTS ").append(name)
+                .append(" (time TIMESTAMP WITH TIME ZONE NOT NULL, site_id VARCHAR(64) NOT NULL");
+        for (int c = 2; c < COLUMNS.length; c++) {
+            ddl.append(", ").append(COLUMNS[c]).append(" DOUBLE PRECISION");
+        }
+        ddl.append(')');
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(ddl.toString());
+            if (hypertable) {
+                statement.execute("SELECT create_hypertable('" + name + "', 'time', if_not_exists => TRUE)");
+            }
+        }
+        if (!connection.getAutoCommit()) {
+            connection.commit();
+        }
+        schemaReady = true;
+        log.info("Telemetry table {} ready{}", name, hypertable ? " (hypertable)" : "");
+    }
+
+    /**
+     * INSERT statement with {@code rows} value tuples
+     */
+    public String insertSql(int rows) {
+        if (rows < 1 || rows > MAX_BATCH_ROWS) {
+            throw new IllegalArgumentException("Rows per insert must be between 1 and " + MAX_BATCH_ROWS);
+        }
+        StringBuilder tuple = new StringBuilder("(?");
+        for (int c = 1; c < COLUMNS.length; c++) {
+            tuple.append(", ?");
+        }
+        tuple.append(')');
+
+        StringBuilder sql = new StringBuilder(64 + rows * (tuple.length() + 2))
+                .append("INSERT INTO ").append(name).append(" (").append(String.join(", ", COLUMNS)).append(") VALUES ");
+        for (int r = 0; r < rows; r++) {
+            if (r > 0) {
+                sql.append(", ");
+            }
+            sql.append(tuple);
+        }
+        return sql.toString();
+    }
+
+    /**
+     * Bind the first {@code rows} frames to a statement prepared from {@link #insertSql(int)}
+     */
+    private void bind(PreparedStatement statement, TelemetryFrame[] frames, int rows) throws SQLException {
+        int p = 1;
+        for (int r = 0; r < rows; r++) {
+            TelemetryFrame frame = frames[r];
+            statement.setObject(p++, OffsetDateTime.ofInstant(Instant.ofEpochMilli(frame.getEpochMilli()), ZoneOffset.UTC));
+            statement.setString(p++, frame.getSiteId());
+            for (int field = 0; field < TelemetryFrame.VALUE_COUNT; field++) {
+                statement.setDouble(p++, frame.getValue(field));
+            }
+        }
+    }
+
+    /**
+     * Insert the first {@code rows} frames with one statement on the given connection
+     */
+    public void insert(Connection connection, TelemetryFrame[] frames, int rows, String sql) throws SQLException {
+        if (!schemaReady) {
+            createIfMissing(connection);
+        }
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            bind(statement, frames, rows);
+            statement.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.p3bustos.heliossim.infrastructure.journal;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Reads a bit stream produced by {@link BitWriter}
+ *
+ * The buffer must extend at least eight bytes past the last bit read.
+ */
+final class BitReader {
+
+    private final ByteBuffer buffer;
+    private final int baseOffset;
+    private final long limit;
+    private long bitPosition;
+
+    /**
+     * @param limit Number of valid bits after {@code baseOffset}
+     */
+    BitReader(ByteBuffer buffer, int baseOffset, long limit) {
+        this.buffer = buffer;
+        this.baseOffset = baseOffset;
+        this.limit = limit;
+    }
+
+    boolean readBit() {
+        return readBits(1) != 0;
+    }
+
+    long readBits(int count) {
+        if (count == 0) {
+            return 0;
+        }
+        if (bitPosition + count > limit) {
+            throw new IllegalStateException("Read past the end of the journal segment");
+        }
+        if (count > 56) {
+            long high = readBits(count - 32);
+            return (high << 32) | readBits(32);
+        }
+        int offset = baseOffset + (int) (bitPosition >>> 3);
+        int shift = (int) (bitPosition & 7);
+        long word = buffer.getLong(offset);
+        bitPosition += count;
+        return (word << shift) >>> (64 - count);
+    }
+
+    long position() {
+        return bitPosition;
+    }
+
+    boolean hasRemaining() {
+        return bitPosition < limit;
+    }
+}
@@ -0,0 +1,68 @@
+package com.p3bustos.heliossim.infrastructure.journal;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Big-endian bit stream written into a byte buffer through a 64-bit accumulator
+ */
+final class BitWriter {
+
+    private final ByteBuffer buffer;
+    private final int baseOffset;
+    private long bitPosition;
+    private long accumulator;
+    private int accumulatedBits;
+
+    /**
+     * @param baseOffset Byte offset of bit 0 within the buffer
+     */
+    BitWriter(ByteBuffer buffer, int baseOffset) {
+        this.buffer = buffer;
+        this.baseOffset = baseOffset;
+    }
+
+    void writeBit(boolean bit) {
+        writeBits(bit ? 1 : 0, 1);
+    }
+
+    /**
+     * Append the low {@code count} bits of {@code value}, most significant first
+     */
+    void writeBits(long value, int count) {
+        if (count == 0) {
+            return;
+        }
+        if (count < 64) {
+            value &= (1L << count) - 1;
+        }
+        int free = 64 - accumulatedBits;
+        if (count < free) {
+            accumulator |= value << (free - count);
+            accumulatedBits += count;
+        } else {
+            int spill = count - free;
+            accumulator |= value >>> spill;
+            buffer.putLong(wordOffset(), accumulator);
+            bitPosition += 64;
+            accumulator = spill == 0 ? 0 : value << (64 - spill);
+            accumulatedBits = spill;
+        }
+    }
+
+    /**
+     * Store the partially filled word so every written bit is in the buffer
+     */
+    void flush() {
+        if (accumulatedBits > 0) {
+            buffer.putLong(wordOffset(), accumulator);
+        }
+    }
+
+    long position() {
+        return bitPosition + accumulatedBits;
+    }
+
+    private int wordOffset() {
+        return baseOffset + (int) (bitPosition >>> 3);
+    }
+}
@@ -0,0 +1,288 @@
+package com.p3bustos.heliossim.infrastructure.journal;
+
+import com.p3bustos.heliossim.domain.models.TelemetryFrame;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * On-disk layout of the telemetry journal, version 2
+ *
+ * <pre>
+ * segment header (64 bytes)
+ *   int   magic 'HJRN'
+ *   int   version
+ *   long  segment sequence
+ *   long  committed bits     end of the last complete record, updated after each append
+ *   long  committed records
+ *   int   mantissa bits      value precision, 52 for lossless
+ * body: bit stream of records
+ *   '1' site definition: 32-bit ordinal, 8-bit length, UTF-8 site id
+ *   '0' tick: segment-local site index (fixed width for the sites defined so far),
+ *       timestamp, one value per field, then a 16-bit check
+ * timestamp (Gorilla delta-of-delta in milliseconds; first tick of a site is 64 raw bits)
+ *   '0' same delta | '10' 7 bits | '110' 9 bits | '1110' 12 bits | '1111' 64 bits
+ * value (XOR against the previous value of the same site and field)
+ *   '0' unchanged | '10' bits inside the previous window | '11' 5-bit leading zeros,
+ *   6-bit length (0 means 64), meaningful bits
+ * check (low 16 bits of the CRC-32C of the decoded ordinal, timestamp and value bits)
+ *   a tick whose check does not match ends the readable part of the segment, so a
+ *   zero-filled or garbled tail after a power loss is not read as records
+ * </pre>
+ *
+ * Compression state is per site and restarts with every segment, so any segment can
+ * be read on its own. Version 1 segments have no check and are still readable.
+ */
+final class JournalFormat {
+
+    static final int MAGIC = 0x484A524E;
+    static final int VERSION = 2;
+    static final int UNCHECKED_VERSION = 1;
+    static final int CHECK_BITS = 16;
+    static final int HEADER_BYTES = 64;
+    static final int COMMITTED_BITS_OFFSET = 16;
+    static final int COMMITTED_RECORDS_OFFSET = 24;
+    static final int MANTISSA_BITS_OFFSET = 32;
+    static final int MAX_SITE_ID_BYTES = 255;
+
+    /**
+     * Room kept free at the end of a segment: the largest record plus the reader's look-ahead
+     */
+    static final int TAIL_RESERVE_BYTES = 4096;
+
+    static final int FIELD_COUNT = TelemetryFrame.VALUE_COUNT;
+    static final int CHECK_INPUT_BYTES = Integer.BYTES + Long.BYTES * (1 + FIELD_COUNT);
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".hjl";
+    private static final Pattern SEGMENT_NAME = Pattern.compile("segment-\\d{20}\\.hjl");
+
+    private JournalFormat() {
+    }
+
+    static Path segmentPath(Path directory, long sequence) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, sequence, SEGMENT_SUFFIX));
+    }
+
+    static long sequenceOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    /**
+     * Segment files of a journal directory, oldest first
+     */
+    static List<Path> segments(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                .filter(p -> SEGMENT_NAME.matcher(p.getFileName().toString()).matches())
+                .sorted()
+                .toList();
+        }
+    }
+
+    /**
+     * Check stored after every tick; {@code scratch} holds at least {@link #CHECK_INPUT_BYTES}
+     */
+    static int recordCheck(CRC32C crc, ByteBuffer scratch, int ordinal, long epochMilli, long[] bits) {
+        scratch.clear();
+        scratch.putInt(ordinal);
+        scratch.putLong(epochMilli);
+        for (int field = 0; field < FIELD_COUNT; field++) {
+            scratch.putLong(bits[field]);
+        }
+        crc.reset();
+        crc.update(scratch.flip());
+        return (int) crc.getValue() & ((1 << CHECK_BITS) - 1);
+    }
+
+    static void writeHeader(ByteBuffer buffer, long sequence, int mantissaBits) {
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putLong(8, sequence);
+        buffer.putLong(COMMITTED_BITS_OFFSET, 0);
+        buffer.putLong(COMMITTED_RECORDS_OFFSET, 0);
+        buffer.putInt(MANTISSA_BITS_OFFSET, mantissaBits);
+    }
+
+    /**
+     * Mask keeping the sign, exponent and the top {@code mantissaBits} of a double
+     */
+    static long precisionMask(int mantissaBits) {
+        int dropped = 52 - Math.max(0, Math.min(52, mantissaBits));
+        return -1L << dropped;
+    }
+
+    /**
+     * Number of bits needed to address {@code count} site indexes
+     */
+    static int indexWidth(int count) {
+        return count <= 1 ? 0 : 32 - Integer.numberOfLeadingZeros(count - 1);
+    }
+
+    /**
+     * Compression state of one site within one segment; shared by writer and reader
+     */
+    static final class SiteState {
+        final int ordinal;
+        final String siteId;
+        final byte[] siteIdBytes;
+        /** Position in the segment's site table */
+        final int index;
+
+        boolean started;
+        long lastMillis;
+        long lastDelta;
+        final long[] lastBits = new long[FIELD_COUNT];
+        final int[] leading = new int[FIELD_COUNT];
+        final int[] trailing = new int[FIELD_COUNT];
+
+        SiteState(int ordinal, String siteId, int index) {
+            this.ordinal = ordinal;
+            this.siteId = siteId;
+            this.index = index;
+            byte[] bytes = siteId != null ? siteId.getBytes(StandardCharsets.UTF_8) : new byte[0];
+            this.siteIdBytes = bytes.length > MAX_SITE_ID_BYTES ? Arrays.copyOf(bytes, MAX_SITE_ID_BYTES) : bytes;
+            Arrays.fill(leading, -1);
+        }
+    }
+
+    static void writeSiteDefinition(BitWriter out, SiteState site) {
+        out.writeBit(true);
+        out.writeBits(site.ordinal, 32);
+        out.writeBits(site.siteIdBytes.length, 8);
+        for (byte b : site.siteIdBytes) {
+            out.writeBits(b, 8);
+        }
+    }
+
+    static SiteState readSiteDefinition(BitReader in, int index) {
+        int ordinal = (int) in.readBits(32);
+        byte[] bytes = new byte[(int) in.readBits(8)];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) in.readBits(8);
+        }
+        return new SiteState(ordinal, new String(bytes, StandardCharsets.UTF_8), index);
+    }
+
+    static void writeTimestamp(BitWriter out, SiteState site, long epochMilli) {
+        if (!site.started) {
+            out.writeBits(epochMilli, 64);
+            site.started = true;
+            site.lastDelta = 0;
+        } else {
+            long delta = epochMilli - site.lastMillis;
+            long dod = delta - site.lastDelta;
+            if (dod == 0) {
+                out.writeBit(false);
+            } else if (dod >= -64 && dod <= 63) {
+                out.writeBits(0b10, 2);
+                out.writeBits(dod, 7);
+            } else if (dod >= -256 && dod <= 255) {
+                out.writeBits(0b110, 3);
+                out.writeBits(dod, 9);
+            } else if (dod >= -2048 && dod <= 2047) {
+                out.writeBits(0b1110, 4);
+                out.writeBits(dod, 12);
+            } else {
+                out.writeBits(0b1111, 4);
+                out.writeBits(dod, 64);
+            }
+            site.lastDelta = delta;
+        }
+        site.lastMillis = epochMilli;
+    }
+
+    static long readTimestamp(BitReader in, SiteState site) {
+        if (!site.started) {
+            site.started = true;
+            site.lastDelta = 0;
+            site.lastMillis = in.readBits(64);
+            return site.lastMillis;
+        }
+        long dod;
+        if (!in.readBit()) {
+            dod = 0;
+        } else if (!in.readBit()) {
+            dod = signExtend(in.readBits(7), 7);
+        } else if (!in.readBit()) {
+            dod = signExtend(in.readBits(9), 9);
+        } else if (!in.readBit()) {
+            dod = signExtend(in.readBits(12), 12);
+        } else {
+            dod = in.readBits(64);
+        }
+        site.lastDelta += dod;
+        site.lastMillis += site.lastDelta;
+        return site.lastMillis;
+    }
+
+    static void writeValue(BitWriter out, SiteState site, int field, long bits) {
+        long xor = bits ^ site.lastBits[field];
+        site.lastBits[field] = bits;
+        if (xor == 0) {
+            out.writeBit(false);
+            return;
+        }
+        int leading = Math.min(Long.numberOfLeadingZeros(xor), 31);
+        int trailing = Long.numberOfTrailingZeros(xor);
+        int previousLeading = site.leading[field];
+        int previousTrailing = site.trailing[field];
+        if (previousLeading >= 0 && leading >= previousLeading && trailing >= previousTrailing) {
+            out.writeBits(0b10, 2);
+            out.writeBits(xor >>> previousTrailing, 64 - previousLeading - previousTrailing);
+        } else {
+            int meaningful = 64 - leading - trailing;
+            out.writeBits(0b11, 2);
+            out.writeBits(leading, 5);
+            out.writeBits(meaningful == 64 ? 0 : meaningful, 6);
+            out.writeBits(xor >>> trailing, meaningful);
+            site.leading[field] = leading;
+            site.trailing[field] = trailing;
+        }
+    }
+
+    static long readValue(BitReader in, SiteState site, int field) {
+        if (in.readBit()) {
+            long xor;
+            if (!in.readBit()) {
+                int leading = site.leading[field];
+                int trailing = site.trailing[field];
+                if (leading < 0) {
+                    throw new IllegalStateException("Value window reused before it was defined");
+                }
+                xor = in.readBits(64 - leading - trailing) << trailing;
+            } else {
+                int leading = (int) in.readBits(5);
+                int meaningful = (int) in.readBits(6);
+                if (meaningful == 0) {
+                    meaningful = 64;
+                }
+                int trailing = 64 - leading - meaningful;
+                if (trailing < 0) {
+                    throw new IllegalStateException("Corrupt value window");
+                }
+                xor = in.readBits(meaningful) << trailing;
+                site.leading[field] = leading;
+                site.trailing[field] = trailing;
+            }
+            site.lastBits[field] ^= xor;
+        }
+        return site.lastBits[field];
+    }
+
+    private static long signExtend(long value, int bits) {
+        return (value << (64 - bits)) >> (64 - bits);
+    }
+}
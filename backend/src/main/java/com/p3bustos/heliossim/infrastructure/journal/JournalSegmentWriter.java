@@ -0,0 +1,122 @@
+package com.p3bustos.heliossim.infrastructure.journal;
+
+import com.p3bustos.heliossim.domain.models.TelemetryFrame;
+import com.p3bustos.heliossim.infrastructure.journal.JournalFormat.SiteState;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+
+import static com.p3bustos.heliossim.infrastructure.journal.JournalFormat.*;
+
+/**
+ * Appends records to one memory-mapped segment file
+ *
+ * The file is mapped at its full size up front (sparse until written). After each
+ * record the committed length in the header is advanced, so a reader or a restart
+ * after a crash never sees a half-written record.
+ */
+public final class JournalSegmentWriter implements AutoCloseable {
+
+    private final Path path;
+    private final long sequence;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final BitWriter out;
+    private final long limitBits;
+    private final long precisionMask;
+    private final double[] values = new double[FIELD_COUNT];
+    private final long[] bits = new long[FIELD_COUNT];
+    private final CRC32C crc = new CRC32C();
+    private final ByteBuffer checkInput = ByteBuffer.allocate(CHECK_INPUT_BYTES);
+
+    private SiteState[] sitesByOrdinal = new SiteState[16];
+    private int siteCount;
+    private long records;
+
+    public JournalSegmentWriter(Path path, long sequence, int sizeBytes, int mantissaBits) throws IOException {
+        this.path = path;
+        this.sequence = sequence;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, sizeBytes);
+        this.out = new BitWriter(buffer, HEADER_BYTES);
+        this.limitBits = (long) (sizeBytes - HEADER_BYTES - TAIL_RESERVE_BYTES) * 8;
+        this.precisionMask = precisionMask(mantissaBits);
+        writeHeader(buffer, sequence, mantissaBits);
+    }
+
+    public boolean isFull() {
+        return out.position() >= limitBits;
+    }
+
+    public void append(TelemetryFrame frame) {
+        SiteState site = site(frame.getSiteOrdinal(), frame.getSiteId());
+        out.writeBit(false);
+        out.writeBits(site.index, indexWidth(siteCount));
+        writeTimestamp(out, site, frame.getEpochMilli());
+        frame.copyValuesTo(values, 0);
+        for (int field = 0; field < FIELD_COUNT; field++) {
+            // Adding 0.0 folds -0.0 into 0.0 so sign flips on zero do not cost bits
+            bits[field] = Double.doubleToRawLongBits(values[field] + 0.0) & precisionMask;
+            writeValue(out, site, field, bits[field]);
+        }
+        out.writeBits(recordCheck(crc, checkInput, site.ordinal, frame.getEpochMilli(), bits), CHECK_BITS);
+
+        records++;
+        out.flush();
+        buffer.putLong(COMMITTED_RECORDS_OFFSET, records);
+        buffer.putLong(COMMITTED_BITS_OFFSET, out.position());
+    }
+
+    public void force() {
+        buffer.force();
+    }
+
+    public long getRecords() {
+        return records;
+    }
+
+    /**
+     * Committed length of the record stream in bits, as stored in the header
+     */
+    public long getCommittedBits() {
+        return out.position();
+    }
+
+    public long getBytesWritten() {
+        return HEADER_BYTES + (out.position() + 7) / 8;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    @Override
+    public void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    private SiteState site(int ordinal, String siteId) {
+        if (ordinal >= sitesByOrdinal.length) {
+            sitesByOrdinal = Arrays.copyOf(sitesByOrdinal, Math.max(ordinal + 1, sitesByOrdinal.length * 2));
+        }
+        SiteState site = sitesByOrdinal[ordinal];
+        if (site == null) {
+            site = new SiteState(ordinal, siteId, siteCount++);
+            sitesByOrdinal[ordinal] = site;
+            writeSiteDefinition(out, site);
+        }
+        return site;
+    }
+}
@@ -0,0 +1,109 @@
+package com.p3bustos.heliossim.infrastructure.journal;
+
+import com.p3bustos.heliossim.domain.models.TelemetryFrame;
+import com.p3bustos.heliossim.infrastructure.journal.JournalFormat.SiteState;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+import static com.p3bustos.heliossim.infrastructure.journal.JournalFormat.*;
+
+/**
+ * Decodes the records of one mapped segment in order, one at a time
+ */
+final class SegmentCursor {
+
+    private final BitReader in;
+    private final long sequence;
+    private final boolean checked;
+    private final List<SiteState> sites = new ArrayList<>();
+    private final long[] bits = new long[FIELD_COUNT];
+    private final double[] values = new double[FIELD_COUNT];
+    private final CRC32C crc = new CRC32C();
+    private final ByteBuffer checkInput = ByteBuffer.allocate(CHECK_INPUT_BYTES);
+    private long records;
+    private long lastRecordEnd;
+
+    /**
+     * @param limitBits Bits to decode; the committed length unless recovering
+     */
+    SegmentCursor(ByteBuffer segment, long limitBits) {
+        if (segment.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a telemetry journal segment");
+        }
+        int version = segment.getInt(4);
+        if (version != VERSION && version != UNCHECKED_VERSION) {
+            throw new IllegalArgumentException("Unsupported journal version " + version);
+        }
+        this.checked = version == VERSION;
+        this.sequence = segment.getLong(8);
+        this.in = new BitReader(segment, HEADER_BYTES, limitBits);
+    }
+
+    static long committedBits(ByteBuffer segment) {
+        return segment.getLong(COMMITTED_BITS_OFFSET);
+    }
+
+    /**
+     * Decode the next tick into {@code target}
+     *
+     * @return false at the end of the segment
+     * @throws IllegalStateException when the data is malformed
+     */
+    boolean next(TelemetryFrame target) {
+        while (in.hasRemaining()) {
+            if (in.readBit()) {
+                SiteState site = readSiteDefinition(in, sites.size());
+                if (site.ordinal < 0) {
+                    throw new IllegalStateException("Corrupt site definition");
+                }
+                sites.add(site);
+                lastRecordEnd = in.position();
+                continue;
+            }
+            int index = (int) in.readBits(indexWidth(sites.size()));
+            if (index >= sites.size()) {
+                throw new IllegalStateException("Tick for undefined site index " + index);
+            }
+            SiteState site = sites.get(index);
+            long previousMillis = site.lastMillis;
+            boolean started = site.started;
+            long epochMilli = readTimestamp(in, site);
+            if (started && epochMilli < previousMillis) {
+                throw new IllegalStateException("Timestamp went backwards");
+            }
+            for (int field = 0; field < FIELD_COUNT; field++) {
+                bits[field] = readValue(in, site, field);
+                values[field] = Double.longBitsToDouble(bits[field]);
+            }
+            if (checked && in.readBits(CHECK_BITS) != recordCheck(crc, checkInput, site.ordinal, epochMilli, bits)) {
+                throw new IllegalStateException("Record check mismatch");
+            }
+            target.setSiteOrdinal(site.ordinal);
+            target.setSiteId(site.siteId);
+            target.setEpochMilli(epochMilli);
+            target.copyValuesFrom(values, 0);
+            records++;
+            lastRecordEnd = in.position();
+            return true;
+        }
+        return false;
+    }
+
+    long getSequence() {
+        return sequence;
+    }
+
+    long getRecords() {
+        return records;
+    }
+
+    /**
+     * Bit position just after the last record decoded successfully
+     */
+    long getLastRecordEnd() {
+        return lastRecordEnd;
+    }
+}
@@ -0,0 +1,222 @@
+package com.p3bustos.heliossim.infrastructure.journal;
+
+import com.p3bustos.heliossim.domain.models.TelemetryFrame;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+
+/**
+ * Appends to a journal directory, rolling over to a new segment whenever the current one fills up
+ *
+ * Writing always starts in a fresh segment after the newest existing one, so earlier
+ * recordings in the directory are left untouched. Appends are confined to one thread;
+ * {@link #force()} may be called from another.
+ *
+ * Given a background executor, the writer keeps the next segment created and mapped
+ * ahead of time, and a segment that fills up is forced and closed on that executor, so
+ * rolling over on the appending thread is a reference swap. Without one, or when the
+ * next segment is not ready yet, rolling over happens on the appending thread.
+ */
+@Slf4j
+public final class SegmentedJournalWriter implements AutoCloseable {
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final int mantissaBits;
+    private final Executor background;
+    private final Queue<JournalSegmentWriter> retired = new ConcurrentLinkedQueue<>();
+
+    private volatile JournalSegmentWriter segment;
+    private long closedSegmentBytes;
+    // Guarded by this: the next sequence number and the segment created ahead of time for it
+    private long nextSequence;
+    private JournalSegmentWriter spare;
+    private boolean closed;
+
+    /**
+     * Place in the journal at which everything before has been written
+     */
+    public record Position(long sequence, long committedBits, long records) {
+    }
+
+    public SegmentedJournalWriter(Path directory, int segmentBytes, int mantissaBits) throws IOException {
+        this(directory, segmentBytes, mantissaBits, null);
+    }
+
+    /**
+     * @param background Runs segment creation and closing off the appending thread; null to roll over inline
+     */
+    public SegmentedJournalWriter(Path directory, int segmentBytes, int mantissaBits, Executor background)
+            throws IOException {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.mantissaBits = mantissaBits;
+        this.background = background;
+        Files.createDirectories(directory);
+        List<Path> existing = JournalFormat.segments(directory);
+        nextSequence = existing.isEmpty() ? 0 : JournalFormat.sequenceOf(existing.get(existing.size() - 1)) + 1;
+        synchronized (this) {
+            segment = openSegment();
+        }
+        if (background != null) {
+            background.execute(this::maintain);
+        }
+    }
+
+    public void append(TelemetryFrame frame) throws IOException {
+        JournalSegmentWriter current = segment;
+        if (current == null) {
+            throw new IOException("Journal writer is closed");
+        }
+        if (current.isFull()) {
+            current = rollOver(current);
+        }
+        current.append(frame);
+    }
+
+    /**
+     * Close segments that filled up and create the next one ahead of time; runs on the background executor
+     */
+    public void maintain() {
+        closeRetired();
+        synchronized (this) {
+            if (spare != null || closed) {
+                return;
+            }
+            try {
+                spare = openSegment();
+            } catch (IOException e) {
+                log.warn("Failed to create the next journal segment ahead of time: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Write the mapped pages of the current segment to disk
+     */
+    public void force() {
+        JournalSegmentWriter current = segment;
+        if (current != null) {
+            current.force();
+        }
+    }
+
+    public Position position() {
+        JournalSegmentWriter current = segment;
+        return new Position(current.getSequence(), current.getCommittedBits(), current.getRecords());
+    }
+
+    public long getBytesWritten() {
+        JournalSegmentWriter current = segment;
+        return closedSegmentBytes + (current != null ? current.getBytesWritten() : 0);
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    @Override
+    public void close() {
+        JournalSegmentWriter current = segment;
+        segment = null;
+        if (current != null) {
+            closedSegmentBytes += current.getBytesWritten();
+            retired.add(current);
+        }
+        closeRetired();
+
+        JournalSegmentWriter unused;
+        synchronized (this) {
+            closed = true;
+            unused = spare;
+            spare = null;
+        }
+        if (unused != null) {
+            try {
+                unused.close();
+                Files.delete(unused.getPath());
+            } catch (IOException e) {
+                log.warn("Failed to remove unused journal segment {}: {}", unused.getPath().getFileName(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Discard everything written to a journal directory after the given position
+     */
+    public static void rewind(Path directory, Position position) throws IOException {
+        for (Path segment : JournalFormat.segments(directory)) {
+            long sequence = JournalFormat.sequenceOf(segment);
+            if (sequence > position.sequence()) {
+                Files.delete(segment);
+            } else if (sequence == position.sequence()) {
+                truncate(segment, position.committedBits(), position.records());
+            }
+        }
+    }
+
+    /**
+     * Cut a segment back to a length recorded earlier
+     */
+    static void truncate(Path path, long committedBits, long records) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, JournalFormat.HEADER_BYTES);
+            if (header.getInt(0) != JournalFormat.MAGIC || SegmentCursor.committedBits(header) < committedBits) {
+                throw new IOException("Journal segment " + path.getFileName() + " is shorter than " + committedBits + " bits");
+            }
+            header.putLong(JournalFormat.COMMITTED_BITS_OFFSET, committedBits);
+            header.putLong(JournalFormat.COMMITTED_RECORDS_OFFSET, records);
+            header.force();
+        }
+    }
+
+    private JournalSegmentWriter rollOver(JournalSegmentWriter full) throws IOException {
+        closedSegmentBytes += full.getBytesWritten();
+        retired.add(full);
+        JournalSegmentWriter next;
+        synchronized (this) {
+            next = spare;
+            spare = null;
+            if (next == null) {
+                // Nothing prepared (no executor, or it has fallen behind): create it here
+                next = openSegment();
+            }
+        }
+        segment = next;
+        if (background != null) {
+            background.execute(this::maintain);
+        } else {
+            closeRetired();
+        }
+        return next;
+    }
+
+    /**
+     * Callers hold the lock, which keeps sequence numbers in creation order
+     */
+    private JournalSegmentWriter openSegment() throws IOException {
+        long sequence = nextSequence++;
+        return new JournalSegmentWriter(JournalFormat.segmentPath(directory, sequence), sequence,
+            segmentBytes, mantissaBits);
+    }
+
+    private void closeRetired() {
+        JournalSegmentWriter full;
+        while ((full = retired.poll()) != null) {
+            try {
+                full.close();
+            } catch (IOException e) {
+                log.warn("Failed to close journal segment {}: {}", full.getPath().getFileName(), e.getMessage());
+            }
+        }
+    }
+}
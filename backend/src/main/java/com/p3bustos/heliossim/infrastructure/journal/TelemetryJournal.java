@@ -0,0 +1,200 @@
+package com.p3bustos.heliossim.infrastructure.journal;
+
+import com.p3bustos.heliossim.config.SimulatorProperties;
+import com.p3bustos.heliossim.domain.models.TelemetryFrame;
+import com.p3bustos.heliossim.domain.services.TelemetrySink;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Append-only journal of every tick in memory-mapped, Gorilla-compressed segments
+ *
+ * Appending encodes straight into the mapped segment on the tick thread: no syscalls,
+ * no allocation, a few hundred nanoseconds per record. A background thread flushes
+ * the mapping to disk every {@code sync-interval}, which bounds what a power loss
+ * can take; a process crash loses nothing that was committed. The same thread maps
+ * the next segment before it is needed and forces and closes each full one, so a
+ * rollover on the tick thread only swaps the segment reference. On startup the newest
+ * existing segment is checked and its committed length cut back to the last record
+ * that decodes and matches its check, and recording continues in a fresh segment.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "simulator.journal", name = "enabled", havingValue = "true")
+public class TelemetryJournal implements TelemetrySink {
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final int mantissaBits;
+    private final long syncIntervalMillis;
+
+    private volatile SegmentedJournalWriter writer;
+    private ScheduledExecutorService syncExecutor;
+    private long closedBytes;
+    // Written by the tick thread after each append so metric scrapes never take the journal's lock
+    private volatile double bytesWritten;
+
+    private final Counter records;
+
+    public TelemetryJournal(SimulatorProperties properties, MeterRegistry registry) {
+        SimulatorProperties.Journal config = properties.getJournal();
+        this.directory = Paths.get(config.getDirectory());
+        this.segmentBytes = (int) Math.min(Integer.MAX_VALUE, Math.max(64 * 1024, config.getSegmentSize().toBytes()));
+        this.mantissaBits = config.getMantissaBits();
+        this.syncIntervalMillis = config.getSyncInterval().toMillis();
+
+        this.records = Counter.builder("helios.journal.records")
+                .description("Ticks appended to the telemetry journal")
+                .register(registry);
+        Gauge.builder("helios.journal.bytes", this, TelemetryJournal::getBytesWritten)
+                .description("Compressed bytes written to journal segments since startup")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        Files.createDirectories(directory);
+        List<Path> existing = JournalFormat.segments(directory);
+        int newest = existing.size() - 1;
+        // Segments created ahead of a rollover that never came hold nothing
+        while (newest >= 0 && isUnused(existing.get(newest))) {
+            Files.delete(existing.get(newest--));
+        }
+        if (newest >= 0) {
+            recover(existing.get(newest));
+        }
+
+        syncExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "journal-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        writer = new SegmentedJournalWriter(directory, segmentBytes, mantissaBits, syncExecutor);
+        syncExecutor.scheduleWithFixedDelay(this::sync, syncIntervalMillis, syncIntervalMillis, TimeUnit.MILLISECONDS);
+        log.info("Telemetry journal recording to {} ({} MiB segments, {} mantissa bits)",
+            directory.toAbsolutePath(), segmentBytes / (1024 * 1024), mantissaBits);
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (syncExecutor != null) {
+            // Lets a pending rollover finish closing its segment; periodic syncs are cancelled
+            syncExecutor.shutdown();
+            try {
+                syncExecutor.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        close();
+    }
+
+    @Override
+    public synchronized void publish(TelemetryFrame frame) {
+        SegmentedJournalWriter current = writer;
+        if (current == null) {
+            return;
+        }
+        try {
+            current.append(frame);
+            records.increment();
+            bytesWritten = closedBytes + current.getBytesWritten();
+        } catch (IOException | RuntimeException e) {
+            log.error("Telemetry journal stopped after a write failure", e);
+            close();
+        }
+    }
+
+    public double getBytesWritten() {
+        return bytesWritten;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Cut the committed length of a segment back to its last valid record
+     *
+     * @return Records kept
+     */
+    static long recover(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            if (channel.size() < JournalFormat.HEADER_BYTES) {
+                log.warn("Journal segment {} has no header; leaving it", path.getFileName());
+                return 0;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            SegmentCursor cursor;
+            try {
+                cursor = new SegmentCursor(buffer, TelemetryJournalReader.readableBits(buffer, channel.size()));
+            } catch (IllegalArgumentException e) {
+                log.warn("Journal segment {} is unreadable: {}", path.getFileName(), e.getMessage());
+                return 0;
+            }
+            TelemetryFrame frame = new TelemetryFrame();
+            try {
+                while (cursor.next(frame)) {
+                    // Decoding validates the record and its check
+                }
+            } catch (IllegalStateException e) {
+                buffer.putLong(JournalFormat.COMMITTED_BITS_OFFSET, cursor.getLastRecordEnd());
+                buffer.putLong(JournalFormat.COMMITTED_RECORDS_OFFSET, cursor.getRecords());
+                buffer.force();
+                log.warn("Journal segment {} was damaged after record {} ({}); truncated to it",
+                    path.getFileName(), cursor.getRecords(), e.getMessage());
+            }
+            return cursor.getRecords();
+        }
+    }
+
+    private static boolean isUnused(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < JournalFormat.HEADER_BYTES) {
+                return false;
+            }
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, JournalFormat.HEADER_BYTES);
+            return header.getInt(0) == JournalFormat.MAGIC && header.getLong(JournalFormat.COMMITTED_RECORDS_OFFSET) == 0;
+        }
+    }
+
+    private void sync() {
+        SegmentedJournalWriter current = writer;
+        if (current != null) {
+            try {
+                current.force();
+            } catch (RuntimeException e) {
+                log.warn("Telemetry journal sync failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void close() {
+        SegmentedJournalWriter current = writer;
+        writer = null;
+        if (current != null) {
+            closedBytes += current.getBytesWritten();
+            bytesWritten = closedBytes;
+            current.close();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.p3bustos.heliossim.infrastructure.journal;
+
+import com.p3bustos.heliossim.domain.models.TelemetryFrame;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static com.p3bustos.heliossim.infrastructure.journal.JournalFormat.HEADER_BYTES;
+
+/**
+ * Streams every committed record of a journal directory back, oldest segment first
+ *
+ * Segments are mapped read-only and decoded one record per call, so memory use does
+ * not depend on segment size. The segment list is taken when the reader is opened.
+ */
+@Slf4j
+public class TelemetryJournalReader implements AutoCloseable {
+
+    private final List<Path> segments;
+    private int nextSegment;
+    private FileChannel channel;
+    private SegmentCursor cursor;
+    private long records;
+
+    public TelemetryJournalReader(Path directory) throws IOException {
+        this.segments = JournalFormat.segments(directory);
+    }
+
+    /**
+     * Decode the next record into {@code target}
+     *
+     * @return false once every segment has been read
+     */
+    public boolean next(TelemetryFrame target) throws IOException {
+        while (true) {
+            if (cursor == null) {
+                if (nextSegment >= segments.size()) {
+                    return false;
+                }
+                open(segments.get(nextSegment++));
+                continue;
+            }
+            try {
+                if (cursor.next(target)) {
+                    records++;
+                    return true;
+                }
+            } catch (IllegalStateException e) {
+                log.warn("Skipping the rest of journal segment {} after {} records: {}",
+                    cursor.getSequence(), cursor.getRecords(), e.getMessage());
+            }
+            closeSegment();
+        }
+    }
+
+    public long getRecordsRead() {
+        return records;
+    }
+
+    public int getSegmentCount() {
+        return segments.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        closeSegment();
+    }
+
+    private void open(Path segment) throws IOException {
+        channel = FileChannel.open(segment, StandardOpenOption.READ);
+        if (channel.size() < HEADER_BYTES) {
+            log.warn("Skipping {}: shorter than a segment header", segment.getFileName());
+            closeSegment();
+            return;
+        }
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        try {
+            cursor = new SegmentCursor(buffer, readableBits(buffer, channel.size()));
+        } catch (IllegalArgumentException e) {
+            log.warn("Skipping {}: {}", segment.getFileName(), e.getMessage());
+            closeSegment();
+        }
+    }
+
+    private void closeSegment() throws IOException {
+        cursor = null;
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    /**
+     * Committed length, clamped so the reader's eight-byte look-ahead stays in the file
+     */
+    static long readableBits(MappedByteBuffer buffer, long fileSize) {
+        long available = Math.max(0, fileSize - HEADER_BYTES - Long.BYTES) * 8;
+        return Math.max(0, Math.min(SegmentCursor.committedBits(buffer), available));
+    }
+}
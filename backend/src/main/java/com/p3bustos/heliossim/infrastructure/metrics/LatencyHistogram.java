@@ -0,0 +1,145 @@
+package com.p3bustos.heliossim.infrastructure.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * HdrHistogram latency recorder published to Micrometer as percentile gauges
+ *
+ * Writers call {@link #record(long)}, which is a wait-free, allocation-free update of
+ * an HdrHistogram {@link Recorder}. Readers (the Prometheus scrape) drain the recorder
+ * into a rolling window of two buckets, so the percentiles and max describe roughly
+ * the last one to two window lengths.
+ */
+public class LatencyHistogram {
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final int SIGNIFICANT_DIGITS = 3;
+    private static final long WINDOW_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final long SNAPSHOT_MAX_AGE_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_NANOS, SIGNIFICANT_DIGITS);
+    private final LongSupplier nanoClock;
+
+    private Histogram recycled;
+    private Histogram currentWindow = newHistogram();
+    private Histogram previousWindow = newHistogram();
+    private final Histogram snapshot = newHistogram();
+    private long windowStartNanos;
+    private long snapshotNanos;
+    private long totalCount;
+    private long totalNanos;
+
+    public LatencyHistogram() {
+        this(System::nanoTime);
+    }
+
+    /**
+     * @param nanoClock Source of {@link System#nanoTime()} readings that age the snapshot and window
+     */
+    public LatencyHistogram(LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+        this.windowStartNanos = nanoClock.getAsLong();
+        this.snapshotNanos = windowStartNanos - SNAPSHOT_MAX_AGE_NANOS;
+    }
+
+    /**
+     * Register percentile, max and count meters for this histogram
+     *
+     * @param name Base meter name, e.g. {@code helios.tick.stage}
+     * @param percentiles Quantiles in (0, 1) to publish
+     */
+    public LatencyHistogram register(MeterRegistry registry, String name, String description,
+                                     Tags tags, double... percentiles) {
+        for (double percentile : percentiles) {
+            Gauge.builder(name + ".latency", this, h -> h.percentileSeconds(percentile))
+                    .description(description)
+                    .tags(tags)
+                    .tag("quantile", Double.toString(percentile))
+                    .baseUnit("seconds")
+                    .register(registry);
+        }
+        Gauge.builder(name + ".latency.max", this, LatencyHistogram::maxSeconds)
+                .description(description)
+                .tags(tags)
+                .baseUnit("seconds")
+                .register(registry);
+        FunctionCounter.builder(name + ".count", this, LatencyHistogram::count)
+                .description(description)
+                .tags(tags)
+                .register(registry);
+        FunctionCounter.builder(name + ".total", this, LatencyHistogram::totalSeconds)
+                .description(description)
+                .tags(tags)
+                .baseUnit("seconds")
+                .register(registry);
+        return this;
+    }
+
+    /**
+     * Record one latency sample
+     */
+    public void record(long nanos) {
+        recorder.recordValue(Math.min(Math.max(nanos, 0), HIGHEST_TRACKABLE_NANOS));
+    }
+
+    public synchronized double percentileSeconds(double percentile) {
+        return refresh().getValueAtPercentile(percentile * 100.0) / 1e9;
+    }
+
+    public synchronized double maxSeconds() {
+        return refresh().getMaxValue() / 1e9;
+    }
+
+    public synchronized double count() {
+        refresh();
+        return totalCount;
+    }
+
+    public synchronized double totalSeconds() {
+        refresh();
+        return totalNanos / 1e9;
+    }
+
+    /**
+     * Drain the recorder and rebuild the reported snapshot at most once per second,
+     * so one scrape reading several gauges sees a consistent view
+     */
+    private Histogram refresh() {
+        long now = nanoClock.getAsLong();
+        if (now - snapshotNanos < SNAPSHOT_MAX_AGE_NANOS) {
+            return snapshot;
+        }
+        snapshotNanos = now;
+
+        Histogram interval = recorder.getIntervalHistogram(recycled);
+        totalCount += interval.getTotalCount();
+        totalNanos += (long) (interval.getMean() * interval.getTotalCount());
+        currentWindow.add(interval);
+        recycled = interval;
+
+        if (now - windowStartNanos >= WINDOW_NANOS) {
+            Histogram expired = previousWindow;
+            previousWindow = currentWindow;
+            currentWindow = expired;
+            currentWindow.reset();
+            windowStartNanos = now;
+        }
+
+        snapshot.reset();
+        snapshot.add(previousWindow);
+        snapshot.add(currentWindow);
+        return snapshot;
+    }
+
+    private static Histogram newHistogram() {
+        return new Histogram(HIGHEST_TRACKABLE_NANOS, SIGNIFICANT_DIGITS);
+    }
+}
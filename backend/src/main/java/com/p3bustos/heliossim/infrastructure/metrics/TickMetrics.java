@@ -0,0 +1,103 @@
+package com.p3bustos.heliossim.infrastructure.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Latency histograms for the simulation tick, exposed through the actuator
+ * {@code /actuator/prometheus} and {@code /actuator/metrics} endpoints
+ *
+ * Each stage records into an HdrHistogram-backed {@link LatencyHistogram}
+ * (p50/p99/p999/max). Recording is wait-free and allocation-free, so the
+ * collectors stay on in production without disturbing the tick.
+ */
+@Component
+public class TickMetrics {
+
+    private static final double[] PERCENTILES = {0.5, 0.99, 0.999};
+
+    public enum Stage {
+        SOLAR("solar"),
+        LOAD("load"),
+        ENERGY_FLOW("energy_flow"),
+        BUILD_TELEMETRY("build_telemetry"),
+        PUBLISH("publish"),
+        FLEET("fleet");
+
+        private final String tag;
+
+        Stage(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private final Map<Stage, LatencyHistogram> stages = new EnumMap<>(Stage.class);
+    private final LatencyHistogram tick;
+    private final LatencyHistogram schedulerLag;
+    private final Counter overruns;
+    private final Counter skipped;
+
+    @Autowired
+    public TickMetrics(MeterRegistry registry) {
+        this(registry, System::nanoTime);
+    }
+
+    /**
+     * @param nanoClock Source of {@link System#nanoTime()} readings for the histogram snapshots
+     */
+    public TickMetrics(MeterRegistry registry, LongSupplier nanoClock) {
+        for (Stage stage : Stage.values()) {
+            stages.put(stage, new LatencyHistogram(nanoClock).register(registry, "helios.tick.stage",
+                "Time spent in one stage of the simulation tick", Tags.of("stage", stage.tag), PERCENTILES));
+        }
+        this.tick = new LatencyHistogram(nanoClock).register(registry, "helios.tick",
+            "Total simulation tick time", Tags.empty(), PERCENTILES);
+        this.schedulerLag = new LatencyHistogram(nanoClock).register(registry, "helios.tick.scheduler.lag",
+            "Delay of each tick start past its deadline", Tags.empty(), PERCENTILES);
+        this.overruns = Counter.builder("helios.tick.overruns")
+                .description("Ticks that took longer than the configured rate")
+                .register(registry);
+        this.skipped = Counter.builder("helios.tick.skipped")
+                .description("Tick deadlines dropped after an overrun")
+                .register(registry);
+    }
+
+    public void recordStage(Stage stage, long nanos) {
+        stages.get(stage).record(nanos);
+    }
+
+    /**
+     * Record a complete tick, counting it as an overrun when it exceeded the tick period
+     */
+    public void recordTick(long nanos, long periodNanos) {
+        tick.record(nanos);
+        if (nanos > periodNanos) {
+            overruns.increment();
+        }
+    }
+
+    /**
+     * Record how late a tick started past its own deadline
+     *
+     * Lag is measured from the deadline, never from the previous tick's start, so the
+     * time the previous tick ran is not counted as scheduler lag.
+     */
+    public void recordSchedulerLag(long lagNanos) {
+        schedulerLag.record(lagNanos);
+    }
+
+    public void recordSkippedTicks(long count) {
+        skipped.increment(count);
+    }
+
+    public LatencyHistogram getStage(Stage stage) {
+        return stages.get(stage);
+    }
+}
@@ -0,0 +1,158 @@
+package com.p3bustos.heliossim.infrastructure.mqtt;
+
+import com.p3bustos.heliossim.config.SimulatorProperties;
+import com.p3bustos.heliossim.domain.models.TelemetryFrame;
+
+import java.util.Arrays;
+
+import static com.p3bustos.heliossim.domain.models.TelemetryFrame.*;
+
+/**
+ * Report-by-exception: decides which frames are worth publishing
+ *
+ * A site is published when any field has moved past its deadband since the site was
+ * last published, when a field drops to exactly zero, or when {@code max-silence} has
+ * passed without a message (the heartbeat consumers use to detect liveness). In a
+ * published frame every field still inside its deadband is held at its last published
+ * value, so the binary delta encoder sends only the fields that really changed and
+ * consumers never see a value further than one deadband from the simulated one.
+ *
+ * Last-published values live in one primitive array per field indexed by site ordinal.
+ * The {@link MqttTelemetryPublisher} keeps two filters. The tick thread's filter keeps
+ * unchanged frames out of the ring and {@link #advance advances} its baseline as each
+ * frame is queued; the publisher thread's filter runs on each frame it takes from the
+ * ring and only records a frame as {@link #published} once it has been handed to the
+ * client, so frames evicted from the ring or lost to an encoding failure never move
+ * the sent baseline. Each filter is confined to its thread.
+ */
+public class DeadbandFilter {
+
+    private static final int FIELD_COUNT = TelemetryFrame.VALUE_COUNT;
+
+    private static final long NEVER = Long.MIN_VALUE;
+
+    private final double[] deadbands = new double[FIELD_COUNT];
+    private final long maxSilenceMillis;
+
+    private final double[][] published = new double[FIELD_COUNT][16];
+    private long[] publishedMillis = newPublishedMillis(16);
+
+    public DeadbandFilter(SimulatorProperties.Mqtt.ReportByException config) {
+        Arrays.fill(deadbands, config.getPowerKw());
+        deadbands[IRRADIANCE] = config.getIrradianceWM2();
+        deadbands[PANEL_TEMP] = config.getPanelTempC();
+        deadbands[SOC] = config.getSocPercent();
+        deadbands[BATTERY_VOLTAGE] = config.getVoltageV();
+        deadbands[BATTERY_CURRENT] = config.getCurrentA();
+        this.maxSilenceMillis = config.getMaxSilence().toMillis();
+    }
+
+    /**
+     * Whether the frame must be published; does not change any state
+     */
+    public boolean exceeds(TelemetryFrame frame) {
+        int site = frame.getSiteOrdinal();
+        if (site < 0 || site >= publishedMillis.length || publishedMillis[site] == NEVER || heartbeatDue(site, frame.getEpochMilli())) {
+            return true;
+        }
+        for (int f = 0; f < FIELD_COUNT; f++) {
+            if (changed(frame.getValue(f), published[f][site], deadbands[f])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Hold every field of a frame about to be published that is still inside its
+     * deadband at the previously published value; does not change any state
+     */
+    public void hold(TelemetryFrame frame) {
+        int site = frame.getSiteOrdinal();
+        if (site < 0 || site >= publishedMillis.length || publishedMillis[site] == NEVER
+                || heartbeatDue(site, frame.getEpochMilli())) {
+            return;
+        }
+        for (int f = 0; f < FIELD_COUNT; f++) {
+            double last = published[f][site];
+            if (!changed(frame.getValue(f), last, deadbands[f])) {
+                frame.setValue(f, last);
+            }
+        }
+    }
+
+    /**
+     * Make a held frame the baseline of its site once it has been handed to the client
+     */
+    public void published(TelemetryFrame frame) {
+        int site = frame.getSiteOrdinal();
+        if (site < 0) {
+            return;
+        }
+        ensureCapacity(site);
+        for (int f = 0; f < FIELD_COUNT; f++) {
+            published[f][site] = frame.getValue(f);
+        }
+        publishedMillis[site] = frame.getEpochMilli();
+    }
+
+    /**
+     * Move the baseline to where publishing this frame would leave it, without
+     * changing the frame: fields still inside their deadband keep their old value
+     */
+    public void advance(TelemetryFrame frame) {
+        int site = frame.getSiteOrdinal();
+        if (site < 0) {
+            return;
+        }
+        ensureCapacity(site);
+        boolean fresh = publishedMillis[site] == NEVER || heartbeatDue(site, frame.getEpochMilli());
+        for (int f = 0; f < FIELD_COUNT; f++) {
+            double value = frame.getValue(f);
+            if (fresh || changed(value, published[f][site], deadbands[f])) {
+                published[f][site] = value;
+            }
+        }
+        publishedMillis[site] = frame.getEpochMilli();
+    }
+
+    /**
+     * Drop the baseline of a site, so its next frame is published in full
+     */
+    public void forget(int site) {
+        if (site >= 0 && site < publishedMillis.length) {
+            publishedMillis[site] = NEVER;
+        }
+    }
+
+    /**
+     * Also true when time went backwards (a looping replay), so the site starts afresh
+     */
+    private boolean heartbeatDue(int site, long epochMilli) {
+        long silence = epochMilli - publishedMillis[site];
+        return silence < 0 || (maxSilenceMillis > 0 && silence >= maxSilenceMillis);
+    }
+
+    private static boolean changed(double value, double last, double deadband) {
+        return Math.abs(value - last) > deadband || (value == 0 && last != 0);
+    }
+
+    private void ensureCapacity(int site) {
+        if (site < publishedMillis.length) {
+            return;
+        }
+        int capacity = Math.max(site + 1, publishedMillis.length * 2);
+        for (int f = 0; f < FIELD_COUNT; f++) {
+            published[f] = Arrays.copyOf(published[f], capacity);
+        }
+        long[] millis = newPublishedMillis(capacity);
+        System.arraycopy(publishedMillis, 0, millis, 0, publishedMillis.length);
+        publishedMillis = millis;
+    }
+
+    private static long[] newPublishedMillis(int capacity) {
+        long[] millis = new long[capacity];
+        Arrays.fill(millis, NEVER);
+        return millis;
+    }
+}
@@ -0,0 +1,92 @@
+package com.p3bustos.heliossim.infrastructure.mqtt;
+
+import com.p3bustos.heliossim.domain.models.TelemetryFrame;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fixed-capacity ring of preallocated frames between one producer and one consumer
+ *
+ * Frames are copied into and out of the slots, so neither side allocates and the
+ * capacity bound is the length of the slot array. {@code head} and {@code tail} only
+ * grow. The producer publishes a slot by advancing {@code tail} after filling it and
+ * may evict the oldest frame by advancing {@code head}; the consumer copies the head
+ * slot first and claims it afterwards with a CAS on {@code head}, so a copy the
+ * producer overwrote in between is detected by the failed CAS and discarded.
+ */
+final class FrameRing {
+
+    static final int NOT_EVICTED = Integer.MIN_VALUE;
+
+    private final TelemetryFrame[] slots;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+    FrameRing(int capacity) {
+        this.slots = new TelemetryFrame[Math.max(1, capacity)];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = new TelemetryFrame();
+        }
+    }
+
+    /**
+     * Copy the frame into the next free slot; producer only
+     *
+     * @return False when the ring is full
+     */
+    boolean offer(TelemetryFrame frame) {
+        long t = tail.get();
+        if (t - head.get() >= slots.length) {
+            return false;
+        }
+        slots[slot(t)].copyFrom(frame);
+        tail.set(t + 1);
+        return true;
+    }
+
+    /**
+     * Discard the oldest frame to make room; producer only
+     *
+     * @return Site ordinal of the discarded frame, or {@link #NOT_EVICTED} when the
+     * consumer took the oldest frame first
+     */
+    int evictOldest() {
+        long h = head.get();
+        if (h >= tail.get()) {
+            return NOT_EVICTED;
+        }
+        int site = slots[slot(h)].getSiteOrdinal();
+        return head.compareAndSet(h, h + 1) ? site : NOT_EVICTED;
+    }
+
+    /**
+     * Copy the oldest frame into {@code into} and remove it; consumer only
+     *
+     * @return False when the ring is empty
+     */
+    boolean poll(TelemetryFrame into) {
+        while (true) {
+            long h = head.get();
+            if (h >= tail.get()) {
+                return false;
+            }
+            into.copyFrom(slots[slot(h)]);
+            if (head.compareAndSet(h, h + 1)) {
+                return true;
+            }
+        }
+    }
+
+    int size() {
+        long h = head.get();
+        return (int) Math.min(tail.get() - h, slots.length);
+    }
+
+    int capacity() {
+        return slots.length;
+    }
+
+    private int slot(long index) {
+        return (int) (index % slots.length);
+    }
+}
@@ -0,0 +1,339 @@
+package com.p3bustos.heliossim.infrastructure.mqtt;
+
+import com.p3bustos.heliossim.config.SimulatorProperties;
+import com.p3bustos.heliossim.config.SimulatorProperties.Mqtt.Backpressure;
+import com.p3bustos.heliossim.domain.models.TelemetryFrame;
+import com.p3bustos.heliossim.domain.services.TelemetryPublisher;
+import com.p3bustos.heliossim.infrastructure.codec.TelemetryPayloadEncoder;
+import com.p3bustos.heliossim.infrastructure.metrics.LatencyHistogram;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Publishes telemetry to MQTT off the tick thread
+ *
+ * The tick thread only copies the frame into a preallocated {@link FrameRing}. A single
+ * publisher thread drains it in batches of {@code batch-size} (or whatever arrived
+ * within {@code flush-interval}), encodes each frame into a reusable buffer with
+ * the configured {@link TelemetryPayloadEncoder} and hands it to the async
+ * client, keeping at most {@code max-inflight} messages unacknowledged. While the
+ * broker is unreachable the ring is left alone and acts as the replay buffer; when
+ * it fills, the backpressure policy decides which frame is lost. Either way the
+ * tick thread never waits on the network. With report-by-exception enabled, the
+ * tick thread drops frames that are unchanged since the last frame it queued for the
+ * site, so they never take a slot a real change needs, and the publisher thread
+ * checks each frame again against what was actually sent, since a queued change may
+ * have been evicted. Both use a {@link DeadbandFilter}.
+ */
+@Slf4j
+public class MqttTelemetryPublisher implements TelemetryPublisher {
+
+    private static final long MAX_RECONNECT_BACKOFF_NANOS = Duration.ofSeconds(30).toNanos();
+    private static final long BLOCK_PARK_NANOS = 50_000;
+
+    private final MqttTransport transport;
+    private final TelemetryPayloadEncoder encoder;
+    private final ByteBuffer buffer;
+    private final String topic;
+    private final int qos;
+    private final boolean retain;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final Backpressure backpressure;
+    private final long blockTimeoutNanos;
+    private final int maxInflight;
+    private final DeadbandFilter deadbands;
+    // Tick thread's baseline of the frames queued for each site
+    private final DeadbandFilter queuedDeadbands;
+
+    // Publisher thread's copy of the frame being sent
+    private final TelemetryFrame sending = new TelemetryFrame();
+
+    private final FrameRing ring;
+    private final AtomicInteger inflight = new AtomicInteger();
+
+    private final Counter published;
+    private final Counter droppedQueueFull;
+    private final Counter droppedPublishFailed;
+    private final Counter suppressed;
+    private final LatencyHistogram publishLatency;
+
+    private volatile boolean running;
+    private volatile Thread worker;
+    private volatile boolean connecting;
+    private volatile boolean connectedOnce;
+    private volatile long nextConnectNanos;
+    private volatile long reconnectBackoffNanos;
+
+    public MqttTelemetryPublisher(SimulatorProperties.Mqtt config, MqttTransport transport,
+                                  TelemetryPayloadEncoder encoder, MeterRegistry registry) {
+        this.transport = transport;
+        this.encoder = encoder;
+        this.buffer = ByteBuffer.allocate(encoder.maxFrameBytes());
+        this.topic = config.getTopic();
+        this.qos = config.getQos();
+        this.retain = config.isRetain();
+        this.ring = new FrameRing(config.getQueueCapacity());
+        this.batchSize = Math.max(1, config.getBatchSize());
+        this.flushIntervalNanos = config.getFlushInterval().toNanos();
+        this.backpressure = config.getBackpressure();
+        this.blockTimeoutNanos = config.getBlockTimeout().toNanos();
+        this.maxInflight = Math.max(1, config.getMaxInflight());
+        this.deadbands = config.getReportByException().isEnabled()
+            ? new DeadbandFilter(config.getReportByException())
+            : null;
+        this.queuedDeadbands = config.getReportByException().isEnabled()
+            ? new DeadbandFilter(config.getReportByException())
+            : null;
+
+        Gauge.builder("helios.mqtt.queue.depth", ring, FrameRing::size)
+                .description("Telemetry frames waiting to be published")
+                .register(registry);
+        Gauge.builder("helios.mqtt.inflight", inflight, AtomicInteger::get)
+                .description("Messages handed to the client and not yet acknowledged")
+                .register(registry);
+        this.published = Counter.builder("helios.mqtt.published")
+                .description("Messages acknowledged by the broker")
+                .register(registry);
+        this.droppedQueueFull = Counter.builder("helios.mqtt.dropped")
+                .description("Telemetry frames that were never delivered")
+                .tag("reason", "queue_full")
+                .register(registry);
+        this.droppedPublishFailed = Counter.builder("helios.mqtt.dropped")
+                .description("Telemetry frames that were never delivered")
+                .tag("reason", "publish_failed")
+                .register(registry);
+        this.suppressed = Counter.builder("helios.mqtt.suppressed")
+                .description("Telemetry frames not published because no field left its deadband")
+                .register(registry);
+        this.publishLatency = new LatencyHistogram().register(registry, "helios.mqtt.publish",
+            "Time from handing a message to the client until the broker acknowledged it",
+            Tags.empty(), 0.5, 0.99, 0.999);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        Thread thread = new Thread(this::run, "mqtt-publisher");
+        thread.setDaemon(true);
+        worker = thread;
+        thread.start();
+        log.info("MQTT publisher started for topic {} (queue {}, batch {}, {} policy, {}{})",
+            topic, ring.capacity(), batchSize, backpressure, encoder.getClass().getSimpleName(),
+            deadbands != null ? ", report by exception" : "");
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        Thread thread = worker;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join(Duration.ofSeconds(5).toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        transport.close();
+        if (ring.size() > 0) {
+            log.warn("MQTT publisher stopped with {} frames unsent", ring.size());
+        }
+    }
+
+    /**
+     * Copy the frame into the ring; never blocks longer than {@code block-timeout}
+     *
+     * Called by one thread at a time: the tick thread, or the replay thread while a
+     * replay has paused the simulation.
+     */
+    @Override
+    public void publish(TelemetryFrame frame) {
+        if (queuedDeadbands != null && !queuedDeadbands.exceeds(frame)) {
+            suppressed.increment();
+            return;
+        }
+        if (!enqueue(frame)) {
+            droppedQueueFull.increment();
+            return;
+        }
+        if (queuedDeadbands != null) {
+            queuedDeadbands.advance(frame);
+        }
+
+        Thread thread = worker;
+        if (ring.size() >= batchSize && thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    public int getQueueDepth() {
+        return ring.size();
+    }
+
+    public double getDroppedCount() {
+        return droppedQueueFull.count() + droppedPublishFailed.count();
+    }
+
+    public double getPublishedCount() {
+        return published.count();
+    }
+
+    public double getSuppressedCount() {
+        return suppressed.count();
+    }
+
+    /**
+     * Copy the frame into the ring, evicting the oldest frame or waiting up to
+     * block-timeout when it is full
+     *
+     * @return False when the frame was dropped under the BLOCK policy
+     */
+    private boolean enqueue(TelemetryFrame frame) {
+        long deadline = 0;
+        while (!ring.offer(frame)) {
+            if (backpressure != Backpressure.BLOCK) {
+                // A failed eviction means the publisher took the head first, freeing a slot
+                int evicted = ring.evictOldest();
+                if (evicted != FrameRing.NOT_EVICTED) {
+                    droppedQueueFull.increment();
+                    if (queuedDeadbands != null) {
+                        // The lost change must not hold back the site's next frame
+                        queuedDeadbands.forget(evicted);
+                    }
+                }
+                continue;
+            }
+            long now = System.nanoTime();
+            if (deadline == 0) {
+                deadline = now + blockTimeoutNanos;
+            } else if (now - deadline >= 0) {
+                return false;
+            }
+            LockSupport.parkNanos(BLOCK_PARK_NANOS);
+        }
+        return true;
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                if (!transport.isConnected()) {
+                    ensureConnecting();
+                    LockSupport.parkNanos(flushIntervalNanos);
+                    continue;
+                }
+                if (drainBatch() < batchSize) {
+                    LockSupport.parkNanos(flushIntervalNanos);
+                }
+            } catch (RuntimeException e) {
+                log.error("MQTT publisher loop error", e);
+                LockSupport.parkNanos(flushIntervalNanos);
+            }
+        }
+    }
+
+    /**
+     * Publish up to one batch of queued frames
+     *
+     * @return Number of frames handed to the client
+     */
+    private int drainBatch() {
+        int sent = 0;
+        while (sent < batchSize && inflight.get() < maxInflight) {
+            if (!ring.poll(sending)) {
+                break;
+            }
+            if (deadbands != null) {
+                if (!deadbands.exceeds(sending)) {
+                    suppressed.increment();
+                    continue;
+                }
+                deadbands.hold(sending);
+            }
+
+            byte[] payload = encode(sending);
+            if (payload == null) {
+                droppedPublishFailed.increment();
+                continue;
+            }
+
+            long startNanos = System.nanoTime();
+            inflight.incrementAndGet();
+            transport.publish(topic, payload, qos, retain).whenComplete((ignored, error) -> {
+                inflight.decrementAndGet();
+                if (error == null) {
+                    publishLatency.record(System.nanoTime() - startNanos);
+                    published.increment();
+                } else {
+                    droppedPublishFailed.increment();
+                    log.debug("MQTT publish failed: {}", error.getMessage());
+                }
+            });
+            if (deadbands != null) {
+                deadbands.published(sending);
+            }
+            sent++;
+        }
+        return sent;
+    }
+
+    /**
+     * Encode into the publisher thread's heap buffer; Paho takes ownership of a byte[],
+     * so the encoded bytes are copied out once at that edge
+     *
+     * @return Payload, or null when the frame could not be encoded
+     */
+    private byte[] encode(TelemetryFrame frame) {
+        try {
+            encoder.encode(frame, buffer.clear());
+            return Arrays.copyOf(buffer.array(), buffer.position());
+        } catch (RuntimeException e) {
+            log.error("Failed to encode telemetry for {}", frame.getSiteId(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Start a connection attempt unless one is running or the backoff has not elapsed
+     *
+     * Only the first connection is driven from here; after that the client reconnects
+     * on its own.
+     */
+    private void ensureConnecting() {
+        long now = System.nanoTime();
+        if (connectedOnce || connecting || now - nextConnectNanos < 0) {
+            return;
+        }
+        connecting = true;
+        transport.connect().whenComplete((ignored, error) -> {
+            connecting = false;
+            if (error == null) {
+                connectedOnce = true;
+                reconnectBackoffNanos = 0;
+                Thread thread = worker;
+                if (thread != null) {
+                    LockSupport.unpark(thread);
+                }
+            } else {
+                reconnectBackoffNanos = reconnectBackoffNanos == 0
+                    ? Duration.ofSeconds(1).toNanos()
+                    : Math.min(reconnectBackoffNanos * 2, MAX_RECONNECT_BACKOFF_NANOS);
+                nextConnectNanos = System.nanoTime() + reconnectBackoffNanos;
+                log.warn("MQTT connect failed ({}); retrying in {}s, {} frames queued",
+                    error.getMessage(), reconnectBackoffNanos / 1_000_000_000, ring.size());
+            }
+        });
+    }
+}
@@ -0,0 +1,26 @@
+package com.p3bustos.heliossim.infrastructure.mqtt;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Minimal asynchronous MQTT client used by the telemetry publisher
+ *
+ * Kept narrow so the publisher can be exercised against an in-memory broker stand-in.
+ */
+public interface MqttTransport extends AutoCloseable {
+
+    /**
+     * Start connecting; completes once the broker accepted the connection
+     */
+    CompletableFuture<Void> connect();
+
+    boolean isConnected();
+
+    /**
+     * Hand a message to the client; completes when the broker acknowledged it at the given QoS
+     */
+    CompletableFuture<Void> publish(String topic, byte[] payload, int qos, boolean retained);
+
+    @Override
+    void close();
+}
@@ -0,0 +1,128 @@
+package com.p3bustos.heliossim.infrastructure.mqtt;
+
+import com.p3bustos.heliossim.config.SimulatorProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.paho.client.mqttv3.DisconnectedBufferOptions;
+import org.eclipse.paho.client.mqttv3.IMqttActionListener;
+import org.eclipse.paho.client.mqttv3.IMqttDeliveryToken;
+import org.eclipse.paho.client.mqttv3.IMqttToken;
+import org.eclipse.paho.client.mqttv3.MqttAsyncClient;
+import org.eclipse.paho.client.mqttv3.MqttCallbackExtended;
+import org.eclipse.paho.client.mqttv3.MqttConnectOptions;
+import org.eclipse.paho.client.mqttv3.MqttException;
+import org.eclipse.paho.client.mqttv3.MqttMessage;
+import org.eclipse.paho.client.mqttv3.persist.MemoryPersistence;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * {@link MqttTransport} on the Paho async client
+ *
+ * Once connected, Paho reconnects on its own and buffers publishes made while the
+ * link is down (up to {@code simulator.mqtt.reconnect-buffer-size}, oldest dropped
+ * first), replaying them after the reconnect.
+ */
+@Slf4j
+public class PahoMqttTransport implements MqttTransport {
+
+    private final MqttAsyncClient client;
+    private final MqttConnectOptions options;
+
+    public PahoMqttTransport(SimulatorProperties.Mqtt config) {
+        try {
+            this.client = new MqttAsyncClient(config.getBrokerUrl(), config.getClientId(), new MemoryPersistence());
+        } catch (MqttException e) {
+            throw new IllegalStateException("Invalid MQTT client configuration for " + config.getBrokerUrl(), e);
+        }
+
+        options = new MqttConnectOptions();
+        options.setAutomaticReconnect(true);
+        options.setCleanSession(false);
+        options.setMaxInflight(config.getMaxInflight());
+        options.setConnectionTimeout((int) config.getConnectTimeout().toSeconds());
+        if (config.getUsername() != null && !config.getUsername().isBlank()) {
+            options.setUserName(config.getUsername());
+            options.setPassword(config.getPassword() != null ? config.getPassword().toCharArray() : new char[0]);
+        }
+
+        DisconnectedBufferOptions buffer = new DisconnectedBufferOptions();
+        buffer.setBufferEnabled(true);
+        buffer.setBufferSize(config.getReconnectBufferSize());
+        buffer.setDeleteOldestMessages(true);
+        buffer.setPersistBuffer(false);
+        client.setBufferOpts(buffer);
+
+        client.setCallback(new MqttCallbackExtended() {
+            @Override
+            public void connectComplete(boolean reconnect, String serverUri) {
+                log.info("MQTT {} to {}", reconnect ? "reconnected" : "connected", serverUri);
+            }
+
+            @Override
+            public void connectionLost(Throwable cause) {
+                log.warn("MQTT connection lost: {}", cause != null ? cause.getMessage() : "unknown");
+            }
+
+            @Override
+            public void messageArrived(String topic, MqttMessage message) {
+            }
+
+            @Override
+            public void deliveryComplete(IMqttDeliveryToken token) {
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> connect() {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        try {
+            client.connect(options, null, listener(result));
+        } catch (MqttException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    @Override
+    public boolean isConnected() {
+        return client.isConnected();
+    }
+
+    @Override
+    public CompletableFuture<Void> publish(String topic, byte[] payload, int qos, boolean retained) {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        try {
+            client.publish(topic, payload, qos, retained, null, listener(result));
+        } catch (MqttException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    @Override
+    public void close() {
+        try {
+            if (client.isConnected()) {
+                client.disconnect().waitForCompletion(options.getConnectionTimeout() * 1000L);
+            }
+            client.close();
+        } catch (MqttException e) {
+            log.warn("Error closing MQTT client: {}", e.getMessage());
+        }
+    }
+
+    private static IMqttActionListener listener(CompletableFuture<Void> result) {
+        return new IMqttActionListener() {
+            @Override
+            public void onSuccess(IMqttToken token) {
+                result.complete(null);
+            }
+
+            @Override
+            public void onFailure(IMqttToken token, Throwable exception) {
+                result.completeExceptionally(exception);
+            }
+        };
+    }
+}
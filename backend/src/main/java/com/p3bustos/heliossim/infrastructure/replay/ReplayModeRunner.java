@@ -0,0 +1,28 @@
+package com.p3bustos.heliossim.infrastructure.replay;
+
+import com.p3bustos.heliossim.config.SimulatorProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Starts the configured replay once the application is up when {@code simulator.replay.auto-start} is set
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "simulator.replay", name = "enabled", havingValue = "true")
+public class ReplayModeRunner implements ApplicationRunner {
+
+    private final SimulatorProperties properties;
+    private final TelemetryReplayer replayer;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        var replay = properties.getReplay();
+        if (replay.isAutoStart()) {
+            replayer.start(replay.getSpeed(), replay.isLoop());
+        }
+    }
+}
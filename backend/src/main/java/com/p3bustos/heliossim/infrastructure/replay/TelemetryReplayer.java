@@ -0,0 +1,279 @@
+package com.p3bustos.heliossim.infrastructure.replay;
+
+import com.p3bustos.heliossim.config.SimulatorProperties;
+import com.p3bustos.heliossim.domain.models.TelemetryFrame;
+import com.p3bustos.heliossim.domain.services.TelemetryPublisher;
+import com.p3bustos.heliossim.dto.ReplayStatus;
+import com.p3bustos.heliossim.infrastructure.journal.TelemetryJournalReader;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Re-emits a recorded telemetry journal to the publishing sinks at a multiple of the recorded pace
+ *
+ * Every frame gets an absolute due time, {@code start + recorded offset / speed}, and
+ * the replay thread parks until it. Oversleeping delays only the frames already due,
+ * which then go out back to back, so the schedule never drifts however long the
+ * replay runs. Without a speed frames are emitted as fast as the sinks accept them.
+ * Frames are decoded into one reused holder and handed to the sinks like a tick's
+ * frame would be, so the replay loop itself does not allocate.
+ *
+ * Sinks apply their own backpressure: set the MQTT policy to {@code BLOCK} when every
+ * replayed frame must reach the broker.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "simulator.replay", name = "enabled", havingValue = "true")
+public class TelemetryReplayer {
+
+    private static final long DEFAULT_LOOP_GAP_MILLIS = 1_000;
+    private static final long STOP_TIMEOUT_MILLIS = 5_000;
+
+    private final List<TelemetryPublisher> publishers;
+    private final Path directory;
+    private final boolean rebaseTimestamps;
+
+    private volatile Run current;
+
+    public TelemetryReplayer(SimulatorProperties properties, List<TelemetryPublisher> publishers,
+                             MeterRegistry registry) {
+        this.publishers = publishers;
+        this.directory = Paths.get(properties.getReplay().getDirectory());
+        this.rebaseTimestamps = properties.getReplay().isRebaseTimestamps();
+
+        FunctionCounter.builder("helios.replay.frames", this, r -> r.framesOf(r.current))
+                .description("Frames re-emitted from the recorded journal")
+                .register(registry);
+        Gauge.builder("helios.replay.lag", this, r -> r.current != null ? r.current.lagNanos / 1e9 : 0)
+                .description("Delay of the last replayed frame behind its scheduled time")
+                .baseUnit("seconds")
+                .register(registry);
+    }
+
+    /**
+     * Start a replay on its own thread
+     *
+     * @param speed Multiple of the recorded pace; 0 or less replays as fast as possible
+     * @throws IllegalStateException if a replay is already running
+     */
+    public synchronized ReplayStatus start(double speed, boolean loop) {
+        Run running = current;
+        if (running != null && running.state == State.RUNNING) {
+            throw new IllegalStateException("A replay is already running");
+        }
+        Run run = new Run(speed > 0 ? speed : 0, loop);
+        current = run;
+        run.thread = new Thread(() -> replay(run), "telemetry-replay");
+        run.thread.setDaemon(true);
+        run.thread.start();
+        log.info("Replaying {} at {}{}", directory.toAbsolutePath(),
+            run.speed > 0 ? run.speed + "x" : "maximum speed", loop ? " in a loop" : "");
+        return status();
+    }
+
+    /**
+     * Stop the running replay, if any, and wait for its thread to finish
+     */
+    @PreDestroy
+    public ReplayStatus stop() {
+        Run run = current;
+        if (run != null && run.thread != null) {
+            run.stopRequested = true;
+            LockSupport.unpark(run.thread);
+            try {
+                run.thread.join(STOP_TIMEOUT_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return status();
+    }
+
+    public ReplayStatus status() {
+        Run run = current;
+        if (run == null) {
+            return ReplayStatus.builder()
+                    .state(State.IDLE.label())
+                    .directory(directory.toString())
+                    .build();
+        }
+
+        long frames = run.frames;
+        long endNanos = run.state == State.RUNNING ? System.nanoTime() : run.endNanos;
+        double wallSeconds = (endNanos - run.startNanos) / 1e9;
+        double recordedSeconds = run.recordedMillis / 1e3;
+        Double requestedRate = null;
+        if (run.speed > 0 && recordedSeconds > 0) {
+            requestedRate = frames / (recordedSeconds / run.speed);
+        }
+
+        return ReplayStatus.builder()
+                .state(run.state.label())
+                .directory(directory.toString())
+                .speed(run.speed > 0 ? run.speed : null)
+                .loop(run.loop)
+                .startedAt(run.startedAt)
+                .frames(frames)
+                .passes(run.passes)
+                .recordedSeconds(recordedSeconds)
+                .wallSeconds(wallSeconds)
+                .requestedRate(requestedRate)
+                .achievedRate(wallSeconds > 0 ? frames / wallSeconds : 0)
+                .achievedSpeed(wallSeconds > 0 ? recordedSeconds / wallSeconds : 0)
+                .lagMs(run.lagNanos / 1e6)
+                .error(run.error)
+                .build();
+    }
+
+    /**
+     * Block until the current replay finishes (used by tests and the startup runner)
+     */
+    public ReplayStatus awaitCompletion(long timeout, TimeUnit unit) throws InterruptedException {
+        Run run = current;
+        if (run != null && run.thread != null) {
+            run.thread.join(Math.max(1, unit.toMillis(timeout)));
+        }
+        return status();
+    }
+
+    private void replay(Run run) {
+        TelemetryFrame frame = new TelemetryFrame();
+        long passOffsetMillis = 0;
+        long firstMillis = 0;
+        boolean first = true;
+        long startMillis = run.startedAt.toEpochMilli();
+
+        try {
+            while (!run.stopRequested) {
+                long passFrames = 0;
+                long lastMillis = 0;
+                long lastDelta = DEFAULT_LOOP_GAP_MILLIS;
+
+                try (TelemetryJournalReader reader = new TelemetryJournalReader(directory)) {
+                    while (!run.stopRequested && reader.next(frame)) {
+                        long epochMilli = frame.getEpochMilli();
+                        if (first) {
+                            firstMillis = epochMilli;
+                            first = false;
+                        }
+                        if (passFrames > 0 && epochMilli > lastMillis) {
+                            lastDelta = epochMilli - lastMillis;
+                        }
+                        lastMillis = Math.max(lastMillis, epochMilli);
+                        passFrames++;
+
+                        long recordedMillis = epochMilli - firstMillis + passOffsetMillis;
+                        if (run.speed > 0) {
+                            long dueNanos = run.startNanos + (long) (recordedMillis * 1e6 / run.speed);
+                            awaitDue(run, dueNanos);
+                            run.lagNanos = Math.max(0, System.nanoTime() - dueNanos);
+                            if (rebaseTimestamps) {
+                                frame.setEpochMilli(startMillis + (long) (recordedMillis / run.speed));
+                            } else {
+                                frame.setEpochMilli(epochMilli + passOffsetMillis);
+                            }
+                        } else {
+                            frame.setEpochMilli(rebaseTimestamps ? System.currentTimeMillis() : epochMilli + passOffsetMillis);
+                        }
+
+                        for (int i = 0; i < publishers.size(); i++) {
+                            publishers.get(i).publish(frame);
+                        }
+                        run.recordedMillis = Math.max(run.recordedMillis, recordedMillis);
+                        run.frames++;
+                    }
+                }
+
+                if (passFrames == 0) {
+                    if (run.passes == 0) {
+                        log.warn("No recorded telemetry in {}", directory.toAbsolutePath());
+                    }
+                    break;
+                }
+                run.passes++;
+                if (!run.loop) {
+                    break;
+                }
+                // The next pass follows the recording's end by one recorded interval, as if it continued
+                passOffsetMillis = run.recordedMillis + lastDelta;
+                first = true;
+            }
+            run.finish(run.stopRequested ? State.STOPPED : State.COMPLETED);
+        } catch (IOException | RuntimeException e) {
+            log.error("Replay of {} failed", directory.toAbsolutePath(), e);
+            run.error = e.getMessage();
+            run.finish(State.FAILED);
+        }
+
+        ReplayStatus status = status();
+        log.info("Replay {}: {} frames in {}s, {} frames/s ({}x the recorded pace)",
+            status.getState(),
+            status.getFrames(),
+            String.format("%.2f", status.getWallSeconds()),
+            String.format("%.0f", status.getAchievedRate()),
+            String.format("%.1f", status.getAchievedSpeed())
+        );
+    }
+
+    private static void awaitDue(Run run, long dueNanos) {
+        long remaining;
+        while ((remaining = dueNanos - System.nanoTime()) > 0 && !run.stopRequested) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    private long framesOf(Run run) {
+        return run != null ? run.frames : 0;
+    }
+
+    private enum State {
+        IDLE, RUNNING, COMPLETED, STOPPED, FAILED;
+
+        String label() {
+            return name().toLowerCase();
+        }
+    }
+
+    /**
+     * One replay; written by the replay thread, read by status requests and metrics
+     */
+    private static final class Run {
+        final double speed;
+        final boolean loop;
+        final Instant startedAt = Instant.now();
+        final long startNanos = System.nanoTime();
+        Thread thread;
+
+        volatile State state = State.RUNNING;
+        volatile boolean stopRequested;
+        volatile long frames;
+        volatile long passes;
+        volatile long recordedMillis;
+        volatile long lagNanos;
+        volatile long endNanos;
+        volatile String error;
+
+        Run(double speed, boolean loop) {
+            this.speed = speed;
+            this.loop = loop;
+        }
+
+        void finish(State finalState) {
+            endNanos = System.nanoTime();
+            state = finalState;
+        }
+    }
+}
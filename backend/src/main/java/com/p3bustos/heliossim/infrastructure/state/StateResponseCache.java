@@ -0,0 +1,195 @@
+package com.p3bustos.heliossim.infrastructure.state;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.p3bustos.heliossim.config.SimulatorProperties;
+import com.p3bustos.heliossim.domain.models.FleetState;
+import com.p3bustos.heliossim.domain.models.TelemetryFrame;
+import com.p3bustos.heliossim.domain.services.FleetSimulator;
+import com.p3bustos.heliossim.domain.services.SimulationOrchestrator;
+import com.p3bustos.heliossim.dto.FleetSitesPage;
+import com.p3bustos.heliossim.dto.PowerTelemetry;
+import org.springframework.stereotype.Component;
+
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+
+/**
+ * Current-state JSON responses, serialized at most once per tick
+ *
+ * The first request for a view after a tick reads the site from the seqlock-published
+ * snapshot and serializes it; every later request in the same tick gets the same bytes
+ * and ETag. Nothing is serialized for views nobody asks for. ETags combine a per-boot
+ * id with the tick count, so they change every tick and never repeat across restarts.
+ */
+@Component
+public class StateResponseCache {
+
+    private static final int MAX_CACHED_PAGES = 1024;
+
+    public enum View {
+        TELEMETRY(TelemetryFrame::toPowerTelemetry),
+        BATTERY(frame -> frame.toPowerTelemetry().getBattery()),
+        ENERGY_FLOW(frame -> frame.toPowerTelemetry().getEnergyFlow());
+
+        private final Function<TelemetryFrame, Object> body;
+
+        View(Function<TelemetryFrame, Object> body) {
+            this.body = body;
+        }
+    }
+
+    /**
+     * Serialized response of one tick
+     *
+     * @param body JSON bytes; shared between requests and must not be modified
+     */
+    public record CachedResponse(long tick, String etag, long epochMilli, byte[] body) {
+    }
+
+    private final SimulationOrchestrator orchestrator;
+    private final FleetSimulator fleetSimulator;
+    private final ObjectMapper objectMapper;
+    private final String siteId;
+    private final String bootId = Long.toHexString(System.currentTimeMillis());
+
+    private volatile Sites sites;
+    private final Map<Long, CachedResponse> pages = new ConcurrentHashMap<>();
+
+    public StateResponseCache(SimulationOrchestrator orchestrator, FleetSimulator fleetSimulator,
+                              ObjectMapper objectMapper, SimulatorProperties properties) {
+        this.orchestrator = orchestrator;
+        this.fleetSimulator = fleetSimulator;
+        this.objectMapper = objectMapper;
+        this.siteId = properties.getSiteId();
+    }
+
+    /**
+     * Latest state of one site
+     *
+     * @return Empty when the site is unknown or has not been simulated yet
+     */
+    public Optional<CachedResponse> site(String siteId, View view) {
+        Sites current = sites();
+        Integer ordinal = current.ordinals.get(siteId);
+        if (ordinal == null) {
+            return Optional.empty();
+        }
+        long tick = currentTick();
+        if (tick == 0) {
+            return Optional.empty();
+        }
+
+        AtomicReferenceArray<CachedResponse> cached = current.responses[view.ordinal()];
+        CachedResponse response = cached.get(ordinal);
+        if (response != null && response.tick() == tick) {
+            return Optional.of(response);
+        }
+
+        TelemetryFrame frame = new TelemetryFrame();
+        long readTick = read(ordinal, frame);
+        response = serialize(readTick, frame.getEpochMilli(), view.body.apply(frame));
+        cached.set(ordinal, response);
+        return Optional.of(response);
+    }
+
+    /**
+     * One page of the latest state of every site, in site ordinal order
+     */
+    public CachedResponse page(int page, int size) {
+        long tick = currentTick();
+        long key = ((long) page << 32) | size;
+        CachedResponse response = pages.get(key);
+        if (response != null && response.tick() == tick) {
+            return response;
+        }
+
+        int total = sites().size;
+        int from = (int) Math.min((long) page * size, total);
+        int to = Math.min(from + size, total);
+        List<PowerTelemetry> telemetry = new ArrayList<>(to - from);
+        TelemetryFrame frame = new TelemetryFrame();
+        long epochMilli = 0;
+        for (int i = from; i < to && tick > 0; i++) {
+            read(i, frame);
+            epochMilli = Math.max(epochMilli, frame.getEpochMilli());
+            telemetry.add(frame.toPowerTelemetry());
+        }
+
+        // Tagged with the tick seen before reading, so a page spanning a tick is refreshed on the next request
+        response = serialize(tick, epochMilli, FleetSitesPage.builder()
+                .page(page)
+                .size(size)
+                .totalSites(total)
+                .sites(telemetry)
+                .build());
+        if (pages.size() >= MAX_CACHED_PAGES) {
+            pages.clear();
+        }
+        pages.put(key, response);
+        return response;
+    }
+
+    private long currentTick() {
+        return fleetSimulator.isEnabled() ? fleetSimulator.getTickCount() : orchestrator.getTickCount();
+    }
+
+    private long read(int ordinal, TelemetryFrame into) {
+        return fleetSimulator.isEnabled() ? fleetSimulator.readSite(ordinal, into) : orchestrator.readTelemetry(into);
+    }
+
+    private CachedResponse serialize(long tick, long epochMilli, Object body) {
+        try {
+            return new CachedResponse(tick, "\"" + bootId + "-" + tick + "\"", epochMilli, objectMapper.writeValueAsBytes(body));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Site index for the fleet currently loaded, rebuilt when the fleet changes
+     */
+    private Sites sites() {
+        FleetState fleet = fleetSimulator.isEnabled() ? fleetSimulator.getState() : null;
+        Sites current = sites;
+        if (current != null && current.fleet == fleet) {
+            return current;
+        }
+        current = new Sites(fleet, siteId);
+        sites = current;
+        pages.clear();
+        return current;
+    }
+
+    private static final class Sites {
+        final FleetState fleet;
+        final int size;
+        final Map<String, Integer> ordinals = new HashMap<>();
+        @SuppressWarnings("unchecked")
+        final AtomicReferenceArray<CachedResponse>[] responses = new AtomicReferenceArray[View.values().length];
+
+        Sites(FleetState fleet, String singleSiteId) {
+            this.fleet = fleet;
+            if (fleet != null) {
+                String[] siteIds = fleet.getSiteIds();
+                for (int i = 0; i < siteIds.length; i++) {
+                    ordinals.putIfAbsent(siteIds[i], i);
+                }
+                this.size = siteIds.length;
+            } else {
+                ordinals.put(singleSiteId, 0);
+                this.size = 1;
+            }
+            for (int v = 0; v < responses.length; v++) {
+                responses[v] = new AtomicReferenceArray<>(size);
+            }
+        }
+    }
+}
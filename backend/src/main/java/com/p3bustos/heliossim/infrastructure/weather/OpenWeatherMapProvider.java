@@ -0,0 +1,96 @@
+package com.p3bustos.heliossim.infrastructure.weather;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.p3bustos.heliossim.domain.models.GeoCell;
+import com.p3bustos.heliossim.dto.WeatherData;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Current weather from the OpenWeatherMap API for the centre of a cell
+ *
+ * Requests go through the JDK's asynchronous HTTP client, so no thread waits on the
+ * network, and through a rate limiter that delays (rather than rejects) requests
+ * beyond the configured rate.
+ */
+@Slf4j
+public class OpenWeatherMapProvider implements WeatherProvider {
+
+    private final String baseUrl;
+    private final String apiKey;
+    private final Duration timeout;
+    private final WeatherRateLimiter rateLimiter;
+    private final ObjectMapper objectMapper;
+    private final HttpClient client;
+
+    public OpenWeatherMapProvider(String baseUrl, String apiKey, Duration timeout, WeatherRateLimiter rateLimiter,
+                                  ObjectMapper objectMapper) {
+        this.baseUrl = baseUrl;
+        this.apiKey = apiKey;
+        this.timeout = timeout;
+        this.rateLimiter = rateLimiter;
+        this.objectMapper = objectMapper;
+        this.client = HttpClient.newBuilder().connectTimeout(timeout).build();
+    }
+
+    @Override
+    public CompletableFuture<WeatherData> fetch(GeoCell cell) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(String.format(Locale.ROOT,
+                "%s/weather?lat=%.4f&lon=%.4f&appid=%s&units=metric",
+                baseUrl, cell.centreLatitude(), cell.centreLongitude(), apiKey)))
+                .timeout(timeout)
+                .GET()
+                .build();
+
+        long waitNanos = rateLimiter.reserve();
+        CompletableFuture<Void> slot = waitNanos == 0
+            ? CompletableFuture.completedFuture(null)
+            : CompletableFuture.runAsync(() -> { }, CompletableFuture.delayedExecutor(waitNanos, TimeUnit.NANOSECONDS));
+        return slot
+                .thenCompose(ignored -> client.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray()))
+                .thenApply(this::parse);
+    }
+
+    @Override
+    public String name() {
+        return "openweathermap";
+    }
+
+    private WeatherData parse(HttpResponse<byte[]> response) {
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("OpenWeatherMap returned HTTP " + response.statusCode());
+        }
+        try {
+            return convertToWeatherData(objectMapper.readValue(response.body(), OpenWeatherMapResponse.class));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Convert OpenWeatherMap response to our WeatherData DTO
+     */
+    private static WeatherData convertToWeatherData(OpenWeatherMapResponse response) {
+        return WeatherData.builder()
+                .timestamp(Instant.now())
+                .temperatureC(response.getMain().getTemp())
+                .cloudCoverPercent(response.getClouds().getAll())
+                .humidityPercent(response.getMain().getHumidity())
+                .windSpeedMs(response.getWind().getSpeed())
+                .description(response.getWeather().get(0).getDescription())
+                .sunrise(Instant.ofEpochSecond(response.getSys().getSunrise()))
+                .sunset(Instant.ofEpochSecond(response.getSys().getSunset()))
+                .build();
+    }
+}
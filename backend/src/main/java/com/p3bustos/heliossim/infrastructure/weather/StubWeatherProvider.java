@@ -0,0 +1,65 @@
+package com.p3bustos.heliossim.infrastructure.weather;
+
+import com.p3bustos.heliossim.domain.models.GeoCell;
+import com.p3bustos.heliossim.dto.WeatherData;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Deterministic local weather for demos and offline tests
+ *
+ * Temperature follows the cell's local solar time; nothing is fetched, and the same
+ * cell at the same instant always gets the same weather.
+ */
+public class StubWeatherProvider implements WeatherProvider {
+
+    private final Clock clock;
+
+    public StubWeatherProvider() {
+        this(Clock.systemUTC());
+    }
+
+    public StubWeatherProvider(Clock clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public CompletableFuture<WeatherData> fetch(GeoCell cell) {
+        return CompletableFuture.completedFuture(weatherAt(cell, clock.instant()));
+    }
+
+    @Override
+    public String name() {
+        return "stub";
+    }
+
+    /**
+     * Create demo weather data for testing without API key
+     */
+    public static WeatherData weatherAt(GeoCell cell, Instant now) {
+        // Local mean solar time at the cell centre, 15 degrees of longitude per hour
+        long offsetSeconds = Math.round(cell.centreLongitude() * 240);
+        Instant localMidnight = now.plusSeconds(offsetSeconds).truncatedTo(ChronoUnit.DAYS).minusSeconds(offsetSeconds);
+        double hour = Duration.between(localMidnight, now).toSeconds() / 3600.0;
+
+        // Temperature varies throughout the day
+        double baseTemp = 20.0;
+        double tempVariation = 5.0 * Math.sin((hour - 6) * Math.PI / 12.0);
+
+        return WeatherData.builder()
+                .timestamp(now)
+                .temperatureC(baseTemp + tempVariation)
+                .cloudCoverPercent(25.0)
+                .humidityPercent(60.0)
+                .windSpeedMs(3.5)
+                .description("Demo weather data")
+                // Default sunrise/sunset (6 AM / 6 PM)
+                .sunrise(localMidnight.plus(Duration.ofHours(6)))
+                .sunset(localMidnight.plus(Duration.ofHours(18)))
+                .build();
+    }
+}
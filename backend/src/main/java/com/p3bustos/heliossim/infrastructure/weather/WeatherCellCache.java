@@ -0,0 +1,137 @@
+package com.p3bustos.heliossim.infrastructure.weather;
+
+import com.p3bustos.heliossim.domain.models.GeoCell;
+import com.p3bustos.heliossim.dto.WeatherData;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latest weather per location cell, with at most one fetch in flight per cell
+ *
+ * A request for a cell whose weather is younger than the time-to-live is answered from
+ * the cache; otherwise it joins the cell's in-flight fetch if there is one, and starts
+ * one if not. However many sites or callers ask for a cell at once, the provider sees a
+ * single request. When a fetch fails, callers get the last known weather if there is any.
+ */
+@Slf4j
+public class WeatherCellCache {
+
+    private final WeatherProvider provider;
+    private final long ttlNanos;
+    private final Map<GeoCell, Entry> entries = new ConcurrentHashMap<>();
+
+    private final LongAdder fetches = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    public WeatherCellCache(WeatherProvider provider, Duration ttl) {
+        this.provider = provider;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    /**
+     * Weather for a cell, from the cache, an in-flight fetch or a new fetch
+     */
+    public CompletableFuture<WeatherData> weather(GeoCell cell) {
+        Entry entry = entries.computeIfAbsent(cell, c -> new Entry());
+        CompletableFuture<WeatherData> result;
+        synchronized (entry) {
+            if (entry.value != null && System.nanoTime() - entry.fetchedNanos < ttlNanos) {
+                hits.increment();
+                return CompletableFuture.completedFuture(entry.value);
+            }
+            if (entry.inFlight != null) {
+                coalesced.increment();
+                return entry.inFlight;
+            }
+            result = new CompletableFuture<>();
+            entry.inFlight = result;
+        }
+
+        // The provider is called outside the lock; it may complete synchronously
+        fetches.increment();
+        CompletableFuture<WeatherData> fetch;
+        try {
+            fetch = provider.fetch(cell);
+        } catch (RuntimeException e) {
+            fetch = CompletableFuture.failedFuture(e);
+        }
+        fetch.whenComplete((weather, error) -> complete(cell, entry, result, weather, error));
+        return result;
+    }
+
+    /**
+     * Cached weather for a cell, however old, or null
+     */
+    public WeatherData cached(GeoCell cell) {
+        Entry entry = entries.get(cell);
+        if (entry == null) {
+            return null;
+        }
+        synchronized (entry) {
+            return entry.value;
+        }
+    }
+
+    public String getProviderName() {
+        return provider.name();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getFetchCount() {
+        return fetches.sum();
+    }
+
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getFailureCount() {
+        return failures.sum();
+    }
+
+    private void complete(GeoCell cell, Entry entry, CompletableFuture<WeatherData> result,
+                          WeatherData weather, Throwable error) {
+        WeatherData stale;
+        synchronized (entry) {
+            entry.inFlight = null;
+            if (error == null && weather != null) {
+                entry.value = weather;
+                entry.fetchedNanos = System.nanoTime();
+            }
+            stale = entry.value;
+        }
+
+        if (error == null && weather != null) {
+            result.complete(weather);
+            return;
+        }
+        failures.increment();
+        if (stale != null) {
+            log.warn("Weather fetch from {} failed for cell {}/{}, keeping last known weather: {}",
+                provider.name(), cell.row(), cell.column(), error != null ? error.getMessage() : "empty response");
+            result.complete(stale);
+        } else {
+            result.completeExceptionally(error != null ? error : new IllegalStateException("Empty weather response"));
+        }
+    }
+
+    private static final class Entry {
+        WeatherData value;
+        long fetchedNanos;
+        CompletableFuture<WeatherData> inFlight;
+    }
+}
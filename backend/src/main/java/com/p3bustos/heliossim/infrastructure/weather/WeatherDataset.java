@@ -0,0 +1,207 @@
+package com.p3bustos.heliossim.infrastructure.weather;
+
+import com.p3bustos.heliossim.domain.models.WeatherTimeSeries;
+import com.p3bustos.heliossim.dto.WeatherData;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+
+import static com.p3bustos.heliossim.infrastructure.weather.WeatherDatasetFormat.*;
+
+/**
+ * Read-only, memory-mapped view of a weather dataset written by {@link WeatherDatasetIngester}
+ *
+ * Samples sit on a regular time grid, so a lookup is an index computation and two
+ * reads, interpolated linearly. The file is mapped rather than loaded: its pages live
+ * in the OS page cache, off the heap, and are shared by every simulation (and every
+ * process) reading the same file. Reads use absolute offsets only, so one instance is
+ * safe to share between threads.
+ *
+ * Instants outside a historical dataset get the first or last sample. A typical-year
+ * dataset repeats every year: an instant is looked up by its month, day and time of
+ * day, with February 29 read as February 28.
+ */
+public final class WeatherDataset implements WeatherTimeSeries {
+
+    /**
+     * Stored quantities, in record order
+     */
+    public enum Channel {
+        TEMPERATURE_C("temperature_c", "temperature", "temp_air", "temp", "air_temperature", "dry_bulb_temperature", "drybulb"),
+        CLOUD_COVER_PERCENT("cloud_cover_percent", "cloud_cover", "clouds", "cloudcover"),
+        GHI_W_M2("ghi_w_m2", "ghi", "global_horizontal_irradiance"),
+        DNI_W_M2("dni_w_m2", "dni", "direct_normal_irradiance"),
+        WIND_SPEED_MS("wind_speed_ms", "wind_speed", "windspeed", "wspd"),
+        HUMIDITY_PERCENT("humidity_percent", "relative_humidity", "humidity", "rh");
+
+        private final String[] aliases;
+
+        Channel(String... aliases) {
+            this.aliases = aliases;
+        }
+
+        /**
+         * CSV column names accepted for this channel, after normalization to lower snake case
+         */
+        String[] aliases() {
+            return aliases;
+        }
+    }
+
+    static final int CHANNELS = Channel.values().length;
+    private static final int RECORD_BYTES = CHANNELS * Float.BYTES;
+
+    private final Path path;
+    private final ByteBuffer buffer;
+    private final long startMillis;
+    private final long stepMillis;
+    private final int count;
+    private final boolean typicalYear;
+    private final double latitude;
+    private final double longitude;
+    // Typical years wrap from the last sample to the first when they cover the whole year
+    private final boolean wraps;
+
+    private WeatherDataset(Path path, ByteBuffer buffer) {
+        this.path = path;
+        this.buffer = buffer;
+        this.startMillis = buffer.getLong(OFFSET_START);
+        this.stepMillis = buffer.getLong(OFFSET_STEP);
+        this.count = buffer.getInt(OFFSET_COUNT);
+        this.typicalYear = (buffer.getInt(OFFSET_FLAGS) & FLAG_TYPICAL_YEAR) != 0;
+        this.latitude = buffer.getDouble(OFFSET_LATITUDE);
+        this.longitude = buffer.getDouble(OFFSET_LONGITUDE);
+        this.wraps = typicalYear && count * stepMillis >= YEAR_MILLIS;
+    }
+
+    /**
+     * Map a dataset file; prefer {@link WeatherDatasets} so each file is mapped once per process
+     */
+    public static WeatherDataset open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES) {
+                throw new IOException(path + " is not a weather dataset (too short)");
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size).order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.getInt(OFFSET_MAGIC) != MAGIC) {
+                throw new IOException(path + " is not a weather dataset");
+            }
+            if (buffer.getShort(OFFSET_VERSION) != VERSION || buffer.getShort(OFFSET_CHANNELS) != CHANNELS) {
+                throw new IOException(path + " has unsupported weather dataset version " + buffer.getShort(OFFSET_VERSION));
+            }
+            int count = buffer.getInt(OFFSET_COUNT);
+            if (count < 1 || buffer.getLong(OFFSET_STEP) <= 0 || size < HEADER_BYTES + (long) count * RECORD_BYTES) {
+                throw new IOException(path + " is truncated or corrupt");
+            }
+            return new WeatherDataset(path, buffer);
+        }
+    }
+
+    /**
+     * Value of one channel at an instant, interpolated between the surrounding samples
+     *
+     * @return NaN if the channel was not in the source file
+     */
+    public double value(Channel channel, long epochMilli) {
+        long offset = offsetOf(epochMilli);
+        int index = (int) (offset / stepMillis);
+        double fraction = (offset - index * stepMillis) / (double) stepMillis;
+        int next = index + 1 < count ? index + 1 : wraps ? 0 : index;
+
+        double before = read(index, channel);
+        if (fraction == 0 || next == index) {
+            return before;
+        }
+        double after = read(next, channel);
+        if (Double.isNaN(before) || Double.isNaN(after)) {
+            return fraction < 0.5 ? before : after;
+        }
+        return before + (after - before) * fraction;
+    }
+
+    @Override
+    public WeatherData sample(long epochMilli, WeatherData into) {
+        double temperature = value(Channel.TEMPERATURE_C, epochMilli);
+        double cloudCover = value(Channel.CLOUD_COVER_PERCENT, epochMilli);
+        into.setTimestamp(null);
+        // Missing channels fall back to the simulator's no-weather defaults: 25°C and a clear sky
+        into.setTemperatureC(Double.isNaN(temperature) ? 25.0 : temperature);
+        into.setCloudCoverPercent(Double.isNaN(cloudCover) ? 0 : cloudCover);
+        into.setGhiWM2(value(Channel.GHI_W_M2, epochMilli));
+        into.setDniWM2(value(Channel.DNI_W_M2, epochMilli));
+        into.setWindSpeedMs(value(Channel.WIND_SPEED_MS, epochMilli));
+        into.setHumidityPercent(value(Channel.HUMIDITY_PERCENT, epochMilli));
+        return into;
+    }
+
+    /**
+     * Weather at an instant as a new object, with its timestamp set
+     */
+    public WeatherData sample(long epochMilli) {
+        WeatherData weather = sample(epochMilli, new WeatherData());
+        weather.setTimestamp(Instant.ofEpochMilli(epochMilli));
+        weather.setDescription(typicalYear ? "Typical-year weather" : "Historical weather");
+        return weather;
+    }
+
+    /**
+     * Index of the sample at or before an instant, which is how far a reader stepping through time has got
+     */
+    public int sampleIndex(long epochMilli) {
+        return (int) (offsetOf(epochMilli) / stepMillis);
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public long getStartEpochMilli() {
+        return startMillis;
+    }
+
+    public long getStepMillis() {
+        return stepMillis;
+    }
+
+    public int getSampleCount() {
+        return count;
+    }
+
+    public boolean isTypicalYear() {
+        return typicalYear;
+    }
+
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+
+    /**
+     * Milliseconds from the first sample, within [0, (count - 1) × step] unless the year wraps
+     */
+    private long offsetOf(long epochMilli) {
+        long offset;
+        if (typicalYear) {
+            offset = Math.floorMod(TYPICAL_YEAR_START_MILLIS + millisOfTypicalYear(epochMilli) - startMillis, YEAR_MILLIS);
+            if (wraps) {
+                return Math.min(offset, count * stepMillis - 1);
+            }
+        } else {
+            offset = epochMilli - startMillis;
+        }
+        return Math.max(0, Math.min(offset, (count - 1) * stepMillis));
+    }
+
+    private double read(int index, Channel channel) {
+        return buffer.getFloat(HEADER_BYTES + index * RECORD_BYTES + channel.ordinal() * Float.BYTES);
+    }
+}
@@ -0,0 +1,68 @@
+package com.p3bustos.heliossim.infrastructure.weather;
+
+/**
+ * Layout of a weather dataset file
+ *
+ * A 64-byte little-endian header followed by one record per time step on a regular
+ * grid, each record holding one float per {@link WeatherDataset.Channel} in ordinal
+ * order. The sample for an instant is therefore found by arithmetic alone.
+ *
+ * <pre>
+ *  0  int     magic "HWDS"
+ *  4  short   format version
+ *  6  short   channels per record
+ *  8  long    first sample, epoch milliseconds
+ * 16  long    step, milliseconds
+ * 24  int     sample count
+ * 28  int     flags (bit 0: typical year)
+ * 32  double  latitude (NaN if unknown)
+ * 40  double  longitude (NaN if unknown)
+ * 48  16 bytes reserved
+ * </pre>
+ */
+final class WeatherDatasetFormat {
+
+    static final int MAGIC = 0x53445748; // "HWDS" read little-endian
+    static final short VERSION = 1;
+    static final int HEADER_BYTES = 64;
+    static final int FLAG_TYPICAL_YEAR = 1;
+
+    static final int OFFSET_MAGIC = 0;
+    static final int OFFSET_VERSION = 4;
+    static final int OFFSET_CHANNELS = 6;
+    static final int OFFSET_START = 8;
+    static final int OFFSET_STEP = 16;
+    static final int OFFSET_COUNT = 24;
+    static final int OFFSET_FLAGS = 28;
+    static final int OFFSET_LATITUDE = 32;
+    static final int OFFSET_LONGITUDE = 40;
+
+    /**
+     * Typical-year samples are stored in 2001 (not a leap year), whatever years the source used
+     */
+    static final long TYPICAL_YEAR_START_MILLIS = 978_307_200_000L;
+    static final long YEAR_MILLIS = 365 * 86_400_000L;
+
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    private WeatherDatasetFormat() {
+    }
+
+    /**
+     * Position of an instant within a 365-day year, February 29 folded onto February 28
+     *
+     * @return Milliseconds since January 1 00:00 UTC
+     */
+    static long millisOfTypicalYear(long epochMilli) {
+        long epochDay = Math.floorDiv(epochMilli, MILLIS_PER_DAY);
+        long millisOfDay = epochMilli - epochDay * MILLIS_PER_DAY;
+        // Day of the year counted from March 1, so the leap day is the last day (days-from-civil algorithm)
+        long z = epochDay + 719_468;
+        long era = Math.floorDiv(z, 146_097);
+        long dayOfEra = z - era * 146_097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+        long dayFromMarch = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long dayOfYear = dayFromMarch == 365 ? 58 : (dayFromMarch + 59) % 365;
+        return dayOfYear * MILLIS_PER_DAY + millisOfDay;
+    }
+}
@@ -0,0 +1,264 @@
+package com.p3bustos.heliossim.infrastructure.weather;
+
+import com.p3bustos.heliossim.infrastructure.weather.WeatherDataset.Channel;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Locale;
+
+import static com.p3bustos.heliossim.infrastructure.weather.WeatherDatasetFormat.*;
+
+/**
+ * Converts a historical or typical-year weather CSV into a weather dataset file
+ *
+ * The first line that is neither blank nor a {@code #} comment is the header. It must
+ * name a time column ({@code time}, {@code timestamp}, {@code datetime} or
+ * {@code date_time}) and may name any of the {@link Channel} columns under their
+ * usual aliases; units in parentheses, case and spaces are ignored, so
+ * {@code "GHI (W/m^2)"} is read as {@code ghi}. Times may carry an offset or not, in
+ * which case they are read in the given zone. Rows must be in time order.
+ *
+ * Rows are resampled onto a regular grid at the smallest interval found in the file,
+ * interpolating linearly across gaps, so readers can index samples directly. Empty
+ * cells are stored as NaN.
+ */
+@Slf4j
+public final class WeatherDatasetIngester {
+
+    private static final String[] TIME_COLUMNS = {"time", "timestamp", "datetime", "date_time", "time_utc"};
+
+    /**
+     * Outcome of one conversion
+     *
+     * @param rows CSV rows read
+     * @param skipped Rows dropped as duplicates (including February 29 of a typical year)
+     * @param samples Samples written on the regular grid
+     * @param interpolated Grid samples that fell between rows and were interpolated
+     */
+    public record Result(Path output, long rows, long skipped, int samples, int interpolated, long stepMillis,
+                         Instant start, Instant end, int channels, long bytes) {
+    }
+
+    private WeatherDatasetIngester() {
+    }
+
+    /**
+     * @param zone Zone of timestamps that carry no offset
+     * @param typicalYear Ignore the years in the file and store one repeating 365-day year
+     * @param latitude Location of the data, NaN if unknown
+     */
+    public static Result ingest(Path csv, Path output, ZoneId zone, boolean typicalYear, double latitude,
+                                double longitude) throws IOException {
+        Table table = read(csv, zone, typicalYear);
+        if (table.rows < 2) {
+            throw new IllegalArgumentException(csv + " needs at least two rows of weather data");
+        }
+
+        long step = Long.MAX_VALUE;
+        for (int r = 1; r < table.rows; r++) {
+            step = Math.min(step, table.times[r] - table.times[r - 1]);
+        }
+        long start = table.times[0];
+        long span = table.times[table.rows - 1] - start;
+        if (span / step + 1 > (Integer.MAX_VALUE - HEADER_BYTES) / (WeatherDataset.CHANNELS * Float.BYTES)) {
+            throw new IllegalArgumentException(csv + " spans too many " + step + " ms steps for one dataset");
+        }
+        int samples = (int) (span / step) + 1;
+
+        Path temporary = output.resolveSibling("." + output.getFileName() + ".inprogress");
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+        int interpolated = 0;
+        long bytes = HEADER_BYTES + (long) samples * WeatherDataset.CHANNELS * Float.BYTES;
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(OFFSET_MAGIC, MAGIC);
+            buffer.putShort(OFFSET_VERSION, VERSION);
+            buffer.putShort(OFFSET_CHANNELS, (short) WeatherDataset.CHANNELS);
+            buffer.putLong(OFFSET_START, start);
+            buffer.putLong(OFFSET_STEP, step);
+            buffer.putInt(OFFSET_COUNT, samples);
+            buffer.putInt(OFFSET_FLAGS, typicalYear ? FLAG_TYPICAL_YEAR : 0);
+            buffer.putDouble(OFFSET_LATITUDE, latitude);
+            buffer.putDouble(OFFSET_LONGITUDE, longitude);
+
+            buffer.position(HEADER_BYTES);
+            int row = 0;
+            for (int i = 0; i < samples; i++) {
+                long time = start + i * step;
+                while (table.times[row + 1] <= time && row + 2 < table.rows) {
+                    row++;
+                }
+                long before = table.times[row];
+                long after = table.times[row + 1];
+                if (time == after) {
+                    row++;
+                    before = after;
+                }
+                double fraction = time == before ? 0 : (time - before) / (double) (after - before);
+                if (fraction != 0) {
+                    interpolated++;
+                }
+                for (int c = 0; c < WeatherDataset.CHANNELS; c++) {
+                    float from = table.values[c][row];
+                    float value = from;
+                    if (fraction != 0) {
+                        float to = table.values[c][row + 1];
+                        value = Float.isNaN(from) || Float.isNaN(to)
+                            ? (fraction < 0.5 ? from : to)
+                            : (float) (from + (to - from) * fraction);
+                    }
+                    buffer.putFloat(value);
+                }
+            }
+            buffer.force();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+        Files.move(temporary, output, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        Result result = new Result(output, table.rows + table.skipped, table.skipped, samples, interpolated, step,
+            Instant.ofEpochMilli(start), Instant.ofEpochMilli(start + (samples - 1) * step), table.channelsPresent, bytes);
+        log.info("Weather dataset {} written: {} rows -> {} samples every {}s from {} to {}{} ({} interpolated, {} skipped, {} KB)",
+            output, result.rows(), samples, step / 1000, result.start(), result.end(),
+            typicalYear ? " (typical year)" : "", interpolated, table.skipped, bytes / 1024);
+        return result;
+    }
+
+    /**
+     * Rows of the CSV in column form, times in epoch milliseconds
+     */
+    private static final class Table {
+        long[] times = new long[8760];
+        float[][] values = new float[WeatherDataset.CHANNELS][8760];
+        int rows;
+        long skipped;
+        int channelsPresent;
+
+        void add(long time, float[] row) {
+            if (rows == times.length) {
+                times = Arrays.copyOf(times, rows * 2);
+                for (int c = 0; c < values.length; c++) {
+                    values[c] = Arrays.copyOf(values[c], rows * 2);
+                }
+            }
+            times[rows] = time;
+            for (int c = 0; c < values.length; c++) {
+                values[c][rows] = row[c];
+            }
+            rows++;
+        }
+    }
+
+    private static Table read(Path csv, ZoneId zone, boolean typicalYear) throws IOException {
+        Table table = new Table();
+        try (BufferedReader reader = Files.newBufferedReader(csv, StandardCharsets.UTF_8)) {
+            int timeColumn = -1;
+            int[] channelColumn = null;
+            float[] row = new float[WeatherDataset.CHANNELS];
+            String line;
+            long lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split(",", -1);
+                if (channelColumn == null) {
+                    channelColumn = new int[WeatherDataset.CHANNELS];
+                    Arrays.fill(channelColumn, -1);
+                    for (int f = 0; f < fields.length; f++) {
+                        String name = normalize(fields[f]);
+                        if (timeColumn < 0 && Arrays.asList(TIME_COLUMNS).contains(name)) {
+                            timeColumn = f;
+                        }
+                        for (Channel channel : Channel.values()) {
+                            if (channelColumn[channel.ordinal()] < 0 && Arrays.asList(channel.aliases()).contains(name)) {
+                                channelColumn[channel.ordinal()] = f;
+                                table.channelsPresent++;
+                            }
+                        }
+                    }
+                    if (timeColumn < 0) {
+                        throw new IllegalArgumentException(csv + " has no time column (" + String.join(", ", TIME_COLUMNS) + ")");
+                    }
+                    if (table.channelsPresent == 0) {
+                        throw new IllegalArgumentException(csv + " has no weather columns");
+                    }
+                    continue;
+                }
+
+                OffsetDateTime timestamp = parseTime(fields[timeColumn].trim(), zone, csv, lineNumber);
+                long time = timestamp.toInstant().toEpochMilli();
+                if (typicalYear) {
+                    // Place the row by its local date and time, so the year ends where the file's local year ends
+                    long offsetMillis = timestamp.getOffset().getTotalSeconds() * 1000L;
+                    time = TYPICAL_YEAR_START_MILLIS + millisOfTypicalYear(time + offsetMillis) - offsetMillis;
+                }
+                if (table.rows > 0 && time <= table.times[table.rows - 1]) {
+                    if (typicalYear || time == table.times[table.rows - 1]) {
+                        // Duplicate instants, and the leap day of a typical year folded onto February 28
+                        table.skipped++;
+                        continue;
+                    }
+                    throw new IllegalArgumentException(csv + " line " + lineNumber + " is earlier than the line before");
+                }
+                for (int c = 0; c < row.length; c++) {
+                    int column = channelColumn[c];
+                    String field = column >= 0 && column < fields.length ? fields[column].trim() : "";
+                    try {
+                        row[c] = field.isEmpty() ? Float.NaN : Float.parseFloat(field);
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException(csv + " line " + lineNumber + ": '" + field + "' is not a number");
+                    }
+                }
+                table.add(time, row);
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Lower snake case without units, e.g. {@code "Dry-bulb Temperature (C)"} becomes {@code dry_bulb_temperature}
+     */
+    static String normalize(String header) {
+        String name = header.trim().replace("\"", "");
+        int units = name.indexOf('(');
+        if (units >= 0) {
+            name = name.substring(0, units);
+        }
+        return name.trim().toLowerCase(Locale.ROOT).replaceAll("[\\s-]+", "_");
+    }
+
+    private static OffsetDateTime parseTime(String value, ZoneId zone, Path csv, long lineNumber) {
+        try {
+            return OffsetDateTime.parse(value);
+        } catch (DateTimeParseException ignored) {
+            // No offset; read in the given zone below
+        }
+        try {
+            return LocalDateTime.parse(value.replace(' ', 'T')).atZone(zone).toOffsetDateTime();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(csv + " line " + lineNumber + ": cannot parse time '" + value + "'");
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.p3bustos.heliossim.infrastructure.weather;
+
+import com.p3bustos.heliossim.config.SimulatorProperties;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps each weather dataset file once and hands the same instance to every simulation that asks
+ */
+@Component
+public class WeatherDatasets {
+
+    private final SimulatorProperties properties;
+    private final Map<Path, WeatherDataset> datasets = new ConcurrentHashMap<>();
+
+    public WeatherDatasets(SimulatorProperties properties) {
+        this.properties = properties;
+    }
+
+    public WeatherDataset open(Path path) {
+        Path key = path.toAbsolutePath().normalize();
+        return datasets.computeIfAbsent(key, p -> {
+            try {
+                return WeatherDataset.open(p);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * The dataset named by {@code simulator.weather.dataset-file}, if any
+     */
+    public Optional<WeatherDataset> configured() {
+        String file = properties.getWeather().getDatasetFile();
+        return file == null || file.isBlank() ? Optional.empty() : Optional.of(open(Path.of(file)));
+    }
+}
@@ -0,0 +1,45 @@
+package com.p3bustos.heliossim.infrastructure.weather;
+
+import com.p3bustos.heliossim.config.SimulatorProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.time.ZoneId;
+
+/**
+ * Converts the CSV configured under {@code simulator.weather.ingest} to a weather dataset at startup
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "simulator.weather.ingest", name = "enabled", havingValue = "true")
+public class WeatherIngestModeRunner implements ApplicationRunner {
+
+    private final SimulatorProperties properties;
+    private final ApplicationContext context;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        var ingest = properties.getWeather().getIngest();
+        int exitCode = 0;
+        try {
+            WeatherDatasetIngester.ingest(Path.of(ingest.getInput()), Path.of(ingest.getOutput()),
+                ZoneId.of(ingest.getTimezone()), ingest.isTypicalYear(), ingest.getLatitude(), ingest.getLongitude());
+        } catch (Exception e) {
+            log.error("Weather ingestion of {} failed", ingest.getInput(), e);
+            exitCode = 1;
+        }
+
+        if (ingest.isExitOnCompletion()) {
+            int code = exitCode;
+            System.exit(SpringApplication.exit(context, () -> code));
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.p3bustos.heliossim.infrastructure.weather;
+
+import com.p3bustos.heliossim.domain.models.GeoCell;
+import com.p3bustos.heliossim.dto.WeatherData;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Source of current weather for a location cell
+ *
+ * Implementations must not block the caller; the returned future completes when the
+ * observation arrives, or exceptionally when it cannot be fetched.
+ */
+public interface WeatherProvider {
+
+    CompletableFuture<WeatherData> fetch(GeoCell cell);
+
+    String name();
+}
@@ -0,0 +1,49 @@
+package com.p3bustos.heliossim.infrastructure.weather;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket that schedules requests instead of blocking them
+ *
+ * Each call reserves the next free slot and returns how long the caller should wait
+ * before using it, so a burst of requests is spread out at the permitted rate without
+ * holding a thread per waiting request.
+ */
+public class WeatherRateLimiter {
+
+    private final double permitsPerNano;
+    private final double burst;
+    private double tokens;
+    private long lastNanos;
+
+    /**
+     * @param burst Requests allowed back to back after an idle period
+     */
+    public WeatherRateLimiter(int requestsPerMinute, int burst, long nowNanos) {
+        if (requestsPerMinute <= 0) {
+            throw new IllegalArgumentException("Requests per minute must be positive: " + requestsPerMinute);
+        }
+        this.permitsPerNano = requestsPerMinute / (double) TimeUnit.MINUTES.toNanos(1);
+        this.burst = Math.max(1, burst);
+        this.tokens = this.burst;
+        this.lastNanos = nowNanos;
+    }
+
+    public long reserve() {
+        return reserve(System.nanoTime());
+    }
+
+    /**
+     * Take one permit
+     *
+     * @return Nanoseconds to wait before the request may be sent
+     */
+    public synchronized long reserve(long nowNanos) {
+        if (nowNanos > lastNanos) {
+            tokens = Math.min(burst, tokens + (nowNanos - lastNanos) * permitsPerNano);
+            lastNanos = nowNanos;
+        }
+        tokens -= 1;
+        return tokens >= 0 ? 0 : (long) Math.ceil(-tokens / permitsPerNano);
+    }
+}
@@ -1,121 +1,80 @@
 package com.p3bustos.heliossim.infrastructure.weather;
 
 import com.p3bustos.heliossim.config.SimulatorProperties;
+import com.p3bustos.heliossim.domain.models.GeoCell;
+import com.p3bustos.heliossim.domain.services.FleetSimulator;
 import com.p3bustos.heliossim.domain.services.SimulationOrchestrator;
-import com.p3bustos.heliossim.dto.WeatherData;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
-import java.time.Instant;
+import java.util.List;
 
+/**
+ * Keeps the simulation supplied with current weather, one fetch per location cell
+ *
+ * The configured site and every fleet site are mapped to weather cells; each refresh
+ * asks the cell cache for every distinct cell without waiting, and hands each
+ * observation to the orchestrator or the fleet as it arrives.
+ */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class WeatherService {
     
     private final SimulatorProperties properties;
-    private final RestTemplate restTemplate;
+    private final WeatherCellCache cache;
     private final SimulationOrchestrator orchestrator;
+    private final FleetSimulator fleetSimulator;
     
-    /**
-     * Fetch weather data every 15 minutes
-     */
-    @Scheduled(fixedRate = 900000) // 15 minutes in milliseconds
-    public void updateWeather() {
-        try {
-            WeatherData weather = fetchCurrentWeather();
-            if (weather != null) {
-                orchestrator.updateWeather(weather);
-            }
-        } catch (Exception e) {
-            log.error("Failed to fetch weather data", e);
-        }
+    public WeatherService(SimulatorProperties properties, WeatherCellCache cache, SimulationOrchestrator orchestrator,
+                          FleetSimulator fleetSimulator, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.cache = cache;
+        this.orchestrator = orchestrator;
+        this.fleetSimulator = fleetSimulator;
+        
+        FunctionCounter.builder("helios.weather.fetches", cache, WeatherCellCache::getFetchCount)
+                .description("Weather requests sent to the provider")
+                .register(meterRegistry);
+        FunctionCounter.builder("helios.weather.coalesced", cache, WeatherCellCache::getCoalescedCount)
+                .description("Weather requests that joined a fetch already in flight")
+                .register(meterRegistry);
+        FunctionCounter.builder("helios.weather.failures", cache, WeatherCellCache::getFailureCount)
+                .description("Weather fetches that failed")
+                .register(meterRegistry);
     }
     
     /**
-     * Fetch current weather from OpenWeatherMap API
+     * Refresh the weather of the site and of every fleet weather cell
      */
-    @Cacheable(value = "weather", unless = "#result == null")
-    public WeatherData fetchCurrentWeather() {
+    @Scheduled(fixedRateString = "${simulator.weather.refresh-interval-ms}")
+    public void updateWeather() {
         var location = properties.getLocation();
-        var weatherConfig = properties.getWeather();
-        
-        if ("demo".equals(weatherConfig.getApiKey())) {
-            log.warn("Using demo weather data - set WEATHER_API_KEY environment variable for real data");
-            return createDemoWeatherData();
-        }
-        
-        String url = String.format(
-            "%s/weather?lat=%f&lon=%f&appid=%s&units=metric",
-            weatherConfig.getBaseUrl(),
-            location.getLatitude(),
-            location.getLongitude(),
-            weatherConfig.getApiKey()
-        );
+        GeoCell siteCell = GeoCell.of(location.getLatitude(), location.getLongitude(),
+            properties.getWeather().getCellDegrees());
+        cache.weather(siteCell).whenComplete((weather, error) -> {
+            if (error != null) {
+                log.error("Failed to fetch weather data", error);
+            } else {
+                orchestrator.updateWeather(weather);
+            }
+        });
         
-        try {
-            OpenWeatherMapResponse response = restTemplate.getForObject(url, OpenWeatherMapResponse.class);
-            return convertToWeatherData(response);
-        } catch (Exception e) {
-            log.error("Error fetching weather from OpenWeatherMap", e);
-            return createDemoWeatherData();
+        List<GeoCell> fleetCells = fleetSimulator.getWeatherCells();
+        for (int i = 0; i < fleetCells.size(); i++) {
+            int weatherCell = i;
+            cache.weather(fleetCells.get(i)).whenComplete((weather, error) -> {
+                if (error == null) {
+                    fleetSimulator.updateWeather(weatherCell, weather);
+                }
+            });
         }
-    }
-    
-    /**
-     * Convert OpenWeatherMap response to our WeatherData DTO
-     */
-    private WeatherData convertToWeatherData(OpenWeatherMapResponse response) {
-        if (response == null) {
-            return null;
+        if (!fleetCells.isEmpty()) {
+            log.debug("Weather refresh for {} fleet cells from {} ({} fetches, {} coalesced, {} failed so far)",
+                fleetCells.size(), cache.getProviderName(), cache.getFetchCount(), cache.getCoalescedCount(),
+                cache.getFailureCount());
         }
-        
-        return WeatherData.builder()
-                .timestamp(Instant.now())
-                .temperatureC(response.getMain().getTemp())
-                .cloudCoverPercent(response.getClouds().getAll())
-                .humidityPercent(response.getMain().getHumidity())
-                .windSpeedMs(response.getWind().getSpeed())
-                .description(response.getWeather().get(0).getDescription())
-                .sunrise(Instant.ofEpochSecond(response.getSys().getSunrise()))
-                .sunset(Instant.ofEpochSecond(response.getSys().getSunset()))
-                .build();
-    }
-    
-    /**
-     * Create demo weather data for testing without API key
-     */
-    private WeatherData createDemoWeatherData() {
-        // Simulate realistic weather based on time of day
-        var now = Instant.now();
-        int hour = java.time.ZonedDateTime.ofInstant(now, java.time.ZoneId.systemDefault()).getHour();
-        
-        // Temperature varies throughout the day
-        double baseTemp = 20.0;
-        double tempVariation = 5.0 * Math.sin((hour - 6) * Math.PI / 12.0);
-        double temperature = baseTemp + tempVariation;
-        
-        // Some cloud cover
-        double cloudCover = 25.0;
-        
-        // Default sunrise/sunset (6 AM / 6 PM)
-        var zonedNow = java.time.ZonedDateTime.ofInstant(now, java.time.ZoneId.systemDefault());
-        var sunrise = zonedNow.withHour(6).withMinute(0).withSecond(0).toInstant();
-        var sunset = zonedNow.withHour(18).withMinute(0).withSecond(0).toInstant();
-        
-        return WeatherData.builder()
-                .timestamp(now)
-                .temperatureC(temperature)
-                .cloudCoverPercent(cloudCover)
-                .humidityPercent(60.0)
-                .windSpeedMs(3.5)
-                .description("Demo weather data")
-                .sunrise(sunrise)
-                .sunset(sunset)
-                .build();
     }
-}
\ No newline at end of file
+}
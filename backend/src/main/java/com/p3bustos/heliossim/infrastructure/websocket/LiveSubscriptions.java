@@ -0,0 +1,191 @@
+package com.p3bustos.heliossim.infrastructure.websocket;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.messaging.support.NativeMessageHeaderAccessor;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Dashboard sessions and their telemetry subscriptions
+ *
+ * Kept up to date from the STOMP inbound channel (SUBSCRIBE, UNSUBSCRIBE, DISCONNECT).
+ * The outbound channel reports when a live update has been handed to the socket, which
+ * gives every session a count of pending messages to conflate against.
+ */
+@Slf4j
+public class LiveSubscriptions {
+
+    public static final String DESTINATION_PREFIX = "/topic/sites/";
+    public static final String MAX_RATE_HEADER = "max-rate";
+
+    /**
+     * Marks messages sent by {@link LiveTelemetryHub}; not written to the client
+     */
+    static final String LIVE_UPDATE_HEADER = "heliosLiveUpdate";
+
+    private final long minPeriodNanos;
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriptionCount = new AtomicInteger();
+
+    /**
+     * @param maxRateHz Highest update rate per site any subscriber can ask for
+     */
+    public LiveSubscriptions(double maxRateHz) {
+        this.minPeriodNanos = periodNanos(maxRateHz);
+    }
+
+    public ChannelInterceptor inboundInterceptor() {
+        return new ChannelInterceptor() {
+            @Override
+            public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                onInbound(message);
+                return message;
+            }
+        };
+    }
+
+    public ChannelInterceptor outboundInterceptor() {
+        return new ExecutorChannelInterceptor() {
+            @Override
+            public void afterMessageHandled(Message<?> message, MessageChannel channel,
+                                            MessageHandler handler, Exception ex) {
+                if (message.getHeaders().containsKey(LIVE_UPDATE_HEADER)) {
+                    delivered(SimpMessageHeaderAccessor.getSessionId(message.getHeaders()));
+                }
+            }
+        };
+    }
+
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    public int getSubscriptionCount() {
+        return subscriptionCount.get();
+    }
+
+    Collection<Session> sessions() {
+        return sessions.values();
+    }
+
+    /**
+     * A live update for the session left the outbound channel
+     */
+    void delivered(String sessionId) {
+        Session session = sessionId != null ? sessions.get(sessionId) : null;
+        if (session != null) {
+            session.pending.decrementAndGet();
+        }
+    }
+
+    private void onInbound(Message<?> message) {
+        Map<String, Object> headers = message.getHeaders();
+        SimpMessageType type = SimpMessageHeaderAccessor.getMessageType(headers);
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(headers);
+        if (type == null || sessionId == null) {
+            return;
+        }
+        switch (type) {
+            case SUBSCRIBE -> {
+                String destination = SimpMessageHeaderAccessor.getDestination(headers);
+                String subscriptionId = SimpMessageHeaderAccessor.getSubscriptionId(headers);
+                if (destination == null || subscriptionId == null || !destination.startsWith(DESTINATION_PREFIX)) {
+                    return;
+                }
+                String maxRate = NativeMessageHeaderAccessor.getFirstNativeHeader(MAX_RATE_HEADER, headers);
+                subscribe(sessionId, subscriptionId, destination, maxRate);
+            }
+            case UNSUBSCRIBE -> {
+                Session session = sessions.get(sessionId);
+                String subscriptionId = SimpMessageHeaderAccessor.getSubscriptionId(headers);
+                if (session != null && subscriptionId != null && session.subscriptions.remove(subscriptionId) != null) {
+                    subscriptionCount.decrementAndGet();
+                }
+            }
+            case DISCONNECT -> {
+                Session session = sessions.remove(sessionId);
+                if (session != null) {
+                    subscriptionCount.addAndGet(-session.subscriptions.size());
+                }
+            }
+            default -> {
+            }
+        }
+    }
+
+    private void subscribe(String sessionId, String subscriptionId, String destination, String maxRate) {
+        long period = minPeriodNanos;
+        if (maxRate != null) {
+            try {
+                period = Math.max(minPeriodNanos, periodNanos(Double.parseDouble(maxRate)));
+            } catch (NumberFormatException e) {
+                log.debug("Ignoring invalid {} header '{}' on {}", MAX_RATE_HEADER, maxRate, destination);
+            }
+        }
+        String[] patterns = destination.substring(DESTINATION_PREFIX.length()).split(",");
+        Subscription subscription = new Subscription(subscriptionId, destination, patterns, period);
+        Session session = sessions.computeIfAbsent(sessionId, Session::new);
+        if (session.subscriptions.put(subscriptionId, subscription) == null) {
+            subscriptionCount.incrementAndGet();
+        }
+    }
+
+    private static long periodNanos(double rateHz) {
+        return rateHz > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / rateHz) : Long.MAX_VALUE / 4;
+    }
+
+    static final class Session {
+        final String id;
+        final AtomicInteger pending = new AtomicInteger();
+        final Map<String, Subscription> subscriptions = new ConcurrentHashMap<>();
+
+        Session(String id) {
+            this.id = id;
+        }
+    }
+
+    /**
+     * One SUBSCRIBE; everything but the identity is owned by the hub's dispatcher thread
+     */
+    static final class Subscription {
+        final String id;
+        final String destination;
+        final String[] patterns;
+        final long periodNanos;
+
+        long nextDueNanos;
+        int cursor;
+        int resolvedSiteCount = -1;
+        int[] ordinals = new int[0];
+        long[] sentVersions = new long[0];
+
+        Subscription(String id, String destination, String[] patterns, long periodNanos) {
+            this.id = id;
+            this.destination = destination;
+            this.patterns = patterns;
+            this.periodNanos = periodNanos;
+        }
+
+        boolean matches(String siteId) {
+            for (String pattern : patterns) {
+                if (pattern.endsWith("*")
+                    ? siteId.startsWith(pattern.substring(0, pattern.length() - 1))
+                    : siteId.equals(pattern)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package com.p3bustos.heliossim.infrastructure.websocket;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.p3bustos.heliossim.config.SimulatorProperties;
+import com.p3bustos.heliossim.domain.models.SeqLock;
+import com.p3bustos.heliossim.domain.models.TelemetryFrame;
+import com.p3bustos.heliossim.domain.services.TelemetryPublisher;
+import com.p3bustos.heliossim.infrastructure.websocket.LiveSubscriptions.Session;
+import com.p3bustos.heliossim.infrastructure.websocket.LiveSubscriptions.Subscription;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeTypeUtils;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Streams the latest telemetry of each site to STOMP subscribers
+ *
+ * The tick thread only overwrites the site's slot in place (a seqlock, so it never
+ * waits and never allocates). A dispatcher thread wakes at the configured maximum rate
+ * and, for every subscription that is due, sends the sites whose slot changed since
+ * that subscription last saw them. Intermediate values are skipped, so an update is
+ * always the latest one. A site is serialized at most once per change and the same
+ * payload is shared by every subscriber. Sessions with {@code max-pending-per-session}
+ * undelivered messages get nothing more until they drain, and then only the newest
+ * value of each site; memory per slow client is bounded by its subscriptions.
+ */
+@Slf4j
+public class LiveTelemetryHub implements TelemetryPublisher {
+
+    private final LiveSubscriptions subscriptions;
+    private final ObjectMapper objectMapper;
+    private final MessageChannel clientOutboundChannel;
+    private final long passIntervalNanos;
+    private final int maxPendingPerSession;
+
+    private volatile Sites sites = new Sites(new Slot[0], 0);
+
+    // Dispatcher thread only
+    private final TelemetryFrame scratch = new TelemetryFrame();
+
+    private final Counter messages;
+    private final Counter conflated;
+
+    private volatile boolean running;
+    private volatile Thread dispatcher;
+
+    public LiveTelemetryHub(SimulatorProperties.Live config, LiveSubscriptions subscriptions,
+                            ObjectMapper objectMapper, MessageChannel clientOutboundChannel,
+                            MeterRegistry registry) {
+        this.subscriptions = subscriptions;
+        this.objectMapper = objectMapper;
+        this.clientOutboundChannel = clientOutboundChannel;
+        this.passIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / Math.max(config.getMaxRateHz(), 0.001));
+        this.maxPendingPerSession = Math.max(1, config.getMaxPendingPerSession());
+
+        Gauge.builder("helios.live.sessions", subscriptions, LiveSubscriptions::getSessionCount)
+                .description("Connected dashboard sessions with at least one telemetry subscription")
+                .register(registry);
+        Gauge.builder("helios.live.subscriptions", subscriptions, LiveSubscriptions::getSubscriptionCount)
+                .description("Active telemetry subscriptions")
+                .register(registry);
+        this.messages = Counter.builder("helios.live.messages")
+                .description("Telemetry updates handed to dashboard connections")
+                .register(registry);
+        this.conflated = Counter.builder("helios.live.conflated")
+                .description("Updates held back because the connection had too many pending messages")
+                .register(registry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        Thread thread = new Thread(this::run, "live-telemetry");
+        thread.setDaemon(true);
+        dispatcher = thread;
+        thread.start();
+        log.info("Live telemetry streaming every {} ms, at most {} pending messages per session",
+            TimeUnit.NANOSECONDS.toMillis(passIntervalNanos), maxPendingPerSession);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        Thread thread = dispatcher;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join(Duration.ofSeconds(5).toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Overwrite the latest value of the frame's site
+     */
+    @Override
+    public void publish(TelemetryFrame frame) {
+        int ordinal = frame.getSiteOrdinal();
+        Slot[] current = sites.slots();
+        Slot slot = ordinal < current.length ? current[ordinal] : null;
+        if (slot == null) {
+            slot = addSlot(ordinal, frame.getSiteId());
+        }
+        slot.write(frame);
+    }
+
+    /**
+     * Run one delivery pass; normally called by the dispatcher thread
+     */
+    public void dispatch(long nowNanos) {
+        Sites current = sites;
+        for (Session session : subscriptions.sessions()) {
+            for (Subscription subscription : session.subscriptions.values()) {
+                if (nowNanos - subscription.nextDueNanos < 0) {
+                    continue;
+                }
+                subscription.nextDueNanos = nowNanos + subscription.periodNanos;
+                resolve(subscription, current);
+                deliver(session, subscription, current.slots());
+            }
+        }
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                dispatch(System.nanoTime());
+            } catch (RuntimeException e) {
+                log.error("Live telemetry dispatch error", e);
+            }
+            LockSupport.parkNanos(passIntervalNanos);
+        }
+    }
+
+    private void deliver(Session session, Subscription subscription, Slot[] current) {
+        int[] ordinals = subscription.ordinals;
+        long[] sentVersions = subscription.sentVersions;
+        int count = ordinals.length;
+        // Resume where a backlogged pass stopped so every site gets its turn
+        int start = subscription.cursor < count ? subscription.cursor : 0;
+        for (int n = 0; n < count; n++) {
+            int k = start + n < count ? start + n : start + n - count;
+            Slot slot = current[ordinals[k]];
+            long version = slot.version();
+            if (version == 0 || version == sentVersions[k]) {
+                continue;
+            }
+            if (session.pending.get() >= maxPendingPerSession) {
+                // Left unsent; the next pass picks up whatever is newest by then
+                subscription.cursor = k;
+                conflated.increment();
+                return;
+            }
+            byte[] payload = payload(slot);
+            if (payload != null && send(session, subscription, slot, payload)) {
+                sentVersions[k] = slot.encodedVersion;
+            }
+        }
+        subscription.cursor = 0;
+    }
+
+    /**
+     * Serialized latest value of the slot, encoded once per change and shared by all subscribers
+     */
+    private byte[] payload(Slot slot) {
+        if (slot.encodedVersion != slot.version()) {
+            long version = slot.read(scratch);
+            try {
+                slot.encoded = objectMapper.writeValueAsBytes(scratch.toPowerTelemetry());
+                slot.encodedVersion = version;
+            } catch (JsonProcessingException e) {
+                log.error("Failed to serialize live telemetry for {}", slot.siteId, e);
+                return null;
+            }
+        }
+        return slot.encoded;
+    }
+
+    private boolean send(Session session, Subscription subscription, Slot slot, byte[] payload) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId(session.id);
+        accessor.setSubscriptionId(subscription.id);
+        accessor.setDestination(LiveSubscriptions.DESTINATION_PREFIX + slot.siteId);
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        accessor.setHeader(LiveSubscriptions.LIVE_UPDATE_HEADER, Boolean.TRUE);
+        // The ordered outbound decorator attaches its completion callback to the headers
+        accessor.setLeaveMutable(true);
+        Message<byte[]> message = MessageBuilder.createMessage(payload, accessor.getMessageHeaders());
+
+        session.pending.incrementAndGet();
+        try {
+            if (clientOutboundChannel.send(message)) {
+                messages.increment();
+                return true;
+            }
+        } catch (RuntimeException e) {
+            log.debug("Live telemetry send to session {} failed: {}", session.id, e.getMessage());
+        }
+        session.pending.decrementAndGet();
+        return false;
+    }
+
+    /**
+     * Match the subscription's patterns against known sites again when new sites appeared
+     */
+    private void resolve(Subscription subscription, Sites current) {
+        int count = current.count();
+        if (subscription.resolvedSiteCount == count) {
+            return;
+        }
+        // The tick thread may fill further slots of the same array meanwhile; they are counted next time
+        Slot[] slots = current.slots();
+        int[] ordinals = new int[slots.length];
+        long[] sentVersions = new long[slots.length];
+        int matched = 0;
+        for (int ordinal = 0; ordinal < slots.length; ordinal++) {
+            Slot slot = slots[ordinal];
+            if (slot != null && slot.siteId != null && subscription.matches(slot.siteId)) {
+                ordinals[matched] = ordinal;
+                sentVersions[matched] = sentVersion(subscription, ordinal);
+                matched++;
+            }
+        }
+        subscription.ordinals = Arrays.copyOf(ordinals, matched);
+        subscription.sentVersions = Arrays.copyOf(sentVersions, matched);
+        subscription.resolvedSiteCount = count;
+    }
+
+    private static long sentVersion(Subscription subscription, int ordinal) {
+        int index = Arrays.binarySearch(subscription.ordinals, ordinal);
+        return index >= 0 ? subscription.sentVersions[index] : 0;
+    }
+
+    private synchronized Slot addSlot(int ordinal, String siteId) {
+        Sites known = sites;
+        Slot[] current = known.slots();
+        if (ordinal >= current.length) {
+            current = Arrays.copyOf(current, Math.max(ordinal + 1, current.length * 2));
+        }
+        if (current[ordinal] == null) {
+            current[ordinal] = new Slot(siteId);
+            sites = new Sites(current, known.count() + 1);
+        }
+        return current[ordinal];
+    }
+
+    /**
+     * Slot array and how many sites it held when published, read together so a
+     * subscription is never resolved against one array and stamped with another's count
+     */
+    private record Sites(Slot[] slots, int count) {
+    }
+
+    /**
+     * Latest frame of one site behind a {@link SeqLock}: one writer, readers retry on a torn read
+     */
+    private static final class Slot {
+        final String siteId;
+        final TelemetryFrame frame = new TelemetryFrame();
+        final SeqLock lock = new SeqLock();
+
+        // Dispatcher thread only
+        byte[] encoded;
+        long encodedVersion;
+
+        Slot(String siteId) {
+            this.siteId = siteId;
+        }
+
+        void write(TelemetryFrame source) {
+            lock.beginWrite();
+            frame.copyFrom(source);
+            lock.endWrite();
+        }
+
+        /**
+         * @return Version of the copied value
+         */
+        long read(TelemetryFrame target) {
+            long stamp;
+            do {
+                stamp = lock.readBegin();
+                target.copyFrom(frame);
+            } while (!lock.validate(stamp));
+            return stamp >>> 1;
+        }
+
+        long version() {
+            return lock.getWrites();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.p3bustos.heliossim;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Polling helper for tests that wait on background threads
+ */
+final class Await {
+
+    private static final long TIMEOUT_SECONDS = 10;
+
+    private Await() {
+    }
+
+    /**
+     * Poll until the condition holds, failing the test after 10 s
+     */
+    static void awaitTrue(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condition not met within " + TIMEOUT_SECONDS + " s");
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.p3bustos.heliossim;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.p3bustos.heliossim.domain.models.TelemetryFrame;
+import com.p3bustos.heliossim.domain.services.BatchSimulationRunner;
+import com.p3bustos.heliossim.dto.BackfillRequest;
+import com.p3bustos.heliossim.dto.BackfillStatus;
+import com.p3bustos.heliossim.infrastructure.backfill.BackfillCheckpoint;
+import com.p3bustos.heliossim.infrastructure.backfill.BackfillService;
+import com.p3bustos.heliossim.infrastructure.fleet.SiteRegistryLoader;
+import com.p3bustos.heliossim.infrastructure.journal.TelemetryJournalReader;
+import com.p3bustos.heliossim.infrastructure.weather.WeatherDataset;
+import com.p3bustos.heliossim.infrastructure.weather.WeatherDataset.Channel;
+import com.p3bustos.heliossim.infrastructure.weather.WeatherDatasetIngester;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "simulator.fleet.registry-file=classpath:fleet/sites-example.csv")
+class BackfillServiceTests {
+
+    private static final Instant START = Instant.parse("2025-06-01T00:00:00Z");
+    private static final Path DIRECTORY = createDirectory();
+
+    @Autowired
+    private BackfillService backfill;
+
+    @Autowired
+    private BatchSimulationRunner batchRunner;
+
+    @Autowired
+    private SiteRegistryLoader registryLoader;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @DynamicPropertySource
+    static void directories(DynamicPropertyRegistry registry) {
+        registry.add("simulator.backfill.checkpoint-directory", () -> DIRECTORY.resolve("checkpoints").toString());
+        registry.add("simulator.backfill.output-directory", () -> DIRECTORY.toString());
+    }
+
+    @Test
+    void writesEverySiteInTimeOrderMatchingTheSimulation() throws Exception {
+        BackfillStatus status = run(BackfillRequest.builder()
+                .jobId("registry")
+                .start(START)
+                .end(START.plus(Duration.ofDays(2)))
+                .resolution("1m")
+                .build());
+
+        assertEquals("completed", status.getState());
+        assertEquals(5 * 2880, status.getFrames());
+        assertEquals(1.0, status.getProgress(), 1e-9);
+
+        Map<String, Double> finalSoc = new HashMap<>();
+        long count = 0;
+        long previous = Long.MIN_VALUE;
+        try (TelemetryJournalReader reader = new TelemetryJournalReader(DIRECTORY.resolve("registry"))) {
+            TelemetryFrame frame = new TelemetryFrame();
+            while (reader.next(frame)) {
+                assertTrue(frame.getEpochMilli() >= previous);
+                previous = frame.getEpochMilli();
+                finalSoc.put(frame.getSiteId(), frame.getSocPercent());
+                count++;
+            }
+        }
+        assertEquals(5 * 2880, count);
+        assertEquals(START.plus(Duration.ofDays(2)).minus(Duration.ofMinutes(1)).toEpochMilli(), previous);
+
+        // Same pipeline as the single-site batch runner, site by site
+        for (var site : registryLoader.load("classpath:fleet/sites-example.csv")) {
+            var report = batchRunner.run(site, START, START.plus(Duration.ofDays(2)), Duration.ofMinutes(1), null);
+            assertEquals(report.getFinalSocPercent(), finalSoc.get(site.getSiteId()), 1e-9);
+        }
+    }
+
+    @Test
+    void resumedJobWritesExactlyWhatAnUninterruptedJobWrites() throws Exception {
+        Path weatherFile = weatherDataset(Duration.ofDays(60));
+        BackfillRequest request = BackfillRequest.builder()
+                .syntheticSites(20)
+                .start(START)
+                .end(START.plus(Duration.ofDays(60)))
+                .resolution("1m")
+                .weatherDataset(weatherFile.toString())
+                .build();
+
+        request.setJobId("interrupted");
+        backfill.start(request);
+        while (backfill.status("interrupted").orElseThrow().getFrames() == 0) {
+            Thread.sleep(1);
+        }
+        BackfillStatus cancelled = backfill.cancel("interrupted").orElseThrow();
+        assertEquals("cancelled", cancelled.getState());
+        assertTrue(cancelled.getProgress() > 0 && cancelled.getProgress() < 1);
+
+        // The checkpoint records how far into the hourly dataset the job got
+        BackfillCheckpoint checkpoint = objectMapper.readValue(
+            DIRECTORY.resolve("checkpoints").resolve("interrupted.json").toFile(), BackfillCheckpoint.class);
+        assertEquals(cancelled.getWrittenUntil().toEpochMilli(), checkpoint.getNextEpochMilli());
+        assertEquals(weatherFile.toAbsolutePath().normalize().toString(), checkpoint.getWeather().getDataset());
+        assertEquals(Duration.between(START, cancelled.getWrittenUntil()).toHours(), checkpoint.getWeather().getNextSample());
+
+        backfill.resume("interrupted");
+        BackfillStatus resumed = backfill.await("interrupted", 60, TimeUnit.SECONDS).orElseThrow();
+        assertEquals("completed", resumed.getState());
+        assertEquals(cancelled.getWrittenUntil(), resumed.getResumedFrom());
+
+        request.setJobId("uninterrupted");
+        BackfillStatus uninterrupted = run(request);
+        assertEquals(uninterrupted.getFrames(), resumed.getFrames());
+
+        WeatherDataset weather = WeatherDataset.open(weatherFile);
+        try (TelemetryJournalReader expected = new TelemetryJournalReader(DIRECTORY.resolve("uninterrupted"));
+             TelemetryJournalReader actual = new TelemetryJournalReader(DIRECTORY.resolve("interrupted"))) {
+            TelemetryFrame expectedFrame = new TelemetryFrame();
+            TelemetryFrame actualFrame = new TelemetryFrame();
+            long frames = 0;
+            while (expected.next(expectedFrame)) {
+                assertTrue(actual.next(actualFrame));
+                assertEquals(expectedFrame, actualFrame);
+                // Irradiance comes straight from the dataset's GHI, so both runs followed the weather
+                assertEquals(weather.value(Channel.GHI_W_M2, expectedFrame.getEpochMilli()), expectedFrame.getIrradianceWM2(), 1e-3);
+                frames++;
+            }
+            assertFalse(actual.next(actualFrame));
+            assertEquals(20L * 60 * 1440, frames);
+        }
+        assertThrows(IllegalStateException.class, () -> backfill.resume("interrupted"));
+    }
+
+    @Test
+    void rejectsInvalidRequests() {
+        var range = BackfillRequest.builder().start(START).end(START.plusSeconds(3600));
+        assertThrows(IllegalArgumentException.class, () -> backfill.start(range.sites(List.of("nope")).build()));
+        assertThrows(IllegalArgumentException.class, () -> backfill.start(range.sites(null).resolution("0s").build()));
+        assertThrows(IllegalArgumentException.class, () -> backfill.start(range.resolution(null).target("kafka").build()));
+        assertThrows(IllegalArgumentException.class, () -> backfill.start(range.target("mqtt").build()));
+        assertThrows(IllegalArgumentException.class, () -> backfill.start(range.target("jdbc").build()));
+        assertThrows(IllegalArgumentException.class, () -> backfill.start(BackfillRequest.builder()
+                .start(START).end(START).build()));
+        assertThrows(NoSuchElementException.class, () -> backfill.resume("never-started"));
+    }
+
+    @Test
+    void rejectsAnUnreadableWeatherDataset() {
+        assertThrows(IllegalArgumentException.class, () -> backfill.start(BackfillRequest.builder()
+                .start(START).end(START.plusSeconds(3600))
+                .weatherDataset(DIRECTORY.resolve("missing.hwd").toString())
+                .build()));
+    }
+
+    /**
+     * Hourly weather from {@link #START} with clouds that come and go
+     */
+    private static Path weatherDataset(Duration length) throws IOException {
+        StringBuilder csv = new StringBuilder("time,temperature_c,cloud_cover,ghi\n");
+        SplittableRandom random = new SplittableRandom(7);
+        for (long hour = 0; hour <= length.toHours(); hour++) {
+            double sun = Math.max(0, Math.sin(Math.PI * ((hour % 24) - 6) / 12.0));
+            double cloud = random.nextInt(0, 100);
+            csv.append(START.plus(Duration.ofHours(hour))).append(',')
+                .append(15 + 10 * sun).append(',')
+                .append(cloud).append(',')
+                .append(1000 * sun * (1 - 0.75 * cloud / 100)).append('\n');
+        }
+        Path file = DIRECTORY.resolve("weather.csv");
+        Files.writeString(file, csv);
+        Path dataset = DIRECTORY.resolve("weather.hwd");
+        WeatherDatasetIngester.ingest(file, dataset, ZoneOffset.UTC, false, 28.5, -81.4);
+        return dataset;
+    }
+
+    private BackfillStatus run(BackfillRequest request) throws InterruptedException {
+        backfill.start(request);
+        return backfill.await(request.getJobId(), 60, TimeUnit.SECONDS).orElseThrow();
+    }
+
+    private static Path createDirectory() {
+        try {
+            Path directory = Files.createTempDirectory("backfill-tests");
+            directory.toFile().deleteOnExit();
+            return directory;
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
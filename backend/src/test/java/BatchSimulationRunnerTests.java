@@ -0,0 +1,82 @@
+package com.p3bustos.heliossim;
+
+import com.p3bustos.heliossim.config.SimulatorProperties;
+import com.p3bustos.heliossim.domain.models.SimulatedClock;
+import com.p3bustos.heliossim.domain.services.BatchSimulationRunner;
+import com.p3bustos.heliossim.infrastructure.fleet.SiteRegistryLoader;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class BatchSimulationRunnerTests {
+
+    @Autowired
+    private SimulatorProperties properties;
+
+    @Autowired
+    private SiteRegistryLoader registryLoader;
+
+    @Autowired
+    private BatchSimulationRunner batchRunner;
+
+    @Test
+    void batchDatesBindFromConfiguration() {
+        assertEquals(LocalDate.of(2025, 1, 1), properties.getBatch().getStartDate());
+        assertEquals(Duration.ofSeconds(1), properties.getBatch().getStep());
+    }
+
+    @Test
+    void subMillisecondStepsAreRejected() {
+        var start = Instant.parse("2025-06-21T04:00:00Z");
+        var end = start.plusSeconds(1);
+        assertThrows(IllegalArgumentException.class,
+            () -> new SimulatedClock(start, end, Duration.ofNanos(999_999), ZoneOffset.UTC));
+        assertThrows(IllegalArgumentException.class,
+            () -> new SimulatedClock(start, end, Duration.ZERO, ZoneOffset.UTC));
+        assertEquals(0.001, new SimulatedClock(start, end, Duration.ofMillis(1), ZoneOffset.UTC).getStepSeconds());
+    }
+
+    @Test
+    void oneDayRunBalancesEnergy() {
+        var site = registryLoader.defaultSite("batch-site");
+        var start = Instant.parse("2025-06-21T04:00:00Z");
+        var report = batchRunner.run(site, start, start.plus(Duration.ofDays(1)), Duration.ofMinutes(1), null);
+
+        assertEquals(1440, report.getSteps());
+        assertEquals(86_400.0, report.getSimulatedSeconds(), 0.001);
+        assertTrue(report.getSolarKwh() > 0);
+        assertTrue(report.getFinalSocPercent() >= site.getMinSocPercent());
+        assertTrue(report.getFinalSocPercent() <= site.getMaxSocPercent());
+
+        // Load is served by solar, battery or grid; solar goes to load, battery or grid
+        double served = report.getSolarKwh() - report.getBatteryChargeKwh() - report.getGridExportKwh()
+                + report.getBatteryDischargeKwh() + report.getGridImportKwh();
+        assertEquals(report.getLoadKwh(), served, 0.05);
+    }
+
+    @Test
+    void weatherSeriesIsSampledAtEveryStep() {
+        var site = registryLoader.defaultSite("batch-site");
+        var start = Instant.parse("2025-06-21T04:00:00Z");
+        var noon = start.plus(Duration.ofHours(13)).toEpochMilli();
+        // Measured irradiance replaces the clear-sky model: 800 W/m² for the hour after 17:00 UTC, dark otherwise
+        var report = batchRunner.runWithWeatherSeries(site, start, start.plus(Duration.ofDays(1)), Duration.ofMinutes(1),
+            (epochMilli, into) -> {
+                into.setTemperatureC(25.0);
+                into.setGhiWM2(epochMilli >= noon && epochMilli < noon + 3_600_000 ? 800.0 : 0.0);
+                return into;
+            });
+
+        double clearSkySolarKwh = batchRunner.run(site, start, start.plus(Duration.ofDays(1)), Duration.ofMinutes(1), null).getSolarKwh();
+        assertTrue(report.getSolarKwh() > 0);
+        assertTrue(report.getSolarKwh() < clearSkySolarKwh / 3, "Only one hour should produce");
+    }
+}
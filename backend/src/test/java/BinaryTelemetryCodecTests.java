@@ -0,0 +1,160 @@
+package com.p3bustos.heliossim;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.p3bustos.heliossim.domain.models.TelemetryFrame;
+import com.p3bustos.heliossim.infrastructure.codec.BinaryTelemetryDecoder;
+import com.p3bustos.heliossim.infrastructure.codec.BinaryTelemetryEncoder;
+import com.p3bustos.heliossim.infrastructure.codec.JsonTelemetryEncoder;
+import com.p3bustos.heliossim.infrastructure.codec.TelemetryPayloadEncoder;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryTelemetryCodecTests {
+
+    private static final long T0 = 1_718_000_000_000L;
+
+    @Test
+    void roundTripsWithinQuantization() {
+        var encoder = new BinaryTelemetryEncoder(true, 10);
+        var decoder = new BinaryTelemetryDecoder();
+        var decoded = new TelemetryFrame();
+
+        for (int i = 0; i < 25; i++) {
+            TelemetryFrame frame = frame(3, "site-3", T0 + i * 5_000L, i);
+            assertTrue(decoder.decode(encode(encoder, frame), decoded));
+
+            assertEquals(3, decoded.getSiteOrdinal());
+            assertEquals("site-3", decoded.getSiteId());
+            assertEquals(frame.getEpochMilli(), decoded.getEpochMilli());
+            assertEquals(frame.getSolarProductionKw(), decoded.getSolarProductionKw(), 0.0005);
+            assertEquals(frame.getIrradianceWM2(), decoded.getIrradianceWM2(), 0.05);
+            assertEquals(frame.getPanelTempC(), decoded.getPanelTempC(), 0.005);
+            assertEquals(frame.getSocPercent(), decoded.getSocPercent(), 0.005);
+            assertEquals(frame.getBatteryPowerKw(), decoded.getBatteryPowerKw(), 0.0005);
+            assertEquals(frame.getBatteryCurrentA(), decoded.getBatteryCurrentA(), 0.0005);
+            assertEquals(frame.getGridPowerKw(), decoded.getGridPowerKw(), 0.0005);
+            assertEquals(frame.getSolarToBatteryKw(), decoded.getSolarToBatteryKw(), 0.0005);
+        }
+    }
+
+    @Test
+    void deltaFramesAreSmallerThanKeyframesAndJson() {
+        var encoder = new BinaryTelemetryEncoder(true, 60);
+        int keyframe = encode(encoder, frame(0, "site-0", T0, 0)).remaining();
+        int delta = encode(encoder, frame(0, "site-0", T0 + 5_000, 1)).remaining();
+        int json = encode(new JsonTelemetryEncoder(new ObjectMapper().registerModule(new JavaTimeModule())),
+            frame(0, "site-0", T0, 0)).remaining();
+
+        assertTrue(delta < keyframe, "delta " + delta + " B, keyframe " + keyframe + " B");
+        assertTrue(keyframe * 5 < json, "keyframe " + keyframe + " B, json " + json + " B");
+    }
+
+    @Test
+    void lostDeltaResyncsOnNextKeyframe() {
+        var encoder = new BinaryTelemetryEncoder(true, 3);
+        var decoder = new BinaryTelemetryDecoder();
+        var decoded = new TelemetryFrame();
+
+        assertTrue(decoder.decode(encode(encoder, frame(0, "a", T0, 0)), decoded));
+        encode(encoder, frame(0, "a", T0 + 1, 1)); // lost in transit
+        assertFalse(decoder.decode(encode(encoder, frame(0, "a", T0 + 2, 2)), decoded));
+        assertFalse(decoder.decode(encode(encoder, frame(0, "a", T0 + 3, 3)), decoded));
+
+        // Fourth frame after the keyframe is a keyframe again
+        assertTrue(decoder.decode(encode(encoder, frame(0, "a", T0 + 4, 4)), decoded));
+        assertEquals(T0 + 4, decoded.getEpochMilli());
+        assertTrue(decoder.decode(encode(encoder, frame(0, "a", T0 + 5, 5)), decoded));
+        assertEquals(frame(0, "a", T0 + 5, 5).getSocPercent(), decoded.getSocPercent(), 0.005);
+    }
+
+    @Test
+    void skipsUnknownFieldsAndRejectsUnknownVersions() {
+        // Keyframe for ordinal 1 with SOC (field 3) = 5000 and an unknown field 20 = 7
+        ByteBuffer future = ByteBuffer.allocate(64)
+            .put((byte) 0x48).put((byte) 1).put((byte) 1).put((byte) 0)
+            .put((byte) 1)
+            .put((byte) 1).put((byte) 'x')
+            .putLong(T0);
+        long mask = (1L << 3) | (1L << 20);
+        future.put((byte) ((mask & 0x7F) | 0x80)).put((byte) (((mask >>> 7) & 0x7F) | 0x80)).put((byte) (mask >>> 14));
+        future.put((byte) 0x90).put((byte) 0x4E); // 5000 (50.00 %)
+        future.put((byte) 14); // 7
+        future.flip();
+
+        var decoded = new TelemetryFrame();
+        assertTrue(new BinaryTelemetryDecoder().decode(future, decoded));
+        assertEquals("x", decoded.getSiteId());
+        assertEquals(50.0, decoded.getSocPercent(), 1e-9);
+        assertFalse(future.hasRemaining());
+
+        ByteBuffer v2 = ByteBuffer.wrap(new byte[] {0x48, 2, 1, 0, 0});
+        assertThrows(IllegalArgumentException.class, () -> new BinaryTelemetryDecoder().decode(v2, decoded));
+    }
+
+    @Test
+    void rejectsNegativeSiteOrdinals() {
+        // Keyframe header whose ordinal varint decodes to -1
+        ByteBuffer negative = ByteBuffer.allocate(16).put((byte) 0x48).put((byte) 1).put((byte) 1).put((byte) 0);
+        for (int i = 0; i < 9; i++) {
+            negative.put((byte) 0xFF);
+        }
+        negative.put((byte) 0x01).flip();
+
+        assertThrows(IllegalArgumentException.class, () -> new BinaryTelemetryDecoder().decode(negative, new TelemetryFrame()));
+    }
+
+    @Test
+    void rejectsSiteIdLengthsBeyondTheLimitOrThePayload() {
+        // A length of 2^31 would otherwise be allocated before reading
+        assertInvalidSiteIdLength(new byte[] {(byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0x08}, 0);
+        // Varint of -1
+        assertInvalidSiteIdLength(new byte[] {-1, -1, -1, -1, -1, -1, -1, -1, -1, 0x01}, 0);
+        // 256 bytes is one more than any encoder writes, even when the payload holds them
+        assertInvalidSiteIdLength(new byte[] {(byte) 0x80, 0x02}, 300);
+        // 10 bytes announced, 3 present
+        assertInvalidSiteIdLength(new byte[] {10}, 3);
+    }
+
+    private static void assertInvalidSiteIdLength(byte[] lengthVarint, int trailingBytes) {
+        // Keyframe header for ordinal 1, then the site id length
+        ByteBuffer payload = ByteBuffer.allocate(16 + trailingBytes)
+            .put((byte) 0x48).put((byte) 1).put((byte) 1).put((byte) 0)
+            .put((byte) 1)
+            .put(lengthVarint);
+        payload.position(payload.position() + trailingBytes).flip();
+
+        var error = assertThrows(IllegalArgumentException.class,
+            () -> new BinaryTelemetryDecoder().decode(payload, new TelemetryFrame()));
+        assertTrue(error.getMessage().contains("site id length"), error.getMessage());
+    }
+
+    private static ByteBuffer encode(TelemetryPayloadEncoder encoder, TelemetryFrame frame) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(encoder.maxFrameBytes());
+        encoder.encode(frame, buffer);
+        return buffer.flip();
+    }
+
+    private static TelemetryFrame frame(int ordinal, String siteId, long epochMilli, int step) {
+        var frame = new TelemetryFrame();
+        frame.setSiteOrdinal(ordinal);
+        frame.setSiteId(siteId);
+        frame.setEpochMilli(epochMilli);
+        frame.setSolarProductionKw(3.2 + step * 0.0131);
+        frame.setIrradianceWM2(612.4 + step * 1.7);
+        frame.setPanelTempC(38.25);
+        frame.setSocPercent(64.5 + step * 0.12);
+        frame.setBatteryPowerKw(1.25);
+        frame.setBatteryVoltageV(51.2);
+        frame.setBatteryCurrentA(24.414);
+        frame.setLoadConsumptionKw(1.95);
+        frame.setGridPowerKw(0);
+        frame.setSolarToLoadKw(1.95);
+        frame.setSolarToBatteryKw(1.25);
+        frame.setBatteryToLoadKw(0);
+        return frame;
+    }
+}
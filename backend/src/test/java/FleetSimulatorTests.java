@@ -0,0 +1,221 @@
+package com.p3bustos.heliossim;
+
+import com.p3bustos.heliossim.domain.models.FleetState;
+import com.p3bustos.heliossim.domain.models.GeoCell;
+import com.p3bustos.heliossim.domain.models.SiteDefinition;
+import com.p3bustos.heliossim.domain.services.EnergyFlowManager;
+import com.p3bustos.heliossim.domain.services.FleetSimulator;
+import com.p3bustos.heliossim.domain.services.SolarSimulator;
+import com.p3bustos.heliossim.dto.WeatherData;
+import com.p3bustos.heliossim.infrastructure.fleet.SiteRegistryLoader;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Instant;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "simulator.fleet.registry-file=classpath:fleet/sites-example.csv")
+class FleetSimulatorTests {
+
+    @Autowired
+    private FleetSimulator fleetSimulator;
+
+    @Autowired
+    private SolarSimulator solarSimulator;
+
+    @Autowired
+    private SiteRegistryLoader registryLoader;
+
+    @Test
+    void registryLoadsWithDefaults() {
+        assertTrue(fleetSimulator.isEnabled());
+        assertEquals(5, fleetSimulator.getSiteCount());
+        var state = fleetSimulator.getState();
+        assertEquals("home-004", state.getSiteIds()[3]);
+
+        // Blank battery capacity and SOC fall back to simulator.system.battery
+        assertEquals(13.5, state.getBatteryCapacityKwh()[3], 0.001);
+        assertEquals(50.0, state.getSocPercent()[3], 0.5);
+        assertEquals(9.0, state.getSolarCapacityKw()[3], 0.001);
+    }
+
+    @Test
+    void tickAdvancesEverySite() {
+        // Mid-day in Florida, early morning on the west coast
+        var balance = fleetSimulator.tick(Instant.parse("2025-06-21T17:00:00Z"), 5.0, null);
+
+        assertTrue(balance.getSolarProductionKw() > 0, "Fleet should produce solar");
+        assertTrue(balance.getLoadConsumptionKw() > 0, "Fleet should consume load");
+        for (double consumption : fleetSimulator.getState().getConsumptionKw()) {
+            assertTrue(consumption > 0);
+        }
+    }
+
+    @Test
+    void columnKernelsMatchObjectModel() {
+        var site = SiteDefinition.builder()
+                .siteId("parity").timezone("UTC")
+                .solarCapacityKw(8.0).panelEfficiency(0.2).inverterEfficiency(0.96).temperatureCoefficient(-0.004)
+                .batteryCapacityKwh(10.0).maxChargeRateKw(4.0).maxDischargeRateKw(4.0)
+                .initialSocPercent(50.0).minSocPercent(10.0).maxSocPercent(95.0).roundTripEfficiency(0.9)
+                .baselineKw(1.0).peakMorningKw(3.0).peakEveningKw(5.0).morningPeakHour(7).eveningPeakHour(19)
+                .build();
+        var state = new FleetState(List.of(site));
+        var solar = site.toSolarSystem();
+        var battery = site.toBatterySystem();
+        var load = site.toLoadProfile();
+
+        state.calculateProduction(0, 1, new double[] {650.0}, new double[] {31.0});
+        assertEquals(solar.calculateProduction(650.0, 31.0), state.getProductionKw()[0], 1e-9);
+        assertEquals(solar.getCurrentPanelTempC(), state.getPanelTempC()[0], 1e-9);
+
+        state.calculateLoad(0, 1, new int[] {18});
+        assertEquals(load.calculateLoad(LocalTime.of(18, 0)), state.getConsumptionKw()[0], 1e-9);
+
+        for (int step = 0; step < 500; step++) {
+            assertEquals(battery.charge(3.0, 60.0), state.charge(0, 3.0, 60.0), 1e-9);
+            assertEquals(battery.getSocPercent(), state.getSocPercent()[0], 1e-9);
+        }
+        for (int step = 0; step < 500; step++) {
+            assertEquals(battery.discharge(5.0, 60.0), state.discharge(0, 5.0, 60.0), 1e-9);
+            assertEquals(battery.getSocPercent(), state.getSocPercent()[0], 1e-9);
+        }
+    }
+
+    @Test
+    void balancedDispatchMatchesObjectModel() {
+        var site = SiteDefinition.builder()
+                .siteId("balanced").timezone("UTC")
+                .solarCapacityKw(8.0).panelEfficiency(0.2).inverterEfficiency(0.96).temperatureCoefficient(-0.004)
+                .batteryCapacityKwh(10.0).maxChargeRateKw(4.0).maxDischargeRateKw(4.0)
+                .initialSocPercent(50.0).minSocPercent(10.0).maxSocPercent(95.0).roundTripEfficiency(0.9)
+                .baselineKw(1.0).peakMorningKw(3.0).peakEveningKw(5.0).morningPeakHour(7).eveningPeakHour(19)
+                .build();
+        var state = new FleetState(List.of(site));
+        var battery = site.toBatterySystem();
+        var energyFlow = new EnergyFlowManager(null);
+
+        // Discharging first, then solar exactly meeting load
+        double[][] steps = {{1.0, 3.0}, {2.5, 2.5}, {4.0, 1.0}, {2.0, 2.0}};
+        for (double[] step : steps) {
+            state.getProductionKw()[0] = step[0];
+            state.getConsumptionKw()[0] = step[1];
+            state.dispatch(0, 1, 60.0);
+            var balance = energyFlow.calculateEnergyFlow(battery, step[0], step[1], 60.0);
+
+            assertEquals(battery.getCurrentPowerKw(), state.getBatteryPowerKw()[0], 1e-9);
+            assertEquals(battery.getSocPercent(), state.getSocPercent()[0], 1e-9);
+            assertEquals(balance.getGridPowerKw(), state.getGridPowerKw()[0], 1e-9);
+            assertEquals(balance.getSolarToLoadKw(), state.getSolarToLoadKw()[0], 1e-9);
+        }
+        assertNotEquals(0.0, state.getBatteryPowerKw()[0]);
+    }
+
+    @Test
+    void parallelShardsMatchSequentialTick() {
+        var sites = registryLoader.synthetic(10_000, 7L);
+        var sequential = new FleetSimulator(solarSimulator, 1, 10_000);
+        var parallel = new FleetSimulator(solarSimulator, 4, 512);
+        try {
+            sequential.loadSites(sites);
+            parallel.loadSites(sites);
+            assertEquals(20, parallel.getShardCount());
+
+            Instant now = Instant.parse("2025-06-21T12:00:00Z");
+            for (int t = 0; t < 200; t++) {
+                var expected = sequential.tick(now, 60.0, null);
+                var actual = parallel.tick(now, 60.0, null);
+                assertEquals(expected.getGridPowerKw(), actual.getGridPowerKw(), 1e-6);
+                now = now.plusSeconds(60);
+            }
+            assertArrayEquals(sequential.getState().getSocPercent(), parallel.getState().getSocPercent());
+        } finally {
+            sequential.shutdown();
+            parallel.shutdown();
+        }
+    }
+
+    @Test
+    void adaptiveSteppingMatchesFullTicks() {
+        var sites = registryLoader.synthetic(5_000, 11L);
+        var full = new FleetSimulator(solarSimulator, 1, 256);
+        var adaptive = new FleetSimulator(solarSimulator, 2, 256);
+        try {
+            full.setAdaptiveStepping(false);
+            full.loadSites(sites);
+            adaptive.loadSites(sites);
+
+            long skipped = 0;
+            Instant now = Instant.parse("2025-01-15T00:00:00Z");
+            for (int t = 0; t < 2 * 24 * 60; t++) {
+                if (t == 1500) {
+                    // A weather report wakes every shard
+                    var weather = WeatherData.builder().temperatureC(5.0).cloudCoverPercent(40.0).build();
+                    full.updateWeather(0, weather);
+                    adaptive.updateWeather(0, weather);
+                }
+                var expected = full.tick(now, 60.0, null);
+                var actual = adaptive.tick(now, 60.0, null);
+                assertEquals(expected.getLoadConsumptionKw(), actual.getLoadConsumptionKw());
+                assertEquals(expected.getGridPowerKw(), actual.getGridPowerKw());
+                assertEquals(expected.getBatteryPowerKw(), actual.getBatteryPowerKw());
+                assertEquals(expected.getSolarProductionKw(), actual.getSolarProductionKw());
+                skipped += adaptive.getLastTickSkippedSites();
+                now = now.plusSeconds(60);
+            }
+            assertEquals(0, full.getLastTickSkippedSites());
+            assertTrue(skipped > 0, "Dark shards with empty batteries should be skipped");
+            assertArrayEquals(full.getState().getSocPercent(), adaptive.getState().getSocPercent());
+            assertArrayEquals(full.getState().getPanelTempC(), adaptive.getState().getPanelTempC());
+        } finally {
+            full.shutdown();
+            adaptive.shutdown();
+        }
+    }
+
+    @Test
+    void sitesShareWeatherPerWeatherCell() {
+        // 28.25 is a weather cell boundary (0.25°) inside one clear-sky cell (0.1°)
+        List<SiteDefinition> sites = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            sites.add(site("north-" + i, 28.26 + i * 1e-4, -82.42));
+            sites.add(site("south-" + i, 28.24 - i * 1e-4, -82.42));
+        }
+        var fleet = new FleetSimulator(solarSimulator, 1, 1024);
+        try {
+            fleet.loadSites(sites);
+            List<GeoCell> cells = fleet.getWeatherCells();
+            assertEquals(2, cells.size());
+            for (int c = 0; c < cells.size(); c++) {
+                boolean north = cells.get(c).centreLatitude() > 28.25;
+                fleet.updateWeather(c, WeatherData.builder().temperatureC(25.0).cloudCoverPercent(north ? 100.0 : 0.0).build());
+            }
+
+            fleet.tick(Instant.parse("2025-06-21T17:00:00Z"), 5.0, null);
+            double[] production = fleet.getState().getProductionKw();
+            for (int i = 0; i < sites.size(); i += 2) {
+                assertEquals(production[0], production[i], 1e-9);
+                assertEquals(production[1], production[i + 1], 1e-9);
+            }
+            // Full cloud cover cuts 75% of the irradiance
+            assertTrue(production[0] < production[1] * 0.5, "Overcast cell should produce less");
+        } finally {
+            fleet.shutdown();
+        }
+    }
+
+    private static SiteDefinition site(String siteId, double latitude, double longitude) {
+        return SiteDefinition.builder()
+                .siteId(siteId).latitude(latitude).longitude(longitude).timezone("America/New_York")
+                .solarCapacityKw(8.0).panelEfficiency(0.2).inverterEfficiency(0.96).temperatureCoefficient(-0.004)
+                .batteryCapacityKwh(10.0).maxChargeRateKw(4.0).maxDischargeRateKw(4.0)
+                .initialSocPercent(50.0).minSocPercent(10.0).maxSocPercent(95.0).roundTripEfficiency(0.9)
+                .baselineKw(1.0).peakMorningKw(3.0).peakEveningKw(5.0).morningPeakHour(7).eveningPeakHour(19)
+                .build();
+    }
+}
@@ -0,0 +1,80 @@
+package com.p3bustos.heliossim;
+
+import com.p3bustos.heliossim.domain.models.TelemetryFrame;
+import com.p3bustos.heliossim.domain.services.SimulationOrchestrator;
+import com.p3bustos.heliossim.domain.services.TelemetrySink;
+import com.p3bustos.heliossim.infrastructure.history.TelemetryHistory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+    "simulator.clock.enabled=false",
+    "simulator.fleet.registry-file=classpath:fleet/sites-example.csv",
+    "simulator.history.enabled=true"
+})
+class FleetTelemetryPublishingTests {
+
+    private static final long NOON = 1_750_075_200_000L;
+
+    @Autowired
+    private SimulationOrchestrator orchestrator;
+
+    @Autowired
+    private RecordingSink recorder;
+
+    @Autowired
+    private TelemetryHistory history;
+
+    @Test
+    void everySinkReceivesOneFramePerSitePerTick() {
+        recorder.frames.clear();
+        orchestrator.tick(NOON, 60.0);
+        orchestrator.tick(NOON + 60_000, 60.0);
+
+        assertEquals(10, recorder.frames.size());
+        for (int t = 0; t < 2; t++) {
+            for (int i = 0; i < 5; i++) {
+                TelemetryFrame frame = recorder.frames.get(t * 5 + i);
+                assertEquals(i, frame.getSiteOrdinal());
+                assertEquals("home-00" + (i + 1), frame.getSiteId());
+                assertEquals(NOON + t * 60_000L, frame.getEpochMilli());
+                assertTrue(frame.getSocPercent() > 0, frame.toString());
+            }
+        }
+
+        Instant from = Instant.ofEpochMilli(NOON - 3_600_000);
+        Instant to = Instant.ofEpochMilli(NOON + 3_600_000);
+        for (int i = 1; i <= 5; i++) {
+            assertTrue(history.query("home-00" + i, from, to, 10, null).isPresent(), "No history for home-00" + i);
+        }
+    }
+
+    /**
+     * Keeps a copy of everything published
+     */
+    static class RecordingSink implements TelemetrySink {
+        final List<TelemetryFrame> frames = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void publish(TelemetryFrame frame) {
+            frames.add(new TelemetryFrame().copyFrom(frame));
+        }
+    }
+
+    @TestConfiguration
+    static class RecordingSinkConfig {
+        @Bean
+        RecordingSink recordingSink() {
+            return new RecordingSink();
+        }
+    }
+}
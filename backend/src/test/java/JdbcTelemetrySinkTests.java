@@ -0,0 +1,266 @@
+package com.p3bustos.heliossim;
+
+import com.p3bustos.heliossim.config.SimulatorProperties;
+import com.p3bustos.heliossim.domain.models.TelemetryFrame;
+import com.p3bustos.heliossim.dto.BackfillRequest;
+import com.p3bustos.heliossim.dto.BackfillStatus;
+import com.p3bustos.heliossim.infrastructure.backfill.BackfillService;
+import com.p3bustos.heliossim.infrastructure.jdbc.JdbcTelemetrySink;
+import com.p3bustos.heliossim.infrastructure.jdbc.TelemetryTable;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import static com.p3bustos.heliossim.Await.awaitTrue;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+    "simulator.fleet.registry-file=classpath:fleet/sites-example.csv",
+    "simulator.jdbc.enabled=true",
+    "simulator.jdbc.url=jdbc:h2:mem:helios;DB_CLOSE_DELAY=-1",
+    "simulator.jdbc.table=backfill_telemetry",
+    "simulator.jdbc.batch-size=500"
+})
+class JdbcTelemetrySinkTests {
+
+    private static final String URL = "jdbc:h2:mem:helios;DB_CLOSE_DELAY=-1";
+    private static final Instant START = Instant.parse("2025-06-01T00:00:00Z");
+    private static final AtomicInteger TABLES = new AtomicInteger();
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private JdbcTelemetrySink sink;
+
+    @Autowired
+    private BackfillService backfill;
+
+    @DynamicPropertySource
+    static void directories(DynamicPropertyRegistry registry) throws IOException {
+        Path directory = Files.createTempDirectory("jdbc-tests");
+        directory.toFile().deleteOnExit();
+        registry.add("simulator.backfill.checkpoint-directory", () -> directory.resolve("checkpoints").toString());
+    }
+
+    @AfterEach
+    void stop() {
+        if (sink != null) {
+            sink.stop();
+        }
+    }
+
+    @Test
+    void writesEveryRowInMultiRowBatches() throws Exception {
+        var database = new StallingDataSource();
+        String table = "telemetry_" + TABLES.incrementAndGet();
+        sink = start(config(100, 10_000), new TelemetryTable(database, table, true, false));
+
+        var frame = new TelemetryFrame();
+        for (int i = 0; i < 1_050; i++) {
+            frame.setSiteId("site-" + (i % 7));
+            frame.setEpochMilli(START.toEpochMilli() + i * 1_000L);
+            frame.setSocPercent(i / 10.0);
+            sink.publish(frame);
+        }
+
+        awaitTrue(() -> sink.getWrittenCount() == 1_050);
+        assertEquals(1_050, count("SELECT COUNT(*) FROM " + table));
+        assertEquals(7, count("SELECT COUNT(DISTINCT site_id) FROM " + table));
+        assertEquals(104.9, value("SELECT MAX(soc_percent) FROM " + table), 1e-9);
+        assertEquals(START.plusSeconds(1_049).toEpochMilli(),
+            value("SELECT MAX(DATEDIFF(MILLISECOND, TIMESTAMP WITH TIME ZONE '1970-01-01 00:00:00+00', time)) FROM " + table), 0);
+        // 10 full batches and one partial one flushed by age, never a statement per row
+        assertTrue(database.connections.get() <= 12, database.connections.get() + " connections for 11 batches");
+        assertEquals(0, sink.getDroppedCount());
+    }
+
+    @Test
+    void databaseStallIsAbsorbedByTheSpillBufferAndDrainedAfterwards() throws Exception {
+        var database = new StallingDataSource();
+        database.down = true;
+        String table = "telemetry_" + TABLES.incrementAndGet();
+        sink = new JdbcTelemetrySink(config(50, 1_000), new TelemetryTable(database, table, true, false), registry);
+
+        // One full batch per writer is waiting when they start; each takes one and then
+        // keeps retrying it, so nothing else leaves the buffer while the database is down
+        var frame = new TelemetryFrame();
+        for (int i = 0; i < 100; i++) {
+            frame.setSiteId("site-" + i);
+            frame.setEpochMilli(START.toEpochMilli() + i);
+            sink.publish(frame);
+        }
+        sink.start();
+        awaitTrue(() -> sink.getBufferedCount() == 0);
+
+        long start = System.nanoTime();
+        for (int i = 100; i < 1_500; i++) {
+            frame.setSiteId("site-" + i);
+            frame.setEpochMilli(START.toEpochMilli() + i);
+            sink.publish(frame);
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(elapsedMillis < 1_000, "Publishing took " + elapsedMillis + " ms");
+
+        assertEquals(1_000, sink.getBufferedCount());
+        assertEquals(1_400 - 1_000, sink.getDroppedCount());
+        assertEquals(0, sink.getWrittenCount());
+
+        database.down = false;
+        awaitTrue(() -> sink.getBufferedCount() == 0 && sink.getWrittenCount() == 1_100);
+        assertEquals(1_100, count("SELECT COUNT(*) FROM " + table));
+        assertEquals(400, sink.getDroppedCount());
+        // The batches held by the writers and the newest rows survive the overflow
+        assertEquals(1, count("SELECT COUNT(*) FROM " + table + " WHERE site_id = 'site-0'"));
+        assertEquals(0, count("SELECT COUNT(*) FROM " + table + " WHERE site_id = 'site-499'"));
+        assertEquals(1, count("SELECT COUNT(*) FROM " + table + " WHERE site_id = 'site-1499'"));
+    }
+
+    @Test
+    void rejectedBatchIsDroppedInsteadOfRetried() throws Exception {
+        var database = new StallingDataSource();
+        String table = "telemetry_" + TABLES.incrementAndGet();
+        sink = start(config(10, 1_000), new TelemetryTable(database, table, true, false));
+
+        // A site id longer than the VARCHAR(64) column fails every attempt the same way
+        var frame = new TelemetryFrame();
+        frame.setSiteId("x".repeat(100));
+        for (int i = 0; i < 10; i++) {
+            frame.setEpochMilli(START.toEpochMilli() + i);
+            sink.publish(frame);
+        }
+        awaitTrue(() -> sink.getRejectedCount() == 10);
+
+        frame.setSiteId("site-0");
+        for (int i = 0; i < 20; i++) {
+            frame.setEpochMilli(START.toEpochMilli() + i);
+            sink.publish(frame);
+        }
+        awaitTrue(() -> sink.getWrittenCount() == 20);
+        assertEquals(20, count("SELECT COUNT(*) FROM " + table));
+        assertEquals(10, sink.getDroppedCount());
+    }
+
+    @Test
+    void backfillWritesEveryFrameToTheConfiguredTable() throws Exception {
+        BackfillStatus status = backfill.start(BackfillRequest.builder()
+                .jobId("jdbc")
+                .start(START)
+                .end(START.plus(Duration.ofDays(1)))
+                .resolution("1m")
+                .target("jdbc")
+                .build());
+        status = backfill.await(status.getJobId(), 60, TimeUnit.SECONDS).orElseThrow();
+
+        assertEquals("completed", status.getState());
+        assertEquals(5 * 1440, status.getFrames());
+        assertEquals(5 * 1440, count("SELECT COUNT(*) FROM backfill_telemetry WHERE time < TIMESTAMP WITH TIME ZONE '2025-06-02 00:00:00+00'"));
+        assertEquals(5, count("SELECT COUNT(DISTINCT site_id) FROM backfill_telemetry"));
+    }
+
+    private JdbcTelemetrySink start(SimulatorProperties.Jdbc config, TelemetryTable table) {
+        var started = new JdbcTelemetrySink(config, table, registry);
+        started.start();
+        return started;
+    }
+
+    private static SimulatorProperties.Jdbc config(int batchSize, int spillCapacity) {
+        var config = new SimulatorProperties.Jdbc();
+        config.setBatchSize(batchSize);
+        config.setSpillCapacity(spillCapacity);
+        config.setFlushInterval(Duration.ofMillis(20));
+        config.setPoolSize(2);
+        return config;
+    }
+
+    private static long count(String sql) throws SQLException {
+        return (long) value(sql);
+    }
+
+    private static double value(String sql) throws SQLException {
+        try (Connection connection = new StallingDataSource().getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(sql)) {
+            assertTrue(result.next());
+            return result.getDouble(1);
+        }
+    }
+
+    /**
+     * Embedded H2 database that refuses connections while {@code down} is set
+     */
+    private static class StallingDataSource implements DataSource {
+        private final JdbcDataSource h2 = new JdbcDataSource();
+        final AtomicInteger connections = new AtomicInteger();
+        volatile boolean down;
+
+        StallingDataSource() {
+            h2.setURL(URL);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (down) {
+                throw new SQLTransientConnectionException("database unavailable");
+            }
+            connections.incrementAndGet();
+            return h2.getConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return getConnection();
+        }
+
+        @Override
+        public PrintWriter getLogWriter() {
+            return null;
+        }
+
+        @Override
+        public void setLogWriter(PrintWriter out) {
+        }
+
+        @Override
+        public void setLoginTimeout(int seconds) {
+        }
+
+        @Override
+        public int getLoginTimeout() {
+            return 0;
+        }
+
+        @Override
+        public Logger getParentLogger() {
+            return Logger.getGlobal();
+        }
+
+        @Override
+        public <T> T unwrap(Class<T> type) throws SQLException {
+            throw new SQLException("Not a wrapper");
+        }
+
+        @Override
+        public boolean isWrapperFor(Class<?> type) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.p3bustos.heliossim;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.p3bustos.heliossim.config.SimulatorProperties;
+import com.p3bustos.heliossim.domain.models.TelemetryFrame;
+import com.p3bustos.heliossim.infrastructure.websocket.LiveSubscriptions;
+import com.p3bustos.heliossim.infrastructure.websocket.LiveTelemetryHub;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LiveTelemetryHubTests {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final LiveSubscriptions subscriptions = new LiveSubscriptions(4);
+    private final List<Message<?>> sent = new ArrayList<>();
+    private final MessageChannel outbound = (message, timeout) -> sent.add(message);
+    private final LiveTelemetryHub hub = new LiveTelemetryHub(config(), subscriptions, objectMapper,
+        outbound, new SimpleMeterRegistry());
+
+    @Test
+    void sendsOnlyTheLatestValueAndSharesThePayload() throws Exception {
+        subscribe("a", "1", "/topic/sites/site-1", null);
+        subscribe("b", "1", "/topic/sites/site-1", null);
+
+        for (int i = 0; i < 100; i++) {
+            hub.publish(frame(0, "site-1", i));
+        }
+        hub.dispatch(SECOND);
+
+        assertEquals(2, sent.size());
+        assertSame(sent.get(0).getPayload(), sent.get(1).getPayload());
+        assertEquals(99.0, soc(sent.get(0)));
+        assertEquals("/topic/sites/site-1", SimpMessageHeaderAccessor.getDestination(sent.get(0).getHeaders()));
+
+        // Nothing changed, nothing is resent
+        hub.dispatch(2 * SECOND);
+        assertEquals(2, sent.size());
+    }
+
+    @Test
+    void groupSubscriptionsMatchPrefixesAndLists() {
+        subscribe("a", "all", "/topic/sites/site-*", null);
+        subscribe("a", "pair", "/topic/sites/other-1,site-2", null);
+
+        hub.publish(frame(0, "site-1", 1));
+        hub.publish(frame(1, "site-2", 1));
+        hub.publish(frame(2, "other-1", 1));
+        hub.publish(frame(3, "other-2", 1));
+        hub.dispatch(SECOND);
+
+        assertEquals(List.of("site-1", "site-2"), destinations("all"));
+        assertEquals(List.of("site-2", "other-1"), destinations("pair"));
+    }
+
+    @Test
+    void honoursTheRequestedRate() {
+        subscribe("a", "slow", "/topic/sites/site-1", "1");
+        subscribe("a", "fast", "/topic/sites/site-1", "100");
+
+        for (int pass = 0; pass < 8; pass++) {
+            hub.publish(frame(0, "site-1", pass));
+            hub.dispatch(SECOND + pass * SECOND / 4);
+        }
+
+        // 1 Hz asked for 1 Hz; 100 Hz is capped at the 4 Hz maximum
+        assertEquals(2, destinations("slow").size());
+        assertEquals(8, destinations("fast").size());
+    }
+
+    @Test
+    void slowSessionsGetConflatedUpdates() throws Exception {
+        subscribe("slow", "1", "/topic/sites/site-*", null);
+        for (int site = 0; site < 40; site++) {
+            hub.publish(frame(site, "site-" + site, 0));
+        }
+        hub.dispatch(SECOND);
+        assertEquals(16, sent.size(), "Capped at max-pending-per-session");
+
+        // The socket stays blocked while the sites keep changing
+        for (int i = 1; i <= 50; i++) {
+            for (int site = 0; site < 40; site++) {
+                hub.publish(frame(site, "site-" + site, i));
+            }
+            hub.dispatch(SECOND + i * SECOND);
+        }
+        assertEquals(16, sent.size());
+
+        // Once drained it continues with the sites it has not seen, at their newest value
+        acknowledgeAll();
+        hub.dispatch(100 * SECOND);
+        assertEquals(32, sent.size());
+        for (Message<?> message : sent.subList(16, 32)) {
+            assertEquals(50.0, soc(message));
+        }
+        assertEquals("site-16", destinations("1").get(16));
+    }
+
+    @Test
+    void subscriptionsResolvedWhileSitesAreAddedSeeEverySite() {
+        // The first fleet tick is still adding sites while a dispatch pass is under way
+        AtomicReference<LiveTelemetryHub> growing = new AtomicReference<>();
+        MessageChannel addingSites = (message, timeout) -> {
+            if (sent.isEmpty()) {
+                for (int site = 2; site < 10; site++) {
+                    growing.get().publish(frame(site, "site-" + site, 1));
+                }
+            }
+            return sent.add(message);
+        };
+        growing.set(new LiveTelemetryHub(config(), subscriptions, objectMapper, addingSites, new SimpleMeterRegistry()));
+        subscribe("a", "1", "/topic/sites/site-*", null);
+        subscribe("b", "1", "/topic/sites/site-*", null);
+        growing.get().publish(frame(0, "site-0", 1));
+        growing.get().publish(frame(1, "site-1", 1));
+
+        growing.get().dispatch(SECOND);
+        growing.get().dispatch(2 * SECOND);
+
+        for (String session : List.of("a", "b")) {
+            long received = sent.stream()
+                .filter(m -> session.equals(SimpMessageHeaderAccessor.getSessionId(m.getHeaders())))
+                .count();
+            assertEquals(10, received, "Sites delivered to session " + session);
+        }
+    }
+
+    private void subscribe(String session, String id, String destination, String maxRate) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+        accessor.setSessionId(session);
+        accessor.setSubscriptionId(id);
+        accessor.setDestination(destination);
+        if (maxRate != null) {
+            accessor.setNativeHeader(LiveSubscriptions.MAX_RATE_HEADER, maxRate);
+        }
+        Message<byte[]> message = MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+        subscriptions.inboundInterceptor().preSend(message, outbound);
+    }
+
+    private void acknowledgeAll() {
+        var interceptor = (ExecutorChannelInterceptor) subscriptions.outboundInterceptor();
+        for (Message<?> message : sent) {
+            interceptor.afterMessageHandled(message, outbound, m -> { }, null);
+        }
+    }
+
+    private List<String> destinations(String subscriptionId) {
+        return sent.stream()
+            .filter(m -> subscriptionId.equals(SimpMessageHeaderAccessor.getSubscriptionId(m.getHeaders())))
+            .map(m -> SimpMessageHeaderAccessor.getDestination(m.getHeaders()).substring("/topic/sites/".length()))
+            .toList();
+    }
+
+    private double soc(Message<?> message) throws Exception {
+        return objectMapper.readTree((byte[]) message.getPayload()).get("battery").get("soc_percent").asDouble();
+    }
+
+    private static TelemetryFrame frame(int ordinal, String siteId, double socPercent) {
+        var frame = new TelemetryFrame();
+        frame.setSiteOrdinal(ordinal);
+        frame.setSiteId(siteId);
+        frame.setEpochMilli(1_718_000_000_000L);
+        frame.setSocPercent(socPercent);
+        return frame;
+    }
+
+    private static SimulatorProperties.Live config() {
+        var config = new SimulatorProperties.Live();
+        config.setMaxRateHz(4);
+        config.setMaxPendingPerSession(16);
+        return config;
+    }
+}
@@ -0,0 +1,328 @@
+package com.p3bustos.heliossim;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.p3bustos.heliossim.config.SimulatorProperties;
+import com.p3bustos.heliossim.config.SimulatorProperties.Mqtt.Backpressure;
+import com.p3bustos.heliossim.domain.models.TelemetryFrame;
+import com.p3bustos.heliossim.infrastructure.codec.JsonTelemetryEncoder;
+import com.p3bustos.heliossim.infrastructure.mqtt.MqttTelemetryPublisher;
+import com.p3bustos.heliossim.infrastructure.mqtt.MqttTransport;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.p3bustos.heliossim.Await.awaitTrue;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MqttTelemetryPublisherTests {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private MqttTelemetryPublisher publisher;
+
+    @AfterEach
+    void stop() {
+        if (publisher != null) {
+            publisher.stop();
+        }
+    }
+
+    @Test
+    void publishesEveryFrameInOrder() throws Exception {
+        var broker = new StubBroker();
+        publisher = start(config(1_000, Backpressure.DROP_OLDEST), broker);
+
+        var frame = new TelemetryFrame();
+        for (int i = 0; i < 250; i++) {
+            frame.setSiteId("site-" + i);
+            publisher.publish(frame);
+        }
+
+        awaitTrue(() -> broker.messages.size() == 250);
+        for (int i = 0; i < 250; i++) {
+            JsonNode json = objectMapper.readTree(broker.messages.get(i));
+            assertEquals("site-" + i, json.get("site_id").asText());
+        }
+        awaitTrue(() -> publisher.getPublishedCount() == 250);
+        assertEquals(0, publisher.getQueueDepth());
+    }
+
+    @Test
+    void slowBrokerNeverStallsTheTickThread() {
+        var broker = new StubBroker();
+        broker.stall = new CountDownLatch(1);
+        publisher = start(config(100, Backpressure.DROP_OLDEST), broker);
+
+        var frame = new TelemetryFrame();
+        long start = System.nanoTime();
+        for (int i = 0; i < 10_000; i++) {
+            frame.setSiteId("site-" + i);
+            publisher.publish(frame);
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue(elapsedMillis < 2_000, "Publishing took " + elapsedMillis + " ms");
+        assertTrue(publisher.getQueueDepth() <= 100);
+        assertTrue(publisher.getDroppedCount() >= 10_000 - 100 - 1);
+
+        // Once the broker catches up, the newest frames are the ones that survived
+        broker.stall.countDown();
+        awaitTrue(() -> broker.messages.stream().anyMatch(m -> new String(m).contains("site-9999")));
+    }
+
+    @Test
+    void evictionNeverDeliversATornFrame() throws Exception {
+        var broker = new StubBroker();
+        publisher = start(config(8, Backpressure.DROP_OLDEST), broker);
+
+        // A tiny ring keeps the tick thread overwriting slots the publisher is copying out
+        var frame = new TelemetryFrame();
+        for (int i = 0; i < 20_000; i++) {
+            frame.setSiteId("site-" + i);
+            frame.setSolarProductionKw(i);
+            frame.setLoadConsumptionKw(i);
+            publisher.publish(frame);
+            assertTrue(publisher.getQueueDepth() <= 8);
+        }
+
+        awaitTrue(() -> publisher.getQueueDepth() == 0 && publisher.getPublishedCount() == broker.messages.size());
+        assertFalse(broker.messages.isEmpty());
+        for (byte[] message : broker.messages) {
+            JsonNode json = objectMapper.readTree(message);
+            String site = json.get("site_id").asText();
+            assertEquals(site, "site-" + (long) json.at("/solar/production_kw").asDouble());
+            assertEquals(site, "site-" + (long) json.at("/load/consumption_kw").asDouble());
+        }
+        assertEquals(20_000, broker.messages.size() + publisher.getDroppedCount());
+    }
+
+    @Test
+    void blockPolicyWaitsAtMostTheBlockTimeout() {
+        var broker = new StubBroker();
+        broker.stall = new CountDownLatch(1);
+        var config = config(1, Backpressure.BLOCK);
+        config.setBlockTimeout(Duration.ofMillis(20));
+        publisher = start(config, broker);
+
+        var frame = new TelemetryFrame();
+        publisher.publish(frame);
+        publisher.publish(frame);
+        awaitTrue(() -> publisher.getQueueDepth() == 1);
+
+        long start = System.nanoTime();
+        publisher.publish(frame);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue(elapsedMillis >= 15 && elapsedMillis < 1_000, "Blocked for " + elapsedMillis + " ms");
+        assertEquals(1.0, publisher.getDroppedCount());
+        broker.stall.countDown();
+    }
+
+    @Test
+    void queuedFramesAreReplayedOnceTheBrokerIsReachable() {
+        var broker = new StubBroker();
+        broker.refuseConnections.set(1);
+        publisher = start(config(1_000, Backpressure.DROP_OLDEST), broker);
+
+        var frame = new TelemetryFrame();
+        for (int i = 0; i < 20; i++) {
+            frame.setSiteId("site-" + i);
+            publisher.publish(frame);
+        }
+        assertTrue(broker.messages.isEmpty());
+
+        // The first attempt is refused; the retry after the backoff succeeds
+        awaitTrue(() -> broker.messages.size() == 20);
+        assertTrue(new String(broker.messages.get(0)).contains("site-0"));
+        assertEquals(0, publisher.getDroppedCount());
+    }
+
+    @Test
+    void queueDepthAndDropsAreExposedAsMetrics() {
+        var broker = new StubBroker();
+        broker.stall = new CountDownLatch(1);
+        publisher = start(config(10, Backpressure.DROP_OLDEST), broker);
+
+        var frame = new TelemetryFrame();
+        for (int i = 0; i < 50; i++) {
+            publisher.publish(frame);
+        }
+
+        assertTrue(registry.get("helios.mqtt.queue.depth").gauge().value() <= 10);
+        assertTrue(registry.get("helios.mqtt.dropped").tag("reason", "queue_full").counter().count() >= 39);
+        assertNotNull(registry.get("helios.mqtt.publish.latency.max").gauge());
+        broker.stall.countDown();
+    }
+
+    @Test
+    void reportByExceptionSendsOnlyChangesAndHeartbeats() throws Exception {
+        var broker = new StubBroker();
+        var config = config(1_000, Backpressure.DROP_OLDEST);
+        config.getReportByException().setEnabled(true);
+        config.getReportByException().setMaxSilence(Duration.ofSeconds(60));
+        publisher = start(config, broker);
+
+        // Ten minutes of 1 s ticks: load wobbles inside its 0.05 kW deadband and steps once
+        var frame = new TelemetryFrame();
+        frame.setSiteId("home-001");
+        frame.setSocPercent(20.0);
+        for (int t = 0; t < 600; t++) {
+            frame.setEpochMilli(1_750_000_000_000L + t * 1_000L);
+            frame.setLoadConsumptionKw((t < 300 ? 0.5 : 1.5) + (t % 2) * 0.04);
+            frame.setGridPowerKw(frame.getLoadConsumptionKw());
+            publisher.publish(frame);
+        }
+
+        // First frame, one step, and a heartbeat after each silent minute
+        awaitTrue(() -> broker.messages.size() == 10);
+        assertEquals(590, publisher.getSuppressedCount());
+        JsonNode step = objectMapper.readTree(broker.messages.get(5));
+        assertEquals(1.5, step.at("/load/consumption_kw").asDouble(), 1e-9);
+        for (byte[] message : broker.messages) {
+            double load = objectMapper.readTree(message).at("/load/consumption_kw").asDouble();
+            assertTrue(load == 0.5 || load == 1.5 || load == 0.54 || load == 1.54, "Load " + load);
+        }
+    }
+
+    @Test
+    void unchangedFramesNeverTakeASlotInTheRing() throws Exception {
+        var broker = new StubBroker();
+        broker.stall = new CountDownLatch(1);
+        var config = config(4, Backpressure.DROP_OLDEST);
+        config.getReportByException().setEnabled(true);
+        publisher = start(config, broker);
+
+        var frame = new TelemetryFrame();
+        frame.setSiteId("home-001");
+        frame.setEpochMilli(1_750_000_000_000L);
+        frame.setLoadConsumptionKw(0.5);
+        publisher.publish(frame);
+        awaitTrue(() -> publisher.getQueueDepth() == 0);
+
+        // A stalled broker and a minute of wobble inside the deadband: the ring stays empty
+        for (int t = 1; t < 60; t++) {
+            frame.setEpochMilli(frame.getEpochMilli() + 1_000);
+            frame.setLoadConsumptionKw(0.5 + (t % 2) * 0.04);
+            publisher.publish(frame);
+        }
+        assertEquals(0, publisher.getQueueDepth());
+        assertEquals(59, publisher.getSuppressedCount());
+
+        frame.setEpochMilli(frame.getEpochMilli() + 1_000);
+        frame.setLoadConsumptionKw(1.5);
+        publisher.publish(frame);
+        assertEquals(1, publisher.getQueueDepth());
+
+        broker.stall.countDown();
+        awaitTrue(() -> broker.messages.size() == 2);
+        assertEquals(1.5, objectMapper.readTree(broker.messages.get(1)).at("/load/consumption_kw").asDouble(), 1e-9);
+        assertEquals(0, publisher.getDroppedCount());
+    }
+
+    @Test
+    void aChangeEvictedFromTheRingIsStillReported() throws Exception {
+        var broker = new StubBroker();
+        broker.stall = new CountDownLatch(1);
+        var config = config(1, Backpressure.DROP_OLDEST);
+        config.getReportByException().setEnabled(true);
+        publisher = start(config, broker);
+
+        var frame = new TelemetryFrame();
+        frame.setSiteId("home-001");
+        frame.setEpochMilli(1_750_000_000_000L);
+        frame.setLoadConsumptionKw(0.5);
+        publisher.publish(frame);
+        // The publisher is now stuck handing the first frame to the stalled broker
+        awaitTrue(() -> publisher.getQueueDepth() == 0);
+
+        // The step is evicted by another site's frame, then followed by one inside the step's deadband
+        frame.setEpochMilli(frame.getEpochMilli() + 1_000);
+        frame.setLoadConsumptionKw(1.5);
+        publisher.publish(frame);
+        var other = new TelemetryFrame();
+        other.setSiteOrdinal(1);
+        other.setSiteId("home-002");
+        other.setEpochMilli(frame.getEpochMilli());
+        publisher.publish(other);
+        frame.setEpochMilli(frame.getEpochMilli() + 1_000);
+        frame.setLoadConsumptionKw(1.51);
+        publisher.publish(frame);
+        assertEquals(2.0, publisher.getDroppedCount());
+
+        broker.stall.countDown();
+        awaitTrue(() -> broker.messages.size() == 2);
+        assertEquals(1.51, objectMapper.readTree(broker.messages.get(1)).at("/load/consumption_kw").asDouble(), 1e-9);
+        assertEquals(0, publisher.getSuppressedCount());
+    }
+
+    private MqttTelemetryPublisher start(SimulatorProperties.Mqtt config, MqttTransport transport) {
+        var started = new MqttTelemetryPublisher(config, transport, new JsonTelemetryEncoder(objectMapper), registry);
+        started.start();
+        return started;
+    }
+
+    private static SimulatorProperties.Mqtt config(int queueCapacity, Backpressure backpressure) {
+        var config = new SimulatorProperties.Mqtt();
+        config.setTopic("test/telemetry");
+        config.setQos(1);
+        config.setQueueCapacity(queueCapacity);
+        config.setBatchSize(50);
+        config.setFlushInterval(Duration.ofMillis(5));
+        config.setBackpressure(backpressure);
+        return config;
+    }
+
+    /**
+     * In-memory broker stand-in: records payloads, can refuse connections or stall publishes
+     */
+    private static class StubBroker implements MqttTransport {
+        final List<byte[]> messages = new CopyOnWriteArrayList<>();
+        final AtomicInteger refuseConnections = new AtomicInteger();
+        volatile CountDownLatch stall;
+        volatile boolean connected;
+
+        @Override
+        public CompletableFuture<Void> connect() {
+            if (refuseConnections.getAndDecrement() > 0) {
+                return CompletableFuture.failedFuture(new IllegalStateException("connection refused"));
+            }
+            connected = true;
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public boolean isConnected() {
+            return connected;
+        }
+
+        @Override
+        public CompletableFuture<Void> publish(String topic, byte[] payload, int qos, boolean retained) {
+            CountDownLatch latch = stall;
+            if (latch != null) {
+                // A slow broker holds the publisher thread, like a full socket buffer would
+                try {
+                    latch.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            messages.add(payload);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public void close() {
+            connected = false;
+        }
+    }
+}
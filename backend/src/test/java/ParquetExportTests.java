@@ -0,0 +1,513 @@
+package com.p3bustos.heliossim;
+
+import com.p3bustos.heliossim.config.SimulatorProperties;
+import com.p3bustos.heliossim.config.SimulatorProperties.Export.Compression;
+import com.p3bustos.heliossim.domain.models.TelemetryFrame;
+import com.p3bustos.heliossim.dto.ExportRequest;
+import com.p3bustos.heliossim.dto.ExportStatus;
+import com.p3bustos.heliossim.infrastructure.export.ExportService;
+import com.p3bustos.heliossim.infrastructure.export.ParquetDatasetWriter;
+import com.p3bustos.heliossim.infrastructure.journal.SegmentedJournalWriter;
+import com.p3bustos.heliossim.infrastructure.journal.TelemetryJournalReader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParquetExportTests {
+
+    // 2025-06-15T15:06:40Z, so two days of frames span three dates
+    private static final long T0 = 1_750_000_000_000L;
+    private static final String[] VALUE_COLUMNS = {
+        "solar_production_kw", "irradiance_w_m2", "panel_temp_c",
+        "soc_percent", "battery_power_kw", "battery_voltage_v", "battery_current_a",
+        "load_consumption_kw", "grid_power_kw",
+        "solar_to_load_kw", "solar_to_battery_kw", "solar_to_grid_kw", "battery_to_load_kw", "grid_to_load_kw"
+    };
+    private static final int ENCODING_RLE_DICTIONARY = 8;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void roundTripsEveryValueThroughASiteAndDayPartitionedDataset() throws IOException {
+        Map<String, List<TelemetryFrame>> written = generate(3, 2 * 8_640, 10_000);
+        try (ParquetDatasetWriter writer = new ParquetDatasetWriter(directory, Compression.GZIP, 4096, 256L << 20, 512)) {
+            writeInterleaved(writer, written);
+        }
+
+        Dataset dataset = readDataset(directory);
+        assertEquals(Set.of("site_id=site-0", "site_id=site-1", "site_id=site-2"), dataset.siteDirectories);
+        assertEquals(Set.of("date=2025-06-15", "date=2025-06-16", "date=2025-06-17"), dataset.dateDirectories);
+        assertEquals(written, dataset.frames);
+        assertTrue(dataset.rowGroups > dataset.files, "Expected several row groups per file");
+        assertTrue(dataset.encodings.contains(ENCODING_RLE_DICTIONARY), "Expected dictionary-encoded columns");
+    }
+
+    @Test
+    void boundedMemoryAndOpenFilesProduceSmallerRowGroupsAndMoreParts() throws IOException {
+        Map<String, List<TelemetryFrame>> written = generate(8, 2_000, 1_000);
+        Path budgeted = directory.resolve("budgeted");
+        try (ParquetDatasetWriter writer = new ParquetDatasetWriter(budgeted, Compression.NONE, 100_000, 64 * 1024, 512)) {
+            writeInterleaved(writer, written);
+            writer.close();
+            assertEquals(16_000, writer.getRowsWritten());
+        }
+        Dataset dataset = readDataset(budgeted);
+        assertEquals(written, dataset.frames);
+        assertEquals(8, dataset.files);
+        assertTrue(dataset.rowGroups > 8 * 10, "Expected the memory budget to cut row groups short");
+
+        Path fewFiles = directory.resolve("few-files");
+        try (ParquetDatasetWriter writer = new ParquetDatasetWriter(fewFiles, Compression.NONE, 100_000, 64 * 1024, 2)) {
+            writeInterleaved(writer, written);
+        }
+        dataset = readDataset(fewFiles);
+        assertEquals(written, dataset.frames);
+        assertTrue(dataset.files > 8, "Expected evicted files to continue in new parts");
+    }
+
+    @Test
+    void exportServiceExportsARecordedJournal() throws Exception {
+        Path journal = directory.resolve("journal");
+        Map<String, List<TelemetryFrame>> generated = generate(2, 5_000, 1_000);
+        try (SegmentedJournalWriter writer = new SegmentedJournalWriter(journal, 256 * 1024, 52)) {
+            for (int i = 0; i < 5_000; i++) {
+                for (List<TelemetryFrame> site : generated.values()) {
+                    writer.append(site.get(i));
+                }
+            }
+        }
+        // The export must reproduce the journal as recorded
+        Map<String, List<TelemetryFrame>> recorded = new TreeMap<>();
+        try (TelemetryJournalReader reader = new TelemetryJournalReader(journal)) {
+            TelemetryFrame frame = new TelemetryFrame();
+            while (reader.next(frame)) {
+                TelemetryFrame copy = new TelemetryFrame();
+                copy.copyFrom(frame);
+                recorded.computeIfAbsent(copy.getSiteId(), id -> new ArrayList<>()).add(copy);
+            }
+        }
+
+        SimulatorProperties properties = new SimulatorProperties();
+        properties.getExport().setOutputDirectory(directory.resolve("export").toString());
+        ExportService service = new ExportService(properties);
+        try {
+            service.start(ExportRequest.builder().exportId("run-1").source(journal.toString()).build());
+            ExportStatus status = service.await("run-1", 30, TimeUnit.SECONDS).orElseThrow();
+            assertEquals("completed", status.getState(), status.getError());
+            assertEquals(10_000, status.getFrames());
+            assertEquals(directory.resolve("export").resolve("run-1").toString(), status.getOutput());
+
+            assertEquals(recorded, readDataset(Path.of(status.getOutput())).frames);
+
+            ExportRequest again = ExportRequest.builder().exportId("run-2").source(journal.toString())
+                    .output(status.getOutput()).build();
+            assertThrows(IllegalArgumentException.class, () -> service.start(again));
+            ExportRequest missing = ExportRequest.builder().source(directory.resolve("nothing").toString()).build();
+            assertThrows(IllegalArgumentException.class, () -> service.start(missing));
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    private static Map<String, List<TelemetryFrame>> generate(int sites, int framesPerSite, long stepMillis) {
+        SplittableRandom random = new SplittableRandom(42);
+        Map<String, List<TelemetryFrame>> frames = new TreeMap<>();
+        for (int s = 0; s < sites; s++) {
+            List<TelemetryFrame> site = new ArrayList<>(framesPerSite);
+            for (int i = 0; i < framesPerSite; i++) {
+                site.add(frame(s, T0 + i * stepMillis + random.nextInt(0, 50), random));
+            }
+            frames.put("site-" + s, site);
+        }
+        return frames;
+    }
+
+    private static void writeInterleaved(ParquetDatasetWriter writer, Map<String, List<TelemetryFrame>> frames) throws IOException {
+        int length = frames.values().iterator().next().size();
+        for (int i = 0; i < length; i++) {
+            for (List<TelemetryFrame> site : frames.values()) {
+                writer.write(site.get(i));
+            }
+        }
+    }
+
+    private static TelemetryFrame frame(int ordinal, long epochMilli, SplittableRandom random) {
+        TelemetryFrame frame = new TelemetryFrame();
+        frame.setSiteOrdinal(ordinal);
+        frame.setSiteId("site-" + ordinal);
+        frame.setEpochMilli(epochMilli);
+        frame.setSolarProductionKw(random.nextInt(4) == 0 ? 0 : random.nextDouble(0, 8));
+        frame.setIrradianceWM2(random.nextDouble(0, 1000));
+        frame.setPanelTempC(Math.round(random.nextDouble(-10, 60) * 10) / 10.0);
+        frame.setSocPercent(random.nextInt(10, 95));
+        frame.setBatteryPowerKw(random.nextInt(3) == 0 ? -0.0 : random.nextDouble(-5, 5));
+        frame.setBatteryVoltageV(51.2);
+        frame.setBatteryCurrentA(random.nextDouble(-100, 100));
+        frame.setLoadConsumptionKw(random.nextDouble(0.3, 4));
+        frame.setGridPowerKw(random.nextDouble(-5, 5));
+        frame.setSolarToLoadKw(random.nextDouble(0, 4));
+        frame.setSolarToBatteryKw(random.nextDouble(0, 4));
+        frame.setSolarToGridKw(Double.NaN);
+        frame.setBatteryToLoadKw(Double.MAX_VALUE);
+        frame.setGridToLoadKw(Double.MIN_VALUE);
+        return frame;
+    }
+
+    // --- A minimal Parquet reader, independent of the writer, for the subset of the format it produces ---
+
+    private static final class Dataset {
+        final Map<String, List<TelemetryFrame>> frames = new TreeMap<>();
+        final Set<String> siteDirectories = new HashSet<>();
+        final Set<String> dateDirectories = new HashSet<>();
+        final Set<Integer> encodings = new HashSet<>();
+        int files;
+        int rowGroups;
+    }
+
+    private static Dataset readDataset(Path root) throws IOException {
+        Dataset dataset = new Dataset();
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(root)) {
+            files = walk.filter(Files::isRegularFile).sorted().toList();
+        }
+        for (Path file : files) {
+            assertTrue(file.getFileName().toString().matches("part-\\d{5}\\.parquet"), "Unexpected file " + file);
+            String site = file.getParent().getParent().getFileName().toString();
+            dataset.siteDirectories.add(site);
+            dataset.dateDirectories.add(file.getParent().getFileName().toString());
+            readFile(file, site.substring("site_id=".length()), dataset);
+            dataset.files++;
+        }
+        // Parts and days of a site are listed in time order, but rows are merged defensively
+        dataset.frames.values().forEach(site -> site.sort((a, b) -> Long.compare(a.getEpochMilli(), b.getEpochMilli())));
+        return dataset;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void readFile(Path path, String siteId, Dataset dataset) throws IOException {
+        byte[] bytes = Files.readAllBytes(path);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals("PAR1", new String(bytes, 0, 4, StandardCharsets.US_ASCII));
+        assertEquals("PAR1", new String(bytes, bytes.length - 4, 4, StandardCharsets.US_ASCII));
+        int footerLength = buffer.getInt(bytes.length - 8);
+        Map<Integer, Object> metadata = new ThriftReader(bytes, bytes.length - 8 - footerLength).struct();
+
+        List<Object> schema = (List<Object>) metadata.get(2);
+        assertEquals(1 + 1 + VALUE_COLUMNS.length, schema.size());
+        assertEquals("time", string(((Map<Integer, Object>) schema.get(1)).get(4)));
+
+        long fileRows = 0;
+        for (Object groupObject : (List<Object>) metadata.get(4)) {
+            Map<Integer, Object> group = (Map<Integer, Object>) groupObject;
+            int rows = (int) (long) (Long) group.get(3);
+            List<Object> columns = (List<Object>) group.get(1);
+            long[] times = null;
+            double[][] values = new double[VALUE_COLUMNS.length][];
+            for (int c = 0; c < columns.size(); c++) {
+                Map<Integer, Object> meta = (Map<Integer, Object>) ((Map<Integer, Object>) columns.get(c)).get(3);
+                String name = string(((List<Object>) meta.get(3)).get(0));
+                ((List<Object>) meta.get(2)).forEach(e -> dataset.encodings.add((int) (long) (Long) e));
+                Map<Integer, Object> statistics = (Map<Integer, Object>) meta.get(12);
+                if (c == 0) {
+                    assertEquals("time", name);
+                    times = readTimeColumn(bytes, meta, rows);
+                    long min = Long.MAX_VALUE;
+                    long max = Long.MIN_VALUE;
+                    for (long time : times) {
+                        min = Math.min(min, time);
+                        max = Math.max(max, time);
+                    }
+                    assertEquals(min, ByteBuffer.wrap((byte[]) statistics.get(6)).order(ByteOrder.LITTLE_ENDIAN).getLong());
+                    assertEquals(max, ByteBuffer.wrap((byte[]) statistics.get(5)).order(ByteOrder.LITTLE_ENDIAN).getLong());
+                } else {
+                    assertEquals(VALUE_COLUMNS[c - 1], name);
+                    double[] column = readValueColumn(bytes, meta, rows);
+                    values[c - 1] = column;
+                    if (statistics.containsKey(5)) {
+                        double min = ByteBuffer.wrap((byte[]) statistics.get(6)).order(ByteOrder.LITTLE_ENDIAN).getDouble();
+                        double max = ByteBuffer.wrap((byte[]) statistics.get(5)).order(ByteOrder.LITTLE_ENDIAN).getDouble();
+                        for (double value : column) {
+                            assertTrue(value >= min && value <= max, name + " value " + value + " outside statistics");
+                        }
+                    } else {
+                        for (double value : column) {
+                            assertTrue(Double.isNaN(value), name + " has values but no statistics");
+                        }
+                    }
+                }
+            }
+
+            List<TelemetryFrame> site = dataset.frames.computeIfAbsent(siteId, id -> new ArrayList<>());
+            for (int r = 0; r < rows; r++) {
+                site.add(toFrame(siteId, times[r], values, r));
+            }
+            fileRows += rows;
+            dataset.rowGroups++;
+        }
+        assertEquals(fileRows, (long) (Long) metadata.get(3));
+    }
+
+    private static TelemetryFrame toFrame(String siteId, long epochMilli, double[][] values, int row) {
+        TelemetryFrame frame = new TelemetryFrame();
+        frame.setSiteOrdinal(Integer.parseInt(siteId.substring("site-".length())));
+        frame.setSiteId(siteId);
+        frame.setEpochMilli(epochMilli);
+        frame.setSolarProductionKw(values[0][row]);
+        frame.setIrradianceWM2(values[1][row]);
+        frame.setPanelTempC(values[2][row]);
+        frame.setSocPercent(values[3][row]);
+        frame.setBatteryPowerKw(values[4][row]);
+        frame.setBatteryVoltageV(values[5][row]);
+        frame.setBatteryCurrentA(values[6][row]);
+        frame.setLoadConsumptionKw(values[7][row]);
+        frame.setGridPowerKw(values[8][row]);
+        frame.setSolarToLoadKw(values[9][row]);
+        frame.setSolarToBatteryKw(values[10][row]);
+        frame.setSolarToGridKw(values[11][row]);
+        frame.setBatteryToLoadKw(values[12][row]);
+        frame.setGridToLoadKw(values[13][row]);
+        return frame;
+    }
+
+    private static long[] readTimeColumn(byte[] file, Map<Integer, Object> meta, int rows) throws IOException {
+        long[] times = new long[rows];
+        int read = 0;
+        ThriftReader pages = new ThriftReader(file, (int) (long) (Long) meta.get(9));
+        while (read < rows) {
+            Page page = Page.read(pages, meta);
+            assertEquals(5, page.encoding, "Expected DELTA_BINARY_PACKED timestamps");
+            read += decodeDelta(page.body, times, read);
+        }
+        return times;
+    }
+
+    private static double[] readValueColumn(byte[] file, Map<Integer, Object> meta, int rows) throws IOException {
+        double[] values = new double[rows];
+        double[] dictionary = null;
+        Long dictionaryOffset = (Long) meta.get(11);
+        ThriftReader pages = new ThriftReader(file, (int) (long) (dictionaryOffset != null ? dictionaryOffset : (Long) meta.get(9)));
+        int read = 0;
+        while (read < rows) {
+            Page page = Page.read(pages, meta);
+            ByteBuffer body = ByteBuffer.wrap(page.body).order(ByteOrder.LITTLE_ENDIAN);
+            if (page.dictionary) {
+                dictionary = new double[page.values];
+                for (int i = 0; i < page.values; i++) {
+                    dictionary[i] = body.getDouble();
+                }
+            } else if (page.encoding == 0) {
+                for (int i = 0; i < page.values; i++) {
+                    values[read++] = body.getDouble();
+                }
+            } else {
+                assertEquals(ENCODING_RLE_DICTIONARY, page.encoding);
+                int[] indices = decodeRleHybrid(page.body, 1, page.body[0], page.values);
+                for (int index : indices) {
+                    values[read++] = dictionary[index];
+                }
+            }
+        }
+        return values;
+    }
+
+    private static int decodeDelta(byte[] body, long[] out, int offset) {
+        ThriftReader in = new ThriftReader(body, 0);
+        int blockSize = (int) in.varint();
+        int miniblocks = (int) in.varint();
+        int count = (int) in.varint();
+        long value = in.zigzag();
+        out[offset] = value;
+        int decoded = 1;
+        int miniblockSize = blockSize / miniblocks;
+        while (decoded < count) {
+            long minDelta = in.zigzag();
+            int[] widths = new int[miniblocks];
+            for (int m = 0; m < miniblocks; m++) {
+                widths[m] = in.bytes[in.position++] & 0xFF;
+            }
+            for (int m = 0; m < miniblocks && decoded < count; m++) {
+                long[] deltas = unpack(in.bytes, in.position, widths[m], miniblockSize);
+                in.position += widths[m] * miniblockSize / 8;
+                for (int i = 0; i < miniblockSize && decoded < count; i++) {
+                    value += minDelta + deltas[i];
+                    out[offset + decoded++] = value;
+                }
+            }
+        }
+        return count;
+    }
+
+    private static int[] decodeRleHybrid(byte[] bytes, int position, int bitWidth, int count) {
+        ThriftReader in = new ThriftReader(bytes, position);
+        int[] values = new int[count];
+        int decoded = 0;
+        while (decoded < count) {
+            long header = in.varint();
+            if ((header & 1) == 0) {
+                int run = (int) (header >>> 1);
+                int value = 0;
+                for (int b = 0; b < (bitWidth + 7) / 8; b++) {
+                    value |= (in.bytes[in.position++] & 0xFF) << (8 * b);
+                }
+                for (int i = 0; i < run && decoded < count; i++) {
+                    values[decoded++] = value;
+                }
+            } else {
+                int groups = (int) (header >>> 1);
+                long[] packed = unpack(in.bytes, in.position, bitWidth, groups * 8);
+                in.position += groups * bitWidth;
+                for (int i = 0; i < groups * 8 && decoded < count; i++) {
+                    values[decoded++] = (int) packed[i];
+                }
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Little-endian bit unpacking, least significant bit first
+     */
+    private static long[] unpack(byte[] bytes, int position, int bitWidth, int count) {
+        long[] values = new long[count];
+        for (int i = 0; i < count; i++) {
+            long value = 0;
+            for (int b = 0; b < bitWidth; b++) {
+                long bit = (long) i * bitWidth + b;
+                if ((bytes[position + (int) (bit >>> 3)] >>> (bit & 7) & 1) != 0) {
+                    value |= 1L << b;
+                }
+            }
+            values[i] = value;
+        }
+        return values;
+    }
+
+    private static String string(Object binary) {
+        return new String((byte[]) binary, StandardCharsets.UTF_8);
+    }
+
+    private record Page(boolean dictionary, int values, int encoding, byte[] body) {
+
+        @SuppressWarnings("unchecked")
+        static Page read(ThriftReader in, Map<Integer, Object> meta) throws IOException {
+            Map<Integer, Object> header = in.struct();
+            int uncompressed = (int) (long) (Long) header.get(2);
+            int compressed = (int) (long) (Long) header.get(3);
+            byte[] body = new byte[compressed];
+            System.arraycopy(in.bytes, in.position, body, 0, compressed);
+            in.position += compressed;
+            if ((Long) meta.get(4) == 2) {
+                try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(body))) {
+                    body = gzip.readAllBytes();
+                }
+            }
+            assertEquals(uncompressed, body.length);
+
+            boolean dictionary = (Long) header.get(1) == 2;
+            Map<Integer, Object> detail = (Map<Integer, Object>) header.get(dictionary ? 7 : 5);
+            int values = (int) (long) (Long) detail.get(1);
+            int encoding = (int) (long) (Long) detail.get(2);
+            return new Page(dictionary, values, encoding, body);
+        }
+    }
+
+    /**
+     * Thrift compact protocol decoder into field-id maps; integers decode as Long, binaries as byte[]
+     */
+    private static final class ThriftReader {
+        final byte[] bytes;
+        int position;
+
+        ThriftReader(byte[] bytes, int position) {
+            this.bytes = bytes;
+            this.position = position;
+        }
+
+        Map<Integer, Object> struct() {
+            Map<Integer, Object> fields = new HashMap<>();
+            int lastId = 0;
+            while (true) {
+                int header = bytes[position++] & 0xFF;
+                int type = header & 0x0F;
+                if (type == 0) {
+                    return fields;
+                }
+                int delta = header >>> 4;
+                int id = delta != 0 ? lastId + delta : (int) zigzag();
+                lastId = id;
+                fields.put(id, type == 1 || type == 2 ? Boolean.valueOf(type == 1) : value(type));
+            }
+        }
+
+        Object value(int type) {
+            switch (type) {
+                case 3:
+                    return (long) bytes[position++];
+                case 4:
+                case 5:
+                case 6:
+                    return zigzag();
+                case 8: {
+                    int length = (int) varint();
+                    byte[] value = new byte[length];
+                    System.arraycopy(bytes, position, value, 0, length);
+                    position += length;
+                    return value;
+                }
+                case 9: {
+                    int header = bytes[position++] & 0xFF;
+                    int size = header >>> 4 == 15 ? (int) varint() : header >>> 4;
+                    int elementType = header & 0x0F;
+                    List<Object> list = new ArrayList<>(size);
+                    for (int i = 0; i < size; i++) {
+                        list.add(value(elementType));
+                    }
+                    return list;
+                }
+                case 12:
+                    return struct();
+                default:
+                    throw new IllegalStateException("Unsupported thrift type " + type);
+            }
+        }
+
+        long varint() {
+            long value = 0;
+            int shift = 0;
+            while (true) {
+                int b = bytes[position++] & 0xFF;
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+                shift += 7;
+            }
+        }
+
+        long zigzag() {
+            long raw = varint();
+            return (raw >>> 1) ^ -(raw & 1);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.p3bustos.heliossim;
+
+import com.p3bustos.heliossim.domain.services.SimulationOrchestrator;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The test thread is the only ticker, and the drained battery is not shared with other tests
+@SpringBootTest(properties = "simulator.clock.enabled=false")
+@DirtiesContext
+class SimulationTickAllocationTests {
+
+    private static final int TICKS = 200_000;
+
+    @Autowired
+    private SimulationOrchestrator orchestrator;
+
+    @Test
+    void singleSiteTickDoesNotAllocate() {
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        long start = System.currentTimeMillis();
+
+        // Warm up so the measured loop runs compiled code
+        for (int i = 0; i < TICKS; i++) {
+            orchestrator.tick(start + i * 1000L, 1.0);
+        }
+
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < TICKS; i++) {
+            orchestrator.tick(start + i * 1000L, 1.0);
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        double bytesPerTick = (double) allocated / TICKS;
+        assertTrue(bytesPerTick < 1.0, "Tick allocated " + bytesPerTick + " bytes on average");
+    }
+}
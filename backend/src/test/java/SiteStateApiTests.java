@@ -0,0 +1,84 @@
+package com.p3bustos.heliossim;
+
+import com.p3bustos.heliossim.domain.services.FleetSimulator;
+import com.p3bustos.heliossim.infrastructure.state.StateResponseCache;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {
+    "simulator.clock.enabled=false",
+    "simulator.fleet.registry-file=classpath:fleet/sites-example.csv"
+})
+@AutoConfigureMockMvc
+class SiteStateApiTests {
+
+    private static final long NOON = 1_750_075_200_000L;
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private FleetSimulator fleetSimulator;
+
+    @Autowired
+    private StateResponseCache cache;
+
+    @Test
+    void servesCachedBytesWithPerTickETags() throws Exception {
+        fleetSimulator.tick(NOON, 60.0, null);
+
+        MvcResult first = mvc.perform(get("/api/sites/home-002/telemetry"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.site_id").value("home-002"))
+                .andReturn();
+        String etag = first.getResponse().getHeader("ETag");
+        assertNotNull(etag);
+
+        // Same tick: same ETag, same bytes, and a conditional request is answered without a body
+        var cached = cache.site("home-002", StateResponseCache.View.TELEMETRY).orElseThrow();
+        assertSame(cached.body(), cache.site("home-002", StateResponseCache.View.TELEMETRY).orElseThrow().body());
+        assertEquals(etag, cached.etag());
+        mvc.perform(get("/api/sites/home-002/telemetry").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+
+        mvc.perform(get("/api/sites/home-002/battery"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.soc_percent").isNumber());
+        mvc.perform(get("/api/sites/home-002/energy-flow"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.solar_to_load_kw").isNumber());
+
+        fleetSimulator.tick(NOON + 60_000, 60.0, null);
+        MvcResult next = mvc.perform(get("/api/sites/home-002/telemetry").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertNotEquals(etag, next.getResponse().getHeader("ETag"));
+
+        mvc.perform(get("/api/sites/nowhere/telemetry")).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void pagesTheFleet() throws Exception {
+        fleetSimulator.tick(NOON, 60.0, null);
+
+        mvc.perform(get("/api/fleet/sites").param("page", "1").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total_sites").value(5))
+                .andExpect(jsonPath("$.sites.length()").value(2))
+                .andExpect(jsonPath("$.sites[0].site_id").value("home-003"));
+        mvc.perform(get("/api/fleet/sites").param("page", "3").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sites.length()").value(0));
+        mvc.perform(get("/api/fleet/sites").param("size", "0"))
+                .andExpect(status().isBadRequest());
+    }
+}
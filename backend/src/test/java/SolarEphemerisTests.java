@@ -0,0 +1,76 @@
+package com.p3bustos.heliossim;
+
+import com.p3bustos.heliossim.domain.solar.ClearSkyTable;
+import com.p3bustos.heliossim.domain.solar.ClearSkyTableCache;
+import com.p3bustos.heliossim.domain.solar.SolarEphemeris;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SolarEphemerisTests {
+
+    @Test
+    void dayOfYearMatchesJavaTime() {
+        for (long epochDay = -150_000; epochDay < 150_000; epochDay += 7) {
+            assertEquals(LocalDate.ofEpochDay(epochDay).getDayOfYear(), SolarEphemeris.dayOfYear(epochDay),
+                "Day of year for " + LocalDate.ofEpochDay(epochDay));
+        }
+    }
+
+    @Test
+    void equinoxSunPassesOverheadAtTheEquator() {
+        int equinox = LocalDate.of(2025, 3, 20).getDayOfYear();
+        double highest = -1;
+        for (int minute = 0; minute < 1440; minute++) {
+            highest = Math.max(highest, SolarEphemeris.cosZenith(0.0, 0.0, equinox, minute));
+        }
+        assertEquals(1.0, highest, 0.001);
+
+        // Midnight at the Greenwich meridian is dark
+        assertEquals(0.0, SolarEphemeris.clearSkyIrradiance(0.0, 0.0, equinox, 0), 0.0);
+    }
+
+    @Test
+    void clearSkyPeaksNearOneThousandInSummer() {
+        var table = new ClearSkyTable(28.18, -82.43);
+        double peak = 0;
+        long day = ZonedDateTime.of(2025, 6, 21, 0, 0, 0, 0, ZoneOffset.UTC).toInstant().toEpochMilli();
+        for (int minute = 0; minute < 1440; minute++) {
+            peak = Math.max(peak, table.irradiance(day + minute * 60_000L));
+        }
+        assertTrue(peak > 950 && peak < 1100, "Peak clear-sky irradiance was " + peak);
+
+        // Tampa at 13:30 local time (17:30 UTC) is close to solar noon
+        assertEquals(peak, table.irradiance(Instant.parse("2025-06-21T17:30:00Z").toEpochMilli()), 15.0);
+    }
+
+    @Test
+    void tableInterpolatesTheDirectModel() {
+        var table = new ClearSkyTable(47.6, -122.3);
+        long start = Instant.parse("2025-02-03T00:00:00Z").toEpochMilli();
+        for (long t = start; t < start + 86_400_000L; t += 37_123) {
+            long epochDay = Math.floorDiv(t, 86_400_000L);
+            double minute = (t - epochDay * 86_400_000L) / 60_000.0;
+            double direct = SolarEphemeris.clearSkyIrradiance(47.6, -122.3,
+                SolarEphemeris.dayOfYear(epochDay), minute);
+            assertEquals(direct, table.irradiance(t), 1.0);
+        }
+    }
+
+    @Test
+    void nearbySitesShareATable() {
+        var cache = new ClearSkyTableCache(0.1);
+        ClearSkyTable tampa = cache.forLocation(28.18, -82.42);
+
+        assertSame(tampa, cache.forLocation(28.15, -82.45));
+        assertNotSame(tampa, cache.forLocation(28.25, -82.42));
+        assertEquals(2, cache.size());
+        assertEquals(28.15, tampa.getLatitude(), 1e-9);
+        assertEquals(-82.45, tampa.getLongitude(), 1e-9);
+    }
+}
@@ -0,0 +1,63 @@
+package com.p3bustos.heliossim;
+
+import com.p3bustos.heliossim.domain.kernels.SolarProductionKernel;
+import com.p3bustos.heliossim.domain.models.FleetState;
+import com.p3bustos.heliossim.domain.models.SiteDefinition;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SolarProductionKernelTests {
+
+    // Not a multiple of any SIMD width, so the scalar tail is exercised too
+    private static final int SITES = 1_003;
+
+    @Test
+    void vectorKernelIsSelectedWhenTheModuleIsPresent() {
+        // Surefire runs with --add-modules jdk.incubator.vector
+        assertTrue(SolarProductionKernel.best().name().startsWith("vector"));
+    }
+
+    @Test
+    void vectorKernelMatchesScalar() {
+        var random = new SplittableRandom(7);
+        List<SiteDefinition> sites = new ArrayList<>(SITES);
+        for (int i = 0; i < SITES; i++) {
+            sites.add(SiteDefinition.builder()
+                    .siteId("site-" + i).timezone("UTC")
+                    .solarCapacityKw(random.nextDouble(2, 15))
+                    .panelEfficiency(random.nextDouble(0.15, 0.23))
+                    .inverterEfficiency(random.nextDouble(0.9, 0.98))
+                    .temperatureCoefficient(random.nextDouble(-0.005, -0.003))
+                    .batteryCapacityKwh(10).maxChargeRateKw(5).maxDischargeRateKw(5)
+                    .initialSocPercent(50).minSocPercent(10).maxSocPercent(95).roundTripEfficiency(0.9)
+                    .baselineKw(1).peakMorningKw(2).peakEveningKw(3).morningPeakHour(7).eveningPeakHour(19)
+                    .build());
+        }
+        double[] irradiance = new double[SITES];
+        double[] ambient = new double[SITES];
+        for (int i = 0; i < SITES; i++) {
+            // Include night and extreme heat, where deration would drive production negative
+            irradiance[i] = i % 10 == 0 ? 0.0 : random.nextDouble(0, 1100);
+            ambient[i] = i % 17 == 0 ? 400.0 : random.nextDouble(-20, 45);
+        }
+
+        var scalar = new FleetState(sites);
+        var vector = new FleetState(sites);
+        SolarProductionKernel.scalar().calculateProduction(scalar, 0, SITES, irradiance, ambient);
+        // Start off a vector boundary to cover shard ranges that are not aligned
+        SolarProductionKernel.best().calculateProduction(vector, 0, 3, irradiance, ambient);
+        SolarProductionKernel.best().calculateProduction(vector, 3, SITES, irradiance, ambient);
+
+        for (int i = 0; i < SITES; i++) {
+            assertEquals(scalar.getProductionKw()[i], vector.getProductionKw()[i], 1e-12, "production " + i);
+            assertEquals(scalar.getPanelTempC()[i], vector.getPanelTempC()[i], 1e-12, "panel temp " + i);
+            assertEquals(scalar.getIrradianceWM2()[i], vector.getIrradianceWM2()[i], 0.0, "irradiance " + i);
+            assertTrue(vector.getProductionKw()[i] >= 0);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.p3bustos.heliossim;
+
+import com.p3bustos.heliossim.domain.models.EnergyBalance;
+import com.p3bustos.heliossim.domain.models.SeqLock;
+import com.p3bustos.heliossim.domain.models.TelemetryFrame;
+import com.p3bustos.heliossim.domain.services.FleetSimulator;
+import com.p3bustos.heliossim.domain.services.SimulationOrchestrator;
+import com.p3bustos.heliossim.domain.services.SolarSimulator;
+import com.p3bustos.heliossim.dto.WeatherData;
+import com.p3bustos.heliossim.infrastructure.fleet.SiteRegistryLoader;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "simulator.clock.enabled=false")
+class StateSnapshotTests {
+
+    private static final long START = 1_750_000_000_000L;
+
+    @Autowired
+    private SimulationOrchestrator orchestrator;
+
+    @Autowired
+    private SolarSimulator solarSimulator;
+
+    @Autowired
+    private SiteRegistryLoader registryLoader;
+
+    @Test
+    void readersNeverSeeATornSiteFrame() throws Exception {
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<String> torn = new AtomicReference<>();
+        Thread[] readers = new Thread[3];
+        for (int r = 0; r < readers.length; r++) {
+            readers[r] = new Thread(() -> {
+                TelemetryFrame frame = new TelemetryFrame();
+                long lastTick = 0;
+                while (!done.get() && torn.get() == null) {
+                    long tick = orchestrator.readTelemetry(frame);
+                    if (tick < lastTick) {
+                        torn.set("Tick went backwards from " + lastTick + " to " + tick);
+                    }
+                    lastTick = tick;
+                    if (tick > 0) {
+                        check(frame, torn);
+                    }
+                }
+            });
+            readers[r].start();
+        }
+
+        // One second ticks across a day of weather changes, so every field keeps moving
+        for (int i = 0; i < 200_000; i++) {
+            if (i % 10_000 == 0) {
+                orchestrator.updateWeather(WeatherData.builder()
+                        .temperatureC(15.0 + i / 10_000)
+                        .cloudCoverPercent((i / 10_000) % 2 == 0 ? 0 : 80)
+                        .build());
+            }
+            orchestrator.tick(START + i * 1_000L, 1.0);
+        }
+        done.set(true);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        assertNull(torn.get());
+        TelemetryFrame latest = new TelemetryFrame();
+        assertTrue(orchestrator.readTelemetry(latest) >= 200_000);
+        assertEquals(START + 199_999 * 1_000L, latest.getEpochMilli());
+    }
+
+    @Test
+    void fleetReadsAreConsistentWithTheirTick() throws Exception {
+        var fleet = new FleetSimulator(solarSimulator, 2, 64);
+        try {
+            fleet.loadSites(registryLoader.synthetic(512, 3L));
+            AtomicBoolean done = new AtomicBoolean();
+            AtomicReference<String> torn = new AtomicReference<>();
+            Thread reader = new Thread(() -> {
+                TelemetryFrame frame = new TelemetryFrame();
+                EnergyBalance balance = EnergyBalance.builder().build();
+                int site = 0;
+                while (!done.get() && torn.get() == null) {
+                    long tick = fleet.readSite(site, frame);
+                    if (tick > 0) {
+                        check(frame, torn);
+                        if (frame.getEpochMilli() != START + (tick - 1) * 60_000L) {
+                            torn.set("Site " + site + " at " + frame.getEpochMilli() + " read with tick " + tick);
+                        }
+                    }
+                    fleet.readBalance(balance);
+                    site = (site + 1) % 512;
+                }
+            });
+            reader.start();
+
+            for (int t = 0; t < 20_000; t++) {
+                fleet.tick(START + t * 60_000L, 60.0, null);
+            }
+            done.set(true);
+            reader.join();
+
+            assertNull(torn.get());
+            assertEquals(20_000, fleet.getTickCount());
+            assertThrows(IndexOutOfBoundsException.class, () -> fleet.readSite(512, new TelemetryFrame()));
+        } finally {
+            fleet.shutdown();
+        }
+    }
+
+    @Test
+    void overlappingWriteFailsWithoutBreakingTheSequence() throws Exception {
+        var lock = new SeqLock();
+        lock.beginWrite();
+        AtomicReference<Throwable> second = new AtomicReference<>();
+        Thread writer = new Thread(() -> {
+            try {
+                lock.beginWrite();
+            } catch (Throwable e) {
+                second.set(e);
+            }
+        });
+        writer.start();
+        writer.join();
+        lock.endWrite();
+
+        assertInstanceOf(IllegalStateException.class, second.get());
+        assertEquals(1, lock.getWrites());
+        assertTrue(lock.validate(lock.readBegin()));
+    }
+
+    /**
+     * Fields written by one tick satisfy the dispatch and battery models together
+     */
+    private static void check(TelemetryFrame frame, AtomicReference<String> torn) {
+        double served = frame.getSolarToLoadKw() + frame.getBatteryToLoadKw() + frame.getGridToLoadKw();
+        double voltage = 48.0 + frame.getSocPercent() / 100.0 * 6.0;
+        if (Math.abs(served - frame.getLoadConsumptionKw()) > 0.011 || voltage != frame.getBatteryVoltageV()) {
+            torn.compareAndSet(null, "Inconsistent frame: " + frame);
+        }
+    }
+}
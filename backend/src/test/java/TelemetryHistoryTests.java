@@ -0,0 +1,216 @@
+package com.p3bustos.heliossim;
+
+import com.p3bustos.heliossim.config.SimulatorProperties;
+import com.p3bustos.heliossim.domain.models.TelemetryFrame;
+import com.p3bustos.heliossim.dto.HistoryPoint;
+import com.p3bustos.heliossim.dto.TelemetryHistoryResponse;
+import com.p3bustos.heliossim.infrastructure.history.HistoryResolution;
+import com.p3bustos.heliossim.infrastructure.history.TelemetryHistory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TelemetryHistoryTests {
+
+    private static final Instant T0 = Instant.parse("2025-06-01T00:00:00Z");
+    private static final long TICK_MILLIS = 5_000;
+    private static final int LARGE_FLEET = 20_000;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void rollupsAggregatePowerAndEnergy() {
+        TelemetryHistory history = history(properties());
+        // Two days at 5 s: solar ramps 0..1 kW within each hour, load is a steady 2 kW
+        feed(history, Duration.ofDays(2));
+
+        TelemetryHistoryResponse hour = query(history, T0, T0.plus(Duration.ofHours(1)), 1, HistoryResolution.HOUR);
+        assertEquals("1h", hour.getResolution());
+        assertEquals(1, hour.getPoints().size());
+        HistoryPoint bucket = hour.getPoints().get(0);
+        assertEquals(720, bucket.getSamples());
+        assertEquals(0.0, bucket.getSolar().getMin(), 1e-9);
+        assertEquals(719 / 720.0, bucket.getSolar().getMax(), 1e-9);
+        assertEquals(2.0, bucket.getLoad().getAvg(), 1e-9);
+        // The first sample has no predecessor, so the first hour misses one tick of energy
+        assertEquals(2.0 * 719 / 720, bucket.getLoad().getEnergyKwh(), 1e-9);
+        assertNull(bucket.getSoc().getEnergyKwh());
+
+        TelemetryHistoryResponse quarters = query(history, T0.plus(Duration.ofHours(1)), T0.plus(Duration.ofHours(2)),
+            4, HistoryResolution.QUARTER_HOUR);
+        assertEquals(4, quarters.getPoints().size());
+        for (HistoryPoint quarter : quarters.getPoints()) {
+            assertEquals(0.5, quarter.getLoad().getEnergyKwh(), 1e-9);
+        }
+    }
+
+    @Test
+    void picksTheCoarsestResolutionWithEnoughDetail() {
+        TelemetryHistory history = history(properties());
+        feed(history, Duration.ofDays(2));
+        Instant end = T0.plus(Duration.ofDays(2));
+
+        assertEquals("raw", query(history, end.minus(Duration.ofMinutes(10)), end, 100, null).getResolution());
+        assertEquals("1m", query(history, end.minus(Duration.ofDays(1)), end, 300, null).getResolution());
+        assertEquals("15m", query(history, end.minus(Duration.ofDays(7)), end, 300, null).getResolution());
+        assertEquals("1h", query(history, end.minus(Duration.ofDays(60)), end, 300, null).getResolution());
+
+        TelemetryHistoryResponse day = query(history, end.minus(Duration.ofDays(1)), end, 300, null);
+        assertEquals(1440, day.getPoints().size());
+        assertEquals(end.minus(Duration.ofDays(1)), day.getPoints().get(0).getTimestamp());
+    }
+
+    @Test
+    void memoryIsBoundedAndOverwrittenDataIsServedFromRollups() {
+        SimulatorProperties properties = properties();
+        properties.getHistory().setRawCapacity(720);
+        properties.getHistory().setMinuteCapacity(120);
+        TelemetryHistory history = history(properties);
+        feed(history, Duration.ofDays(1));
+        Instant end = T0.plus(Duration.ofDays(1));
+
+        assertEquals(720, query(history, T0, end, 1, HistoryResolution.RAW).getPoints().size());
+        assertEquals(120, query(history, T0, end, 1, HistoryResolution.MINUTE).getPoints().size());
+
+        // Raw only covers the last hour, so a 3-hour detailed query falls back to 15-minute buckets
+        assertEquals("15m", query(history, end.minus(Duration.ofHours(3)), end, 10_000, null).getResolution());
+        assertEquals("raw", query(history, end.minus(Duration.ofMinutes(30)), end, 10_000, null).getResolution());
+    }
+
+    @Test
+    void unknownSitesHaveNoHistory() {
+        assertTrue(history(properties()).query("nope", T0, T0.plusSeconds(60), 10, null).isEmpty());
+    }
+
+    @Test
+    void aSiteThatAppearsLaterIsAllocatedOffThePublishingThread() {
+        SimulatorProperties properties = properties();
+        TelemetryHistory history = history(properties);
+        TelemetryFrame frame = new TelemetryFrame();
+        frame.setSiteOrdinal(1);
+        frame.setSiteId("site-2");
+        frame.setEpochMilli(T0.toEpochMilli());
+
+        // The first frame only requests storage; it is dropped
+        history.publish(frame);
+        Await.awaitTrue(() -> history.getAllocatedBytes() == 2 * history.bytesPerSite());
+        assertTrue(history.query("site-2", T0, T0.plusSeconds(60), 10, HistoryResolution.RAW).orElseThrow()
+                .getPoints().isEmpty());
+
+        frame.setEpochMilli(T0.toEpochMilli() + TICK_MILLIS);
+        history.publish(frame);
+        assertEquals(1, query(history, "site-2", T0, T0.plusSeconds(60)).getPoints().size());
+        history.stop();
+    }
+
+    @Test
+    void newSitesBeyondTheBudgetGetNoHistory() {
+        SimulatorProperties properties = properties();
+        TelemetryHistory probe = history(properties);
+        properties.getHistory().setMemoryBudget(DataSize.ofBytes(probe.bytesPerSite()));
+        TelemetryHistory history = history(properties);
+
+        TelemetryFrame frame = new TelemetryFrame();
+        frame.setSiteOrdinal(1);
+        frame.setSiteId("site-2");
+        history.publish(frame);
+        // Stopping waits for the pending allocation
+        history.stop();
+        assertEquals(probe.bytesPerSite(), history.getAllocatedBytes());
+        assertTrue(history.query("site-2", T0, T0.plusSeconds(60), 10, null).isEmpty());
+        probe.stop();
+    }
+
+    @Test
+    void aLargeFleetStartsWithoutHistoryUnlessEnabled() throws IOException {
+        try (ConfigurableApplicationContext context = boot()) {
+            assertTrue(context.getBeansOfType(TelemetryHistory.class).isEmpty());
+        }
+    }
+
+    @Test
+    void aLargeFleetFailsFastWhenItsHistoryWouldExceedTheBudget() throws IOException {
+        Exception failure = assertThrows(Exception.class, () -> boot("--simulator.history.enabled=true").close());
+        Throwable cause = NestedExceptionUtils.getMostSpecificCause(failure);
+        assertInstanceOf(IllegalStateException.class, cause);
+        assertTrue(cause.getMessage().contains("simulator.history.memory-budget"), cause.getMessage());
+    }
+
+    @Test
+    void aLargeFleetHistoryStaysWithinTheBudget() throws IOException {
+        try (ConfigurableApplicationContext context = boot("--simulator.history.enabled=true",
+                // Five minutes of raw ticks and a few buckets of each rollup
+                "--simulator.history.raw-capacity=60",
+                "--simulator.history.minute-capacity=15",
+                "--simulator.history.quarter-hour-capacity=4",
+                "--simulator.history.hour-capacity=2",
+                "--simulator.history.memory-budget=256MB")) {
+            TelemetryHistory history = context.getBean(TelemetryHistory.class);
+            assertEquals(LARGE_FLEET * history.bytesPerSite(), history.getAllocatedBytes());
+            assertTrue(history.getAllocatedBytes() <= DataSize.ofMegabytes(256).toBytes());
+            assertTrue(history.query("site-19999", T0, T0.plusSeconds(60), 10, null).isPresent());
+        }
+    }
+
+    private ConfigurableApplicationContext boot(String... args) throws IOException {
+        Path registry = directory.resolve("sites.csv");
+        if (!Files.exists(registry)) {
+            StringBuilder csv = new StringBuilder("site_id,latitude,longitude,timezone\n");
+            for (int i = 0; i < LARGE_FLEET; i++) {
+                csv.append(String.format("site-%05d,%.4f,-82.0,America/New_York%n", i, 27.0 + i * 1e-4));
+            }
+            Files.writeString(registry, csv);
+        }
+        String[] all = new String[args.length + 3];
+        all[0] = "--simulator.clock.enabled=false";
+        all[1] = "--server.port=0";
+        all[2] = "--simulator.fleet.registry-file=file:" + registry;
+        System.arraycopy(args, 0, all, 3, args.length);
+        return new SpringApplicationBuilder(HeliosSimApplication.class).run(all);
+    }
+
+    private static void feed(TelemetryHistory history, Duration duration) {
+        TelemetryFrame frame = new TelemetryFrame();
+        frame.setSiteId("site-1");
+        long ticks = duration.toMillis() / TICK_MILLIS;
+        for (long i = 0; i < ticks; i++) {
+            frame.setEpochMilli(T0.toEpochMilli() + i * TICK_MILLIS);
+            frame.setSolarProductionKw((i % 720) / 720.0);
+            frame.setLoadConsumptionKw(2.0);
+            frame.setSocPercent(50);
+            history.publish(frame);
+        }
+    }
+
+    private static TelemetryHistoryResponse query(TelemetryHistory history, Instant from, Instant to,
+                                                  int points, HistoryResolution resolution) {
+        return history.query("site-1", from, to, points, resolution).orElseThrow();
+    }
+
+    private static TelemetryHistoryResponse query(TelemetryHistory history, String siteId, Instant from, Instant to) {
+        return history.query(siteId, from, to, 10, HistoryResolution.RAW).orElseThrow();
+    }
+
+    private static TelemetryHistory history(SimulatorProperties properties) {
+        return new TelemetryHistory(properties, List.of("site-1"));
+    }
+
+    private static SimulatorProperties properties() {
+        SimulatorProperties properties = new SimulatorProperties();
+        properties.getPublishing().setRateMs(TICK_MILLIS);
+        return properties;
+    }
+}
@@ -0,0 +1,259 @@
+package com.p3bustos.heliossim;
+
+import com.p3bustos.heliossim.config.SimulatorProperties;
+import com.p3bustos.heliossim.domain.models.TelemetryFrame;
+import com.p3bustos.heliossim.infrastructure.journal.SegmentedJournalWriter;
+import com.p3bustos.heliossim.infrastructure.journal.TelemetryJournal;
+import com.p3bustos.heliossim.infrastructure.journal.TelemetryJournalReader;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TelemetryJournalTests {
+
+    private static final long T0 = 1_750_000_000_000L;
+    // Committed bit length in the segment header
+    private static final int COMMITTED_BITS_OFFSET = 16;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void roundTripsEveryFieldAcrossSegmentRolls() throws IOException {
+        TelemetryJournal journal = start(52);
+        List<TelemetryFrame> written = new ArrayList<>();
+        SplittableRandom random = new SplittableRandom(42);
+        long epochMilli = T0;
+        for (int i = 0; i < 20_000; i++) {
+            // Three interleaved sites, jittered timestamps, and values that are sometimes unchanged
+            epochMilli += 1000 + random.nextInt(-40, 40) + (i % 5_000 == 0 ? 3_600_000 : 0);
+            TelemetryFrame frame = frame(i % 3, epochMilli, random);
+            journal.publish(frame);
+            written.add(frame);
+        }
+        journal.stop();
+
+        List<TelemetryFrame> read = readAll();
+        assertTrue(segmentCount() > 2, "Expected the journal to roll over");
+        assertEquals(written, read);
+    }
+
+    @Test
+    void rollingOverOnlySwapsInASegmentPreparedInTheBackground() throws IOException {
+        Queue<Runnable> background = new ArrayDeque<>();
+        SegmentedJournalWriter writer = new SegmentedJournalWriter(directory, 64 * 1024, 52, background::add);
+        runAll(background);
+        assertEquals(2, segmentCount(), "The next segment is created ahead of time");
+
+        List<TelemetryFrame> written = new ArrayList<>();
+        SplittableRandom random = new SplittableRandom(3);
+        for (int i = 0; writer.position().sequence() == 0; i++) {
+            TelemetryFrame frame = frame(i % 3, T0 + i * 1000L, random);
+            writer.append(frame);
+            written.add(frame);
+        }
+        // The appending thread switched to the prepared segment and left the rest to the background
+        assertEquals(2, segmentCount());
+        assertEquals(1, background.size());
+
+        runAll(background);
+        assertEquals(3, segmentCount());
+        TelemetryFrame last = frame(0, T0 + written.size() * 1000L, random);
+        writer.append(last);
+        written.add(last);
+        writer.close();
+
+        assertEquals(2, segmentCount(), "The unused segment is removed on close");
+        assertEquals(written, readAll());
+    }
+
+    @Test
+    void recoveryDropsATornTailAndRecordingContinues() throws IOException {
+        TelemetryJournal journal = start(52);
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < 100; i++) {
+            journal.publish(frame(0, T0 + i * 1000L, random));
+        }
+        journal.stop();
+
+        // A crash between advancing the header and finishing the record leaves it pointing past the data
+        Path segment = segments().get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, 64);
+            header.putLong(COMMITTED_BITS_OFFSET, header.getLong(COMMITTED_BITS_OFFSET) - 20);
+            header.force();
+        }
+
+        journal = start(52);
+        for (int i = 0; i < 10; i++) {
+            journal.publish(frame(0, T0 + (200 + i) * 1000L, random));
+        }
+        journal.stop();
+
+        List<TelemetryFrame> read = readAll();
+        assertEquals(109, read.size());
+        assertEquals(T0 + 98_000, read.get(98).getEpochMilli());
+        assertEquals(T0 + 200_000, read.get(99).getEpochMilli());
+    }
+
+    @Test
+    void recoveryRemovesTheSegmentPreparedBeforeACrash() throws IOException {
+        TelemetryJournal crashed = start(52);
+        SplittableRandom random = new SplittableRandom(5);
+        for (int i = 0; i < 100; i++) {
+            crashed.publish(frame(0, T0 + i * 1000L, random));
+        }
+        // Never stopped: the empty next segment stays behind as after a crash
+        Await.awaitTrue(() -> segments().size() == 2);
+
+        TelemetryJournal journal = start(52);
+        for (int i = 0; i < 10; i++) {
+            journal.publish(frame(0, T0 + (200 + i) * 1000L, random));
+        }
+        journal.stop();
+
+        List<TelemetryFrame> read = readAll();
+        assertEquals(110, read.size());
+        assertEquals(T0 + 200_000, read.get(100).getEpochMilli());
+        assertEquals(2, segmentCount());
+    }
+
+    @Test
+    void recoveryStopsAtAZeroFilledTail() throws IOException {
+        TelemetryJournal journal = start(52);
+        SplittableRandom random = new SplittableRandom(11);
+        for (int i = 0; i < 100; i++) {
+            journal.publish(frame(0, T0 + i * 1000L, random));
+        }
+        journal.stop();
+
+        // Power loss after the header reached disk but the data pages did not: the tail reads as zeros
+        Path segment = segments().get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, 64);
+            header.putLong(COMMITTED_BITS_OFFSET, header.getLong(COMMITTED_BITS_OFFSET) + 8 * 1024);
+            header.force();
+        }
+
+        journal = start(52);
+        for (int i = 0; i < 10; i++) {
+            journal.publish(frame(0, T0 + (200 + i) * 1000L, random));
+        }
+        journal.stop();
+
+        List<TelemetryFrame> read = readAll();
+        assertEquals(110, read.size());
+        assertEquals(T0 + 99_000, read.get(99).getEpochMilli());
+        assertEquals(T0 + 200_000, read.get(100).getEpochMilli());
+    }
+
+    @Test
+    void slowlyChangingTelemetryStaysUnderTwoBytesPerValue() throws IOException {
+        TelemetryJournal journal = start(new SimulatorProperties().getJournal().getMantissaBits());
+        TelemetryFrame frame = new TelemetryFrame();
+        frame.setSiteId("site-1");
+        frame.setBatteryVoltageV(51.2);
+        double soc = 50;
+        int ticks = 17_280;
+        for (int i = 0; i < ticks; i++) {
+            // One day at 5 s: a solar bell curve, a load that steps hourly, SOC following the surplus
+            double dayFraction = i / (double) ticks;
+            double solar = Math.max(0, 6 * Math.sin(Math.PI * (dayFraction - 0.25) * 2));
+            double load = 0.8 + (i / 720 % 4) * 0.4;
+            double battery = Math.max(-3, Math.min(3, solar - load));
+            soc = Math.max(10, Math.min(95, soc + battery * 5 / 3600 / 13.5 * 100));
+            frame.setEpochMilli(T0 + i * 5000L);
+            frame.setSolarProductionKw(solar);
+            frame.setIrradianceWM2(solar * 150);
+            frame.setLoadConsumptionKw(load);
+            frame.setSocPercent(soc);
+            frame.setBatteryPowerKw(soc <= 10 || soc >= 95 ? 0 : battery);
+            frame.setGridPowerKw(load - solar + frame.getBatteryPowerKw());
+            journal.publish(frame);
+        }
+        double bytesPerValue = journal.getBytesWritten() / ticks / 15.0;
+        journal.stop();
+
+        assertTrue(bytesPerValue < 2.0, bytesPerValue + " bytes per value");
+        assertEquals(ticks, readAll().size());
+    }
+
+    private static void runAll(Queue<Runnable> tasks) {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            task.run();
+        }
+    }
+
+    private TelemetryJournal start(int mantissaBits) throws IOException {
+        SimulatorProperties properties = new SimulatorProperties();
+        properties.getJournal().setDirectory(directory.toString());
+        properties.getJournal().setSegmentSize(DataSize.ofKilobytes(64));
+        properties.getJournal().setMantissaBits(mantissaBits);
+        TelemetryJournal journal = new TelemetryJournal(properties, new SimpleMeterRegistry());
+        journal.start();
+        return journal;
+    }
+
+    private List<TelemetryFrame> readAll() throws IOException {
+        List<TelemetryFrame> frames = new ArrayList<>();
+        try (TelemetryJournalReader reader = new TelemetryJournalReader(directory)) {
+            TelemetryFrame frame = new TelemetryFrame();
+            while (reader.next(frame)) {
+                frames.add(new TelemetryFrame().copyFrom(frame));
+            }
+        }
+        return frames;
+    }
+
+    private List<Path> segments() {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private int segmentCount() throws IOException {
+        return segments().size();
+    }
+
+    private static TelemetryFrame frame(int ordinal, long epochMilli, SplittableRandom random) {
+        TelemetryFrame frame = new TelemetryFrame();
+        frame.setSiteOrdinal(ordinal);
+        frame.setSiteId("site-" + ordinal);
+        frame.setEpochMilli(epochMilli);
+        frame.setSolarProductionKw(random.nextInt(4) == 0 ? 0 : random.nextDouble(0, 8));
+        frame.setIrradianceWM2(random.nextDouble(0, 1000));
+        frame.setPanelTempC(random.nextDouble(-10, 60));
+        frame.setSocPercent(random.nextDouble(10, 95));
+        frame.setBatteryPowerKw(random.nextInt(3) == 0 ? 0 : random.nextDouble(-5, 5));
+        frame.setBatteryVoltageV(51.2);
+        frame.setBatteryCurrentA(random.nextDouble(-100, 100));
+        frame.setLoadConsumptionKw(random.nextDouble(0.3, 4));
+        frame.setGridPowerKw(random.nextDouble(-5, 5));
+        frame.setSolarToLoadKw(random.nextDouble(0, 4));
+        frame.setSolarToBatteryKw(random.nextDouble(0, 4));
+        frame.setSolarToGridKw(Double.NaN);
+        frame.setBatteryToLoadKw(Double.MAX_VALUE);
+        frame.setGridToLoadKw(Double.MIN_VALUE);
+        return frame;
+    }
+}
@@ -0,0 +1,131 @@
+package com.p3bustos.heliossim;
+
+import com.p3bustos.heliossim.config.SimulatorProperties;
+import com.p3bustos.heliossim.domain.models.TelemetryFrame;
+import com.p3bustos.heliossim.domain.services.TelemetryPublisher;
+import com.p3bustos.heliossim.dto.ReplayStatus;
+import com.p3bustos.heliossim.infrastructure.journal.TelemetryJournal;
+import com.p3bustos.heliossim.infrastructure.replay.TelemetryReplayer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TelemetryReplayerTests {
+
+    private static final long T0 = 1_750_000_000_000L;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replaysEveryFrameInOrderAsFastAsPossible() throws Exception {
+        record(1_000, 10, 1_000);
+        RecordingPublisher publisher = new RecordingPublisher();
+        TelemetryReplayer replayer = replayer(publisher, false);
+
+        replayer.start(0, false);
+        ReplayStatus status = replayer.awaitCompletion(30, TimeUnit.SECONDS);
+
+        assertEquals("completed", status.getState());
+        assertEquals(10_000, status.getFrames());
+        assertEquals(10_000, publisher.frames.size());
+        assertNull(status.getRequestedRate());
+        assertTrue(status.getAchievedRate() > 0);
+        for (int i = 0; i < publisher.frames.size(); i++) {
+            TelemetryFrame frame = publisher.frames.get(i);
+            assertEquals(T0 + (i / 10) * 1_000L, frame.getEpochMilli());
+            assertEquals("site-" + i % 10, frame.getSiteId());
+            assertEquals(i, frame.getSocPercent());
+        }
+    }
+
+    @Test
+    void pacesFramesAtTheRequestedSpeedWithoutDrift() throws Exception {
+        // 20 s recorded at 100 ms ticks, replayed at 50x: 0.4 s of wall time
+        record(200, 5, 100);
+        RecordingPublisher publisher = new RecordingPublisher();
+        TelemetryReplayer replayer = replayer(publisher, true);
+
+        replayer.start(50, false);
+        ReplayStatus status = replayer.awaitCompletion(30, TimeUnit.SECONDS);
+
+        assertEquals(1_000, status.getFrames());
+        assertEquals(19.9, status.getRecordedSeconds(), 1e-9);
+        assertTrue(status.getWallSeconds() >= 0.39 && status.getWallSeconds() < 1.0,
+            "Replay took " + status.getWallSeconds() + " s");
+        assertEquals(50, status.getAchievedSpeed(), 15);
+        assertEquals(status.getRequestedRate(), status.getAchievedRate(), status.getRequestedRate() * 0.3);
+
+        // Rebased timestamps advance at the replay pace from the start of the replay
+        long start = status.getStartedAt().toEpochMilli();
+        for (int i = 0; i < publisher.frames.size(); i++) {
+            assertEquals(start + (i / 5) * 2L, publisher.frames.get(i).getEpochMilli());
+        }
+    }
+
+    @Test
+    void loopsUntilStoppedWithTimestampsMovingForward() throws Exception {
+        record(10, 1, 1_000);
+        RecordingPublisher publisher = new RecordingPublisher();
+        TelemetryReplayer replayer = replayer(publisher, false);
+
+        replayer.start(0, true);
+        while (replayer.status().getPasses() < 3) {
+            Thread.sleep(1);
+        }
+        ReplayStatus status = replayer.stop();
+
+        assertEquals("stopped", status.getState());
+        assertTrue(status.getPasses() >= 3);
+        assertEquals(T0 + 10_000, publisher.frames.get(10).getEpochMilli());
+        assertEquals(T0 + 20_000, publisher.frames.get(20).getEpochMilli());
+        assertThrows(IllegalStateException.class, () -> {
+            replayer.start(0, true);
+            replayer.start(0, true);
+        });
+        replayer.stop();
+    }
+
+    private void record(int ticks, int sites, long tickMillis) throws IOException {
+        SimulatorProperties properties = new SimulatorProperties();
+        properties.getJournal().setDirectory(directory.toString());
+        TelemetryJournal journal = new TelemetryJournal(properties, new SimpleMeterRegistry());
+        journal.start();
+        TelemetryFrame frame = new TelemetryFrame();
+        int n = 0;
+        for (int tick = 0; tick < ticks; tick++) {
+            for (int site = 0; site < sites; site++) {
+                frame.setSiteOrdinal(site);
+                frame.setSiteId("site-" + site);
+                frame.setEpochMilli(T0 + tick * tickMillis);
+                frame.setSocPercent(n++);
+                journal.publish(frame);
+            }
+        }
+        journal.stop();
+    }
+
+    private TelemetryReplayer replayer(TelemetryPublisher publisher, boolean rebaseTimestamps) {
+        SimulatorProperties properties = new SimulatorProperties();
+        properties.getReplay().setDirectory(directory.toString());
+        properties.getReplay().setRebaseTimestamps(rebaseTimestamps);
+        return new TelemetryReplayer(properties, List.of(publisher), new SimpleMeterRegistry());
+    }
+
+    private static class RecordingPublisher implements TelemetryPublisher {
+        final List<TelemetryFrame> frames = new ArrayList<>();
+
+        @Override
+        public void publish(TelemetryFrame frame) {
+            frames.add(new TelemetryFrame().copyFrom(frame));
+        }
+    }
+}
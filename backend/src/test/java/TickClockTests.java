@@ -0,0 +1,59 @@
+package com.p3bustos.heliossim;
+
+import com.p3bustos.heliossim.config.SimulatorProperties.Clock.OverrunPolicy;
+import com.p3bustos.heliossim.infrastructure.clock.TickClock;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TickClockTests {
+
+    private static final long PERIOD = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long START = 1_000_000_000L;
+    private static final long START_MILLIS = 1_750_000_000_000L;
+
+    @Test
+    void deadlinesDoNotDriftAndDeltasAreMeasured() {
+        TickClock clock = new TickClock(PERIOD, OverrunPolicy.SKIP, 0, START, START_MILLIS);
+        long elapsed = 0;
+        for (int k = 1; k <= 1000; k++) {
+            long deadline = clock.getNextDeadlineNanos();
+            assertEquals(START + k * PERIOD, deadline);
+            // Start up to 3 ms late; the next deadline stays on the grid
+            long jitter = (k * 7919L) % 3_000_000L;
+            clock.begin(deadline + jitter);
+            elapsed += clock.getDeltaNanos();
+            assertEquals(jitter, clock.getLatenessNanos());
+            assertEquals(deadline + jitter - START, elapsed);
+        }
+        assertEquals(START_MILLIS + (clock.getStampNanos() - START) / 1_000_000, clock.epochMilli());
+        assertEquals(0, clock.getSkippedTicks());
+    }
+
+    @Test
+    void overrunsAreSkippedOrCaughtUp() {
+        // A 35 ms stall at the second tick misses three deadlines
+        TickClock skip = new TickClock(PERIOD, OverrunPolicy.SKIP, 10, START, START_MILLIS);
+        skip.begin(START + PERIOD);
+        skip.begin(START + 2 * PERIOD + 35_000_000L);
+        assertEquals(3, skip.getSkippedTicks());
+        assertEquals(START + 6 * PERIOD, skip.getNextDeadlineNanos());
+        assertEquals(PERIOD + 35_000_000L, skip.getDeltaNanos());
+
+        TickClock catchUp = new TickClock(PERIOD, OverrunPolicy.CATCH_UP, 2, START, START_MILLIS);
+        catchUp.begin(START + PERIOD);
+        long now = START + 2 * PERIOD + 35_000_000L;
+        long elapsed = 0;
+        for (int t = 0; t < 3; t++) {
+            catchUp.begin(Math.max(now, catchUp.getNextDeadlineNanos()));
+            elapsed += catchUp.getDeltaNanos();
+        }
+        // Two missed deadlines are replayed at their own times, the rest are skipped
+        assertEquals(2, catchUp.getCaughtUpTicks());
+        assertEquals(1, catchUp.getSkippedTicks());
+        assertEquals(now - (START + PERIOD), elapsed);
+        assertEquals(START + 6 * PERIOD, catchUp.getNextDeadlineNanos());
+    }
+}
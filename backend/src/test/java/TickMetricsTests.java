@@ -0,0 +1,93 @@
+package com.p3bustos.heliossim;
+
+import com.p3bustos.heliossim.config.SimulatorProperties.Clock.OverrunPolicy;
+import com.p3bustos.heliossim.infrastructure.clock.TickClock;
+import com.p3bustos.heliossim.infrastructure.metrics.TickMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TickMetricsTests {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long PERIOD = 10 * MS;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicLong nanoTime = new AtomicLong(1_000_000_000L);
+    private final TickMetrics metrics = new TickMetrics(registry, nanoTime::get);
+
+    @Test
+    void publishesPercentilesCountsAndOverruns() {
+        // 1 ms to 100 ms; the last 90 exceed the 10 ms period
+        for (int i = 1; i <= 100; i++) {
+            metrics.recordTick(i * MS, PERIOD);
+        }
+
+        assertEquals(0.050, gauge("helios.tick.latency", "0.5"), 0.050 * 1e-3);
+        assertEquals(0.099, gauge("helios.tick.latency", "0.99"), 0.099 * 1e-3);
+        assertEquals(0.100, registry.get("helios.tick.latency.max").gauge().value(), 0.100 * 1e-3);
+        assertEquals(100, registry.get("helios.tick.count").functionCounter().count());
+        assertEquals(5.050, registry.get("helios.tick.total").functionCounter().count(), 5.050 * 1e-3);
+        assertEquals(90, registry.get("helios.tick.overruns").counter().count());
+    }
+
+    @Test
+    void samplesReachTheGaugesWhenAScrapeDrainsThem() {
+        for (int i = 0; i < 3; i++) {
+            metrics.recordStage(TickMetrics.Stage.SOLAR, MS);
+        }
+        assertEquals(3, stageCount());
+
+        // Gauges read within a second of each other share one snapshot, so one scrape is consistent
+        metrics.recordStage(TickMetrics.Stage.SOLAR, 5 * MS);
+        metrics.recordStage(TickMetrics.Stage.SOLAR, 5 * MS);
+        nanoTime.addAndGet(999 * MS);
+        assertEquals(3, stageCount());
+        assertEquals(0.001, stageMax(), 0.001 * 1e-3);
+
+        nanoTime.addAndGet(MS);
+        assertEquals(5, stageCount());
+        assertEquals(0.005, stageMax(), 0.005 * 1e-3);
+        assertEquals(0.013, registry.get("helios.tick.stage.total").tag("stage", "solar").functionCounter().count(),
+            0.013 * 1e-3);
+
+        // Percentiles cover the last one to two minutes; the totals keep counting
+        nanoTime.addAndGet(TimeUnit.MINUTES.toNanos(1));
+        assertEquals(0.005, stageMax(), 0.005 * 1e-3);
+        nanoTime.addAndGet(TimeUnit.MINUTES.toNanos(1));
+        assertEquals(0, stageMax());
+        assertEquals(5, stageCount());
+    }
+
+    @Test
+    void schedulerLagExcludesTheTickItself() {
+        TickClock clock = new TickClock(PERIOD, OverrunPolicy.SKIP, 0, 0, 0);
+        for (int k = 0; k < 50; k++) {
+            // Every tick starts 1 ms late and then runs for 8 ms of its 10 ms period
+            long start = clock.getNextDeadlineNanos() + MS;
+            clock.begin(start);
+            metrics.recordSchedulerLag(clock.getLatenessNanos());
+            metrics.recordTick(8 * MS, PERIOD);
+        }
+
+        assertEquals(0.001, registry.get("helios.tick.scheduler.lag.latency.max").gauge().value(), 0.001 * 1e-3);
+        assertEquals(0.001, gauge("helios.tick.scheduler.lag.latency", "0.99"), 0.001 * 1e-3);
+        assertEquals(0, registry.get("helios.tick.overruns").counter().count());
+    }
+
+    private double gauge(String name, String quantile) {
+        return registry.get(name).tag("quantile", quantile).gauge().value();
+    }
+
+    private double stageCount() {
+        return registry.get("helios.tick.stage.count").tag("stage", "solar").functionCounter().count();
+    }
+
+    private double stageMax() {
+        return registry.get("helios.tick.stage.latency.max").tag("stage", "solar").gauge().value();
+    }
+}
@@ -0,0 +1,33 @@
+package com.p3bustos.heliossim;
+
+import com.p3bustos.heliossim.infrastructure.clock.TickScheduler;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.p3bustos.heliossim.Await.awaitTrue;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "simulator.publishing.rate-ms=10")
+class TickSchedulerTests {
+
+    private static final long PERIOD = TimeUnit.MILLISECONDS.toNanos(10);
+
+    @Autowired
+    private TickScheduler tickScheduler;
+
+    @Test
+    void schedulerTicksOnItsDeadlinesAndNeverEarly() {
+        awaitTrue(() -> tickScheduler.getClock() != null);
+        long before = tickScheduler.getClock().getTicks();
+        long start = System.nanoTime();
+
+        awaitTrue(() -> tickScheduler.getClock().getTicks() >= before + 50);
+        long elapsed = System.nanoTime() - start;
+
+        // No tick starts before its deadline, and deadlines are a period apart
+        assertTrue(elapsed >= 48 * PERIOD, "50 ticks in " + TimeUnit.NANOSECONDS.toMillis(elapsed) + " ms");
+    }
+}
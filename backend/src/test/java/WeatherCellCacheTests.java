@@ -0,0 +1,144 @@
+package com.p3bustos.heliossim;
+
+import com.p3bustos.heliossim.domain.models.GeoCell;
+import com.p3bustos.heliossim.dto.WeatherData;
+import com.p3bustos.heliossim.infrastructure.weather.StubWeatherProvider;
+import com.p3bustos.heliossim.infrastructure.weather.WeatherCellCache;
+import com.p3bustos.heliossim.infrastructure.weather.WeatherProvider;
+import com.p3bustos.heliossim.infrastructure.weather.WeatherRateLimiter;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WeatherCellCacheTests {
+
+    private static final GeoCell TAMPA = GeoCell.of(28.18, -82.42, 0.25);
+    private static final GeoCell DENVER = GeoCell.of(39.74, -104.99, 0.25);
+
+    @Test
+    void concurrentRequestsForACellShareOneFetch() throws Exception {
+        PendingProvider provider = new PendingProvider();
+        WeatherCellCache cache = new WeatherCellCache(provider, Duration.ofMinutes(10));
+
+        List<CompletableFuture<WeatherData>> results = new CopyOnWriteArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 100; i++) {
+                    results.add(cache.weather(i % 2 == 0 ? TAMPA : DENVER));
+                }
+            });
+            threads[t].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(2, provider.calls.get());
+        assertEquals(798, cache.getCoalescedCount());
+        provider.complete(TAMPA, 31.0);
+        provider.complete(DENVER, 12.0);
+        for (CompletableFuture<WeatherData> result : results) {
+            double temperature = result.get(1, TimeUnit.SECONDS).getTemperatureC();
+            assertTrue(temperature == 31.0 || temperature == 12.0);
+        }
+
+        // Fresh weather is served from the cache
+        assertEquals(31.0, cache.weather(TAMPA).getNow(null).getTemperatureC());
+        assertEquals(2, provider.calls.get());
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    void failedFetchFallsBackToLastKnownWeather() throws Exception {
+        PendingProvider provider = new PendingProvider();
+        WeatherCellCache cache = new WeatherCellCache(provider, Duration.ZERO);
+
+        CompletableFuture<WeatherData> first = cache.weather(TAMPA);
+        provider.complete(TAMPA, 28.0);
+        assertEquals(28.0, first.get().getTemperatureC());
+
+        CompletableFuture<WeatherData> second = cache.weather(TAMPA);
+        provider.fail(TAMPA);
+        assertEquals(28.0, second.get().getTemperatureC());
+        assertEquals(1, cache.getFailureCount());
+
+        CompletableFuture<WeatherData> unknown = cache.weather(DENVER);
+        provider.fail(DENVER);
+        assertTrue(unknown.isCompletedExceptionally());
+    }
+
+    @Test
+    void rateLimiterSpreadsBurstsAtTheConfiguredRate() {
+        long second = TimeUnit.SECONDS.toNanos(1);
+        WeatherRateLimiter limiter = new WeatherRateLimiter(60, 2, 0);
+
+        assertEquals(0, limiter.reserve(0));
+        assertEquals(0, limiter.reserve(0));
+        assertEquals(second, limiter.reserve(0));
+        assertEquals(2 * second, limiter.reserve(0));
+        // Half a second later the next free slot is 2.5 s away
+        assertEquals(2 * second + second / 2, limiter.reserve(second / 2), 1_000);
+        // After a long idle period the full burst is available again
+        assertEquals(0, limiter.reserve(60 * second));
+        assertEquals(0, limiter.reserve(60 * second));
+        assertEquals(second, limiter.reserve(60 * second));
+    }
+
+    @Test
+    void stubProviderIsDeterministicPerCell() {
+        Instant noonUtc = Instant.parse("2025-06-21T12:00:00Z");
+        WeatherData tampa = StubWeatherProvider.weatherAt(TAMPA, noonUtc);
+        assertEquals(tampa, StubWeatherProvider.weatherAt(TAMPA, noonUtc));
+        // Tampa's solar time is about 6:30 at 12:00 UTC, so it is cooler than Greenwich
+        assertTrue(tampa.getTemperatureC() < StubWeatherProvider.weatherAt(GeoCell.of(51.48, 0.0, 0.25), noonUtc).getTemperatureC());
+        assertTrue(tampa.getSunrise().isBefore(noonUtc) && tampa.getSunset().isAfter(noonUtc));
+    }
+
+    /**
+     * Provider whose fetches complete only when the test says so
+     */
+    private static final class PendingProvider implements WeatherProvider {
+        final AtomicInteger calls = new AtomicInteger();
+        final Map<GeoCell, CompletableFuture<WeatherData>> pending = new ConcurrentHashMap<>();
+
+        @Override
+        public CompletableFuture<WeatherData> fetch(GeoCell cell) {
+            calls.incrementAndGet();
+            CompletableFuture<WeatherData> fetch = new CompletableFuture<>();
+            pending.put(cell, fetch);
+            return fetch;
+        }
+
+        @Override
+        public String name() {
+            return "pending";
+        }
+
+        void complete(GeoCell cell, double temperatureC) {
+            pending.remove(cell).complete(WeatherData.builder().temperatureC(temperatureC).build());
+        }
+
+        void fail(GeoCell cell) {
+            pending.remove(cell).completeExceptionally(new IllegalStateException("provider down"));
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.p3bustos.heliossim;
+
+import com.p3bustos.heliossim.config.SimulatorProperties;
+import com.p3bustos.heliossim.dto.WeatherData;
+import com.p3bustos.heliossim.infrastructure.weather.WeatherDataset;
+import com.p3bustos.heliossim.infrastructure.weather.WeatherDataset.Channel;
+import com.p3bustos.heliossim.infrastructure.weather.WeatherDatasetIngester;
+import com.p3bustos.heliossim.infrastructure.weather.WeatherDatasets;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WeatherDatasetTests {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void historicalCsvIsResampledAndInterpolated() throws IOException {
+        Path csv = directory.resolve("history.csv");
+        Files.writeString(csv, """
+            # Station 42, hourly with one missing hour
+            Timestamp,Temp_Air (C),GHI (W/m^2),Cloud Cover (%),Wind Speed (m/s)
+            2024-06-01T10:00:00Z,20.0,500,10,2.0
+            2024-06-01T11:00:00Z,22.0,600,,3.0
+            2024-06-01T13:00:00Z,26.0,800,30,5.0
+            2024-06-01T14:00:00Z,25.0,700,40,4.0
+            """);
+        Path output = directory.resolve("history.hwd");
+        var result = WeatherDatasetIngester.ingest(csv, output, ZoneOffset.UTC, false, 28.2, -82.4);
+        assertEquals(4, result.rows());
+        assertEquals(5, result.samples());
+        assertEquals(1, result.interpolated());
+        assertEquals(4, result.channels());
+
+        WeatherDataset dataset = WeatherDataset.open(output);
+        long t10 = Instant.parse("2024-06-01T10:00:00Z").toEpochMilli();
+        assertEquals(3_600_000, dataset.getStepMillis());
+        assertEquals(28.2, dataset.getLatitude());
+        assertEquals(20.0, dataset.value(Channel.TEMPERATURE_C, t10), 1e-6);
+        assertEquals(21.0, dataset.value(Channel.TEMPERATURE_C, t10 + 1_800_000), 1e-6);
+        // The missing 12:00 row is interpolated from 11:00 and 13:00
+        assertEquals(24.0, dataset.value(Channel.TEMPERATURE_C, t10 + 7_200_000), 1e-6);
+        assertEquals(650.0, dataset.value(Channel.GHI_W_M2, t10 + 5_400_000), 1e-3);
+        // Outside the data the nearest sample holds
+        assertEquals(20.0, dataset.value(Channel.TEMPERATURE_C, t10 - 86_400_000), 1e-6);
+        assertEquals(25.0, dataset.value(Channel.TEMPERATURE_C, t10 + 86_400_000), 1e-6);
+        // Absent channels read as NaN, empty cells take the nearer neighbour
+        assertTrue(Double.isNaN(dataset.value(Channel.DNI_W_M2, t10)));
+        assertEquals(10.0, dataset.value(Channel.CLOUD_COVER_PERCENT, t10 + 1_200_000), 1e-6);
+
+        WeatherData weather = dataset.sample(t10 + 3_600_000);
+        assertEquals(600.0, weather.getGhiWM2(), 1e-3);
+        assertEquals(3.0, weather.getWindSpeedMs(), 1e-6);
+        assertEquals(20.0, dataset.sample(t10, new WeatherData()).getTemperatureC(), 1e-6);
+    }
+
+    @Test
+    void typicalYearRepeatsEveryYearInLocalStandardTime() throws IOException {
+        // A TMY file: months taken from different years, local standard time (UTC-5), February from a leap year
+        ZoneId standardTime = ZoneOffset.ofHours(-5);
+        StringBuilder csv = new StringBuilder("time,temperature_c,ghi\n");
+        DateTimeFormatter format = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+        int hourOfYear = 0;
+        for (int month = 1; month <= 12; month++) {
+            int year = month == 2 ? 2004 : 1998 + month;
+            LocalDateTime time = LocalDateTime.of(year, month, 1, 0, 0);
+            while (time.getMonthValue() == month) {
+                boolean leapDay = time.getMonthValue() == 2 && time.getDayOfMonth() == 29;
+                csv.append(time.format(format)).append(',').append(leapDay ? -999 : hourOfYear).append(",0\n");
+                if (!leapDay) {
+                    hourOfYear++;
+                }
+                time = time.plusHours(1);
+            }
+        }
+        Path input = directory.resolve("tmy.csv");
+        Files.writeString(input, csv);
+        Path output = directory.resolve("tmy.hwd");
+        var result = WeatherDatasetIngester.ingest(input, output, standardTime, true, Double.NaN, Double.NaN);
+        assertEquals(8760, result.samples());
+        assertEquals(24, result.skipped());
+
+        WeatherDataset dataset = WeatherDataset.open(output);
+        assertTrue(dataset.isTypicalYear());
+        // March 15 12:00 local is hour 31 + 28 + 14 days, 12 hours into the year, in any year
+        double march15Noon = (31 + 28 + 14) * 24 + 12;
+        for (int year : new int[] {1970, 2023, 2024, 2050}) {
+            long instant = LocalDateTime.of(year, 3, 15, 12, 0).atZone(standardTime).toInstant().toEpochMilli();
+            assertEquals(march15Noon, dataset.value(Channel.TEMPERATURE_C, instant), 1e-6, "year " + year);
+        }
+        // Half past the last hour interpolates into the first hour of the same dataset
+        long newYearsEve = LocalDateTime.of(2025, 12, 31, 23, 30).atZone(standardTime).toInstant().toEpochMilli();
+        assertEquals(8759 / 2.0, dataset.value(Channel.TEMPERATURE_C, newYearsEve), 1e-3);
+        // February 29 reads February 28
+        long leapDay = LocalDateTime.of(2024, 2, 29, 6, 0).atZone(standardTime).toInstant().toEpochMilli();
+        assertEquals((31 + 27) * 24 + 6, dataset.value(Channel.TEMPERATURE_C, leapDay), 1e-6);
+    }
+
+    @Test
+    void concurrentSimulationsShareOneMapping() throws Exception {
+        Path csv = directory.resolve("shared.csv");
+        StringBuilder rows = new StringBuilder("datetime,temperature,cloud_cover\n");
+        Instant start = Instant.parse("2024-01-01T00:00:00Z");
+        for (int i = 0; i < 24 * 365; i++) {
+            rows.append(start.plusSeconds(i * 3600L)).append(',').append(i % 40).append(',').append(i % 100).append('\n');
+        }
+        Files.writeString(csv, rows);
+        Path output = directory.resolve("shared.hwd");
+        WeatherDatasetIngester.ingest(csv, output, ZoneOffset.UTC, false, Double.NaN, Double.NaN);
+
+        SimulatorProperties properties = new SimulatorProperties();
+        properties.getWeather().setDatasetFile(output.toString());
+        WeatherDatasets datasets = new WeatherDatasets(properties);
+        WeatherDataset shared = datasets.configured().orElseThrow();
+        assertSame(shared, datasets.open(directory.resolve(".").resolve("shared.hwd")));
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Double>> sums = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                sums.add(pool.submit(() -> {
+                    WeatherData into = new WeatherData();
+                    double sum = 0;
+                    for (long m = 0; m < 365L * 24 * 60; m += 7) {
+                        sum += datasets.open(output).sample(start.toEpochMilli() + m * 60_000, into).getCloudCoverPercent();
+                    }
+                    return sum;
+                }));
+            }
+            double expected = sums.get(0).get();
+            for (Future<Double> sum : sums) {
+                assertEquals(expected, sum.get());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}